@@ -0,0 +1,367 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.util.Assert;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread safe cache bounded in size and in the time its entries live, a drop in replacement for
+ * {@link org.springframework.cache.concurrent.ConcurrentMapCache} which never evicts.
+ *
+ * The entries are spread over segments by the hash of their keys, each segment locked on its own and keeping its
+ * share of the maximum size in least recently used order. Adding an entry to a full segment evicts its least
+ * recently used entry. Expired entries are dropped when read, or when found at the least recently used end of their
+ * segment on writes.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see BoundedCacheFactoryBean
+ * @see BoundedCacheManager
+ */
+public class BoundedCache implements Cache {
+
+    public static final int MAXIMUM_SIZE_DEFAULT = 10000;
+
+    public static final int CONCURRENCY_LEVEL_DEFAULT = 16;
+
+    /** time to live of entries that never expire */
+    public static final long NO_EXPIRY = 0;
+
+    /** maximum number of expired entries dropped from the least recently used end per write */
+    private static final int EXPIRED_PURGE_LIMIT = 4;
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final String name;
+
+    private final int maximumSize;
+
+    private final long timeToLiveNanos;
+
+    private final boolean allowNullValues;
+
+    private final Segment[] segments;
+
+    private final int segmentMask;
+
+
+    /**
+     * Creates cache of entries never expiring and bounded by {@link #MAXIMUM_SIZE_DEFAULT}
+     *
+     * @param name of the cache
+     */
+    public BoundedCache(String name) {
+        this(name, MAXIMUM_SIZE_DEFAULT, NO_EXPIRY, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param name        of the cache
+     * @param maximumSize number of entries
+     * @param timeToLive  of the entries since written, {@link #NO_EXPIRY} for entries never expiring
+     * @param unit        of the time to live
+     */
+    public BoundedCache(String name, int maximumSize, long timeToLive, TimeUnit unit) {
+        this(name, maximumSize, timeToLive, unit, CONCURRENCY_LEVEL_DEFAULT, true);
+    }
+
+    /**
+     * @param name             of the cache
+     * @param maximumSize      number of entries
+     * @param timeToLive       of the entries since written, {@link #NO_EXPIRY} for entries never expiring
+     * @param unit             of the time to live
+     * @param concurrencyLevel estimated number of threads using the cache concurrently
+     * @param allowNullValues  whether null values are cached
+     */
+    public BoundedCache(String name, int maximumSize, long timeToLive, TimeUnit unit, int concurrencyLevel
+            , boolean allowNullValues) {
+        Assert.notNull(name, "name must not be null");
+        Assert.isTrue(maximumSize > 0, "maximumSize must be greater than 0");
+        Assert.isTrue(timeToLive >= 0, "timeToLive must not be negative");
+        Assert.notNull(unit, "unit must not be null");
+        Assert.isTrue(concurrencyLevel > 0, "concurrencyLevel must be greater than 0");
+
+        this.name = name;
+        this.maximumSize = maximumSize;
+        this.timeToLiveNanos = unit.toNanos(timeToLive);
+        this.allowNullValues = allowNullValues;
+
+        // every segment holds at least one entry
+        final int segmentCount = Integer.highestOneBit(Math.min(concurrencyLevel, maximumSize));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            this.segments[i] = new Segment(maximumSize / segmentCount + (i < maximumSize % segmentCount ? 1 : 0));
+        }
+        this.segmentMask = segmentCount - 1;
+    }
+
+    /**
+     * @return current time in nanoseconds, relative to an arbitrary origin
+     */
+    protected long currentTimeNanos() {
+        return System.nanoTime();
+    }
+
+    private Segment segmentFor(Object key) {
+        final int hash = key.hashCode();
+        return this.segments[(hash ^ (hash >>> 16)) & this.segmentMask];
+    }
+
+    private long expiryOf(long now) {
+        return this.timeToLiveNanos == NO_EXPIRY ? 0 : now + this.timeToLiveNanos;
+    }
+
+    private Object toStoreValue(Object value) {
+        if (value == null) {
+            Assert.isTrue(this.allowNullValues, "cache [" + this.name + "] does not allow null values");
+            return NULL_VALUE;
+        }
+        return value;
+    }
+
+    private static Object fromStoreValue(Object storeValue) {
+        return storeValue == NULL_VALUE ? null : storeValue;
+    }
+
+    @Override
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return this cache
+     */
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        final Object storeValue = lookup(key);
+        return storeValue == null ? null : new SimpleValueWrapper(fromStoreValue(storeValue));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        final Object value = fromStoreValue(lookup(key));
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    private Object lookup(Object key) {
+        final Segment segment = segmentFor(key);
+        final long now = currentTimeNanos();
+        synchronized (segment) {
+            final Entry entry = segment.entries.get(key);
+            if (entry == null) {
+                segment.missCount++;
+                return null;
+            }
+            if (entry.isExpired(now)) {
+                segment.entries.remove(key);
+                segment.expirationCount++;
+                segment.missCount++;
+                return null;
+            }
+            segment.hitCount++;
+            return entry.value;
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        final Object storeValue = toStoreValue(value);
+        final Segment segment = segmentFor(key);
+        final long now = currentTimeNanos();
+        synchronized (segment) {
+            segment.purgeExpired(now);
+            segment.entries.put(key, new Entry(storeValue, expiryOf(now)));
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        final Object storeValue = toStoreValue(value);
+        final Segment segment = segmentFor(key);
+        final long now = currentTimeNanos();
+        synchronized (segment) {
+            segment.purgeExpired(now);
+            final Entry entry = segment.entries.get(key);
+            if (entry != null && !entry.isExpired(now)) {
+                return new SimpleValueWrapper(fromStoreValue(entry.value));
+            }
+            segment.entries.put(key, new Entry(storeValue, expiryOf(now)));
+            return null;
+        }
+    }
+
+    @Override
+    public void evict(Object key) {
+        final Segment segment = segmentFor(key);
+        synchronized (segment) {
+            segment.entries.remove(key);
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                segment.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * @return number of entries in the cache, including the expired ones not dropped yet
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * @return snapshot of the statistics of the cache since it got created
+     */
+    public CacheStats getStats() {
+        long hitCount = 0;
+        long missCount = 0;
+        long evictionCount = 0;
+        long expirationCount = 0;
+        int size = 0;
+        for (Segment segment : this.segments) {
+            synchronized (segment) {
+                hitCount += segment.hitCount;
+                missCount += segment.missCount;
+                evictionCount += segment.evictionCount;
+                expirationCount += segment.expirationCount;
+                size += segment.entries.size();
+            }
+        }
+        return new CacheStats(hitCount, missCount, evictionCount, expirationCount, size);
+    }
+
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    /**
+     * @return time to live of the entries in milliseconds, {@link #NO_EXPIRY} when they never expire
+     */
+    public long getTimeToLiveMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.timeToLiveNanos);
+    }
+
+    public boolean isAllowNullValues() {
+        return this.allowNullValues;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[" + this.name + "]";
+    }
+
+    /**
+     * Cached value with its expiry
+     */
+    private static final class Entry {
+
+        private final Object value;
+
+        /** time the entry expires at, 0 when never */
+        private final long expiresAtNanos;
+
+
+        Entry(Object value, long expiresAtNanos) {
+            this.value = value;
+            this.expiresAtNanos = expiresAtNanos;
+        }
+
+        boolean isExpired(long now) {
+            return this.expiresAtNanos != 0 && now - this.expiresAtNanos >= 0;
+        }
+    }
+
+    /**
+     * Share of the cache guarded by its own monitor, the statistics are updated under the same monitor so they cost
+     * no extra synchronisation
+     */
+    private static final class Segment {
+
+        private final int capacity;
+
+        private final Map<Object, Entry> entries;
+
+        private long hitCount;
+
+        private long missCount;
+
+        private long evictionCount;
+
+        private long expirationCount;
+
+
+        Segment(int capacity) {
+            this.capacity = capacity;
+            this.entries = new LinkedHashMap<Object, Entry>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Object, Entry> eldest) {
+                    if (size() > Segment.this.capacity) {
+                        Segment.this.evictionCount++;
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        void purgeExpired(long now) {
+            final Iterator<Entry> leastRecentlyUsed = this.entries.values().iterator();
+            for (int i = 0; i < EXPIRED_PURGE_LIMIT && leastRecentlyUsed.hasNext(); i++) {
+                if (!leastRecentlyUsed.next().isExpired(now)) {
+                    return;
+                }
+                leastRecentlyUsed.remove();
+                this.expirationCount++;
+            }
+        }
+    }
+}
@@ -0,0 +1,132 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.cache;
+
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.FactoryBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.StringUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Factory bean of a {@link BoundedCache}, a drop in replacement for
+ * {@link org.springframework.cache.concurrent.ConcurrentMapCacheFactoryBean} e.g.
+ * <pre>
+ *     &lt;bean class="org.kbac.spring.cache.BoundedCacheFactoryBean" p:name="persons" p:maximumSize="1000"
+ *           p:timeToLiveMillis="600000"/&gt;
+ * </pre>
+ * The name of the cache defaults to the bean name.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class BoundedCacheFactoryBean implements FactoryBean<BoundedCache>, BeanNameAware, InitializingBean {
+
+    private String name = "";
+
+    private int maximumSize = BoundedCache.MAXIMUM_SIZE_DEFAULT;
+
+    private long timeToLiveMillis = BoundedCache.NO_EXPIRY;
+
+    private int concurrencyLevel = BoundedCache.CONCURRENCY_LEVEL_DEFAULT;
+
+    private boolean allowNullValues = true;
+
+    private BoundedCache cache;
+
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    /**
+     * @param maximumSize number of entries, {@link BoundedCache#MAXIMUM_SIZE_DEFAULT} by default
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @param timeToLiveMillis of the entries since written, {@link BoundedCache#NO_EXPIRY} by default
+     */
+    public void setTimeToLiveMillis(long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+    }
+
+    /**
+     * @param concurrencyLevel estimated number of threads using the cache concurrently
+     */
+    public void setConcurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+    }
+
+    public void setAllowNullValues(boolean allowNullValues) {
+        this.allowNullValues = allowNullValues;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBeanName(String beanName) {
+        if (!StringUtils.hasLength(this.name)) {
+            setName(beanName);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void afterPropertiesSet() {
+        this.cache = new BoundedCache(this.name, this.maximumSize, this.timeToLiveMillis, TimeUnit.MILLISECONDS
+                , this.concurrencyLevel, this.allowNullValues);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BoundedCache getObject() {
+        return this.cache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Class<?> getObjectType() {
+        return BoundedCache.class;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isSingleton() {
+        return true;
+    }
+}
@@ -0,0 +1,187 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache manager of {@link BoundedCache}s sharing the same bounds, a drop in replacement for
+ * {@link org.springframework.cache.concurrent.ConcurrentMapCacheManager}. Caches are created on demand unless their
+ * names are set up front.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class BoundedCacheManager implements CacheManager {
+
+    private final ConcurrentMap<String, BoundedCache> caches = new ConcurrentHashMap<String, BoundedCache>(16);
+
+    private boolean dynamic = true;
+
+    private int maximumSize = BoundedCache.MAXIMUM_SIZE_DEFAULT;
+
+    private long timeToLiveMillis = BoundedCache.NO_EXPIRY;
+
+    private int concurrencyLevel = BoundedCache.CONCURRENCY_LEVEL_DEFAULT;
+
+    private boolean allowNullValues = true;
+
+
+    /**
+     * Creates manager of caches created on demand
+     */
+    public BoundedCacheManager() {
+    }
+
+    /**
+     * @param cacheNames of the only caches of the manager
+     */
+    public BoundedCacheManager(String... cacheNames) {
+        setCacheNames(Arrays.asList(cacheNames));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cache getCache(String name) {
+        BoundedCache cache = this.caches.get(name);
+        if (cache == null && this.dynamic) {
+            synchronized (this.caches) {
+                cache = this.caches.get(name);
+                if (cache == null) {
+                    cache = createBoundedCache(name);
+                    this.caches.put(name, cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(this.caches.keySet());
+    }
+
+    /**
+     * Fixes the caches of the manager, no other caches are created on demand
+     *
+     * @param cacheNames names of the caches
+     */
+    public void setCacheNames(Collection<String> cacheNames) {
+        Assert.notNull(cacheNames);
+        synchronized (this.caches) {
+            for (String cacheName : cacheNames) {
+                if (!this.caches.containsKey(cacheName)) {
+                    this.caches.put(cacheName, createBoundedCache(cacheName));
+                }
+            }
+            this.dynamic = false;
+        }
+    }
+
+    /**
+     * @return statistics of the caches by their names
+     */
+    public Map<String, CacheStats> getStats() {
+        final Map<String, CacheStats> stats = new LinkedHashMap<String, CacheStats>();
+        for (BoundedCache cache : this.caches.values()) {
+            stats.put(cache.getName(), cache.getStats());
+        }
+        return stats;
+    }
+
+    /**
+     * @param name of the cache
+     * @return new cache, override to customise the caches
+     */
+    protected BoundedCache createBoundedCache(String name) {
+        return new BoundedCache(name, this.maximumSize, this.timeToLiveMillis, TimeUnit.MILLISECONDS
+                , this.concurrencyLevel, this.allowNullValues);
+    }
+
+    /**
+     * Recreates the existing caches dropping their entries, so the caches always share the current bounds
+     */
+    private void recreateCaches() {
+        synchronized (this.caches) {
+            for (String cacheName : this.caches.keySet()) {
+                this.caches.put(cacheName, createBoundedCache(cacheName));
+            }
+        }
+    }
+
+    /**
+     * @param maximumSize number of entries of each cache, {@link BoundedCache#MAXIMUM_SIZE_DEFAULT} by default
+     */
+    public void setMaximumSize(int maximumSize) {
+        this.maximumSize = maximumSize;
+        recreateCaches();
+    }
+
+    /**
+     * @param timeToLiveMillis of the entries since written, {@link BoundedCache#NO_EXPIRY} by default
+     */
+    public void setTimeToLiveMillis(long timeToLiveMillis) {
+        this.timeToLiveMillis = timeToLiveMillis;
+        recreateCaches();
+    }
+
+    public void setConcurrencyLevel(int concurrencyLevel) {
+        this.concurrencyLevel = concurrencyLevel;
+        recreateCaches();
+    }
+
+    public void setAllowNullValues(boolean allowNullValues) {
+        this.allowNullValues = allowNullValues;
+        recreateCaches();
+    }
+
+    public int getMaximumSize() {
+        return this.maximumSize;
+    }
+
+    public long getTimeToLiveMillis() {
+        return this.timeToLiveMillis;
+    }
+
+    public boolean isAllowNullValues() {
+        return this.allowNullValues;
+    }
+}
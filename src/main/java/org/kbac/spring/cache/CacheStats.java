@@ -0,0 +1,107 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.cache;
+
+/**
+ * Immutable snapshot of the statistics of a {@link BoundedCache}
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long evictionCount;
+
+    private final long expirationCount;
+
+    private final int size;
+
+
+    public CacheStats(long hitCount, long missCount, long evictionCount, long expirationCount, int size) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.expirationCount = expirationCount;
+        this.size = size;
+    }
+
+    /**
+     * @return number of lookups that found a live value
+     */
+    public long getHitCount() {
+        return this.hitCount;
+    }
+
+    /**
+     * @return number of lookups that found no value or an expired one
+     */
+    public long getMissCount() {
+        return this.missCount;
+    }
+
+    public long getRequestCount() {
+        return this.hitCount + this.missCount;
+    }
+
+    /**
+     * @return ratio of the lookups that found a live value, 0 when no lookups yet
+     */
+    public double getHitRatio() {
+        final long requestCount = getRequestCount();
+        return requestCount == 0 ? 0 : (double) this.hitCount / requestCount;
+    }
+
+    /**
+     * @return number of entries evicted to keep the cache within its maximum size
+     */
+    public long getEvictionCount() {
+        return this.evictionCount;
+    }
+
+    /**
+     * @return number of expired entries dropped
+     */
+    public long getExpirationCount() {
+        return this.expirationCount;
+    }
+
+    /**
+     * @return number of entries at the time of the snapshot
+     */
+    public int getSize() {
+        return this.size;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[hits=" + this.hitCount + ", misses=" + this.missCount
+                + ", hitRatio=" + String.format("%.3f", getHitRatio()) + ", evictions=" + this.evictionCount
+                + ", expirations=" + this.expirationCount + ", size=" + this.size + "]";
+    }
+}
@@ -0,0 +1,263 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.cache;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.util.Assert;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cache coalescing concurrent misses of the same key into a single load. The first caller missing a key becomes its
+ * loader and gets the miss, the callers missing the same key meanwhile wait for the future of the load instead of
+ * loading the value themselves, and get the value once the loader puts it. There is no lock shared across the keys.
+ *
+ * This fits the {@link org.springframework.cache.annotation.Cacheable} flow where a miss is followed by a put of the
+ * loaded value. When the loader fails or decides not to cache the value it has to {@link #releaseLoads release} its
+ * loads, which {@link CoalescingLoadAdvisor} does once the cacheable method returns or throws, so the waiting callers
+ * miss right away and load the value themselves. Loads never released make the waiting callers miss once the load is
+ * older than the load timeout, and get replaced by the load of the first caller arriving after that.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see CoalescingCacheManager
+ */
+public class CoalescingCache implements Cache {
+
+    public static final long LOAD_TIMEOUT_MILLIS_DEFAULT = 10000;
+
+    private static final Log logger = LogFactory.getLog(CoalescingCache.class);
+
+    private final Cache delegate;
+
+    private final long loadTimeoutNanos;
+
+    /** loads in flight by their keys */
+    private final ConcurrentMap<Object, Load> loads = new ConcurrentHashMap<Object, Load>();
+
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+
+    /**
+     * @param delegate cache holding the values
+     */
+    public CoalescingCache(Cache delegate) {
+        this(delegate, LOAD_TIMEOUT_MILLIS_DEFAULT, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param delegate    cache holding the values
+     * @param loadTimeout the callers wait for a load in flight at most
+     * @param unit        of the load timeout
+     */
+    public CoalescingCache(Cache delegate, long loadTimeout, TimeUnit unit) {
+        Assert.notNull(delegate, "delegate must not be null");
+        Assert.isTrue(loadTimeout > 0, "loadTimeout must be greater than 0");
+        Assert.notNull(unit, "unit must not be null");
+        this.delegate = delegate;
+        this.loadTimeoutNanos = unit.toNanos(loadTimeout);
+    }
+
+    @Override
+    public String getName() {
+        return this.delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return this.delegate.getNativeCache();
+    }
+
+    /**
+     * Looks the value up, on a miss either makes the caller the loader of the value or waits for the load in flight
+     *
+     * @return value, null when the caller should load the value and put it
+     */
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper value = this.delegate.get(key);
+        if (value != null) {
+            return value;
+        }
+
+        final Load load = new Load();
+        Load loadInFlight = this.loads.putIfAbsent(key, load);
+        while (loadInFlight != null) {
+            final long remainingNanos = loadInFlight.startNanos + this.loadTimeoutNanos - System.nanoTime();
+            if (remainingNanos > 0) {
+                // the loader must not wait for itself
+                return loadInFlight.loaderThread == Thread.currentThread() ? null : await(key, loadInFlight, remainingNanos);
+            }
+            // abandoned, e.g. the loader failed or did not cache the value, so this caller takes the load over
+            if (this.loads.replace(key, loadInFlight, load)) {
+                loadInFlight.future.complete(null);
+                logger.warn("load of [" + key + "] in cache [" + getName() + "] abandoned, loading it again");
+                loadInFlight = null;
+            } else {
+                loadInFlight = this.loads.putIfAbsent(key, load);
+            }
+        }
+
+        // the value may have been put just before the load got registered
+        value = this.delegate.get(key);
+        if (value != null) {
+            this.loads.remove(key, load);
+            load.future.complete(value);
+        }
+        return value;
+    }
+
+    private ValueWrapper await(Object key, Load load, long timeoutNanos) {
+        this.coalescedCount.incrementAndGet();
+        try {
+            return load.future.get(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // the caller loads it again, the other callers waiting already give up on their own
+            this.loads.replace(key, load, new Load());
+            load.future.complete(null);
+            logger.warn("load of [" + key + "] in cache [" + getName() + "] timed out");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // loads are completed with values only
+            throw new IllegalStateException(e);
+        }
+        return null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        final ValueWrapper valueWrapper = get(key);
+        final Object value = valueWrapper == null ? null : valueWrapper.get();
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        this.delegate.put(key, value);
+        complete(key, new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        final ValueWrapper existingValue = this.delegate.putIfAbsent(key, value);
+        complete(key, existingValue == null ? new SimpleValueWrapper(value) : existingValue);
+        return existingValue;
+    }
+
+    /**
+     * Evicts the value, the callers waiting for its load in flight miss
+     */
+    @Override
+    public void evict(Object key) {
+        this.delegate.evict(key);
+        complete(key, null);
+    }
+
+    /**
+     * Clears the cache, the callers waiting for the loads in flight miss
+     */
+    @Override
+    public void clear() {
+        this.delegate.clear();
+        for (Object key : this.loads.keySet()) {
+            complete(key, null);
+        }
+    }
+
+    /**
+     * Completes the loads in flight registered by the calling thread with a miss, e.g. once the loader failed or
+     * decided not to cache the value, so the callers waiting for them load the value themselves right away
+     */
+    public void releaseLoads() {
+        final Thread currentThread = Thread.currentThread();
+        for (Map.Entry<Object, Load> entry : this.loads.entrySet()) {
+            final Load load = entry.getValue();
+            if (load.loaderThread == currentThread && this.loads.remove(entry.getKey(), load)) {
+                load.future.complete(null);
+                if (logger.isDebugEnabled()) {
+                    logger.debug("load of [" + entry.getKey() + "] in cache [" + getName() + "] released");
+                }
+            }
+        }
+    }
+
+    private void complete(Object key, ValueWrapper value) {
+        final Load load = this.loads.remove(key);
+        if (load != null) {
+            load.future.complete(value);
+        }
+    }
+
+    /**
+     * @return number of callers that waited for a load in flight instead of loading the value themselves
+     */
+    public long getCoalescedCount() {
+        return this.coalescedCount.get();
+    }
+
+    /**
+     * @return number of loads in flight
+     */
+    public int getLoadCount() {
+        return this.loads.size();
+    }
+
+    public Cache getDelegate() {
+        return this.delegate;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[" + this.delegate + "]";
+    }
+
+    /**
+     * Load of a value in flight
+     */
+    private static final class Load {
+
+        private final Thread loaderThread = Thread.currentThread();
+
+        private final long startNanos = System.nanoTime();
+
+        private final CompletableFuture<ValueWrapper> future = new CompletableFuture<ValueWrapper>();
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.util.Assert;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache manager decorating the caches of its target manager with {@link CoalescingCache}s, so concurrent misses of
+ * the same key result in a single load, e.g.
+ * <pre>
+ *     &lt;bean id="cacheManager" class="org.kbac.spring.cache.CoalescingCacheManager"&gt;
+ *         &lt;constructor-arg ref="sharedCacheManager"/&gt;
+ *     &lt;/bean&gt;
+ * </pre>
+ * Use it for the cache managers of {@link org.springframework.cache.annotation.Cacheable} methods together with
+ * {@link CoalescingLoadAdvisor}, releasing the loads of the methods failing or not caching their values. Callers
+ * looking values up without putting the missing ones have to {@link #releaseLoads release} them, otherwise the other
+ * callers wait for the load timeout.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class CoalescingCacheManager implements CacheManager {
+
+    private final CacheManager targetCacheManager;
+
+    private final ConcurrentMap<String, CoalescingCache> caches = new ConcurrentHashMap<String, CoalescingCache>(16);
+
+    private long loadTimeoutMillis = CoalescingCache.LOAD_TIMEOUT_MILLIS_DEFAULT;
+
+
+    /**
+     * @param targetCacheManager of the caches to decorate
+     */
+    public CoalescingCacheManager(CacheManager targetCacheManager) {
+        Assert.notNull(targetCacheManager, "targetCacheManager must not be null");
+        this.targetCacheManager = targetCacheManager;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cache getCache(String name) {
+        CoalescingCache cache = this.caches.get(name);
+        if (cache == null) {
+            final Cache targetCache = this.targetCacheManager.getCache(name);
+            if (targetCache == null) {
+                return null;
+            }
+            cache = new CoalescingCache(targetCache, this.loadTimeoutMillis, TimeUnit.MILLISECONDS);
+            final CoalescingCache existingCache = this.caches.putIfAbsent(name, cache);
+            if (existingCache != null) {
+                cache = existingCache;
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.targetCacheManager.getCacheNames();
+    }
+
+    /**
+     * Releases the loads in flight registered by the calling thread in all the caches
+     *
+     * @see CoalescingCache#releaseLoads
+     */
+    public void releaseLoads() {
+        for (CoalescingCache cache : this.caches.values()) {
+            cache.releaseLoads();
+        }
+    }
+
+    public CacheManager getTargetCacheManager() {
+        return this.targetCacheManager;
+    }
+
+    public long getLoadTimeoutMillis() {
+        return this.loadTimeoutMillis;
+    }
+
+    /**
+     * @param loadTimeoutMillis the callers wait for a load in flight at most, applies to caches decorated afterwards
+     */
+    public void setLoadTimeoutMillis(long loadTimeoutMillis) {
+        Assert.isTrue(loadTimeoutMillis > 0, "loadTimeoutMillis must be greater than 0");
+        this.loadTimeoutMillis = loadTimeoutMillis;
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.spring.cache;
+
+import org.aopalliance.aop.Advice;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.support.AbstractPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+
+/**
+ * Advisor applying {@link CoalescingLoadInterceptor} to the methods annotated with {@link Cacheable}. It is ordered
+ * before the cache advice, so the loads get released once the values got put. Declare it as a bean next to
+ * <code>&lt;aop:config/&gt;</code> or any other auto proxy creator, e.g.
+ * <pre>
+ *     &lt;bean class="org.kbac.spring.cache.CoalescingLoadAdvisor"&gt;
+ *         &lt;constructor-arg ref="cacheManager"/&gt;
+ *     &lt;/bean&gt;
+ * </pre>
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class CoalescingLoadAdvisor extends AbstractPointcutAdvisor {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Pointcut pointcut = new AnnotationMatchingPointcut(null, Cacheable.class);
+
+    private final CoalescingLoadInterceptor interceptor;
+
+
+    /**
+     * @param cacheManager of the loads to release
+     */
+    public CoalescingLoadAdvisor(CoalescingCacheManager cacheManager) {
+        this.interceptor = new CoalescingLoadInterceptor(cacheManager);
+        setOrder(Ordered.HIGHEST_PRECEDENCE);
+    }
+
+    @Override
+    public Pointcut getPointcut() {
+        return this.pointcut;
+    }
+
+    @Override
+    public Advice getAdvice() {
+        return this.interceptor;
+    }
+}
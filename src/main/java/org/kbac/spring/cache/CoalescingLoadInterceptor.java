@@ -0,0 +1,77 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.spring.cache;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.Assert;
+
+/**
+ * Method interceptor releasing the loads the invoking thread registered in the caches of {@link CoalescingCacheManager}
+ * once the outermost intercepted method returns or throws. The loads of the values put meanwhile are completed
+ * already, the ones left are the loads of methods that failed or decided not to cache their values, and the callers
+ * waiting for them miss right away instead of waiting for the load timeout.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see CoalescingLoadAdvisor
+ */
+public class CoalescingLoadInterceptor implements MethodInterceptor {
+
+    private final CoalescingCacheManager cacheManager;
+
+    /** set while the thread is within an intercepted method, the nested ones leave the release to the outermost */
+    private final ThreadLocal<Boolean> intercepting = new ThreadLocal<Boolean>();
+
+
+    /**
+     * @param cacheManager of the loads to release
+     */
+    public CoalescingLoadInterceptor(CoalescingCacheManager cacheManager) {
+        Assert.notNull(cacheManager, "cacheManager must not be null");
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        if (this.intercepting.get() != null) {
+            return invocation.proceed();
+        }
+
+        this.intercepting.set(Boolean.TRUE);
+        try {
+            return invocation.proceed();
+        } finally {
+            this.intercepting.remove();
+            this.cacheManager.releaseLoads();
+        }
+    }
+
+    public CoalescingCacheManager getCacheManager() {
+        return this.cacheManager;
+    }
+}
@@ -0,0 +1,245 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.kbac.spring.scope;
+
+import org.springframework.util.Assert;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Lock free in memory ring of the most recent events of a {@link TransactionScope}, to be dumped on demand when
+ * diagnosing the scope in production instead of enabling debug logging. Recording an event allocates nothing, each
+ * slot carries the sequence of its event so events overwritten while being dumped are skipped.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see TransactionScope#setTrace
+ */
+public class ScopeTrace {
+
+    public static final int CAPACITY_DEFAULT = 1024;
+
+    public static final long NO_TRANSACTION = -1;
+
+    /**
+     * Kinds of recorded events
+     */
+    public enum EventType {
+        /** bean created and scoped to the transaction, duration of its creation */
+        BEAN_CREATED,
+        /** bean found in the transaction */
+        CACHE_HIT,
+        /** prototype bean created outside of any transaction, duration of its creation */
+        PROTOTYPE_CREATED,
+        /** bean removed from the transaction */
+        BEAN_REMOVED,
+        /** beans of the completed transaction dropped, duration of the transaction */
+        TX_CLEARED,
+        /** pooled bean reset by the previous transaction scoped to the transaction */
+        BEAN_REUSED
+    }
+
+    private static final EventType[] EVENT_TYPES = EventType.values();
+
+    private final int mask;
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    /** sequence of the event in the slot, negative while the event is being written */
+    private final AtomicLongArray sequences;
+
+    private final AtomicIntegerArray types;
+
+    private final AtomicLongArray timesNanos;
+
+    private final AtomicLongArray durationsNanos;
+
+    private final AtomicLongArray transactionSerials;
+
+    private final AtomicReferenceArray<String> beanNames;
+
+
+    public ScopeTrace() {
+        this(CAPACITY_DEFAULT);
+    }
+
+    /**
+     * @param capacity number of the most recent events kept, must be a power of two
+     */
+    public ScopeTrace(int capacity) {
+        Assert.isTrue(capacity > 0 && Integer.bitCount(capacity) == 1, "capacity must be a power of two");
+
+        this.mask = capacity - 1;
+        this.sequences = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            this.sequences.set(i, -1);
+        }
+        this.types = new AtomicIntegerArray(capacity);
+        this.timesNanos = new AtomicLongArray(capacity);
+        this.durationsNanos = new AtomicLongArray(capacity);
+        this.transactionSerials = new AtomicLongArray(capacity);
+        this.beanNames = new AtomicReferenceArray<String>(capacity);
+    }
+
+    /**
+     * Records the event overwriting the oldest one when the ring is full. The invocation is thread safe.
+     *
+     * @param type              of the event
+     * @param transactionSerial of the transaction, NO_TRANSACTION when none
+     * @param beanName          of the bean, null for transaction events
+     * @param durationNanos     of the event
+     */
+    public void record(EventType type, long transactionSerial, String beanName, long durationNanos) {
+        final long sequence = this.sequence.getAndIncrement();
+        final int slot = (int) sequence & this.mask;
+
+        this.sequences.lazySet(slot, -1);
+        this.types.lazySet(slot, type.ordinal());
+        this.timesNanos.lazySet(slot, System.nanoTime());
+        this.durationsNanos.lazySet(slot, durationNanos);
+        this.transactionSerials.lazySet(slot, transactionSerial);
+        this.beanNames.lazySet(slot, beanName);
+        this.sequences.lazySet(slot, sequence);
+    }
+
+    /**
+     * @return consistent events currently in the ring from the oldest one
+     */
+    public List<Event> getEvents() {
+        final long last = this.sequence.get();
+        final List<Event> events = new ArrayList<Event>();
+        for (long sequence = Math.max(0, last - this.mask - 1); sequence < last; sequence++) {
+            final int slot = (int) sequence & this.mask;
+            if (this.sequences.get(slot) != sequence) {
+                continue;
+            }
+            final Event event = new Event(sequence, EVENT_TYPES[this.types.get(slot)], this.timesNanos.get(slot)
+                    , this.durationsNanos.get(slot), this.transactionSerials.get(slot), this.beanNames.get(slot));
+            if (this.sequences.get(slot) == sequence) {
+                events.add(event);
+            }
+        }
+        return Collections.unmodifiableList(events);
+    }
+
+    /**
+     * @param appendable to dump the events to, one per line from the oldest one
+     * @throws IOException when the events cannot be appended
+     */
+    public void dump(Appendable appendable) throws IOException {
+        for (Event event : getEvents()) {
+            appendable.append(event.toString()).append('\n');
+        }
+    }
+
+    /**
+     * @return number of events recorded since the trace was created
+     */
+    public long getEventCount() {
+        return this.sequence.get();
+    }
+
+    public int getCapacity() {
+        return this.mask + 1;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[" + getEventCount() + "|" + getCapacity() + "]";
+    }
+
+    /**
+     * Snapshot of a recorded event
+     */
+    public static final class Event {
+
+        private final long sequence;
+
+        private final EventType type;
+
+        private final long timeNanos;
+
+        private final long durationNanos;
+
+        private final long transactionSerial;
+
+        private final String beanName;
+
+
+        Event(long sequence, EventType type, long timeNanos, long durationNanos, long transactionSerial, String beanName) {
+            this.sequence = sequence;
+            this.type = type;
+            this.timeNanos = timeNanos;
+            this.durationNanos = durationNanos;
+            this.transactionSerial = transactionSerial;
+            this.beanName = beanName;
+        }
+
+        public long getSequence() {
+            return this.sequence;
+        }
+
+        public EventType getType() {
+            return this.type;
+        }
+
+        /**
+         * @return time of the event as of {@link System#nanoTime()}
+         */
+        public long getTimeNanos() {
+            return this.timeNanos;
+        }
+
+        public long getDurationNanos() {
+            return this.durationNanos;
+        }
+
+        public long getTransactionSerial() {
+            return this.transactionSerial;
+        }
+
+        public String getBeanName() {
+            return this.beanName;
+        }
+
+        @Override
+        public String toString() {
+            return "#" + this.sequence + " " + this.type + " tx." + this.transactionSerial
+                    + (this.beanName == null ? "" : " [" + this.beanName + "]")
+                    + " " + TimeUnit.NANOSECONDS.toMicros(this.durationNanos) + "us";
+        }
+    }
+}
@@ -25,6 +25,7 @@ package org.kbac.spring.scope;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.beans.factory.config.Scope;
 import org.springframework.transaction.TransactionDefinition;
@@ -33,12 +34,24 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
 import org.springframework.util.Assert;
 
 import java.sql.Connection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicLong;
 
 /**
@@ -47,6 +60,21 @@ import java.util.concurrent.atomic.AtomicLong;
  *
  * This scope can be used e.g. to build up Cacheable beans for repeatable read within the current transaction context.
  *
+ * For diagnostics in production set a {@link ScopeTrace} recording the scope events rather than enabling debug
+ * logging on the hot path.
+ *
+ * Beans of the definitions known up front can be assigned slots, see {@link TransactionScopeSlotConfigurer}, each
+ * transaction then keeps them in a small array indexed by the slot instead of a map keyed by the bean name.
+ *
+ * Beans expensive to create can implement {@link ResettableBean} to be pooled, see {@link #setPoolSize}.
+ *
+ * Destruction callbacks of the beans run once their transaction completed, in the reverse order of their
+ * registration. To keep them off the commit path set an executor running them in batches, see
+ * {@link #setDestructionExecutor}.
+ *
+ * Scoped beans implementing {@link TransactionSynchronization} get the synchronisation callbacks of their transaction,
+ * e.g. to publish their state once it commits.
+ *
  * NB: You can define a setup in which the coupling of the TransactionScope with the transaction can be abandoned.
  * Simply provide your required transaction isolation levels that will disable the scope and make the TransactionScope
  * produce prototype beans instead of caching them against the current transaction. For more
@@ -59,7 +87,7 @@ import java.util.concurrent.atomic.AtomicLong;
  * @see org.springframework.cache.annotation.Cacheable
  * @see org.springframework.beans.factory.config.Scope
  */
-public class TransactionScope implements Scope {
+public class TransactionScope implements Scope, DisposableBean {
 
     public static final Set<Integer> DEFAULT_DESCOPING_ISOLATION_LEVELS;
 
@@ -73,50 +101,107 @@ public class TransactionScope implements Scope {
 
     private static final Log logger = LogFactory.getLog(TransactionScope.class);
 
-    private final Map<String, Map<String, Object>> transactionNamedBeans = new ConcurrentHashMap<String, Map<String, Object>>();
+    /** registry of transactions with scoped beans, only used to report them */
+    private final Set<NamedTransactionSynchronisation> transactionSynchronisations = Collections.newSetFromMap(
+            new ConcurrentHashMap<NamedTransactionSynchronisation, Boolean>());
 
     private final AtomicLong transactionCounter = new AtomicLong(0);
 
     private Set<Integer> descopingIsolationLevels = DEFAULT_DESCOPING_ISOLATION_LEVELS;
 
+    private volatile ScopeTrace trace;
+
+    private volatile BeanSlots beanSlots = BeanSlots.NONE;
+
+    /** maximum number of pooled beans per bean name and thread, 0 disables the pooling */
+    private volatile int poolSize;
+
+    /** set once pooling gets enabled, so the pools are trimmed after it gets disabled again */
+    private volatile boolean poolingEnabled;
+
+    /** pools of the reset beans by their names, per thread as transactions complete on their own threads */
+    private final ThreadLocal<Map<String, ArrayDeque<PooledBean>>> beanPools = new ThreadLocal<Map<String, ArrayDeque<PooledBean>>>() {
+        @Override
+        protected Map<String, ArrayDeque<PooledBean>> initialValue() {
+            return new HashMap<String, ArrayDeque<PooledBean>>();
+        }
+    };
+
+    private final AtomicLong poolHitCount = new AtomicLong();
+
+    private final AtomicLong poolMissCount = new AtomicLong();
+
+    private volatile Executor destructionExecutor;
+
+    /** destruction callbacks of completed transactions waiting for the executor, in their order of execution */
+    private final Queue<List<Runnable>> pendingDestructions = new ConcurrentLinkedQueue<List<Runnable>>();
+
+    private final AtomicBoolean destructionScheduled = new AtomicBoolean();
+
+    private final Runnable destructionTask = new Runnable() {
+        @Override
+        public void run() {
+            // cleared first so callbacks queued while running are either taken by this run or scheduled again
+            destructionScheduled.set(false);
+            runPendingDestructionCallbacks();
+        }
+    };
+
 
     private boolean inDescopingIsolationLevel() {
         final Integer currentTransactionIsolationLevel = TransactionSynchronizationManager.getCurrentTransactionIsolationLevel();
         return descopingIsolationLevels.contains(currentTransactionIsolationLevel);
     }
 
-    protected String formatTransactionId(String currentTxName) {
+    /**
+     * @return true when beans are scoped to the current transaction, false when the scope produces prototypes
+     */
+    public boolean isScopeActive() {
+        return TransactionSynchronizationManager.isActualTransactionActive() && !inDescopingIsolationLevel();
+    }
+
+    /**
+     * Formats the id of a transaction for diagnostics, invoked at most once per transaction and only when the id is
+     * asked for, possibly from a thread other than the one of the transaction
+     *
+     * @param currentTxName name of the transaction, may be null
+     * @param threadId      of the thread the transaction was started on
+     * @param serial        number of the transaction unique within this scope
+     * @return id of the transaction
+     */
+    protected String formatTransactionId(String currentTxName, long threadId, long serial) {
         currentTxName = currentTxName == null ? "" : currentTxName;
         return currentTxName
-                + "@" + this.getClass().getSimpleName() + Thread.currentThread().getId()
-                + "." + transactionCounter.getAndIncrement();
-    }
-
-    private String getCurrentTransactionId() {
-        final String currentTransactionId;
-        if (TransactionSynchronizationManager.isActualTransactionActive()) {
-            NamedTransactionSynchronisation currentSynchronisation = null;
-            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
-                if (sync instanceof NamedTransactionSynchronisation) {
-                    currentSynchronisation = (NamedTransactionSynchronisation) sync;
-                    break;
-                }
-            }
+                + "@" + this.getClass().getSimpleName() + threadId
+                + "." + serial;
+    }
 
-            if (currentSynchronisation != null) {
-                currentTransactionId = currentSynchronisation.transactionId;
-            } else {
-                currentTransactionId = formatTransactionId(TransactionSynchronizationManager.getCurrentTransactionName());
-            }
-        } else {
-            currentTransactionId = null;
-        }
+    /**
+     * The synchronisation holding the beans of the current transaction is bound as a transaction resource keyed by
+     * this scope, so it is found with a single thread local lookup.
+     *
+     * @return synchronisation of the current transaction, null when no bean has been scoped to it yet
+     */
+    private NamedTransactionSynchronisation getCurrentSynchronisation() {
+        return (NamedTransactionSynchronisation) TransactionSynchronizationManager.getResource(this);
+    }
 
-        if (logger.isDebugEnabled()) {
-            logger.debug("using current transaction name [" + currentTransactionId + "]");
+    /**
+     * @return synchronisation of the current transaction bound to it when missing
+     */
+    private NamedTransactionSynchronisation getOrCreateCurrentSynchronisation() {
+        NamedTransactionSynchronisation synchronisation = getCurrentSynchronisation();
+        if (synchronisation == null) {
+            synchronisation = new NamedTransactionSynchronisation(TransactionSynchronizationManager.getCurrentTransactionName()
+                    , transactionCounter.getAndIncrement(), this.beanSlots);
+            TransactionSynchronizationManager.bindResource(this, synchronisation);
+            TransactionSynchronizationManager.registerSynchronization(synchronisation);
+            transactionSynchronisations.add(synchronisation);
+            if (logger.isDebugEnabled()) {
+                logger.debug("created new cache for [" + synchronisation.getTransactionId() + "]");
+            }
         }
-
-        return currentTransactionId;
+        return synchronisation;
     }
 
     /**
@@ -124,34 +209,56 @@ public class TransactionScope implements Scope {
      */
     @Override
     public Object get(String beanName, ObjectFactory<?> factory) {
-        final String currentTransactionId = getCurrentTransactionId();
         final boolean isDebugEnabled = logger.isDebugEnabled();
 
-        if (inDescopingIsolationLevel() || currentTransactionId == null) {
+        final ScopeTrace trace = this.trace;
+
+        if (!isScopeActive()) {
             if (isDebugEnabled) {
                 logger.debug("returning prototype bean for [" + beanName + "]");
             }
-            return factory.getObject();
-        }
-
-        Map<String, Object> namedBeans = transactionNamedBeans.get(currentTransactionId);
-        if (namedBeans == null) {
-            namedBeans = new HashMap<String, Object>();
-            transactionNamedBeans.put(currentTransactionId, namedBeans);
-            TransactionSynchronizationManager.registerSynchronization(new NamedTransactionSynchronisation(currentTransactionId));
-            if (isDebugEnabled) {
-                logger.debug("created new cache for [" + currentTransactionId + "]");
+            if (trace == null) {
+                return factory.getObject();
             }
+            final long startNanos = System.nanoTime();
+            final Object bean = factory.getObject();
+            trace.record(ScopeTrace.EventType.PROTOTYPE_CREATED, ScopeTrace.NO_TRANSACTION, beanName
+                    , System.nanoTime() - startNanos);
+            return bean;
         }
 
-        Object bean = namedBeans.get(beanName);
+        final NamedTransactionSynchronisation synchronisation = getOrCreateCurrentSynchronisation();
+        Object bean = synchronisation.getBean(beanName);
         if (bean == null) {
-            bean = factory.getObject();
-            final Object previousBean = namedBeans.put(beanName, bean);
+            final long startNanos = trace == null ? 0 : System.nanoTime();
+            final boolean pooling = this.poolSize > 0;
+            final PooledBean pooledBean = pooling ? pollPooledBean(beanName) : null;
+            final boolean reused = pooledBean != null;
+            if (reused) {
+                bean = pooledBean.bean;
+            } else {
+                bean = factory.getObject();
+                if (pooling && bean instanceof ResettableBean) {
+                    this.poolMissCount.incrementAndGet();
+                }
+            }
+            final Object previousBean = synchronisation.putBean(beanName, bean);
+            if (reused && pooledBean.destructionCallback != null) {
+                // the container registers the callback on creation only, it travels with the bean through the pool
+                synchronisation.registerDestructionCallback(beanName, pooledBean.destructionCallback);
+            }
+            if (trace != null) {
+                trace.record(reused ? ScopeTrace.EventType.BEAN_REUSED : ScopeTrace.EventType.BEAN_CREATED
+                        , synchronisation.serial, beanName, System.nanoTime() - startNanos);
+            }
             if (isDebugEnabled) {
-                logger.debug("returning new bean added to cache [" + beanName + "]->[" + bean + "] replacing [" + previousBean + "]");
+                logger.debug("returning " + (reused ? "pooled" : "new") + " bean added to cache [" + beanName + "]->["
+                        + bean + "] replacing [" + previousBean + "]");
             }
         } else {
+            if (trace != null) {
+                trace.record(ScopeTrace.EventType.CACHE_HIT, synchronisation.serial, beanName, 0);
+            }
             if (isDebugEnabled) {
                 logger.debug("returning cached bean [" + beanName + "]->[" + bean + "]");
             }
@@ -159,15 +266,142 @@ public class TransactionScope implements Scope {
         return bean;
     }
 
+    /**
+     * @return pooled bean reset by a previous transaction of the current thread, null when none
+     */
+    private PooledBean pollPooledBean(String beanName) {
+        final ArrayDeque<PooledBean> pooledBeans = this.beanPools.get().get(beanName);
+        final PooledBean pooledBean = pooledBeans == null ? null : pooledBeans.pollFirst();
+        if (pooledBean != null) {
+            this.poolHitCount.incrementAndGet();
+        }
+        return pooledBean;
+    }
+
+    /**
+     * Resets the bean and returns it to the pool of the current thread together with its destruction callback
+     * unless the pool is full
+     *
+     * @return true when pooled, false when the bean should be destroyed with its transaction
+     */
+    private boolean releasePooledBean(String beanName, ResettableBean bean, Runnable destructionCallback) {
+        final int poolSize = this.poolSize;
+        if (poolSize <= 0) {
+            return false;
+        }
+        final Map<String, ArrayDeque<PooledBean>> beanPool = this.beanPools.get();
+        ArrayDeque<PooledBean> pooledBeans = beanPool.get(beanName);
+        if (pooledBeans == null) {
+            pooledBeans = new ArrayDeque<PooledBean>(Math.min(poolSize, 16));
+            beanPool.put(beanName, pooledBeans);
+        } else if (pooledBeans.size() >= poolSize) {
+            return false;
+        }
+
+        try {
+            bean.reset();
+        } catch (RuntimeException e) {
+            logger.warn("dropping bean [" + beanName + "] failed to reset", e);
+            return false;
+        }
+        pooledBeans.addFirst(new PooledBean(bean, destructionCallback));
+        return true;
+    }
+
+    /**
+     * Drops the beans over the given pool size from the pools of the current thread, running their destruction
+     * callbacks
+     */
+    private void trimPool(int poolSize) {
+        List<Runnable> callbacks = null;
+        for (ArrayDeque<PooledBean> pooledBeans : this.beanPools.get().values()) {
+            while (pooledBeans.size() > poolSize) {
+                final PooledBean pooledBean = pooledBeans.pollLast();
+                if (pooledBean.destructionCallback != null) {
+                    if (callbacks == null) {
+                        callbacks = new ArrayList<Runnable>();
+                    }
+                    callbacks.add(pooledBean.destructionCallback);
+                }
+            }
+        }
+        if (callbacks != null) {
+            scheduleDestructionCallbacks(callbacks);
+        }
+    }
+
+    /**
+     * Runs the destruction callbacks of a completed transaction on the destruction executor, or right away when
+     * there is none or it rejects them
+     *
+     * @param callbacks in their order of execution
+     */
+    private void scheduleDestructionCallbacks(List<Runnable> callbacks) {
+        final Executor executor = this.destructionExecutor;
+        if (executor == null) {
+            runDestructionCallbacks(callbacks);
+            return;
+        }
+
+        this.pendingDestructions.add(callbacks);
+        // a single task drains all the transactions completed until it runs
+        if (this.destructionScheduled.compareAndSet(false, true)) {
+            try {
+                executor.execute(this.destructionTask);
+            } catch (RejectedExecutionException e) {
+                this.destructionScheduled.set(false);
+                logger.warn("running destruction callbacks on the calling thread, executor rejected them", e);
+                runPendingDestructionCallbacks();
+            }
+        }
+    }
+
+    private static void runDestructionCallbacks(List<Runnable> callbacks) {
+        for (Runnable callback : callbacks) {
+            try {
+                callback.run();
+            } catch (RuntimeException e) {
+                logger.warn("destruction callback [" + callback + "] failed", e);
+            }
+        }
+    }
+
+    /**
+     * Runs the destruction callbacks of the completed transactions still waiting for the executor on the calling
+     * thread, callbacks of every transaction run together in their order
+     */
+    public void runPendingDestructionCallbacks() {
+        List<Runnable> callbacks;
+        while ((callbacks = this.pendingDestructions.poll()) != null) {
+            runDestructionCallbacks(callbacks);
+        }
+    }
+
+    /**
+     * Runs the pending destruction callbacks when the container shuts down
+     */
+    @Override
+    public void destroy() {
+        runPendingDestructionCallbacks();
+    }
+
     /**
      * {@inheritDoc}
      */
     @Override
     public Object remove(String beanName) {
-        final String currentTransactionName = getCurrentTransactionId();
+        final NamedTransactionSynchronisation synchronisation = TransactionSynchronizationManager.isActualTransactionActive()
+                ? getCurrentSynchronisation() : null;
 
-        final Map<String, Object> beanNames = currentTransactionName == null ? null : transactionNamedBeans.get(currentTransactionName);
-        final Object removedBean = beanNames == null ? null : beanNames.remove(beanName);
+        final Object removedBean = synchronisation == null ? null : synchronisation.removeBean(beanName);
+        if (synchronisation != null) {
+            // the caller takes over the destruction of the removed bean
+            synchronisation.removeDestructionCallback(beanName);
+        }
+        final ScopeTrace trace = this.trace;
+        if (trace != null && removedBean != null) {
+            trace.record(ScopeTrace.EventType.BEAN_REMOVED, synchronisation.serial, beanName, 0);
+        }
         if (logger.isDebugEnabled()) {
             logger.debug("removed bean [" + beanName + "]->[" + removedBean + "]");
         }
@@ -179,7 +413,14 @@ public class TransactionScope implements Scope {
      */
     @Override
     public void registerDestructionCallback(String beanName, Runnable runnable) {
-        //NOP
+        final NamedTransactionSynchronisation synchronisation = TransactionSynchronizationManager.isActualTransactionActive()
+                ? getCurrentSynchronisation() : null;
+        if (synchronisation != null) {
+            synchronisation.registerDestructionCallback(beanName, runnable);
+        } else if (logger.isDebugEnabled()) {
+            // prototype beans are not destroyed by the container either
+            logger.debug("ignoring destruction callback of prototype bean [" + beanName + "]");
+        }
     }
 
     /**
@@ -195,14 +436,26 @@ public class TransactionScope implements Scope {
      */
     @Override
     public String getConversationId() {
-        return getCurrentTransactionId();
+        // the id is bound to the transaction so it stays the same for its whole life
+        final String currentTransactionId = TransactionSynchronizationManager.isActualTransactionActive()
+                && TransactionSynchronizationManager.isSynchronizationActive()
+                ? getOrCreateCurrentSynchronisation().getTransactionId() : null;
+
+        if (logger.isDebugEnabled()) {
+            logger.debug("using current transaction name [" + currentTransactionId + "]");
+        }
+        return currentTransactionId;
     }
 
     /**
-     * @return unmodifiable set of currently managed transaction Ids
+     * @return unmodifiable snapshot of currently managed transaction Ids
      */
     public Set<String> getTransactionIds() {
-        return Collections.unmodifiableSet(this.transactionNamedBeans.keySet());
+        final Set<String> transactionIds = new LinkedHashSet<String>();
+        for (NamedTransactionSynchronisation synchronisation : this.transactionSynchronisations) {
+            transactionIds.add(synchronisation.getTransactionId());
+        }
+        return Collections.unmodifiableSet(transactionIds);
     }
 
     /**
@@ -210,8 +463,12 @@ public class TransactionScope implements Scope {
      * @return unmodifiable map of bean names to bean instances for given transactionId, empty map when none found
      */
     public Map<String, Object> getTransactionBeans(String transactionId) {
-        final Map<String, Object> namedBeans = this.transactionNamedBeans.get(transactionId);
-        return Collections.unmodifiableMap(namedBeans == null ? Collections.EMPTY_MAP : namedBeans);
+        for (NamedTransactionSynchronisation synchronisation : this.transactionSynchronisations) {
+            if (synchronisation.getTransactionId().equals(transactionId)) {
+                return Collections.unmodifiableMap(synchronisation.getBeans());
+            }
+        }
+        return Collections.emptyMap();
     }
 
 
@@ -237,74 +494,483 @@ public class TransactionScope implements Scope {
     }
 
     /**
-     * Helper class ensuring that the scope is coupled with the transaction. It removes beans from the cache upon the
-     * transaction completion.
+     * @return unmodifiable set of the bean names stored in slots, in the order of their slots
+     */
+    public Set<String> getSlottedBeanNames() {
+        return this.beanSlots.getBeanNames();
+    }
+
+    /**
+     * Assigns consecutive slots to the given beans, typically done once by {@link TransactionScopeSlotConfigurer}
+     * when the container starts. Transactions in progress keep the slots they started with.
+     *
+     * @param slottedBeanNames names of the beans to store in slots, null or empty to store all beans by name
+     */
+    public void setSlottedBeanNames(Collection<String> slottedBeanNames) {
+        this.beanSlots = slottedBeanNames == null || slottedBeanNames.isEmpty()
+                ? BeanSlots.NONE : new BeanSlots(slottedBeanNames);
+    }
+
+    /**
+     * @return maximum number of pooled beans per bean name and thread, 0 when not pooling
+     */
+    public int getPoolSize() {
+        return this.poolSize;
+    }
+
+    /**
+     * Enables pooling of the {@link ResettableBean} beans: once the transaction completes they are reset and kept in
+     * a pool of the thread to be scoped to its next transaction instead of creating new ones. Beans removed from the
+     * scope explicitly are never pooled. Pooled beans are destroyed once they no longer fit the pool, the pools of
+     * the other threads are trimmed when their next transaction completes.
+     *
+     * @param poolSize maximum number of pooled beans per bean name and thread, 0 to disable the pooling
+     */
+    public void setPoolSize(int poolSize) {
+        Assert.isTrue(poolSize >= 0, "poolSize must not be negative");
+        this.poolSize = poolSize;
+        if (poolSize > 0) {
+            this.poolingEnabled = true;
+        } else if (this.poolingEnabled) {
+            trimPool(poolSize);
+        }
+    }
+
+    /**
+     * Destroys the beans pooled for the current thread, e.g. before returning it to a thread pool it does not belong
+     * to
+     */
+    public void clearPool() {
+        trimPool(0);
+        this.beanPools.remove();
+    }
+
+    /**
+     * @return number of pooled beans scoped to transactions so far
+     */
+    public long getPoolHitCount() {
+        return this.poolHitCount.get();
+    }
+
+    /**
+     * @return number of resettable beans created as none was pooled
+     */
+    public long getPoolMissCount() {
+        return this.poolMissCount.get();
+    }
+
+    /**
+     * @return ratio of the pooled beans among all the resettable beans scoped to transactions, 0 when none yet
+     */
+    public double getPoolHitRate() {
+        final long hitCount = this.poolHitCount.get();
+        final long total = hitCount + this.poolMissCount.get();
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    /**
+     * @return executor running the destruction callbacks, null when they run on completion of the transaction
+     */
+    public Executor getDestructionExecutor() {
+        return this.destructionExecutor;
+    }
+
+    /**
+     * Moves the destruction callbacks off the thread completing the transaction: callbacks of the transactions
+     * completed meanwhile are run by a single task of the executor, each transaction's callbacks together in the
+     * reverse order of their registration. Callbacks the executor rejects run on the completing thread.
+     *
+     * @param destructionExecutor to run the destruction callbacks in batches, null to run them on completion
+     * @see #runPendingDestructionCallbacks
+     */
+    public void setDestructionExecutor(Executor destructionExecutor) {
+        this.destructionExecutor = destructionExecutor;
+    }
+
+    /**
+     * @return trace of the scope events, null when not tracing
+     */
+    public ScopeTrace getTrace() {
+        return this.trace;
+    }
+
+    /**
+     * @param trace to record the scope events in, null to stop tracing
+     */
+    public void setTrace(ScopeTrace trace) {
+        this.trace = trace;
+    }
+
+    /**
+     * Reset bean waiting in a pool together with the destruction callback registered when it was created
+     */
+    private static final class PooledBean {
+
+        private final Object bean;
+
+        private final Runnable destructionCallback;
+
+
+        PooledBean(Object bean, Runnable destructionCallback) {
+            this.bean = bean;
+            this.destructionCallback = destructionCallback;
+        }
+    }
+
+    /**
+     * Immutable assignment of slots to bean names. The names are kept in an open addressing table, so resolving the
+     * slot of a bean costs its cached hash code and mostly a single reference comparison as bean factories pass the
+     * same name instances over and over.
+     */
+    static final class BeanSlots {
+
+        static final int NO_SLOT = -1;
+
+        static final BeanSlots NONE = new BeanSlots(Collections.<String>emptySet());
+
+        private final Set<String> beanNames;
+
+        private final String[] names;
+
+        private final String[] table;
+
+        private final int[] slots;
+
+        private final int mask;
+
+
+        BeanSlots(Collection<String> beanNames) {
+            final Set<String> uniqueBeanNames = new LinkedHashSet<String>(beanNames);
+            // keep the table at most half full
+            final int capacity = Integer.highestOneBit(Math.max(1, uniqueBeanNames.size()) * 2) * 2;
+            this.beanNames = Collections.unmodifiableSet(uniqueBeanNames);
+            this.names = uniqueBeanNames.toArray(new String[uniqueBeanNames.size()]);
+            this.table = new String[capacity];
+            this.slots = new int[capacity];
+            this.mask = capacity - 1;
+
+            int slot = 0;
+            for (String beanName : uniqueBeanNames) {
+                Assert.notNull(beanName, "bean name must not be null");
+                int i = beanName.hashCode() & this.mask;
+                while (this.table[i] != null) {
+                    i = (i + 1) & this.mask;
+                }
+                this.table[i] = beanName;
+                this.slots[i] = slot++;
+            }
+        }
+
+        /**
+         * @return slot of the bean, NO_SLOT when the bean has none
+         */
+        int slotOf(String beanName) {
+            if (this.beanNames.isEmpty()) {
+                return NO_SLOT;
+            }
+            int i = beanName.hashCode() & this.mask;
+            String name;
+            while ((name = this.table[i]) != null) {
+                if (name == beanName || name.equals(beanName)) {
+                    return this.slots[i];
+                }
+                i = (i + 1) & this.mask;
+            }
+            return NO_SLOT;
+        }
+
+        int size() {
+            return this.beanNames.size();
+        }
+
+        String getBeanName(int slot) {
+            return this.names[slot];
+        }
+
+        Set<String> getBeanNames() {
+            return this.beanNames;
+        }
+    }
+
+    /**
+     * Helper class ensuring that the scope is coupled with the transaction. It holds the beans of the transaction,
+     * keeps itself bound as the transaction resource of the scope while the transaction is not suspended and removes
+     * the beans upon the transaction completion.
      */
     class NamedTransactionSynchronisation implements TransactionSynchronization {
 
-        private final String transactionId;
+        private final String transactionName;
+
+        private final long threadId;
+
+        private final long serial;
 
-        private final long startTimeInMillis;
+        private final long startTimeNanos;
 
+        private final BeanSlots beanSlots;
 
-        NamedTransactionSynchronisation(String transactionId) {
-            Assert.notNull(transactionId);
-            this.transactionId = transactionId;
-            this.startTimeInMillis = System.currentTimeMillis();
+        /** beans indexed by their slots, created on the first slotted bean, accessed by the thread of the tx only */
+        private Object[] slottedBeans;
+
+        /** beans without a slot, created on the first such bean, accessed by the thread of the tx only */
+        private Map<String, Object> namedBeans;
+
+        /** scoped beans taking part in the synchronisation, created on the first such bean */
+        private List<TransactionSynchronization> synchronizedBeans;
+
+        /** destruction callbacks by bean names in their registration order, created on the first callback */
+        private Map<String, Runnable> destructionCallbacks;
+
+        /** formatted on demand, racing threads format the same value */
+        private String transactionId;
+
+
+        NamedTransactionSynchronisation(String transactionName, long serial, BeanSlots beanSlots) {
+            this.transactionName = transactionName;
+            this.threadId = Thread.currentThread().getId();
+            this.serial = serial;
+            this.startTimeNanos = System.nanoTime();
+            this.beanSlots = beanSlots;
+        }
+
+        Object getBean(String beanName) {
+            final int slot = this.beanSlots.slotOf(beanName);
+            if (slot != BeanSlots.NO_SLOT) {
+                return this.slottedBeans == null ? null : this.slottedBeans[slot];
+            }
+            return this.namedBeans == null ? null : this.namedBeans.get(beanName);
+        }
+
+        Object putBean(String beanName, Object bean) {
+            final Object previousBean = storeBean(beanName, bean);
+            if (previousBean instanceof TransactionSynchronization) {
+                this.synchronizedBeans.remove(previousBean);
+            }
+            if (bean instanceof TransactionSynchronization) {
+                if (this.synchronizedBeans == null) {
+                    this.synchronizedBeans = new ArrayList<TransactionSynchronization>(2);
+                }
+                this.synchronizedBeans.add((TransactionSynchronization) bean);
+            }
+            return previousBean;
+        }
+
+        Object removeBean(String beanName) {
+            final Object removedBean = dropBean(beanName);
+            if (removedBean instanceof TransactionSynchronization) {
+                this.synchronizedBeans.remove(removedBean);
+            }
+            return removedBean;
+        }
+
+        private Object storeBean(String beanName, Object bean) {
+            final int slot = this.beanSlots.slotOf(beanName);
+            if (slot != BeanSlots.NO_SLOT) {
+                if (this.slottedBeans == null) {
+                    this.slottedBeans = new Object[this.beanSlots.size()];
+                }
+                final Object previousBean = this.slottedBeans[slot];
+                this.slottedBeans[slot] = bean;
+                return previousBean;
+            }
+            if (this.namedBeans == null) {
+                this.namedBeans = new HashMap<String, Object>();
+            }
+            return this.namedBeans.put(beanName, bean);
+        }
+
+        private Object dropBean(String beanName) {
+            final int slot = this.beanSlots.slotOf(beanName);
+            if (slot != BeanSlots.NO_SLOT) {
+                if (this.slottedBeans == null) {
+                    return null;
+                }
+                final Object removedBean = this.slottedBeans[slot];
+                this.slottedBeans[slot] = null;
+                return removedBean;
+            }
+            return this.namedBeans == null ? null : this.namedBeans.remove(beanName);
+        }
+
+        void registerDestructionCallback(String beanName, Runnable callback) {
+            if (this.destructionCallbacks == null) {
+                this.destructionCallbacks = new LinkedHashMap<String, Runnable>();
+            }
+            this.destructionCallbacks.put(beanName, callback);
+        }
+
+        Runnable getDestructionCallback(String beanName) {
+            return this.destructionCallbacks == null ? null : this.destructionCallbacks.get(beanName);
+        }
+
+        /**
+         * @return callbacks of the bean removed from the scope, which are not run any more
+         */
+        Runnable removeDestructionCallback(String beanName) {
+            return this.destructionCallbacks == null ? null : this.destructionCallbacks.remove(beanName);
+        }
+
+        /**
+         * @return snapshot of the bean names mapped to the beans, slotted beans first
+         */
+        Map<String, Object> getBeans() {
+            final Map<String, Object> beans = new LinkedHashMap<String, Object>();
+            final Object[] slottedBeans = this.slottedBeans;
+            if (slottedBeans != null) {
+                for (int slot = 0; slot < slottedBeans.length; slot++) {
+                    if (slottedBeans[slot] != null) {
+                        beans.put(this.beanSlots.getBeanName(slot), slottedBeans[slot]);
+                    }
+                }
+            }
+            final Map<String, Object> namedBeans = this.namedBeans;
+            if (namedBeans != null) {
+                beans.putAll(namedBeans);
+            }
+            return beans;
+        }
+
+        /**
+         * Returns the resettable beans to the pool, the pooled beans take their destruction callbacks with them rather
+         * than being destroyed. The transaction must not use any of its beans afterwards.
+         */
+        private void releasePooledBeans() {
+            final Object[] slottedBeans = this.slottedBeans;
+            if (slottedBeans != null) {
+                for (int slot = 0; slot < slottedBeans.length; slot++) {
+                    if (slottedBeans[slot] instanceof ResettableBean) {
+                        final String beanName = this.beanSlots.getBeanName(slot);
+                        if (releasePooledBean(beanName, (ResettableBean) slottedBeans[slot], getDestructionCallback(beanName))) {
+                            removeDestructionCallback(beanName);
+                        }
+                    }
+                }
+            }
+            final Map<String, Object> namedBeans = this.namedBeans;
+            if (namedBeans != null) {
+                for (Map.Entry<String, Object> namedBean : namedBeans.entrySet()) {
+                    if (namedBean.getValue() instanceof ResettableBean && releasePooledBean(namedBean.getKey()
+                            , (ResettableBean) namedBean.getValue(), getDestructionCallback(namedBean.getKey()))) {
+                        removeDestructionCallback(namedBean.getKey());
+                    }
+                }
+            }
+            this.slottedBeans = null;
+            this.namedBeans = null;
+        }
+
+        String getTransactionId() {
+            String transactionId = this.transactionId;
+            if (transactionId == null) {
+                transactionId = formatTransactionId(this.transactionName, this.threadId, this.serial);
+                this.transactionId = transactionId;
+            }
+            return transactionId;
+        }
+
+        private List<TransactionSynchronization> getSynchronizedBeans() {
+            return this.synchronizedBeans == null
+                    ? Collections.<TransactionSynchronization>emptyList() : this.synchronizedBeans;
         }
 
         @Override
         public void suspend() {
-            //NOP
+            TransactionSynchronizationManager.unbindResource(TransactionScope.this);
+            for (TransactionSynchronization synchronizedBean : getSynchronizedBeans()) {
+                synchronizedBean.suspend();
+            }
         }
 
         @Override
         public void resume() {
-            //NOP
+            TransactionSynchronizationManager.bindResource(TransactionScope.this, this);
+            for (TransactionSynchronization synchronizedBean : getSynchronizedBeans()) {
+                synchronizedBean.resume();
+            }
         }
 
         @Override
         public void flush() {
-            //NOP
+            for (TransactionSynchronization synchronizedBean : getSynchronizedBeans()) {
+                synchronizedBean.flush();
+            }
         }
 
         @Override
-        public void beforeCommit(boolean b) {
-            //NOP
+        public void beforeCommit(boolean readOnly) {
+            for (TransactionSynchronization synchronizedBean : getSynchronizedBeans()) {
+                synchronizedBean.beforeCommit(readOnly);
+            }
         }
 
         @Override
         public void beforeCompletion() {
-            //NOP
+            for (TransactionSynchronization synchronizedBean : getSynchronizedBeans()) {
+                synchronizedBean.beforeCompletion();
+            }
         }
 
         @Override
         public void afterCommit() {
-            //NOP
+            for (TransactionSynchronization synchronizedBean : getSynchronizedBeans()) {
+                synchronizedBean.afterCommit();
+            }
         }
 
         @Override
-        public void afterCompletion(int i) {
+        public void afterCompletion(int status) {
+            for (TransactionSynchronization synchronizedBean : getSynchronizedBeans()) {
+                // same as spring does, the remaining beans must complete regardless
+                try {
+                    synchronizedBean.afterCompletion(status);
+                } catch (RuntimeException e) {
+                    logger.error("synchronized bean [" + synchronizedBean + "] failed after completion", e);
+                }
+            }
             removeTransactionBeans();
         }
 
         private void removeTransactionBeans() {
-            final Map<String, Object> removedBeans = transactionNamedBeans.remove(this.transactionId);
-            final long cacheElapsedTime = System.currentTimeMillis() - this.startTimeInMillis;
+            if (TransactionSynchronizationManager.getResource(TransactionScope.this) == this) {
+                TransactionSynchronizationManager.unbindResource(TransactionScope.this);
+            }
+            final boolean removed = transactionSynchronisations.remove(this);
+            final long cacheElapsedNanos = System.nanoTime() - this.startTimeNanos;
+            final ScopeTrace trace = TransactionScope.this.trace;
+            if (trace != null) {
+                trace.record(ScopeTrace.EventType.TX_CLEARED, this.serial, null, cacheElapsedNanos);
+            }
 
-            if (removedBeans != null) {
-                if (logger.isDebugEnabled()) {
-                    logger.debug("dropping cache of " + removedBeans.size() + " beans held for " + cacheElapsedTime + "ms for transaction [" + transactionId + "]");
+            if (removed) {
+                final Map<String, Object> removedBeans = logger.isDebugEnabled() ? getBeans() : null;
+                if (removedBeans != null) {
+                    logger.debug("dropping cache of " + removedBeans.size() + " beans held for " + TimeUnit.NANOSECONDS.toMillis(cacheElapsedNanos) + "ms for transaction [" + getTransactionId() + "]");
                 }
 
-                if (logger.isTraceEnabled()) {
-                    Assert.notNull(removedBeans);
+                if (removedBeans != null && logger.isTraceEnabled()) {
                     for (Map.Entry<String, Object> cacheEntry : removedBeans.entrySet()) {
                         logger.trace("removed [" + cacheEntry.getKey() + "]->[" + cacheEntry.getValue() + "]");
                     }
                 }
+
+                final int currentPoolSize = poolSize;
+                if (currentPoolSize > 0) {
+                    releasePooledBeans();
+                }
+                if (poolingEnabled) {
+                    // pool size may have been lowered by another thread since the beans were pooled
+                    trimPool(currentPoolSize);
+                }
+
+                final Map<String, Runnable> destructionCallbacks = this.destructionCallbacks;
+                if (destructionCallbacks != null && !destructionCallbacks.isEmpty()) {
+                    final List<Runnable> callbacks = new ArrayList<Runnable>(destructionCallbacks.values());
+                    Collections.reverse(callbacks);
+                    this.destructionCallbacks = null;
+                    scheduleDestructionCallbacks(callbacks);
+                }
             } else if (logger.isTraceEnabled()) {
-                logger.trace("no beans to remove for transaction [" + transactionId + "]");
+                logger.trace("no beans to remove for transaction [" + getTransactionId() + "]");
             }
         }
     }
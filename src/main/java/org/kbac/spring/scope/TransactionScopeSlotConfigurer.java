@@ -0,0 +1,122 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.scope;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.core.Ordered;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bean factory post processor assigning slots of the {@link TransactionScope} to all bean definitions of its scope,
+ * so each transaction keeps their beans in an array indexed by the slot. Beans not known to the bean factory up front,
+ * e.g. of inner or child bean definitions, are still stored by their names.
+ *
+ * Register it next to the scope, e.g.
+ * <pre>
+ *     &lt;bean class="org.kbac.spring.scope.TransactionScopeSlotConfigurer" p:transactionScope-ref="txScope"/&gt;
+ * </pre>
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see org.springframework.beans.factory.config.CustomScopeConfigurer
+ */
+public class TransactionScopeSlotConfigurer implements BeanFactoryPostProcessor, Ordered {
+
+    public static final String SCOPE_NAME_DEFAULT = "tx";
+
+    private static final Log logger = LogFactory.getLog(TransactionScopeSlotConfigurer.class);
+
+    private String scopeName = SCOPE_NAME_DEFAULT;
+
+    private TransactionScope transactionScope;
+
+    private int order = Ordered.LOWEST_PRECEDENCE;
+
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+        Assert.notNull(this.transactionScope, "transactionScope must be set");
+
+        final List<String> slottedBeanNames = new ArrayList<String>();
+        for (String beanName : beanFactory.getBeanDefinitionNames()) {
+            final BeanDefinition beanDefinition = beanFactory.getBeanDefinition(beanName);
+            if (!beanDefinition.isAbstract() && this.scopeName.equals(beanDefinition.getScope())) {
+                slottedBeanNames.add(beanName);
+            }
+        }
+        this.transactionScope.setSlottedBeanNames(slottedBeanNames);
+
+        if (logger.isInfoEnabled()) {
+            logger.info("assigned slots of scope [" + this.scopeName + "] to " + slottedBeanNames);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public int getOrder() {
+        return this.order;
+    }
+
+    public void setOrder(int order) {
+        this.order = order;
+    }
+
+    public String getScopeName() {
+        return this.scopeName;
+    }
+
+    /**
+     * @param scopeName the transaction scope is registered with, {@link #SCOPE_NAME_DEFAULT} by default
+     */
+    public void setScopeName(String scopeName) {
+        Assert.hasText(scopeName);
+        this.scopeName = scopeName;
+    }
+
+    public TransactionScope getTransactionScope() {
+        return this.transactionScope;
+    }
+
+    /**
+     * @param transactionScope to assign the slots of
+     */
+    public void setTransactionScope(TransactionScope transactionScope) {
+        this.transactionScope = transactionScope;
+    }
+}
@@ -0,0 +1,299 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.scope;
+
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Singleton cache manager of caches scoped to the current transaction. The caches of a transaction are plain maps
+ * held by the {@link TransactionScope} as one of the transaction's beans, so each cache operation costs a single
+ * lookup in the scope instead of a scoped proxy of a tx scoped cache manager plus its concurrent maps, e.g.
+ * <pre>
+ *     &lt;bean id="txCacheManager" class="org.kbac.spring.scope.TransactionScopedCacheManager"&gt;
+ *         &lt;constructor-arg ref="txScope"/&gt;
+ *     &lt;/bean&gt;
+ * </pre>
+ * replaces a tx scoped {@link org.springframework.cache.support.SimpleCacheManager} wrapped in an
+ * <code>aop:scoped-proxy</code>.
+ *
+ * A transaction is bound to a single thread so its caches are not synchronised. Outside of any transaction nothing
+ * gets cached, same as with prototype caches. The caches of completed transactions are cleared and reused when the
+ * scope pools its beans.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see TransactionScope#setPoolSize
+ */
+public class TransactionScopedCacheManager implements CacheManager, BeanNameAware {
+
+    private static final Object NULL_VALUE = new Object();
+
+    private final TransactionScope transactionScope;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<String, Cache>(16);
+
+    private final ObjectFactory<TransactionCaches> cachesFactory = new ObjectFactory<TransactionCaches>() {
+        @Override
+        public TransactionCaches getObject() {
+            return new TransactionCaches();
+        }
+    };
+
+    /** name of the transaction's bean holding its caches */
+    private volatile String holderName = TransactionScopedCacheManager.class.getName() + "#" + System.identityHashCode(this);
+
+    private boolean dynamic = true;
+
+    private boolean allowNullValues = true;
+
+
+    /**
+     * @param transactionScope holding the caches of the transactions
+     */
+    public TransactionScopedCacheManager(TransactionScope transactionScope) {
+        Assert.notNull(transactionScope, "transactionScope must not be null");
+        this.transactionScope = transactionScope;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = this.caches.get(name);
+        if (cache == null && this.dynamic) {
+            synchronized (this.caches) {
+                cache = this.caches.get(name);
+                if (cache == null) {
+                    cache = new TransactionScopedCache(name, this.caches.size());
+                    this.caches.put(name, cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(this.caches.keySet());
+    }
+
+    /**
+     * Fixes the caches of the manager, no other caches are created on demand
+     *
+     * @param cacheNames names of the caches
+     */
+    public void setCacheNames(Collection<String> cacheNames) {
+        Assert.notNull(cacheNames);
+        synchronized (this.caches) {
+            for (String cacheName : cacheNames) {
+                if (!this.caches.containsKey(cacheName)) {
+                    this.caches.put(cacheName, new TransactionScopedCache(cacheName, this.caches.size()));
+                }
+            }
+            this.dynamic = false;
+        }
+    }
+
+    public boolean isAllowNullValues() {
+        return this.allowNullValues;
+    }
+
+    /**
+     * @param allowNullValues whether null values are cached, true by default
+     */
+    public void setAllowNullValues(boolean allowNullValues) {
+        this.allowNullValues = allowNullValues;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBeanName(String name) {
+        this.holderName = name + ".caches";
+    }
+
+    public TransactionScope getTransactionScope() {
+        return this.transactionScope;
+    }
+
+    /**
+     * Cache delegating to the map of the current transaction
+     */
+    private final class TransactionScopedCache implements Cache {
+
+        private final String name;
+
+        /** index of the map of this cache within the caches of a transaction */
+        private final int index;
+
+
+        TransactionScopedCache(String name, int index) {
+            this.name = name;
+            this.index = index;
+        }
+
+        private TransactionCaches getTransactionCaches() {
+            return (TransactionCaches) transactionScope.get(holderName, cachesFactory);
+        }
+
+        @Override
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * @return map of the current transaction, empty map when nothing got cached yet
+         */
+        @Override
+        public Object getNativeCache() {
+            final Map<Object, Object> store = getTransactionCaches().getStore(this.index);
+            return store == null ? Collections.emptyMap() : store;
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            final Map<Object, Object> store = getTransactionCaches().getStore(this.index);
+            final Object value = store == null ? null : store.get(key);
+            return value == null ? null : new SimpleValueWrapper(fromStoreValue(value));
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            final Map<Object, Object> store = getTransactionCaches().getStore(this.index);
+            final Object value = store == null ? null : fromStoreValue(store.get(key));
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            getTransactionCaches().getOrCreateStore(this.index).put(key, toStoreValue(value));
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            final Map<Object, Object> store = getTransactionCaches().getOrCreateStore(this.index);
+            final Object existingValue = store.get(key);
+            if (existingValue == null) {
+                store.put(key, toStoreValue(value));
+                return null;
+            }
+            return new SimpleValueWrapper(fromStoreValue(existingValue));
+        }
+
+        @Override
+        public void evict(Object key) {
+            final Map<Object, Object> store = getTransactionCaches().getStore(this.index);
+            if (store != null) {
+                store.remove(key);
+            }
+        }
+
+        @Override
+        public void clear() {
+            final Map<Object, Object> store = getTransactionCaches().getStore(this.index);
+            if (store != null) {
+                store.clear();
+            }
+        }
+
+        private Object toStoreValue(Object value) {
+            if (value == null) {
+                Assert.isTrue(allowNullValues, "cache [" + this.name + "] does not allow null values");
+                return NULL_VALUE;
+            }
+            return value;
+        }
+
+        private Object fromStoreValue(Object storeValue) {
+            return storeValue == NULL_VALUE ? null : storeValue;
+        }
+
+        @Override
+        public String toString() {
+            return this.getClass().getSimpleName() + "[" + this.name + "]";
+        }
+    }
+
+    /**
+     * Caches of a single transaction indexed by the cache, accessed by the thread of the transaction only
+     */
+    static final class TransactionCaches implements ResettableBean {
+
+        @SuppressWarnings("unchecked")
+        private Map<Object, Object>[] stores = (Map<Object, Object>[]) new Map<?, ?>[4];
+
+
+        Map<Object, Object> getStore(int index) {
+            return index < this.stores.length ? this.stores[index] : null;
+        }
+
+        Map<Object, Object> getOrCreateStore(int index) {
+            if (index >= this.stores.length) {
+                this.stores = Arrays.copyOf(this.stores, Math.max(index + 1, this.stores.length * 2));
+            }
+            Map<Object, Object> store = this.stores[index];
+            if (store == null) {
+                store = new HashMap<Object, Object>();
+                this.stores[index] = store;
+            }
+            return store;
+        }
+
+        /**
+         * Clears the caches keeping their maps for the next transaction
+         */
+        @Override
+        public void reset() {
+            for (Map<Object, Object> store : this.stores) {
+                if (store != null) {
+                    store.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2015 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+package org.kbac.spring.scope;
+
+import org.springframework.beans.factory.BeanNameAware;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.util.Assert;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Cache manager putting a transaction local cache (L1) in front of each cache of a shared cache manager (L2). Within
+ * a transaction values are looked up in L1 first and read through from L2, and the writes are buffered in L1 and
+ * published to L2 only after the transaction commits, so the transaction repeatedly reads the same values, its
+ * uncommitted values never leak to other transactions and the shared caches get written once per transaction. The
+ * writes of rolled back transactions are discarded.
+ *
+ * The L1 caches of a transaction are held by the {@link TransactionScope} as one of the transaction's beans and
+ * published from its synchronisation. Outside of any transaction the caches delegate to L2 directly, e.g.
+ * <pre>
+ *     &lt;bean id="twoLevelCacheManager" class="org.kbac.spring.scope.TwoLevelCacheManager"&gt;
+ *         &lt;constructor-arg ref="txScope"/&gt;
+ *         &lt;constructor-arg ref="cacheManager"/&gt;
+ *     &lt;/bean&gt;
+ * </pre>
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see TransactionScopedCacheManager
+ */
+public class TwoLevelCacheManager implements CacheManager, BeanNameAware {
+
+    private static final Object NULL_VALUE = new Object();
+
+    /** value evicted within the transaction */
+    private static final Object EVICTED = new Object();
+
+    private final TransactionScope transactionScope;
+
+    private final CacheManager sharedCacheManager;
+
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<String, Cache>(16);
+
+    private final ObjectFactory<TransactionCaches> cachesFactory = new ObjectFactory<TransactionCaches>() {
+        @Override
+        public TransactionCaches getObject() {
+            return new TransactionCaches();
+        }
+    };
+
+    /** name of the transaction's bean holding its L1 caches */
+    private volatile String holderName = TwoLevelCacheManager.class.getName() + "#" + System.identityHashCode(this);
+
+
+    /**
+     * @param transactionScope   holding the L1 caches of the transactions
+     * @param sharedCacheManager of the L2 caches
+     */
+    public TwoLevelCacheManager(TransactionScope transactionScope, CacheManager sharedCacheManager) {
+        Assert.notNull(transactionScope, "transactionScope must not be null");
+        Assert.notNull(sharedCacheManager, "sharedCacheManager must not be null");
+        this.transactionScope = transactionScope;
+        this.sharedCacheManager = sharedCacheManager;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = this.caches.get(name);
+        if (cache == null) {
+            final Cache sharedCache = this.sharedCacheManager.getCache(name);
+            if (sharedCache == null) {
+                return null;
+            }
+            synchronized (this.caches) {
+                cache = this.caches.get(name);
+                if (cache == null) {
+                    cache = new TwoLevelCache(sharedCache, this.caches.size());
+                    this.caches.put(name, cache);
+                }
+            }
+        }
+        return cache;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<String> getCacheNames() {
+        return this.sharedCacheManager.getCacheNames();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void setBeanName(String name) {
+        this.holderName = name + ".caches";
+    }
+
+    public CacheManager getSharedCacheManager() {
+        return this.sharedCacheManager;
+    }
+
+    private static Object toStoreValue(Object value) {
+        return value == null ? NULL_VALUE : value;
+    }
+
+    private static Object fromStoreValue(Object storeValue) {
+        return storeValue == NULL_VALUE ? null : storeValue;
+    }
+
+    /**
+     * Cache consulting the L1 cache of the current transaction before the shared one
+     */
+    private final class TwoLevelCache implements Cache {
+
+        private final Cache sharedCache;
+
+        /** index of the L1 cache of this cache within the caches of a transaction */
+        private final int index;
+
+
+        TwoLevelCache(Cache sharedCache, int index) {
+            this.sharedCache = sharedCache;
+            this.index = index;
+        }
+
+        /**
+         * @return L1 cache of the current transaction, null when not in a transaction
+         */
+        private Level1Cache getLevel1Cache() {
+            if (!transactionScope.isScopeActive()) {
+                return null;
+            }
+            final TransactionCaches caches = (TransactionCaches) transactionScope.get(holderName, cachesFactory);
+            return caches.getOrCreateCache(this.index, this.sharedCache);
+        }
+
+        @Override
+        public String getName() {
+            return this.sharedCache.getName();
+        }
+
+        /**
+         * @return native cache of the shared cache
+         */
+        @Override
+        public Object getNativeCache() {
+            return this.sharedCache.getNativeCache();
+        }
+
+        @Override
+        public ValueWrapper get(Object key) {
+            final Level1Cache level1Cache = getLevel1Cache();
+            if (level1Cache == null) {
+                return this.sharedCache.get(key);
+            }
+
+            final Object value = level1Cache.values.get(key);
+            if (value == EVICTED) {
+                return null;
+            }
+            if (value != null) {
+                return new SimpleValueWrapper(fromStoreValue(value));
+            }
+            if (level1Cache.cleared) {
+                return null;
+            }
+            final ValueWrapper sharedValue = this.sharedCache.get(key);
+            if (sharedValue != null) {
+                level1Cache.values.put(key, toStoreValue(sharedValue.get()));
+            }
+            return sharedValue;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public <T> T get(Object key, Class<T> type) {
+            final ValueWrapper valueWrapper = get(key);
+            final Object value = valueWrapper == null ? null : valueWrapper.get();
+            if (value != null && type != null && !type.isInstance(value)) {
+                throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+            }
+            return (T) value;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            final Level1Cache level1Cache = getLevel1Cache();
+            if (level1Cache == null) {
+                this.sharedCache.put(key, value);
+            } else {
+                level1Cache.write(key, toStoreValue(value));
+            }
+        }
+
+        @Override
+        public ValueWrapper putIfAbsent(Object key, Object value) {
+            final Level1Cache level1Cache = getLevel1Cache();
+            if (level1Cache == null) {
+                return this.sharedCache.putIfAbsent(key, value);
+            }
+            final ValueWrapper existingValue = get(key);
+            if (existingValue == null) {
+                level1Cache.write(key, toStoreValue(value));
+            }
+            return existingValue;
+        }
+
+        @Override
+        public void evict(Object key) {
+            final Level1Cache level1Cache = getLevel1Cache();
+            if (level1Cache == null) {
+                this.sharedCache.evict(key);
+            } else {
+                level1Cache.write(key, EVICTED);
+            }
+        }
+
+        @Override
+        public void clear() {
+            final Level1Cache level1Cache = getLevel1Cache();
+            if (level1Cache == null) {
+                this.sharedCache.clear();
+            } else {
+                level1Cache.clear();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return this.getClass().getSimpleName() + "[" + getName() + "]";
+        }
+    }
+
+    /**
+     * L1 cache of a single transaction, accessed by the thread of the transaction only
+     */
+    static final class Level1Cache {
+
+        private final Cache sharedCache;
+
+        /** values read or written by the transaction */
+        private final Map<Object, Object> values = new HashMap<Object, Object>();
+
+        /** writes to publish in their order, created on the first write */
+        private Map<Object, Object> writes;
+
+        /** whether the transaction cleared the cache, hiding the shared values */
+        private boolean cleared;
+
+
+        Level1Cache(Cache sharedCache) {
+            this.sharedCache = sharedCache;
+        }
+
+        void write(Object key, Object storeValue) {
+            this.values.put(key, storeValue);
+            if (this.writes == null) {
+                this.writes = new LinkedHashMap<Object, Object>();
+            } else {
+                // keep the order of the last writes
+                this.writes.remove(key);
+            }
+            this.writes.put(key, storeValue);
+        }
+
+        void clear() {
+            this.values.clear();
+            this.writes = null;
+            this.cleared = true;
+        }
+
+        void publish() {
+            if (this.cleared) {
+                this.sharedCache.clear();
+            }
+            if (this.writes != null) {
+                for (Map.Entry<Object, Object> write : this.writes.entrySet()) {
+                    if (write.getValue() == EVICTED) {
+                        this.sharedCache.evict(write.getKey());
+                    } else {
+                        this.sharedCache.put(write.getKey(), fromStoreValue(write.getValue()));
+                    }
+                }
+            }
+        }
+
+        void reset() {
+            this.values.clear();
+            this.writes = null;
+            this.cleared = false;
+        }
+    }
+
+    /**
+     * L1 caches of a single transaction indexed by the cache, publishing their writes once the transaction commits
+     */
+    static final class TransactionCaches extends TransactionSynchronizationAdapter implements ResettableBean {
+
+        private Level1Cache[] caches = new Level1Cache[4];
+
+
+        Level1Cache getOrCreateCache(int index, Cache sharedCache) {
+            if (index >= this.caches.length) {
+                this.caches = Arrays.copyOf(this.caches, Math.max(index + 1, this.caches.length * 2));
+            }
+            Level1Cache cache = this.caches[index];
+            if (cache == null) {
+                cache = new Level1Cache(sharedCache);
+                this.caches[index] = cache;
+            }
+            return cache;
+        }
+
+        @Override
+        public void afterCommit() {
+            for (Level1Cache cache : this.caches) {
+                if (cache != null) {
+                    cache.publish();
+                }
+            }
+        }
+
+        /**
+         * Drops the values of the completed transaction keeping the caches for the next one
+         */
+        @Override
+        public void reset() {
+            for (Level1Cache cache : this.caches) {
+                if (cache != null) {
+                    cache.reset();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.spring.throttle;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Annotation indicating that invocations of a method should be throttled by the meter of the
+ * {@link ThrottledAdvisor}, e.g.
+ * <pre>
+ *     &#64;Throttled(key = "#userId", limit = 10)
+ *     public Report getReport(String userId) { ... }
+ * </pre>
+ * Invocations over the limit fail with {@link org.kbac.throttle.TooManyRequestsException}.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see ThrottledInterceptor
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Throttled {
+
+    /**
+     * Spring Expression Language (SpEL) expression computing the throttle key from the method arguments, available
+     * as <code>#name</code> (when compiled with parameter names), <code>#p0</code> or <code>#a0</code>, and from
+     * <code>#root.method</code>, <code>#root.target</code>, <code>#root.args</code>. Default "" throttles all the
+     * invocations of the method together.
+     */
+    String key() default "";
+
+    /**
+     * Name of the bucket the keys belong to, default "" means the class and the method name. Methods sharing the
+     * name share their buckets.
+     */
+    String name() default "";
+
+    /**
+     * Maximum number of invocations per key within the meter interval
+     */
+    long limit();
+}
@@ -0,0 +1,247 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.spring.throttle;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.kbac.throttle.Meter;
+import org.kbac.throttle.TooManyRequestsException;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.expression.Expression;
+import org.springframework.expression.spel.SpelCompilerMode;
+import org.springframework.expression.spel.SpelParserConfiguration;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+import org.springframework.expression.spel.support.StandardEvaluationContext;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Method interceptor throttling invocations of the methods annotated with {@link Throttled}. The annotation is
+ * resolved, its key expression parsed and the parameter names discovered once per method, and the expression is
+ * compiled by SpEL after its first evaluations, so each invocation costs the key evaluation and one bucket lookup.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see ThrottledAdvisor
+ */
+public class ThrottledInterceptor implements MethodInterceptor {
+
+    public static final char KEY_SEPARATOR = ':';
+
+    private static final Log logger = LogFactory.getLog(ThrottledInterceptor.class);
+
+    private final SpelExpressionParser parser = new SpelExpressionParser(
+            new SpelParserConfiguration(SpelCompilerMode.MIXED, ThrottledInterceptor.class.getClassLoader()));
+
+    private final ParameterNameDiscoverer parameterNameDiscoverer = new DefaultParameterNameDiscoverer();
+
+    private final ConcurrentMap<MethodKey, ThrottledMethod> methods = new ConcurrentHashMap<MethodKey, ThrottledMethod>();
+
+    private final Meter meter;
+
+
+    /**
+     * @param meter deciding if the invocations should be throttled
+     */
+    public ThrottledInterceptor(final Meter meter) {
+        Assert.notNull(meter, "meter must not be null");
+        this.meter = meter;
+    }
+
+    @Override
+    public Object invoke(final MethodInvocation invocation) throws Throwable {
+        final ThrottledMethod throttledMethod = getThrottledMethod(invocation);
+        if (throttledMethod != null) {
+            final String bucketName = throttledMethod.bucketNameOf(invocation);
+            if (this.meter.shouldThrottle(bucketName, throttledMethod.limit)) {
+                throw new TooManyRequestsException("too many requests for " + bucketName);
+            }
+        }
+        return invocation.proceed();
+    }
+
+    public Meter getMeter() {
+        return this.meter;
+    }
+
+    private ThrottledMethod getThrottledMethod(final MethodInvocation invocation) {
+        final Method method = invocation.getMethod();
+        final Class<?> targetClass = invocation.getThis() == null ? method.getDeclaringClass()
+                : AopUtils.getTargetClass(invocation.getThis());
+        // the annotation is resolved on the target class, so one interface method may resolve differently per class
+        final MethodKey methodKey = new MethodKey(method, targetClass);
+        ThrottledMethod throttledMethod = this.methods.get(methodKey);
+        if (throttledMethod == null) {
+            final Method specificMethod = AopUtils.getMostSpecificMethod(method, targetClass);
+            final Throttled throttled = AnnotationUtils.findAnnotation(specificMethod, Throttled.class);
+
+            throttledMethod = throttled == null ? ThrottledMethod.NONE : newThrottledMethod(throttled, specificMethod);
+            final ThrottledMethod prev = this.methods.putIfAbsent(methodKey, throttledMethod);
+            if (prev != null) {
+                throttledMethod = prev;
+            } else if (logger.isDebugEnabled()) {
+                logger.debug("resolved " + throttledMethod + " for " + method + " of " + targetClass.getName());
+            }
+        }
+        return throttledMethod == ThrottledMethod.NONE ? null : throttledMethod;
+    }
+
+    private ThrottledMethod newThrottledMethod(final Throttled throttled, final Method method) {
+        Assert.isTrue(throttled.limit() > 0, "limit must be greater than 0 for " + method);
+
+        final String name = StringUtils.hasText(throttled.name()) ? throttled.name()
+                : method.getDeclaringClass().getSimpleName() + '.' + method.getName();
+        final Expression key = StringUtils.hasText(throttled.key()) ? this.parser.parseExpression(throttled.key()) : null;
+        return new ThrottledMethod(name, key, this.parameterNameDiscoverer.getParameterNames(method)
+                , method.getParameterTypes().length, throttled.limit());
+    }
+
+    /**
+     * Key of the methods cache, the invoked method and the class of the target it is invoked on
+     */
+    private static final class MethodKey {
+
+        private final Method method;
+
+        private final Class<?> targetClass;
+
+
+        MethodKey(final Method method, final Class<?> targetClass) {
+            this.method = method;
+            this.targetClass = targetClass;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (!(other instanceof MethodKey)) {
+                return false;
+            }
+            final MethodKey otherKey = (MethodKey) other;
+            return this.method.equals(otherKey.method) && this.targetClass == otherKey.targetClass;
+        }
+
+        @Override
+        public int hashCode() {
+            return this.method.hashCode() * 31 + this.targetClass.hashCode();
+        }
+    }
+
+    /**
+     * Metadata of a throttled method resolved once
+     */
+    private static final class ThrottledMethod {
+
+        private static final ThrottledMethod NONE = new ThrottledMethod(null, null, null, 0, 0);
+
+        private final String name;
+
+        private final Expression key;
+
+        /** names of the variables of each argument: its parameter name when known, pN and aN */
+        private final String[][] variableNames;
+
+        private final long limit;
+
+
+        ThrottledMethod(final String name, final Expression key, final String[] parameterNames
+                , final int parameterCount, final long limit) {
+            this.name = name;
+            this.key = key;
+            this.variableNames = new String[parameterCount][];
+            for (int i = 0; i < parameterCount; i++) {
+                this.variableNames[i] = parameterNames == null ? new String[] {"p" + i, "a" + i}
+                        : new String[] {parameterNames[i], "p" + i, "a" + i};
+            }
+            this.limit = limit;
+        }
+
+        String bucketNameOf(final MethodInvocation invocation) {
+            if (this.key == null) {
+                return this.name;
+            }
+
+            final Object[] args = invocation.getArguments();
+            final StandardEvaluationContext context = new StandardEvaluationContext(
+                    new RootObject(invocation.getMethod(), args, invocation.getThis()));
+            for (int i = 0; i < args.length; i++) {
+                for (final String variableName : this.variableNames[i]) {
+                    context.setVariable(variableName, args[i]);
+                }
+            }
+            return this.name + KEY_SEPARATOR + this.key.getValue(context, String.class);
+        }
+
+        @Override
+        public String toString() {
+            return this.getClass().getSimpleName() + "{name=" + this.name + ", key="
+                    + (this.key == null ? null : this.key.getExpressionString()) + ", limit=" + this.limit + '}';
+        }
+    }
+
+    /**
+     * Root object of the key expressions
+     */
+    public static final class RootObject {
+
+        private final Method method;
+
+        private final Object[] args;
+
+        private final Object target;
+
+
+        RootObject(final Method method, final Object[] args, final Object target) {
+            this.method = method;
+            this.args = args;
+            this.target = target;
+        }
+
+        public Method getMethod() {
+            return this.method;
+        }
+
+        public Object[] getArgs() {
+            return this.args;
+        }
+
+        public Object getTarget() {
+            return this.target;
+        }
+    }
+}
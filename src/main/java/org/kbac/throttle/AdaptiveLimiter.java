@@ -0,0 +1,332 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread safe limiter of concurrent requests for a given name, adjusting the limit of every name from the observed
+ * feedback using AIMD algorithm: the limit grows additively by one for each request completed within the latency
+ * threshold while the limit is being utilised, and it is cut multiplicatively by the backoff ratio for each
+ * request that failed or exceeded the latency threshold.
+ * <p/>
+ * Callers report completion through the token obtained on acquisition, e.g.
+ * <pre>
+ *     final AdaptiveLimiter.Token token = limiter.tryAcquire(name);
+ *     if (token == null) {
+ *         // rejected
+ *     }
+ *     try {
+ *         ...
+ *         token.onSuccess();
+ *     } catch (Exception e) {
+ *         token.onDropped();
+ *     } finally {
+ *         token.close();
+ *     }
+ * </pre>
+ * Limits of names no longer requested are kept until removed with {@link #removeIdleLimits}, which is meant to be
+ * scheduled the same way the buckets of a meter are drained, e.g.
+ * <pre>
+ *     timer.schedule(new TimerTask() {
+ *         public void run() {
+ *             limiter.removeIdleLimits(AdaptiveLimiter.IDLE_LIMIT_REMOVE_MILLIS_DEFAULT);
+ *         }
+ *     }, 0, Meter.THROTTLE_INTERVAL_MILLIS_DEFAULT);
+ * </pre>
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class AdaptiveLimiter {
+
+    public static final int INITIAL_LIMIT_DEFAULT = 20;
+
+    public static final int MIN_LIMIT_DEFAULT = 1;
+
+    public static final int MAX_LIMIT_DEFAULT = 1000;
+
+    public static final double BACKOFF_RATIO_DEFAULT = 0.9;
+
+    public static final long LATENCY_THRESHOLD_MILLIS_DEFAULT = 1000;
+
+    public static final long IDLE_LIMIT_REMOVE_MILLIS_DEFAULT = FixedTimeTimerTask.IDLE_BUCKET_REMOVE_MILLIS_DEFAULT;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdaptiveLimiter.class);
+
+    private final ConcurrentMap<String, Limit> limits = new ConcurrentHashMap<>();
+
+    private final int initialLimit;
+
+    private final int minLimit;
+
+    private final int maxLimit;
+
+    private final double backoffRatio;
+
+    private final long latencyThresholdNanos;
+
+
+    /**
+     * Creates instance of the limiter defaulting all its configuration
+     */
+    public AdaptiveLimiter() {
+        this(INITIAL_LIMIT_DEFAULT, MIN_LIMIT_DEFAULT, MAX_LIMIT_DEFAULT, BACKOFF_RATIO_DEFAULT
+                , TimeUnit.MILLISECONDS.toNanos(LATENCY_THRESHOLD_MILLIS_DEFAULT));
+    }
+
+    /**
+     * @param initialLimit          of concurrent requests for a new name
+     * @param minLimit              the limit never goes below
+     * @param maxLimit              the limit never goes above
+     * @param backoffRatio          applied to the limit on each dropped request
+     * @param latencyThresholdNanos above which completed request is treated as dropped
+     */
+    public AdaptiveLimiter(final int initialLimit, final int minLimit, final int maxLimit, final double backoffRatio
+            , final long latencyThresholdNanos) {
+        Validate.isTrue(minLimit > 0, "minLimit must be greater than 0");
+        Validate.isTrue(maxLimit >= minLimit, "maxLimit must not be lower than minLimit");
+        Validate.isTrue(initialLimit >= minLimit && initialLimit <= maxLimit, "initialLimit must be within min and max");
+        Validate.isTrue(backoffRatio > 0 && backoffRatio < 1, "backoffRatio must be within (0, 1)");
+        Validate.isTrue(latencyThresholdNanos > 0, "latencyThresholdNanos must be greater than 0");
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThresholdNanos;
+    }
+
+    /**
+     * Invoke this method to acquire permission for a request of the given name. The invocation is thread safe.
+     *
+     * @param name of the request that should be limited
+     * @return token to report the completion with, null when the request should be rejected
+     */
+    public Token tryAcquire(final String name) {
+        while (true) {
+            Limit limit = this.limits.get(name);
+            if (limit == null) {
+                limit = new Limit(name, this.initialLimit);
+                final Limit prev = this.limits.putIfAbsent(name, limit);
+                if (prev != null) {
+                    limit = prev;
+                }
+            }
+            if (limit.tryAcquire()) {
+                return new Token(limit);
+            }
+            if (!limit.isRetired()) {
+                return null;
+            }
+            LOGGER.debug("limit of {} removed concurrently, looking it up again", name);
+        }
+    }
+
+    /**
+     * Removes the limits of names with no request in flight and none acquired or released for the given time, so
+     * the names requested once do not stay in memory for the life of the limiter. The names requested again start
+     * from the initial limit. The invocation is thread safe.
+     *
+     * @param idleMillis after which a limit without any request in flight is removed
+     * @return number of limits removed
+     */
+    public int removeIdleLimits(final long idleMillis) {
+        Validate.isTrue(idleMillis >= 0, "idleMillis must not be negative");
+
+        final long nowNanos = System.nanoTime();
+        final long idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+        int removed = 0;
+        final Iterator<Limit> limitsIterator = this.limits.values().iterator();
+        while (limitsIterator.hasNext()) {
+            final Limit limit = limitsIterator.next();
+            if (nowNanos - limit.lastUsedNanos >= idleNanos && limit.retire()) {
+                limitsIterator.remove();
+                removed++;
+                LOGGER.debug("removed unused limit of {}", limit.name);
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * @return number of names the limiter currently keeps limits for
+     */
+    public int getLimitCount() {
+        return this.limits.size();
+    }
+
+    /**
+     * @param name of the request
+     * @return current limit of concurrent requests for the name, initial limit when the name is not known yet
+     */
+    public int getLimit(final String name) {
+        final Limit limit = this.limits.get(name);
+        return limit == null ? this.initialLimit : limit.limit.get();
+    }
+
+    /**
+     * @param name of the request
+     * @return number of requests currently in flight for the name
+     */
+    public int getInFlight(final String name) {
+        final Limit limit = this.limits.get(name);
+        return limit == null ? 0 : Math.max(0, limit.inFlight.get());
+    }
+
+    /**
+     * Per name state of the limiter
+     */
+    private final class Limit {
+
+        /** in flight count of a removed limit, no request is admitted by it any more */
+        private static final int RETIRED = Integer.MIN_VALUE;
+
+        private final String name;
+
+        private final AtomicInteger limit;
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+
+        private volatile long lastUsedNanos = System.nanoTime();
+
+
+        Limit(final String name, final int initialLimit) {
+            this.name = name;
+            this.limit = new AtomicInteger(initialLimit);
+        }
+
+        boolean tryAcquire() {
+            while (true) {
+                final int current = this.inFlight.get();
+                if (current == RETIRED || current >= this.limit.get()) {
+                    return false;
+                }
+                if (this.inFlight.compareAndSet(current, current + 1)) {
+                    this.lastUsedNanos = System.nanoTime();
+                    return true;
+                }
+            }
+        }
+
+        /**
+         * @return true when retired by this invocation, false when any request is still in flight
+         */
+        boolean retire() {
+            return this.inFlight.compareAndSet(0, RETIRED);
+        }
+
+        boolean isRetired() {
+            return this.inFlight.get() == RETIRED;
+        }
+
+        void release(final boolean dropped, final long latencyNanos) {
+            final int currentInFlight = this.inFlight.getAndDecrement();
+            this.lastUsedNanos = System.nanoTime();
+            if (dropped || latencyNanos > latencyThresholdNanos) {
+                int current, next;
+                do {
+                    current = this.limit.get();
+                    next = Math.max(minLimit, (int) (current * backoffRatio));
+                } while (current != next && !this.limit.compareAndSet(current, next));
+                LOGGER.debug("decreased limit of {} to {}", this.name, next);
+            } else {
+                int current;
+                do {
+                    current = this.limit.get();
+                    // grow only when the limit is actually being used
+                    if (current >= maxLimit || currentInFlight * 2 < current) {
+                        return;
+                    }
+                } while (!this.limit.compareAndSet(current, current + 1));
+            }
+        }
+    }
+
+    /**
+     * Permission of a single request, report its outcome exactly once. Closing a token not reported yet releases it
+     * without any feedback.
+     */
+    public static final class Token implements AutoCloseable {
+
+        private final Limit limit;
+
+        private final long startNanos;
+
+        private boolean released;
+
+
+        Token(final Limit limit) {
+            this.limit = limit;
+            this.startNanos = System.nanoTime();
+        }
+
+        /**
+         * Reports the request completed, the latency is measured since acquisition
+         */
+        public void onSuccess() {
+            if (!this.released) {
+                this.released = true;
+                this.limit.release(false, System.nanoTime() - this.startNanos);
+            }
+        }
+
+        /**
+         * Reports the request failed or timed out, e.g. due to the overloaded backend
+         */
+        public void onDropped() {
+            if (!this.released) {
+                this.released = true;
+                this.limit.release(true, System.nanoTime() - this.startNanos);
+            }
+        }
+
+        /**
+         * Releases the permission without affecting the limit, e.g. for requests failed for reasons not related
+         * to the load
+         */
+        public void onIgnore() {
+            if (!this.released) {
+                this.released = true;
+                this.limit.inFlight.decrementAndGet();
+                this.limit.lastUsedNanos = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void close() {
+            onIgnore();
+        }
+    }
+}
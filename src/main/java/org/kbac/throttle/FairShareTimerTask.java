@@ -0,0 +1,178 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Timer task draining the buckets and dividing the global capacity per interval among the active buckets using
+ * max-min fairness: buckets asking for less than an equal share get all they asked for in the last interval, the
+ * rest of the capacity is split equally among the buckets asking for more, and any capacity left unused is spread
+ * equally so quiet buckets have room to grow. The limits are recomputed on every tick only, so requests keep
+ * checking their own bucket without any global locking, e.g.
+ * <pre>
+ *     final ConcurrentMap&lt;String, LeakyBucket&gt; buckets = new ConcurrentHashMap&lt;&gt;();
+ *     final FairShareTimerTask task = new FairShareTimerTask(buckets, 10000);
+ *     final Meter meter = new Meter(strategy, interval, buckets);
+ *     meter.setLimitResolver(task);
+ *     timer.schedule(task, interval, interval);
+ *     ...
+ *     meter.shouldThrottle(name);
+ * </pre>
+ * The share one more active bucket would get is reserved on every tick and split among the idle buckets and the
+ * buckets created between the ticks, so the limits never add up to more than the capacity as long as there are
+ * fewer buckets than the capacity: each bucket keeps room for at least one drop.
+ * <p/>
+ * Only the buckets whose limit got resolved by the task take part, the buckets created with a limit given by the
+ * caller keep it, as with {@link Meter#applyLimits}.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class FairShareTimerTask extends FixedTimeTimerTask implements LimitResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(FairShareTimerTask.class);
+
+    private static final Comparator<LeakyBucket> BY_LAST_DEMAND = Comparator.comparingLong(LeakyBucket::getLastDemand);
+
+    private final long capacity;
+
+    private volatile long newBucketShare;
+
+    /** part of the reserve not yet given out to the buckets created since the last tick */
+    private final AtomicLong newBucketReserve;
+
+
+    /**
+     * @param buckets  shared with the meter
+     * @param capacity maximum number of requests per interval for all the buckets together
+     */
+    public FairShareTimerTask(final ConcurrentMap<String, ? extends LeakyBucket> buckets, final long capacity) {
+        this(buckets, capacity, IDLE_BUCKET_REMOVE_MILLIS_DEFAULT);
+    }
+
+    public FairShareTimerTask(final ConcurrentMap<String, ? extends LeakyBucket> buckets, final long capacity
+            , final long idleBucketRemoveIntervalMillis) {
+        this(buckets, capacity, idleBucketRemoveIntervalMillis, TimeSource.SYSTEM);
+    }
+
+    public FairShareTimerTask(final ConcurrentMap<String, ? extends LeakyBucket> buckets, final long capacity
+            , final long idleBucketRemoveIntervalMillis, final TimeSource timeSource) {
+        super(buckets, idleBucketRemoveIntervalMillis, timeSource);
+        Validate.isTrue(capacity > 0, "capacity must be greater than 0");
+
+        this.capacity = capacity;
+        this.newBucketShare = capacity;
+        this.newBucketReserve = new AtomicLong(capacity);
+    }
+
+    @Override
+    public void run() {
+        super.run();
+        rebalance();
+    }
+
+    /**
+     * @return share of the capacity for a bucket not known at the last tick, taken out of the reserve for the new
+     * buckets, one drop when the reserve is used up
+     */
+    @Override
+    public long resolveLimit(final String name) {
+        final long share = this.newBucketShare;
+        while (true) {
+            final long reserve = this.newBucketReserve.get();
+            final long granted = Math.min(share, reserve);
+            if (granted == 0) {
+                LOGGER.debug("reserve for new buckets used up, {} gets one drop", name);
+                return 1;
+            }
+            if (this.newBucketReserve.compareAndSet(reserve, reserve - granted)) {
+                return granted;
+            }
+        }
+    }
+
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Recomputes the limits of all the buckets from their demand within the last interval
+     */
+    protected void rebalance() {
+        final List<LeakyBucket> active = new ArrayList<>();
+        int idleCount = 0;
+        for (final LeakyBucket bucket : getBuckets().values()) {
+            if (!bucket.isLimitResolved()) {
+                continue;
+            }
+            if (bucket.getLastDemand() > 0) {
+                active.add(bucket);
+            } else {
+                idleCount++;
+            }
+        }
+        active.sort(BY_LAST_DEMAND);
+
+        // the share of one more bucket is kept for the idle and new buckets, the active ones split the rest
+        final long reserve = this.capacity / (active.size() + 1);
+
+        // water filling from the smallest demand, each bucket gets at most an equal share of what is left
+        final long[] shares = new long[active.size()];
+        long remaining = this.capacity - reserve;
+        for (int i = 0; i < shares.length; i++) {
+            final long equalShare = remaining / (shares.length - i);
+            shares[i] = Math.min(active.get(i).getLastDemand(), equalShare);
+            remaining -= shares[i];
+        }
+
+        final long bonus = shares.length == 0 ? 0 : remaining / shares.length;
+        for (int i = 0; i < shares.length; i++) {
+            active.get(i).setMaxDropCount(Math.max(1, shares[i] + bonus));
+        }
+
+        final long idleShare = Math.max(1, reserve / (idleCount + 1));
+        if (idleCount > 0) {
+            for (final LeakyBucket bucket : getBuckets().values()) {
+                if (bucket.isLimitResolved() && bucket.getLastDemand() == 0) {
+                    bucket.setMaxDropCount(idleShare);
+                }
+            }
+        }
+        this.newBucketShare = idleShare;
+        this.newBucketReserve.set(Math.max(0, reserve - idleShare * idleCount));
+
+        LOGGER.debug("rebalanced {} active and {} idle buckets, new bucket share: {}", shares.length, idleCount, idleShare);
+    }
+}
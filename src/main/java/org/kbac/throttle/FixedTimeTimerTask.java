@@ -59,17 +59,26 @@ public class FixedTimeTimerTask extends TimerTask {
 
     private final long idleBucketRemoveIntervalMillis;
 
+    private final TimeSource timeSource;
+
 
     public FixedTimeTimerTask(final ConcurrentMap<String, ? extends LeakyBucket> buckets) {
         this(buckets, IDLE_BUCKET_REMOVE_MILLIS_DEFAULT);
     }
 
     public FixedTimeTimerTask(final ConcurrentMap<String, ? extends LeakyBucket> buckets, final long idleBucketRemoveIntervalMillis) {
+        this(buckets, idleBucketRemoveIntervalMillis, TimeSource.SYSTEM);
+    }
+
+    public FixedTimeTimerTask(final ConcurrentMap<String, ? extends LeakyBucket> buckets, final long idleBucketRemoveIntervalMillis
+            , final TimeSource timeSource) {
         Validate.notNull(buckets, "bucket container must not be null");
         Validate.isTrue(idleBucketRemoveIntervalMillis > 0, "idle interval must be greater than zero");
+        Validate.notNull(timeSource, "timeSource must not be null");
 
         this.buckets = buckets;
         this.idleBucketRemoveIntervalMillis = idleBucketRemoveIntervalMillis;
+        this.timeSource = timeSource;
     }
 
 
@@ -80,11 +89,17 @@ public class FixedTimeTimerTask extends TimerTask {
             final Map.Entry<String, ? extends LeakyBucket> entry = bucketsIterator.next();
             final LeakyBucket bucket = entry.getValue();
             final long drainedDropCount = bucket.drain();
-            final long idleMillis = System.currentTimeMillis() - bucket.getLastUsedMillis();
-            if (drainedDropCount == 0 && idleMillis >= this.idleBucketRemoveIntervalMillis) {
+            final long idleMillis = this.timeSource.currentTimeMillis() - bucket.getLastUsedMillis();
+            if (drainedDropCount == 0 && idleMillis >= this.idleBucketRemoveIntervalMillis
+                    && bucket.getInFlightCount() == 0) {
                 bucketsIterator.remove();
+                bucket.retire();
                 LOGGER.debug("removed unused bucket: {} idle for {}ms", bucket, idleMillis);
             }
         }
     }
+
+    protected ConcurrentMap<String, ? extends LeakyBucket> getBuckets() {
+        return this.buckets;
+    }
 }
@@ -0,0 +1,261 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Thread safe dictionary interning keys into compact int ids. Keys are looked up straight from char sequences or
+ * Latin-1 bytes, e.g. a reused buffer the key was assembled in, so a String is only created the first time a key
+ * is seen and every other lookup of the same key shares that single instance.
+ * <p/>
+ * Lookups are lock free over an open addressing table, new keys are added under a lock. Keys are never removed, so
+ * the dictionary is bounded by the maximum key count, after which unknown keys are reported as NOT_FOUND and the
+ * owner may recycle it by replacing it with an empty one, as {@link Meter} does.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see Meter#shouldThrottle(CharSequence, long)
+ */
+public class KeyDictionary {
+
+    public static final int NOT_FOUND = -1;
+
+    public static final int MAX_KEY_COUNT_DEFAULT = 1 << 16;
+
+    private static final int INITIAL_KEY_CAPACITY = 16;
+
+    private final int maxKeyCount;
+
+    private final Object lock = new Object();
+
+    private volatile Table table = new Table(INITIAL_KEY_CAPACITY);
+
+    private volatile int size;
+
+
+    public KeyDictionary() {
+        this(MAX_KEY_COUNT_DEFAULT);
+    }
+
+    /**
+     * @param maxKeyCount number of keys the dictionary may hold
+     */
+    public KeyDictionary(final int maxKeyCount) {
+        Validate.isTrue(maxKeyCount > 0, "maxKeyCount must be greater than 0");
+        this.maxKeyCount = maxKeyCount;
+    }
+
+    /**
+     * @param key to be interned, copied when seen for the first time
+     * @return id of the key, NOT_FOUND when the key is new and the dictionary is full
+     */
+    public int intern(final CharSequence key) {
+        final int hash = hash(key);
+        final int id = find(key, hash);
+        return id == NOT_FOUND ? add(key.toString(), hash) : id;
+    }
+
+    /**
+     * @param bytes  holding the key encoded in Latin-1, e.g. US-ASCII header value
+     * @param offset of the key
+     * @param length of the key
+     * @return id of the key, NOT_FOUND when the key is new and the dictionary is full
+     */
+    public int intern(final byte[] bytes, final int offset, final int length) {
+        int hash = 0;
+        for (int i = offset; i < offset + length; i++) {
+            hash = 31 * hash + (bytes[i] & 0xFF);
+        }
+        hash = spread(hash);
+
+        final Table current = this.table;
+        for (int slot = hash & current.mask; ; slot = (slot + 1) & current.mask) {
+            final int id = current.slots.get(slot) - 1;
+            if (id == NOT_FOUND) {
+                return add(new String(bytes, offset, length, StandardCharsets.ISO_8859_1), hash);
+            }
+            if (current.hashes[id] == hash && equals(current.keys[id], bytes, offset, length)) {
+                return id;
+            }
+        }
+    }
+
+    /**
+     * @param key to look up
+     * @return id of the key, NOT_FOUND when the key has not been interned
+     */
+    public int find(final CharSequence key) {
+        return find(key, hash(key));
+    }
+
+    /**
+     * @param id of the key
+     * @return interned key
+     * @throws IndexOutOfBoundsException when no key has the given id
+     */
+    public String getKey(final int id) {
+        if (id < 0 || id >= this.size) {
+            throw new IndexOutOfBoundsException("no key of id: " + id);
+        }
+        return this.table.keys[id];
+    }
+
+    public int size() {
+        return this.size;
+    }
+
+    public int getMaxKeyCount() {
+        return this.maxKeyCount;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[" + this.size + "/" + this.maxKeyCount + "]";
+    }
+
+    private int find(final CharSequence key, final int hash) {
+        final Table current = this.table;
+        for (int slot = hash & current.mask; ; slot = (slot + 1) & current.mask) {
+            final int id = current.slots.get(slot) - 1;
+            if (id == NOT_FOUND) {
+                return NOT_FOUND;
+            }
+            if (current.hashes[id] == hash && equals(current.keys[id], key)) {
+                return id;
+            }
+        }
+    }
+
+    private int add(final String key, final int hash) {
+        synchronized (this.lock) {
+            final int found = find(key, hash);
+            if (found != NOT_FOUND) {
+                return found;
+            }
+            final int id = this.size;
+            if (id == this.maxKeyCount) {
+                return NOT_FOUND;
+            }
+            if (id == this.table.keys.length) {
+                this.table = this.table.grow(id);
+            }
+            // key published by the volatile write of its slot
+            this.table.keys[id] = key;
+            this.table.hashes[id] = hash;
+            this.table.link(id);
+            this.size = id + 1;
+            return id;
+        }
+    }
+
+    private static int hash(final CharSequence key) {
+        int hash = 0;
+        for (int i = 0; i < key.length(); i++) {
+            hash = 31 * hash + key.charAt(i);
+        }
+        return spread(hash);
+    }
+
+    private static int spread(final int hash) {
+        final int h = hash * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static boolean equals(final String key, final CharSequence other) {
+        if (key.length() != other.length()) {
+            return false;
+        }
+        for (int i = 0; i < key.length(); i++) {
+            if (key.charAt(i) != other.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean equals(final String key, final byte[] bytes, final int offset, final int length) {
+        if (key.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (key.charAt(i) != (bytes[offset + i] & 0xFF)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Open addressing table of ids + 1 kept at most half full, keys and their hashes indexed by id
+     */
+    private static final class Table {
+
+        private final AtomicIntegerArray slots;
+
+        private final int mask;
+
+        private final String[] keys;
+
+        private final int[] hashes;
+
+
+        Table(final int keyCapacity) {
+            this(keyCapacity, new String[keyCapacity], new int[keyCapacity]);
+        }
+
+        private Table(final int keyCapacity, final String[] keys, final int[] hashes) {
+            this.slots = new AtomicIntegerArray(keyCapacity * 2);
+            this.mask = keyCapacity * 2 - 1;
+            this.keys = keys;
+            this.hashes = hashes;
+        }
+
+        Table grow(final int size) {
+            final int keyCapacity = this.keys.length * 2;
+            final Table grown = new Table(keyCapacity, Arrays.copyOf(this.keys, keyCapacity)
+                    , Arrays.copyOf(this.hashes, keyCapacity));
+            for (int id = 0; id < size; id++) {
+                grown.link(id);
+            }
+            return grown;
+        }
+
+        void link(final int id) {
+            int slot = this.hashes[id] & this.mask;
+            while (this.slots.get(slot) != 0) {
+                slot = (slot + 1) & this.mask;
+            }
+            this.slots.set(slot, id + 1);
+        }
+    }
+}
@@ -28,11 +28,19 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
 /**
  * Created by krzysztof on 21/12/2015.
  * <p/>
  * Thread safe leaky bucket implementation allowing to ensure only given number of drops can make their
  * way into the bucket before it gets periodically drained. It leaks the drops when full.
+ * <p/>
+ * The bucket is guarded with a ReentrantLock rather than its monitor, so the threads waiting for the drain do not pin
+ * the carrier threads when run as virtual threads.
  *
  * @author Krzysztof Bacalski
  *
@@ -46,38 +54,68 @@ public class LeakyBucket {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(LeakyBucket.class);
 
-    private final String name;
+    private static final AtomicLongFieldUpdater<LeakyBucket> IN_FLIGHT_COUNT
+            = AtomicLongFieldUpdater.newUpdater(LeakyBucket.class, "inFlightCount");
 
-    private final long maxDropCount;
+    private final ReentrantLock lock = new ReentrantLock();
 
-    private final long overflow;
+    private final Condition drainedCondition = this.lock.newCondition();
+
+    private final String name;
+
+    private volatile long maxDropCount;
 
     private final long drainIntervalMillis;
 
+    private final TimeSource timeSource;
+
     private long lastUsedMillis;
 
-    private long lastDrainedMillis;
+    /** written under the lock, volatile to allow lock free reads of the window state */
+    private volatile long lastDrainedMillis;
 
-    private long dropCount;
+    private volatile long dropCount;
 
     private long leakedCount;
 
+    private volatile long lastDemand;
+
+    /** number of drains so far, stamps the drops so the drops of drained windows are not taken back */
+    private volatile long drainGeneration;
+
+    private volatile long inFlightCount;
+
+    private volatile boolean retired;
+
+    private volatile boolean limitResolved;
+
 
     public LeakyBucket(final String name, final long maxDropCount) {
         this(name, maxDropCount, DEFAULT_DRAIN_INTERVAL_MILLIS_DEFAULT);
     }
 
     public LeakyBucket(final String name, final long maxDropCount, long drainIntervalMillis) {
+        this(name, maxDropCount, drainIntervalMillis, TimeSource.SYSTEM);
+    }
+
+    /**
+     * @param name                of the bucket
+     * @param maxDropCount        maximum number of drops within drain interval
+     * @param drainIntervalMillis minimum time between drains
+     * @param timeSource          measuring the intervals
+     */
+    public LeakyBucket(final String name, final long maxDropCount, long drainIntervalMillis, final TimeSource timeSource) {
         Validate.notBlank(name, "name must not be empty");
         Validate.isTrue(maxDropCount > 0, "maxDropCount must be greater than 0");
         Validate.isTrue(drainIntervalMillis > 0, "drainIntervalMillis must be greater than 0");
+        Validate.notNull(timeSource, "timeSource must not be null");
 
         this.name = name;
         this.maxDropCount = maxDropCount;
-        this.overflow = this.maxDropCount + 1;
         this.drainIntervalMillis = drainIntervalMillis;
+        this.timeSource = timeSource;
 
-        this.lastDrainedMillis = System.currentTimeMillis();
+        this.lastDrainedMillis = timeSource.currentTimeMillis();
         this.lastUsedMillis = this.lastDrainedMillis;
     }
 
@@ -86,19 +124,140 @@ public class LeakyBucket {
      *
      * @return maxDropCount + 1 when bucket is full, number of drops within drain interval otherwise
      */
-    public synchronized long addDrop() {
-        this.lastUsedMillis = System.currentTimeMillis();
+    public long addDrop() {
+        return addDrop(Priority.CRITICAL);
+    }
+
+    /**
+     * Invoke this method to add a drop of the given priority to this bucket. The drop only makes its way into the
+     * bucket while the bucket holds fewer drops than the share of maxDropCount available to the priority.
+     *
+     * @param priority of the drop
+     * @return maxDropCount + 1 when bucket is full for the priority, number of drops within drain interval otherwise
+     */
+    public long addDrop(final Priority priority) {
+        this.lock.lock();
+        try {
+            return offerDrop(priority) ? this.dropCount : this.maxDropCount + 1;
+        } finally {
+            this.lock.unlock();
+        }
+    }
 
-        final long currentDrops;
-        if (!isFull()) {
-            currentDrops = ++this.dropCount;
-            LOGGER.debug("added drop: {}", this);
-        } else {
-            this.leakedCount++;
-            LOGGER.debug("leaked drop: {}", this);
-            currentDrops = this.overflow;
+    /**
+     * Invoke this method to add a drop of the given priority to this bucket when the bucket has room for it. Unlike
+     * comparing the result of {@link #addDrop(Priority)} with {@link #getMaxDropCount()}, the decision is taken
+     * against the limit the drop got added with, even when the limit changes meanwhile.
+     *
+     * @param priority of the drop
+     * @return true when the drop ended in the bucket, false when it leaked
+     */
+    public boolean tryAddDrop(final Priority priority) {
+        this.lock.lock();
+        try {
+            return offerDrop(priority);
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Invoke this method to take back a drop added within the current interval, e.g. when the request got rejected
+     * by another bucket it had to pass as well. Drops already drained are not taken back.
+     *
+     * @return number of drops within drain interval
+     * @see #releaseDrop(long)
+     */
+    public long releaseDrop() {
+        return releaseDrop(getDrainGeneration());
+    }
+
+    /**
+     * Invoke this method to take back a drop added when the bucket was in the given drain generation. The drop is
+     * not taken back when the bucket got drained since, so a release racing a drain never takes a drop of the new
+     * interval.
+     *
+     * @param drainGeneration of the bucket read before the drop was added
+     * @return number of drops within drain interval
+     * @see #getDrainGeneration
+     */
+    public long releaseDrop(final long drainGeneration) {
+        this.lock.lock();
+        try {
+            if (drainGeneration != this.drainGeneration) {
+                LOGGER.debug("drop of drained generation {} not released: {}", drainGeneration, this);
+            } else if (this.dropCount > 0) {
+                this.dropCount--;
+                this.drainedCondition.signalAll();
+            }
+            LOGGER.debug("released drop: {}", this);
+            return this.dropCount;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Invoke this method to reserve room for a number of drops at once, e.g. before requesting a batch of elements
+     * from a stream. Drops not fitting into the bucket are not leaked, they are simply not granted.
+     *
+     * @param requested number of drops
+     * @return number of drops added to the bucket, between zero and requested
+     */
+    public long reserveDrops(final long requested) {
+        Validate.isTrue(requested > 0, "requested must be greater than 0");
+        this.lock.lock();
+        try {
+            this.lastUsedMillis = this.timeSource.currentTimeMillis();
+
+            final long granted = Math.min(requested, Math.max(0, this.maxDropCount - this.dropCount));
+            this.dropCount += granted;
+            LOGGER.debug("reserved {} of {} drops: {}", granted, requested, this);
+            return granted;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Invoke this method to add a drop of the given priority to this bucket, waiting for the bucket to be drained
+     * when it is full for the priority. Waiting threads are parked, not pinned, and all woken up on drain. A thread
+     * only waits while the bucket is full for its own priority, so threads waiting with a lower priority never hold
+     * back drops of a higher one.
+     *
+     * @param priority of the drop
+     * @param timeout  maximum time to wait
+     * @param unit     of the timeout
+     * @return maxDropCount + 1 when bucket stayed full until timeout, number of drops within drain interval otherwise
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public long awaitDrop(final Priority priority, final long timeout, final TimeUnit unit) throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            return awaitRoom(priority, unit.toNanos(timeout)) ? this.dropCount : this.maxDropCount + 1;
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
+    /**
+     * Invoke this method to add a drop of the given priority to this bucket, waiting for the bucket to be drained
+     * when it is full for the priority. The decision is taken under the bucket lock, as in {@link #tryAddDrop}.
+     *
+     * @param priority of the drop
+     * @param timeout  maximum time to wait
+     * @param unit     of the timeout
+     * @return true when the drop ended in the bucket, false when the bucket stayed full until timeout
+     * @throws InterruptedException when interrupted while waiting
+     */
+    public boolean tryAwaitDrop(final Priority priority, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        this.lock.lockInterruptibly();
+        try {
+            return awaitRoom(priority, unit.toNanos(timeout));
+        } finally {
+            this.lock.unlock();
         }
-        return currentDrops;
     }
 
     /**
@@ -107,23 +266,108 @@ public class LeakyBucket {
      * @return NOTHING_DRAINED when drain invocation got executed within the drainIntervalMillis,
      * number of drained drops otherwise
      */
-    public synchronized long drain() {
-        final long currentTimeMillis = System.currentTimeMillis();
-        final long drained;
-        if (currentTimeMillis - lastDrainedMillis < drainIntervalMillis) {
-            LOGGER.debug("not drained: {}", this);
-            drained = NOTHING_DRAINED;
-        } else {
-            this.lastDrainedMillis = currentTimeMillis;
-            if (this.leakedCount > 0) {
-                LOGGER.warn("{} dropped {} requests in {}ms", name, leakedCount, drainIntervalMillis);
+    public long drain() {
+        this.lock.lock();
+        try {
+            final long currentTimeMillis = this.timeSource.currentTimeMillis();
+            final long drained;
+            if (currentTimeMillis - lastDrainedMillis < drainIntervalMillis) {
+                LOGGER.debug("not drained: {}", this);
+                drained = NOTHING_DRAINED;
+            } else {
+                this.lastDrainedMillis = currentTimeMillis;
+                this.drainGeneration++;
+                if (this.leakedCount > 0) {
+                    LOGGER.warn("{} dropped {} requests in {}ms", name, leakedCount, drainIntervalMillis);
+                }
+                drained = this.dropCount;
+                this.lastDemand = this.dropCount + this.leakedCount;
+                this.dropCount = 0;
+                this.leakedCount = 0;
+                this.drainedCondition.signalAll();
+                LOGGER.debug("drained: {}", this);
             }
-            drained = this.dropCount;
-            this.dropCount = 0;
-            this.leakedCount = 0;
-            LOGGER.debug("drained: {}", this);
+            return drained;
+        } finally {
+            this.lock.unlock();
         }
-        return drained;
+    }
+
+    /**
+     * Invoke this method to enter the bucket as one of concurrent requests. The invocation is lock free and
+     * independent of the drops, every successful entry must be followed by exactly one exit.
+     *
+     * @param maxInFlightCount maximum number of requests allowed in the bucket at the same time
+     * @return true when entered, false when maxInFlightCount requests are already in
+     * @see #exit
+     */
+    public boolean tryEnter(final long maxInFlightCount) {
+        while (true) {
+            final long current = this.inFlightCount;
+            if (current >= maxInFlightCount) {
+                LOGGER.debug("saturated at {} in flight: {}", current, this);
+                return false;
+            }
+            if (IN_FLIGHT_COUNT.compareAndSet(this, current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Invoke this method when the request that entered the bucket is complete
+     *
+     * @see #tryEnter
+     */
+    public void exit() {
+        final long current = IN_FLIGHT_COUNT.decrementAndGet(this);
+        Validate.validState(current >= 0, "exit without entering: %s", this.name);
+    }
+
+    /**
+     * @return number of requests currently in the bucket
+     */
+    public long getInFlightCount() {
+        return this.inFlightCount;
+    }
+
+    /**
+     * Lock free read of the remaining capacity, no drop is added
+     *
+     * @return number of drops the bucket can still take within the current interval
+     */
+    public long getRemainingDropCount() {
+        return Math.max(0, getMaxDropCount() - getDropCount());
+    }
+
+    /**
+     * Lock free read of the time to reset, no drop is added
+     *
+     * @return milliseconds remaining until the bucket is due to be drained, zero when already due
+     */
+    public long getMillisUntilDrain() {
+        return Math.max(0, this.lastDrainedMillis + this.drainIntervalMillis - this.timeSource.currentTimeMillis());
+    }
+
+    /**
+     * Lock free read of the drain generation, changing with every drain of the bucket
+     *
+     * @return generation to stamp a drop with before adding it
+     * @see #releaseDrop(long)
+     */
+    public long getDrainGeneration() {
+        return this.drainGeneration;
+    }
+
+    /**
+     * @return number of drops offered to the bucket within the last drained interval, both added and leaked
+     */
+    public long getLastDemand() {
+        return this.lastDemand;
+    }
+
+    public TimeSource getTimeSource() {
+        return this.timeSource;
     }
 
     public long getDrainIntervalMillis() {
@@ -138,10 +382,101 @@ public class LeakyBucket {
         return this.maxDropCount;
     }
 
+    /**
+     * Invoke this method to change the limit of a live bucket. The change is atomic with respect to drops being
+     * added, drops already in the bucket are kept.
+     *
+     * @param maxDropCount new maximum number of drops within drain interval
+     */
+    public void setMaxDropCount(final long maxDropCount) {
+        Validate.isTrue(maxDropCount > 0, "maxDropCount must be greater than 0");
+        this.lock.lock();
+        try {
+            if (this.maxDropCount != maxDropCount) {
+                LOGGER.debug("changing max drop count to {}: {}", maxDropCount, this);
+                if (maxDropCount > this.maxDropCount) {
+                    this.drainedCondition.signalAll();
+                }
+                this.maxDropCount = maxDropCount;
+            }
+        } finally {
+            this.lock.unlock();
+        }
+    }
+
     public String getName() {
         return this.name;
     }
 
+    /**
+     * Marks the bucket as removed from its meter, so any reference cached outside of the meter's bucket map is
+     * looked up again
+     */
+    public void retire() {
+        this.retired = true;
+    }
+
+    public boolean isRetired() {
+        return this.retired;
+    }
+
+    /**
+     * Marks the limit of the bucket as resolved by a limit resolver of its meter rather than given by the caller, so
+     * the limits applied later by the meter may change it
+     */
+    void markLimitResolved() {
+        this.limitResolved = true;
+    }
+
+    /**
+     * @return true when the limit of the bucket is resolved by a limit resolver, false when given by the caller
+     * @see Meter#applyLimits
+     */
+    public boolean isLimitResolved() {
+        return this.limitResolved;
+    }
+
+    /**
+     * Adds a drop when there is room for the priority, must be invoked holding the lock
+     *
+     * @return true when the drop got added, false when it leaked
+     */
+    private boolean offerDrop(final Priority priority) {
+        this.lastUsedMillis = this.timeSource.currentTimeMillis();
+
+        if (this.dropCount < priority.capacityOf(this.maxDropCount)) {
+            this.dropCount++;
+            LOGGER.debug("added drop: {}", this);
+            return true;
+        }
+        this.leakedCount++;
+        LOGGER.debug("leaked drop: {}", this);
+        return false;
+    }
+
+    /**
+     * Adds a drop waiting for room for the priority, must be invoked holding the lock
+     *
+     * @return true when the drop got added, false when the bucket stayed full until timeout
+     */
+    private boolean awaitRoom(final Priority priority, final long timeoutNanos) throws InterruptedException {
+        this.lastUsedMillis = this.timeSource.currentTimeMillis();
+
+        long remainingNanos = timeoutNanos;
+        while (this.dropCount >= priority.capacityOf(this.maxDropCount)) {
+            if (remainingNanos <= 0) {
+                this.leakedCount++;
+                LOGGER.debug("leaked drop after waiting: {}", this);
+                return false;
+            }
+            remainingNanos = this.drainedCondition.awaitNanos(remainingNanos);
+        }
+
+        this.dropCount++;
+        LOGGER.debug("added drop after waiting: {}", this);
+        return true;
+    }
+
     @Override
     public String toString() {
         return this.name + "[" + this.dropCount + "|" + this.leakedCount + "|" + this.maxDropCount + "]@"
@@ -153,6 +488,6 @@ public class LeakyBucket {
     }
 
     protected boolean isFull() {
-        return this.dropCount == this.maxDropCount;
+        return this.dropCount >= this.maxDropCount;
     }
 }
@@ -28,6 +28,8 @@ import org.apache.commons.lang3.Validate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created by krzysztof on 21/12/2015.
  * <p/>
@@ -44,9 +46,29 @@ public class LoggingThrottleStrategy implements ThrottleStrategy {
 
     @Override
     public final boolean dripAndCheckIfLeaked(final LeakyBucket bucket) {
+        return dripAndCheckIfLeaked(bucket, Priority.CRITICAL);
+    }
+
+    @Override
+    public final boolean dripAndCheckIfLeaked(final LeakyBucket bucket, final Priority priority) {
+        Validate.notNull(bucket, "bucket must not be null");
+        Validate.notNull(priority, "priority must not be null");
+
+        final boolean overflowing = !bucket.tryAddDrop(priority);
+        if (overflowing) {
+            handleOverflowingBucket(bucket);
+        }
+
+        return overflowing;
+    }
+
+    @Override
+    public final boolean awaitDripAndCheckIfLeaked(final LeakyBucket bucket, final Priority priority, final long timeout
+            , final TimeUnit unit) throws InterruptedException {
         Validate.notNull(bucket, "bucket must not be null");
+        Validate.notNull(priority, "priority must not be null");
 
-        final boolean overflowing = bucket.addDrop() > bucket.getMaxDropCount();
+        final boolean overflowing = !bucket.tryAwaitDrop(priority, timeout, unit);
         if (overflowing) {
             handleOverflowingBucket(bucket);
         }
@@ -54,6 +76,42 @@ public class LoggingThrottleStrategy implements ThrottleStrategy {
         return overflowing;
     }
 
+    @Override
+    public final long reserveDrops(final LeakyBucket bucket, final long requested) {
+        Validate.notNull(bucket, "bucket must not be null");
+
+        final long granted = bucket.reserveDrops(requested);
+        if (granted < requested) {
+            handleShortReservation(bucket, requested, granted);
+        }
+
+        return granted;
+    }
+
+    @Override
+    public final boolean enterAndCheckIfSaturated(final LeakyBucket bucket, final long maxInFlightCount) {
+        Validate.notNull(bucket, "bucket must not be null");
+
+        final boolean saturated = !bucket.tryEnter(maxInFlightCount);
+        if (saturated) {
+            handleSaturatedBucket(bucket, maxInFlightCount);
+        }
+
+        return saturated;
+    }
+
+    protected void handleSaturatedBucket(final LeakyBucket bucket, final long maxInFlightCount) {
+        LOGGER.debug("exceeded max no of concurrent requests: {} for: {}", maxInFlightCount, bucket.getName());
+    }
+
+    /**
+     * Reservations are expected to be retried once the bucket drains, so they are not treated as overflowing
+     */
+    protected void handleShortReservation(final LeakyBucket bucket, final long requested, final long granted) {
+        LOGGER.debug("reserved {} of {} requests: {} requests per {}ms for: {}", granted, requested
+                , bucket.getMaxDropCount(), bucket.getDrainIntervalMillis(), bucket.getName());
+    }
+
     protected void handleOverflowingBucket(final LeakyBucket bucket) {
         LOGGER.debug("exceeded max no of requests: {} requests per {}ms for: {}", bucket.getMaxDropCount()
                 , bucket.getDrainIntervalMillis(), bucket.getName());
@@ -0,0 +1,403 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+
+/**
+ * Fixed size table of throttle counters kept in a memory mapped file, allowing several JVM processes on one host
+ * to share the same buckets without any IPC round trips.
+ * <p/>
+ * Every slot is updated with single word compare-and-swap operations only, so no lock is ever held on the shared
+ * memory. A worker dying at any point leaves each slot in a consistent state: the window epoch and the drop count
+ * are packed into one long and the counts simply expire with the window.
+ * <p/>
+ * Layout: 64 bytes header (magic, version, slot count, slot size, interval) followed by 64 bytes slots
+ * (key hash, epoch|count, last used millis, max drop count). Keys are identified by their 64 bit hash.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see MappedLeakyBucket
+ * @see MappedMeter
+ */
+public class MappedBucketTable implements AutoCloseable {
+
+    public static final int MAGIC = 0x4B424143;
+
+    public static final int VERSION = 1;
+
+    public static final int HEADER_SIZE = 64;
+
+    public static final int SLOT_SIZE = 64;
+
+    public static final long MAX_DROP_COUNT = 0xFFFFFFFFL - 1;
+
+    static final int SLOT_HASH_OFFSET = 0;
+
+    static final int SLOT_STATE_OFFSET = 8;
+
+    static final int SLOT_LAST_USED_OFFSET = 16;
+
+    static final int SLOT_MAX_DROPS_OFFSET = 24;
+
+    private static final int HEADER_MAGIC_OFFSET = 0;
+
+    private static final int HEADER_VERSION_OFFSET = 4;
+
+    private static final int HEADER_SLOT_COUNT_OFFSET = 8;
+
+    private static final int HEADER_SLOT_SIZE_OFFSET = 12;
+
+    private static final int HEADER_INTERVAL_OFFSET = 16;
+
+    private static final long FREE = 0;
+
+    /** hash of the slots released as duplicates, never the hash of any key, reclaimed right away */
+    private static final long RELEASED = -1;
+
+    private static final long NO_SLOT = 0;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedBucketTable.class);
+
+    private final File file;
+
+    private final RandomAccessFile raf;
+
+    private final MappedByteBuffer buffer;
+
+    private final long baseAddress;
+
+    private final int slotCount;
+
+    private final int slotMask;
+
+    private final long drainIntervalMillis;
+
+    private final long idleSlotReclaimMillis;
+
+
+    /**
+     * Opens the table in the given file, creating and formatting it when it does not exist yet
+     *
+     * @param file                shared by all the processes using this table
+     * @param slotCount           number of slots, must be a power of two
+     * @param drainIntervalMillis throttle window, must be the same across all the processes
+     * @throws IOException when the file cannot be mapped
+     */
+    public MappedBucketTable(final File file, final int slotCount, final long drainIntervalMillis) throws IOException {
+        this(file, slotCount, drainIntervalMillis
+                , Math.max(FixedTimeTimerTask.IDLE_BUCKET_REMOVE_MILLIS_DEFAULT, drainIntervalMillis));
+    }
+
+    public MappedBucketTable(final File file, final int slotCount, final long drainIntervalMillis
+            , final long idleSlotReclaimMillis) throws IOException {
+        Validate.notNull(file, "file must not be null");
+        Validate.isTrue(slotCount > 0 && Integer.bitCount(slotCount) == 1, "slotCount must be a power of two");
+        Validate.isTrue(drainIntervalMillis > 0, "drainIntervalMillis must be greater than 0");
+        Validate.isTrue(idleSlotReclaimMillis >= drainIntervalMillis
+                , "idleSlotReclaimMillis must not be shorter than drainIntervalMillis");
+
+        this.file = file;
+        this.slotCount = slotCount;
+        this.slotMask = slotCount - 1;
+        this.drainIntervalMillis = drainIntervalMillis;
+        this.idleSlotReclaimMillis = idleSlotReclaimMillis;
+
+        final long size = HEADER_SIZE + (long) slotCount * SLOT_SIZE;
+        this.raf = new RandomAccessFile(file, "rw");
+        try {
+            final FileChannel channel = this.raf.getChannel();
+            // formatting is the only access guarded by the file lock, the slots are updated lock free
+            final FileLock lock = channel.lock();
+            try {
+                if (channel.size() < size) {
+                    this.raf.setLength(size);
+                }
+                this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+                this.baseAddress = SharedMemory.addressOf(this.buffer);
+                initHeader();
+            } finally {
+                lock.release();
+            }
+        } catch (IOException | RuntimeException e) {
+            this.raf.close();
+            throw e;
+        }
+
+        LOGGER.info("{} mapped {} slots of {}ms", file, slotCount, drainIntervalMillis);
+    }
+
+    private void initHeader() {
+        final int magic = SharedMemory.getIntVolatile(this.baseAddress + HEADER_MAGIC_OFFSET);
+        if (magic == 0) {
+            SharedMemory.putIntVolatile(this.baseAddress + HEADER_VERSION_OFFSET, VERSION);
+            SharedMemory.putIntVolatile(this.baseAddress + HEADER_SLOT_COUNT_OFFSET, this.slotCount);
+            SharedMemory.putIntVolatile(this.baseAddress + HEADER_SLOT_SIZE_OFFSET, SLOT_SIZE);
+            SharedMemory.putLongVolatile(this.baseAddress + HEADER_INTERVAL_OFFSET, this.drainIntervalMillis);
+            // magic written last so a partially formatted file is never taken for a valid one
+            SharedMemory.putIntVolatile(this.baseAddress + HEADER_MAGIC_OFFSET, MAGIC);
+        } else {
+            Validate.isTrue(magic == MAGIC, "%s is not a bucket table", this.file);
+            Validate.isTrue(SharedMemory.getIntVolatile(this.baseAddress + HEADER_VERSION_OFFSET) == VERSION
+                    , "unsupported bucket table version in %s", this.file);
+            Validate.isTrue(SharedMemory.getIntVolatile(this.baseAddress + HEADER_SLOT_COUNT_OFFSET) == this.slotCount
+                    , "slot count mismatch for %s", this.file);
+            Validate.isTrue(SharedMemory.getLongVolatile(this.baseAddress + HEADER_INTERVAL_OFFSET) == this.drainIntervalMillis
+                    , "drain interval mismatch for %s", this.file);
+        }
+    }
+
+    /**
+     * Creates a process local bucket backed by the shared slot of the given name
+     *
+     * @param name         of the bucket
+     * @param maxDropCount maximum number of drops per interval as seen by this process
+     * @return new bucket instance
+     */
+    public MappedLeakyBucket newBucket(final String name, final long maxDropCount) {
+        Validate.isTrue(maxDropCount <= MAX_DROP_COUNT, "maxDropCount must not exceed %d", MAX_DROP_COUNT);
+        return new MappedLeakyBucket(name, maxDropCount, this);
+    }
+
+    /**
+     * @param name to hash
+     * @return non zero 64 bit FNV-1a hash of the given name
+     */
+    static long hash(final CharSequence name) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < name.length(); i++) {
+            hash ^= name.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return hash == FREE || hash == RELEASED ? 1 : hash;
+    }
+
+    /**
+     * Finds the slot of given key hash claiming a free or idle one when missing
+     *
+     * @param keyHash of the bucket name
+     * @return address of the slot
+     * @throws IllegalStateException when the table is full
+     */
+    long claimSlot(final long keyHash) {
+        final int start = (int) (keyHash ^ (keyHash >>> 32)) & this.slotMask;
+        for (int i = 0; i < this.slotCount; i++) {
+            final long slot = slotAddress((start + i) & this.slotMask);
+            long current = SharedMemory.getLongVolatile(slot + SLOT_HASH_OFFSET);
+            if (current == FREE && SharedMemory.compareAndSwapLong(slot + SLOT_HASH_OFFSET, FREE, keyHash)) {
+                SharedMemory.putLongVolatile(slot + SLOT_LAST_USED_OFFSET, System.currentTimeMillis());
+                return slot;
+            }
+            current = SharedMemory.getLongVolatile(slot + SLOT_HASH_OFFSET);
+            if (current == keyHash) {
+                return slot;
+            }
+        }
+
+        final long now = System.currentTimeMillis();
+        for (int i = 0; i < this.slotCount; i++) {
+            final long slot = slotAddress((start + i) & this.slotMask);
+            final long current = SharedMemory.getLongVolatile(slot + SLOT_HASH_OFFSET);
+            if (current == keyHash) {
+                // claimed by another process meanwhile, its live state must not be reset
+                return resolveDuplicateSlots(keyHash, start);
+            }
+            final long lastUsed = SharedMemory.getLongVolatile(slot + SLOT_LAST_USED_OFFSET);
+            if (now - lastUsed >= this.idleSlotReclaimMillis
+                    && SharedMemory.compareAndSwapLong(slot + SLOT_HASH_OFFSET, current, keyHash)) {
+                SharedMemory.putLongVolatile(slot + SLOT_STATE_OFFSET, 0);
+                SharedMemory.putLongVolatile(slot + SLOT_LAST_USED_OFFSET, now);
+                LOGGER.debug("reclaimed slot idle for {}ms in {}", now - lastUsed, this.file);
+                return resolveDuplicateSlots(keyHash, start);
+            }
+        }
+        throw new IllegalStateException("no free slot left in " + this.file);
+    }
+
+    /**
+     * Processes missing the same key at the same time may reclaim different idle slots for it. Every process
+     * rescans the slots after its reclaim and releases all but the first slot of the key in probe order, at least
+     * one of any two racing processes sees both slots, so they all end up with the same slot. Processes holding
+     * a released slot find the hash changed and claim the slot again.
+     *
+     * @return address of the first slot of the key in probe order
+     */
+    private long resolveDuplicateSlots(final long keyHash, final int start) {
+        long first = NO_SLOT;
+        for (int i = 0; i < this.slotCount; i++) {
+            final long slot = slotAddress((start + i) & this.slotMask);
+            final long current = SharedMemory.getLongVolatile(slot + SLOT_HASH_OFFSET);
+            if (current == FREE) {
+                break;
+            }
+            if (current != keyHash) {
+                continue;
+            }
+            if (first == NO_SLOT) {
+                first = slot;
+            } else if (SharedMemory.compareAndSwapLong(slot + SLOT_HASH_OFFSET, keyHash, RELEASED)) {
+                SharedMemory.putLongVolatile(slot + SLOT_LAST_USED_OFFSET, 0);
+                LOGGER.debug("released duplicate slot in {}", this.file);
+            }
+        }
+        // the first slot of the key cannot be released by any process, there is always one once reclaimed
+        return first == NO_SLOT ? claimSlot(keyHash) : first;
+    }
+
+    /**
+     * Adds a drop to the given slot within the current window
+     *
+     * @param capacity the slot may be filled up to, at most maxDropCount
+     * @return maxDropCount + 1 when the slot is full, number of drops within the current window otherwise
+     */
+    long addDrop(final long slot, final long maxDropCount, final long capacity) {
+        final long now = System.currentTimeMillis();
+        final int epoch = epochOf(now);
+        SharedMemory.putLongVolatile(slot + SLOT_LAST_USED_OFFSET, now);
+        SharedMemory.putLongVolatile(slot + SLOT_MAX_DROPS_OFFSET, maxDropCount);
+        while (true) {
+            final long state = SharedMemory.getLongVolatile(slot + SLOT_STATE_OFFSET);
+            final long count = (int) (state >>> 32) == epoch ? state & 0xFFFFFFFFL : 0;
+            if (count >= capacity) {
+                return maxDropCount + 1;
+            }
+            final long next = ((long) epoch << 32) | (count + 1);
+            if (SharedMemory.compareAndSwapLong(slot + SLOT_STATE_OFFSET, state, next)) {
+                return count + 1;
+            }
+        }
+    }
+
+    /**
+     * Takes back a drop added within the given window from the given slot, unless the window has already passed
+     *
+     * @return number of drops within the current window
+     */
+    long releaseDrop(final long slot, final int epoch) {
+        while (true) {
+            final long state = SharedMemory.getLongVolatile(slot + SLOT_STATE_OFFSET);
+            final long count = state & 0xFFFFFFFFL;
+            if ((int) (state >>> 32) != epoch || count == 0) {
+                return (int) (state >>> 32) == epoch ? count : 0;
+            }
+            if (SharedMemory.compareAndSwapLong(slot + SLOT_STATE_OFFSET, state, state - 1)) {
+                return count - 1;
+            }
+        }
+    }
+
+    /**
+     * Reserves up to requested drops in the given slot within the current window
+     *
+     * @return number of drops granted, between zero and requested
+     */
+    long reserveDrops(final long slot, final long maxDropCount, final long requested) {
+        final long now = System.currentTimeMillis();
+        final int epoch = epochOf(now);
+        SharedMemory.putLongVolatile(slot + SLOT_LAST_USED_OFFSET, now);
+        while (true) {
+            final long state = SharedMemory.getLongVolatile(slot + SLOT_STATE_OFFSET);
+            final long count = (int) (state >>> 32) == epoch ? state & 0xFFFFFFFFL : 0;
+            final long granted = Math.min(requested, Math.max(0, maxDropCount - count));
+            if (granted == 0) {
+                return 0;
+            }
+            final long next = ((long) epoch << 32) | (count + granted);
+            if (SharedMemory.compareAndSwapLong(slot + SLOT_STATE_OFFSET, state, next)) {
+                return granted;
+            }
+        }
+    }
+
+    /**
+     * @return number of drops within the current window for the given slot
+     */
+    long getDropCount(final long slot) {
+        final long state = SharedMemory.getLongVolatile(slot + SLOT_STATE_OFFSET);
+        return (int) (state >>> 32) == epochOf(System.currentTimeMillis()) ? state & 0xFFFFFFFFL : 0;
+    }
+
+    long getSlotHash(final long slot) {
+        return SharedMemory.getLongVolatile(slot + SLOT_HASH_OFFSET);
+    }
+
+    public long getDrainIntervalMillis() {
+        return this.drainIntervalMillis;
+    }
+
+    public int getSlotCount() {
+        return this.slotCount;
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    @Override
+    public void close() throws IOException {
+        this.buffer.force();
+        this.raf.close();
+        LOGGER.debug("{} is closed", this.file);
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[" + this.file + "|" + this.slotCount + "]@"
+                + this.drainIntervalMillis + "ms";
+    }
+
+    /**
+     * @return milliseconds remaining until the current window ends
+     */
+    long getMillisUntilNextWindow() {
+        return this.drainIntervalMillis - System.currentTimeMillis() % this.drainIntervalMillis;
+    }
+
+    /**
+     * @return epoch of the current window
+     */
+    int currentEpoch() {
+        return epochOf(System.currentTimeMillis());
+    }
+
+    private int epochOf(final long millis) {
+        return (int) (millis / this.drainIntervalMillis);
+    }
+
+    private long slotAddress(final int index) {
+        return this.baseAddress + HEADER_SIZE + (long) index * SLOT_SIZE;
+    }
+}
@@ -0,0 +1,243 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Process local view of a bucket whose drops are counted in a shared slot of {@link MappedBucketTable}. The drops
+ * of all the processes mapping the same table are accounted together, while draining happens implicitly as the
+ * shared window moves on.
+ * <p/>
+ * NB: drain only resets the locally observed drops, it is there to let {@link FixedTimeTimerTask} discard idle
+ * local buckets. It never touches the shared slot.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class MappedLeakyBucket extends LeakyBucket {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MappedLeakyBucket.class);
+
+    private static final long LEAKED = -1;
+
+    private final MappedBucketTable table;
+
+    private final long keyHash;
+
+    private final LongAdder localDrops = new LongAdder();
+
+    private volatile long lastDemand;
+
+    private volatile long slot;
+
+    private volatile long lastUsedMillis;
+
+    private volatile long lastDrainedMillis;
+
+
+    MappedLeakyBucket(final String name, final long maxDropCount, final MappedBucketTable table) {
+        super(name, maxDropCount, table.getDrainIntervalMillis());
+
+        this.table = table;
+        this.keyHash = MappedBucketTable.hash(name);
+        this.slot = table.claimSlot(this.keyHash);
+        this.lastUsedMillis = System.currentTimeMillis();
+        this.lastDrainedMillis = this.lastUsedMillis;
+    }
+
+    @Override
+    public long addDrop(final Priority priority) {
+        final long maxDropCount = getMaxDropCount();
+        final long currentDrops = offerDrop(priority, maxDropCount);
+        return currentDrops > maxDropCount ? maxDropCount + 1 : currentDrops;
+    }
+
+    @Override
+    public boolean tryAddDrop(final Priority priority) {
+        final long maxDropCount = getMaxDropCount();
+        return offerDrop(priority, maxDropCount) <= maxDropCount;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The generation is the shared window, the local drains do not affect it.
+     */
+    @Override
+    public long releaseDrop(final long drainGeneration) {
+        if (drainGeneration != getDrainGeneration()) {
+            return 0;
+        }
+        this.localDrops.decrement();
+        return this.table.releaseDrop(currentSlot(), (int) drainGeneration);
+    }
+
+    @Override
+    public long getDrainGeneration() {
+        return this.table.currentEpoch();
+    }
+
+    @Override
+    public long reserveDrops(final long requested) {
+        this.lastUsedMillis = System.currentTimeMillis();
+
+        final long granted = this.table.reserveDrops(currentSlot(), getMaxDropCount(), requested);
+        this.localDrops.add(granted);
+        return granted;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The shared window is drained by the clock rather than by a signal, so waiting threads park until the next
+     * window starts and retry.
+     */
+    @Override
+    public long awaitDrop(final Priority priority, final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long currentDrops = awaitRoom(priority, unit.toNanos(timeout));
+        return currentDrops == LEAKED ? getMaxDropCount() + 1 : currentDrops;
+    }
+
+    @Override
+    public boolean tryAwaitDrop(final Priority priority, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        return awaitRoom(priority, unit.toNanos(timeout)) != LEAKED;
+    }
+
+    @Override
+    public long drain() {
+        final long currentTimeMillis = System.currentTimeMillis();
+        if (currentTimeMillis - this.lastDrainedMillis < getDrainIntervalMillis()) {
+            return NOTHING_DRAINED;
+        }
+        this.lastDrainedMillis = currentTimeMillis;
+        final long drained = this.localDrops.sumThenReset();
+        this.lastDemand = drained;
+        return drained;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Only the drops offered by this process are known.
+     */
+    @Override
+    public long getLastDemand() {
+        return this.lastDemand;
+    }
+
+    @Override
+    public long getLastUsedMillis() {
+        return this.lastUsedMillis;
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * The shared window ends at the same time for all processes regardless of the local drains.
+     */
+    @Override
+    public long getMillisUntilDrain() {
+        return this.table.getMillisUntilNextWindow();
+    }
+
+    @Override
+    public String toString() {
+        return getName() + "[" + getDropCount() + "|" + getMaxDropCount() + "]@" + getDrainIntervalMillis()
+                + "ms#" + this.table.getFile().getName();
+    }
+
+    @Override
+    protected long getDropCount() {
+        return this.table.getDropCount(currentSlot());
+    }
+
+    @Override
+    protected boolean isFull() {
+        return getDropCount() >= getMaxDropCount();
+    }
+
+    /**
+     * Adds a drop to the shared slot using the given limit
+     *
+     * @return maxDropCount + 1 when the slot is full for the priority, number of drops within the window otherwise
+     */
+    private long offerDrop(final Priority priority, final long maxDropCount) {
+        this.lastUsedMillis = System.currentTimeMillis();
+        this.localDrops.increment();
+
+        final long currentDrops = this.table.addDrop(currentSlot(), maxDropCount, priority.capacityOf(maxDropCount));
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("{} drop: {}", currentDrops > maxDropCount ? "leaked" : "added", this);
+        }
+        return currentDrops;
+    }
+
+    /**
+     * Adds a drop to the shared slot retrying each window until timeout, each attempt is decided against the limit
+     * it was made with
+     *
+     * @return LEAKED when the slot stayed full until timeout, number of drops within the window otherwise
+     */
+    private long awaitRoom(final Priority priority, final long timeoutNanos) throws InterruptedException {
+        final long deadlineNanos = System.nanoTime() + timeoutNanos;
+        while (true) {
+            final long maxDropCount = getMaxDropCount();
+            final long currentDrops = offerDrop(priority, maxDropCount);
+            if (currentDrops <= maxDropCount) {
+                return currentDrops;
+            }
+            final long remainingNanos = deadlineNanos - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return LEAKED;
+            }
+            final long windowMillis = getDrainIntervalMillis() - System.currentTimeMillis() % getDrainIntervalMillis();
+            LockSupport.parkNanos(this, Math.min(remainingNanos, TimeUnit.MILLISECONDS.toNanos(windowMillis)));
+            if (Thread.interrupted()) {
+                throw new InterruptedException("interrupted while waiting for " + getName());
+            }
+        }
+    }
+
+    /**
+     * @return slot of this bucket, re-claimed when the previous one got reclaimed by another process for other key
+     */
+    private long currentSlot() {
+        long current = this.slot;
+        if (this.table.getSlotHash(current) != this.keyHash) {
+            current = this.table.claimSlot(this.keyHash);
+            this.slot = current;
+            LOGGER.debug("re-claimed slot for {}", getName());
+        }
+        return current;
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * Meter counting the drops in a {@link MappedBucketTable}, so that a number of processes on one host mapping the same
+ * table are throttled together with a per-host limit.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class MappedMeter extends Meter {
+
+    private final MappedBucketTable table;
+
+
+    /**
+     * Creates instance of the meter using internal timer and interval of the given table
+     *
+     * @param throttleStrategy
+     * @param table shared with the other processes
+     */
+    public MappedMeter(final ThrottleStrategy throttleStrategy, final MappedBucketTable table) {
+        super(throttleStrategy, validTable(table).getDrainIntervalMillis());
+        this.table = table;
+    }
+
+    @Override
+    protected LeakyBucket newBucket(final String name, final long maxNumberOfRequests) {
+        return this.table.newBucket(name, maxNumberOfRequests);
+    }
+
+    public MappedBucketTable getTable() {
+        return this.table;
+    }
+
+    private static MappedBucketTable validTable(final MappedBucketTable table) {
+        Validate.notNull(table, "table must not be null");
+        return table;
+    }
+}
@@ -30,6 +30,7 @@ import java.util.Date;
 import java.util.Timer;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by krzysztof on 21/12/2015.
@@ -56,6 +57,12 @@ public class Meter implements AutoCloseable {
 
     private final long throttleIntervalMillis;
 
+    private final TimeSource timeSource;
+
+    private volatile KeyDictionary keyDictionary = new KeyDictionary();
+
+    private volatile LimitResolver limitResolver;
+
     private Timer timer;
 
 
@@ -104,13 +111,30 @@ public class Meter implements AutoCloseable {
      */
     public Meter(final ThrottleStrategy throttleStrategy, final long throttleIntervalMillis,
                  final ConcurrentMap<String, LeakyBucket> buckets) {
+        this(throttleStrategy, throttleIntervalMillis, buckets, TimeSource.SYSTEM);
+    }
+
+    /**
+     * Creates instance of the meter fully relying on external timer configuration and measuring the intervals of its
+     * buckets with the given time source, e.g. a virtual one in simulations
+     *
+     * @param throttleStrategy
+     * @param throttleIntervalMillis
+     * @param buckets
+     * @param timeSource
+     * @see org.kbac.throttle.sim.Simulation
+     */
+    public Meter(final ThrottleStrategy throttleStrategy, final long throttleIntervalMillis,
+                 final ConcurrentMap<String, LeakyBucket> buckets, final TimeSource timeSource) {
         Validate.notNull(throttleStrategy, "throttleStrategy must not be null");
         Validate.isTrue(throttleIntervalMillis > 0, "throttleIntervalMillis must be greater than zero");
         Validate.notNull(buckets, "bucket map must be provided");
+        Validate.notNull(timeSource, "timeSource must not be null");
 
         this.buckets = buckets;
         this.throttleStrategy = throttleStrategy;
         this.throttleIntervalMillis = throttleIntervalMillis;
+        this.timeSource = timeSource;
 
         LOGGER.info("{} using throttle strategy: {} with interval: {}ms", this
                 , this.throttleStrategy.getClass().getName(), this.throttleIntervalMillis);
@@ -129,10 +153,219 @@ public class Meter implements AutoCloseable {
      * @see ThrowingThrottleStrategy
      */
     public boolean shouldThrottle(final String name, final long maxNumberOfRequests) {
+        return throttleStrategy.dripAndCheckIfLeaked(getBucket(name, maxNumberOfRequests));
+    }
+
+    /**
+     * Invoke this method to decide if the request for a given name should be allowed to continue or throttled, and
+     * to get the state of the bucket after the decision from the same single lookup. The invocation is thread safe
+     * as long as the result is not shared between threads.
+     *
+     * @param name                of the request that should be throttled
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval
+     * @param result              updated with the decision and the bucket state, also when the strategy throws
+     * @return true when the request should be rejected, false when it should continue
+     * @throws TooManyRequestsException when pre-configured to use ThrowingThrottleStrategy
+     */
+    public boolean shouldThrottle(final String name, final long maxNumberOfRequests, final ThrottleResult result) {
+        return shouldThrottle(getBucket(name, maxNumberOfRequests), result);
+    }
+
+    /**
+     * Invoke this method to decide if the request for a name held in a char sequence, e.g. a reused buffer, should
+     * be allowed to continue or throttled. The name is interned by the key dictionary of this meter and its bucket
+     * is found by the interned name, so no String is created once the name has been seen. The invocation is thread
+     * safe.
+     *
+     * @param name                of the request that should be throttled
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval
+     * @return true when the request should be rejected, false when it should continue
+     * @throws TooManyRequestsException when pre-configured to use ThrowingThrottleStrategy
+     * @see KeyDictionary
+     */
+    public boolean shouldThrottle(final CharSequence name, final long maxNumberOfRequests) {
+        return throttleStrategy.dripAndCheckIfLeaked(getBucket(name, maxNumberOfRequests));
+    }
+
+    /**
+     * @see #shouldThrottle(CharSequence, long)
+     * @see #shouldThrottle(String, long, ThrottleResult)
+     */
+    public boolean shouldThrottle(final CharSequence name, final long maxNumberOfRequests, final ThrottleResult result) {
+        return shouldThrottle(getBucket(name, maxNumberOfRequests), result);
+    }
+
+    private boolean shouldThrottle(final LeakyBucket bucket, final ThrottleResult result) {
+        Validate.notNull(result, "result must not be null");
+
+        try {
+            final boolean throttled = throttleStrategy.dripAndCheckIfLeaked(bucket);
+            result.update(bucket, throttled);
+            return throttled;
+        } catch (TooManyRequestsException e) {
+            result.update(bucket, true);
+            throw e;
+        }
+    }
+
+    /**
+     * Invoke this method to decide if the request should be allowed to continue by a hierarchy of buckets, e.g. the
+     * global, tenant and user one. The request is admitted only when every bucket has capacity, buckets are checked
+     * from the last (most specific) one and the drops added to the buckets already checked are taken back when any
+     * bucket rejects the request, so rejected requests never count against the other buckets. Buckets of the same
+     * name are shared by all the hierarchies they belong to. The invocation is thread safe.
+     *
+     * @param names               of the buckets ordered from the root
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval of every bucket
+     * @return true when the request should be rejected, false when it should continue
+     * @throws TooManyRequestsException when pre-configured to use ThrowingThrottleStrategy
+     * @see QuotaHierarchy
+     */
+    public boolean shouldThrottle(final String[] names, final long[] maxNumberOfRequests) {
+        Validate.isTrue(names.length > 0 && names.length == maxNumberOfRequests.length
+                , "names and maxNumberOfRequests must be of the same non zero length");
+
+        final LeakyBucket[] checked = new LeakyBucket[names.length];
+        final long[] drainGenerations = new long[names.length];
+        for (int i = names.length - 1; i >= 0; i--) {
+            checked[i] = getBucket(names[i], maxNumberOfRequests[i]);
+            // read before the drop is added, a drain in between keeps the drop rather than release one of new window
+            drainGenerations[i] = checked[i].getDrainGeneration();
+            final boolean throttled;
+            try {
+                throttled = throttleStrategy.dripAndCheckIfLeaked(checked[i]);
+            } catch (TooManyRequestsException e) {
+                releaseDrops(checked, drainGenerations, i + 1);
+                throw e;
+            }
+            if (throttled) {
+                releaseDrops(checked, drainGenerations, i + 1);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Invoke this method to decide if the request of a given priority should be allowed to continue or throttled.
+     * Requests of lower priorities are throttled first, each priority may only use its share of maxNumberOfRequests.
+     *
+     * @param name                of the request that should be throttled
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval
+     * @param priority            of the request
+     * @return true when the request should be rejected, false when it should continue
+     * @throws TooManyRequestsException when pre-configured to use ThrowingThrottleStrategy
+     * @see Priority
+     */
+    public boolean shouldThrottle(final String name, final long maxNumberOfRequests, final Priority priority) {
+        return throttleStrategy.dripAndCheckIfLeaked(getBucket(name, maxNumberOfRequests), priority);
+    }
+
+    /**
+     * Invoke this method to wait until the request for a given name can continue without exceeding
+     * maxNumberOfRequests within pre-configured interval. The waiting thread is parked rather than pinned, which
+     * makes this method suitable for virtual threads.
+     *
+     * @param name                of the request that should be throttled
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval
+     * @param timeout             maximum time to wait
+     * @param unit                of the timeout
+     * @return true when the request should continue, false when it should be rejected after waiting for timeout
+     * @throws InterruptedException when interrupted while waiting
+     * @throws TooManyRequestsException when pre-configured to use ThrowingThrottleStrategy and timed out
+     */
+    public boolean acquire(final String name, final long maxNumberOfRequests, final long timeout, final TimeUnit unit)
+            throws InterruptedException {
+        return acquire(name, maxNumberOfRequests, Priority.CRITICAL, timeout, unit);
+    }
+
+    /**
+     * Invoke this method to wait until the request of a given priority can continue
+     *
+     * @see #acquire(String, long, long, TimeUnit)
+     * @see Priority
+     */
+    public boolean acquire(final String name, final long maxNumberOfRequests, final Priority priority
+            , final long timeout, final TimeUnit unit) throws InterruptedException {
+        Validate.notNull(unit, "unit must not be null");
+        return !throttleStrategy.awaitDripAndCheckIfLeaked(getBucket(name, maxNumberOfRequests), priority, timeout, unit);
+    }
+
+    /**
+     * Invoke this method to reserve room for a number of requests for a given name at once, e.g. before requesting
+     * a batch of elements from a stream. Requests not fitting into the bucket are not granted, they are not leaked.
+     *
+     * @param name                of the requests that should be throttled
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval
+     * @param requested           number of requests
+     * @return number of requests granted, between zero and requested
+     * @see LeakyBucket#reserveDrops
+     */
+    public long reserve(final String name, final long maxNumberOfRequests, final long requested) {
+        return throttleStrategy.reserveDrops(getBucket(name, maxNumberOfRequests), requested);
+    }
+
+    /**
+     * Invoke this method to admit the request for a given name capping both the number of requests within
+     * pre-configured interval and the number of concurrent requests, using a single bucket lookup. The invocation
+     * is thread safe and lock free as far as the concurrent requests are concerned.
+     * <pre>
+     *     try (final Permit permit = meter.tryAcquire(name, 100, 10)) {
+     *         if (permit == null) {
+     *             // rejected
+     *         }
+     *         ...
+     *     }
+     * </pre>
+     *
+     * @param name                of the request that should be throttled
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval
+     * @param maxInFlightCount    defines maximum number of concurrent requests
+     * @return permit to be closed once the request is complete, null when the request should be rejected
+     * @throws TooManyRequestsException when pre-configured to use ThrowingThrottleStrategy
+     */
+    public Permit tryAcquire(final String name, final long maxNumberOfRequests, final long maxInFlightCount) {
+        Validate.isTrue(maxInFlightCount > 0, "maxInFlightCount must be greater than zero");
+
+        final LeakyBucket bucket = getBucket(name, maxNumberOfRequests);
+        if (throttleStrategy.enterAndCheckIfSaturated(bucket, maxInFlightCount)) {
+            return null;
+        }
+
+        boolean admitted = false;
+        try {
+            admitted = !throttleStrategy.dripAndCheckIfLeaked(bucket);
+        } finally {
+            if (!admitted) {
+                bucket.exit();
+            }
+        }
+        return admitted ? new Permit(bucket) : null;
+    }
+
+    /**
+     * Invoke this method to decide if the request for a given name should be allowed to continue or throttled
+     * using the limit resolved for the name by pre-configured limit resolver. The limit is resolved once per bucket,
+     * live buckets pick up new limits through {@link #applyLimits}.
+     *
+     * @param name of the request that should be throttled
+     * @return true when the request should be rejected, false when it should continue or no limit applies to the name
+     * @throws TooManyRequestsException when pre-configured to use ThrowingThrottleStrategy
+     * @throws IllegalStateException when no limit resolver is configured
+     * @see #setLimitResolver
+     */
+    public boolean shouldThrottle(final String name) {
         LeakyBucket bucket = buckets.get(name);
         if (bucket == null) {
-            bucket = new LeakyBucket(name, maxNumberOfRequests, throttleIntervalMillis);
-            LeakyBucket prev = buckets.putIfAbsent(name, bucket);
+            final LimitResolver resolver = this.limitResolver;
+            Validate.validState(resolver != null, "no limit resolver configured for %s", this);
+            final long maxNumberOfRequests = resolver.resolveLimit(name);
+            if (maxNumberOfRequests == LimitResolver.NO_LIMIT) {
+                return false;
+            }
+            bucket = newBucket(name, maxNumberOfRequests);
+            bucket.markLimitResolved();
+            final LeakyBucket prev = buckets.putIfAbsent(name, bucket);
             if (prev != null) {
                 LOGGER.debug("previous bucket used {}", prev);
                 bucket = prev;
@@ -141,6 +374,44 @@ public class Meter implements AutoCloseable {
         return throttleStrategy.dripAndCheckIfLeaked(bucket);
     }
 
+    /**
+     * Applies limits resolved by the given resolver to the live buckets created by {@link #shouldThrottle(String)}
+     * without rebuilding them. Buckets no longer covered by any limit are discarded. Buckets created with a limit
+     * given by the caller keep that limit.
+     *
+     * @param resolver of the new limits
+     */
+    public void applyLimits(final LimitResolver resolver) {
+        Validate.notNull(resolver, "resolver must not be null");
+
+        for (final LeakyBucket bucket : buckets.values()) {
+            if (!bucket.isLimitResolved()) {
+                continue;
+            }
+            final long maxNumberOfRequests = resolver.resolveLimit(bucket.getName());
+            if (maxNumberOfRequests == LimitResolver.NO_LIMIT) {
+                if (buckets.remove(bucket.getName(), bucket)) {
+                    bucket.retire();
+                }
+                LOGGER.debug("removed bucket without limit: {}", bucket);
+            } else {
+                bucket.setMaxDropCount(maxNumberOfRequests);
+            }
+        }
+    }
+
+    public LimitResolver getLimitResolver() {
+        return this.limitResolver;
+    }
+
+    /**
+     * @param limitResolver used to resolve limits of new buckets
+     * @see #shouldThrottle(String)
+     */
+    public void setLimitResolver(final LimitResolver limitResolver) {
+        this.limitResolver = limitResolver;
+    }
+
     @Override
     public void close() throws Exception {
         if (this.timer != null) {
@@ -153,4 +424,99 @@ public class Meter implements AutoCloseable {
     protected Timer getTimer() {
         return this.timer;
     }
+
+    /**
+     * @param name of the bucket
+     * @return milliseconds until the bucket of the given name is due to be drained, zero when there is no such bucket
+     */
+    public long getMillisUntilDrain(final String name) {
+        final LeakyBucket bucket = buckets.get(name);
+        return bucket == null ? 0 : bucket.getMillisUntilDrain();
+    }
+
+    /**
+     * @return number of buckets currently kept by this meter
+     */
+    public int getBucketCount() {
+        return buckets.size();
+    }
+
+    public TimeSource getTimeSource() {
+        return this.timeSource;
+    }
+
+    /**
+     * @return dictionary interning the names, replaced by an empty one once full
+     */
+    public KeyDictionary getKeyDictionary() {
+        return this.keyDictionary;
+    }
+
+    public long getThrottleIntervalMillis() {
+        return this.throttleIntervalMillis;
+    }
+
+    private void releaseDrops(final LeakyBucket[] checked, final long[] drainGenerations, final int from) {
+        for (int i = from; i < checked.length; i++) {
+            checked[i].releaseDrop(drainGenerations[i]);
+        }
+    }
+
+    /**
+     * Looks up the bucket for the name held in the given char sequence by the interned name, so no String is created
+     * for the names seen before. The dictionary is recycled once full, the names in use get interned again.
+     *
+     * @param name                of the bucket
+     * @param maxNumberOfRequests used when the bucket needs to be created
+     * @return bucket registered under the given name
+     */
+    private LeakyBucket getBucket(final CharSequence name, final long maxNumberOfRequests) {
+        final KeyDictionary dictionary = this.keyDictionary;
+        final int id = dictionary.intern(name);
+        if (id == KeyDictionary.NOT_FOUND) {
+            recycleKeyDictionary(dictionary);
+            return getBucket(name.toString(), maxNumberOfRequests);
+        }
+        // the interned name caches its hash, the map lookup costs no more than indexing buckets by ids, and never
+        // returns a bucket removed from the map
+        return getBucket(dictionary.getKey(id), maxNumberOfRequests);
+    }
+
+    private synchronized void recycleKeyDictionary(final KeyDictionary full) {
+        if (this.keyDictionary == full) {
+            this.keyDictionary = new KeyDictionary(full.getMaxKeyCount());
+            LOGGER.debug("recycled full {} of {}", full, this);
+        }
+    }
+
+    /**
+     * Looks up the bucket for the given name creating it when missing
+     *
+     * @param name                of the bucket
+     * @param maxNumberOfRequests used when the bucket needs to be created
+     * @return bucket registered under the given name
+     */
+    protected LeakyBucket getBucket(final String name, final long maxNumberOfRequests) {
+        LeakyBucket bucket = buckets.get(name);
+        if (bucket == null) {
+            bucket = newBucket(name, maxNumberOfRequests);
+            LeakyBucket prev = buckets.putIfAbsent(name, bucket);
+            if (prev != null) {
+                LOGGER.debug("previous bucket used {}", prev);
+                bucket = prev;
+            }
+        }
+        return bucket;
+    }
+
+    /**
+     * Override this method to provide alternative bucket implementations
+     *
+     * @param name                of the bucket
+     * @param maxNumberOfRequests defines maximum number of requests within pre-configured interval
+     * @return new bucket instance, not yet registered with this meter
+     */
+    protected LeakyBucket newBucket(final String name, final long maxNumberOfRequests) {
+        return new LeakyBucket(name, maxNumberOfRequests, this.throttleIntervalMillis, this.timeSource);
+    }
 }
@@ -0,0 +1,69 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+/**
+ * Priority classes of requests. Each class may only fill its share of bucket's maxDropCount, leaving the remainder
+ * reserved for the higher classes, so the lower classes get shed first when the bucket fills up.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see LeakyBucket#addDrop(Priority)
+ */
+public enum Priority {
+
+      LOW(50)
+    , NORMAL(80)
+    , HIGH(95)
+    , CRITICAL(100);
+
+    private final int sharePercent;
+
+
+    Priority(final int sharePercent) {
+        this.sharePercent = sharePercent;
+    }
+
+    /**
+     * @return percentage of bucket's maxDropCount available to this class
+     */
+    public int getSharePercent() {
+        return this.sharePercent;
+    }
+
+    /**
+     * @param maxDropCount of the bucket
+     * @return number of drops this class may fill the bucket up to, never less than one
+     */
+    public long capacityOf(final long maxDropCount) {
+        if (this.sharePercent == 100) {
+            return maxDropCount;
+        }
+        // split to avoid overflow of maxDropCount * sharePercent for limits close to Long.MAX_VALUE
+        return Math.max(1, maxDropCount / 100 * this.sharePercent + maxDropCount % 100 * this.sharePercent / 100);
+    }
+}
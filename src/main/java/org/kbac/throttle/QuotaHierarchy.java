@@ -0,0 +1,127 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+
+/**
+ * Nested quotas enforced together, e.g. 50000 requests per interval globally, 5000 per tenant and 100 per user
+ * <pre>
+ *     final QuotaHierarchy quotas = new QuotaHierarchy(meter, "global", 50000, 5000, 100);
+ *     if (quotas.shouldThrottle(tenant, user)) {
+ *         // rejected
+ *     }
+ * </pre>
+ * Every level is backed by a bucket of the meter named after its path, e.g. <code>global/acme/joe</code>, so the
+ * ancestor buckets are shared by all their descendants. Separators and escape characters within the keys are
+ * escaped, e.g. tenant <code>acme/joe</code> is backed by <code>global/acme\/joe</code>, so no key collides with a
+ * path of other keys.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see Meter#shouldThrottle(String[], long[])
+ */
+public class QuotaHierarchy {
+
+    public static final char PATH_SEPARATOR = '/';
+
+    public static final char ESCAPE_CHAR = '\\';
+
+    private final Meter meter;
+
+    private final String rootName;
+
+    private final long[] limits;
+
+
+    /**
+     * @param meter    providing the buckets
+     * @param rootName name of the root bucket
+     * @param limits   maximum number of requests per interval of every level, starting with the root
+     */
+    public QuotaHierarchy(final Meter meter, final String rootName, final long... limits) {
+        Validate.notNull(meter, "meter must not be null");
+        Validate.notBlank(rootName, "rootName must not be empty");
+        Validate.isTrue(limits.length > 0, "limits must not be empty");
+        for (final long limit : limits) {
+            Validate.isTrue(limit > 0, "limit must be greater than 0");
+        }
+
+        this.meter = meter;
+        this.rootName = rootName;
+        this.limits = limits.clone();
+    }
+
+    /**
+     * Invoke this method to decide if the request should be allowed to continue by all the levels of the hierarchy.
+     * The invocation is thread safe.
+     *
+     * @param keys of the request at each level below the root, e.g. tenant and user
+     * @return true when the request should be rejected, false when it should continue
+     * @throws TooManyRequestsException when the meter is pre-configured to use ThrowingThrottleStrategy
+     */
+    public boolean shouldThrottle(final String... keys) {
+        Validate.isTrue(keys.length == this.limits.length - 1, "expected %d keys", this.limits.length - 1);
+
+        final String[] names = new String[this.limits.length];
+        names[0] = this.rootName;
+        for (int i = 0; i < keys.length; i++) {
+            names[i + 1] = names[i] + PATH_SEPARATOR + escape(keys[i]);
+        }
+        return this.meter.shouldThrottle(names, this.limits);
+    }
+
+    private static String escape(final String key) {
+        if (key == null || key.indexOf(PATH_SEPARATOR) < 0 && key.indexOf(ESCAPE_CHAR) < 0) {
+            return key;
+        }
+        final StringBuilder escaped = new StringBuilder(key.length() + 4);
+        for (int i = 0; i < key.length(); i++) {
+            final char c = key.charAt(i);
+            if (c == PATH_SEPARATOR || c == ESCAPE_CHAR) {
+                escaped.append(ESCAPE_CHAR);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    public String getRootName() {
+        return this.rootName;
+    }
+
+    public int getDepth() {
+        return this.limits.length;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{" + this.rootName + Arrays.toString(this.limits) + '}';
+    }
+}
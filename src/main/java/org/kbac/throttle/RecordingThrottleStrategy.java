@@ -0,0 +1,131 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decorator of a throttle strategy recording every decision taken with {@link TrafficRecorder}, e.g.
+ * <pre>
+ *     new Meter(new RecordingThrottleStrategy(new LoggingThrottleStrategy(), recorder), interval, buckets);
+ * </pre>
+ * Requests rejected by throwing strategies are recorded as throttled before the exception is propagated.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class RecordingThrottleStrategy implements ThrottleStrategy {
+
+    private final ThrottleStrategy delegate;
+
+    private final TrafficRecorder recorder;
+
+
+    /**
+     * @param delegate taking the decisions
+     * @param recorder of the decisions
+     */
+    public RecordingThrottleStrategy(final ThrottleStrategy delegate, final TrafficRecorder recorder) {
+        Validate.notNull(delegate, "delegate must not be null");
+        Validate.notNull(recorder, "recorder must not be null");
+
+        this.delegate = delegate;
+        this.recorder = recorder;
+    }
+
+    @Override
+    public boolean dripAndCheckIfLeaked(final LeakyBucket bucket) {
+        try {
+            return record(bucket, this.delegate.dripAndCheckIfLeaked(bucket));
+        } catch (TooManyRequestsException e) {
+            record(bucket, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean dripAndCheckIfLeaked(final LeakyBucket bucket, final Priority priority) {
+        try {
+            return record(bucket, this.delegate.dripAndCheckIfLeaked(bucket, priority));
+        } catch (TooManyRequestsException e) {
+            record(bucket, true);
+            throw e;
+        }
+    }
+
+    @Override
+    public boolean awaitDripAndCheckIfLeaked(final LeakyBucket bucket, final Priority priority, final long timeout
+            , final TimeUnit unit) throws InterruptedException {
+        try {
+            return record(bucket, this.delegate.awaitDripAndCheckIfLeaked(bucket, priority, timeout, unit));
+        } catch (TooManyRequestsException e) {
+            record(bucket, true);
+            throw e;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p/>
+     * Every granted drop is recorded as an admitted request, a reservation not granted in full as a single
+     * throttled one.
+     */
+    @Override
+    public long reserveDrops(final LeakyBucket bucket, final long requested) {
+        final long granted = this.delegate.reserveDrops(bucket, requested);
+        for (long i = 0; i < granted; i++) {
+            record(bucket, false);
+        }
+        if (granted < requested) {
+            record(bucket, true);
+        }
+        return granted;
+    }
+
+    @Override
+    public boolean enterAndCheckIfSaturated(final LeakyBucket bucket, final long maxInFlightCount) {
+        try {
+            final boolean saturated = this.delegate.enterAndCheckIfSaturated(bucket, maxInFlightCount);
+            // admitted requests are recorded once they are dripped into the bucket
+            return saturated ? record(bucket, true) : false;
+        } catch (TooManyRequestsException e) {
+            record(bucket, true);
+            throw e;
+        }
+    }
+
+    public TrafficRecorder getRecorder() {
+        return this.recorder;
+    }
+
+    private boolean record(final LeakyBucket bucket, final boolean throttled) {
+        this.recorder.record(bucket.getName(), throttled);
+        return throttled;
+    }
+}
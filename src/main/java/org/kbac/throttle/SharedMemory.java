@@ -0,0 +1,146 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.kbac.throttle;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.Buffer;
+
+/**
+ * Atomic access to memory shared between processes, e.g. a memory mapped file. The JDK 8 buffers offer no compare
+ * and swap, so the accesses are delegated to sun.misc.Unsafe, looked up reflectively rather than referenced by the
+ * code: javac warns about every reference to the proprietary API and the warning cannot be suppressed locally. The
+ * method handles are constants, so the JIT compiles the calls into the plain Unsafe intrinsics.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see MappedBucketTable
+ */
+final class SharedMemory {
+
+    private static final MethodHandle GET_INT_VOLATILE;
+
+    private static final MethodHandle PUT_INT_VOLATILE;
+
+    private static final MethodHandle GET_LONG_VOLATILE;
+
+    private static final MethodHandle PUT_LONG_VOLATILE;
+
+    private static final MethodHandle COMPARE_AND_SWAP_LONG;
+
+    private static final long BUFFER_ADDRESS_OFFSET;
+
+    private static final MethodHandle GET_LONG;
+
+    static {
+        try {
+            final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            final Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            final Object unsafe = theUnsafe.get(null);
+
+            final MethodHandles.Lookup lookup = MethodHandles.lookup();
+            GET_INT_VOLATILE = lookup.findVirtual(unsafeClass, "getIntVolatile"
+                    , MethodType.methodType(int.class, Object.class, long.class)).bindTo(unsafe);
+            PUT_INT_VOLATILE = lookup.findVirtual(unsafeClass, "putIntVolatile"
+                    , MethodType.methodType(void.class, Object.class, long.class, int.class)).bindTo(unsafe);
+            GET_LONG_VOLATILE = lookup.findVirtual(unsafeClass, "getLongVolatile"
+                    , MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+            PUT_LONG_VOLATILE = lookup.findVirtual(unsafeClass, "putLongVolatile"
+                    , MethodType.methodType(void.class, Object.class, long.class, long.class)).bindTo(unsafe);
+            COMPARE_AND_SWAP_LONG = lookup.findVirtual(unsafeClass, "compareAndSwapLong"
+                    , MethodType.methodType(boolean.class, Object.class, long.class, long.class, long.class)).bindTo(unsafe);
+            GET_LONG = lookup.findVirtual(unsafeClass, "getLong"
+                    , MethodType.methodType(long.class, Object.class, long.class)).bindTo(unsafe);
+
+            final MethodHandle objectFieldOffset = lookup.findVirtual(unsafeClass, "objectFieldOffset"
+                    , MethodType.methodType(long.class, Field.class)).bindTo(unsafe);
+            BUFFER_ADDRESS_OFFSET = (long) objectFieldOffset.invokeExact(Buffer.class.getDeclaredField("address"));
+        } catch (Throwable e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+
+    private SharedMemory() {
+    }
+
+    /**
+     * @param buffer direct buffer, e.g. a mapped one
+     * @return address of the first byte of the buffer
+     */
+    static long addressOf(final Buffer buffer) {
+        try {
+            return (long) GET_LONG.invokeExact((Object) buffer, BUFFER_ADDRESS_OFFSET);
+        } catch (Throwable e) {
+            throw new IllegalStateException("cannot resolve address of " + buffer, e);
+        }
+    }
+
+    static int getIntVolatile(final long address) {
+        try {
+            return (int) GET_INT_VOLATILE.invokeExact((Object) null, address);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void putIntVolatile(final long address, final int value) {
+        try {
+            PUT_INT_VOLATILE.invokeExact((Object) null, address, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static long getLongVolatile(final long address) {
+        try {
+            return (long) GET_LONG_VOLATILE.invokeExact((Object) null, address);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void putLongVolatile(final long address, final long value) {
+        try {
+            PUT_LONG_VOLATILE.invokeExact((Object) null, address, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static boolean compareAndSwapLong(final long address, final long expected, final long value) {
+        try {
+            return (boolean) COMPARE_AND_SWAP_LONG.invokeExact((Object) null, address, expected, value);
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
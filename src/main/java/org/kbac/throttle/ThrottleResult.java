@@ -0,0 +1,99 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mutable outcome of a single throttle decision together with the state of the bucket right after it, allowing
+ * callers to report the limits to their clients without looking the bucket up again. Instances are meant to be
+ * reused by a single thread, e.g. kept in a thread local, and are not thread safe.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see Meter#shouldThrottle(String, long, ThrottleResult)
+ */
+public class ThrottleResult {
+
+    private long limit;
+
+    private long remaining;
+
+    private long resetNanos;
+
+    private boolean throttled;
+
+
+    /**
+     * @return maximum number of requests within the interval
+     */
+    public long getLimit() {
+        return this.limit;
+    }
+
+    /**
+     * @return number of requests still allowed within the current interval
+     */
+    public long getRemaining() {
+        return this.remaining;
+    }
+
+    /**
+     * @return nanoseconds until the current interval ends and the bucket gets drained
+     */
+    public long getResetNanos() {
+        return this.resetNanos;
+    }
+
+    /**
+     * @return seconds until the current interval ends, rounded up
+     */
+    public long getResetSeconds() {
+        return (this.resetNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1);
+    }
+
+    /**
+     * @return true when the request should be rejected
+     */
+    public boolean isThrottled() {
+        return this.throttled;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{limit=" + this.limit + ", remaining=" + this.remaining
+                + ", resetNanos=" + this.resetNanos + ", throttled=" + this.throttled + '}';
+    }
+
+    ThrottleResult update(final LeakyBucket bucket, final boolean throttled) {
+        this.limit = bucket.getMaxDropCount();
+        this.remaining = bucket.getRemainingDropCount();
+        this.resetNanos = TimeUnit.MILLISECONDS.toNanos(bucket.getMillisUntilDrain());
+        this.throttled = throttled;
+        return this;
+    }
+}
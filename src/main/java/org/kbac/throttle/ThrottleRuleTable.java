@@ -0,0 +1,140 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Properties;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Timer task keeping {@link ThrottleRules} loaded from a properties file of <code>pattern=limit</code> entries, and
+ * reloading them when the file changes. Schedule it on a timer to get the rules hot reloaded, each reload publishes
+ * the new rules to the registered listeners, e.g.
+ * <pre>
+ *     meter.setLimitResolver(table);
+ *     table.addReloadListener(meter::applyLimits);
+ *     timer.schedule(table, period, period);
+ * </pre>
+ * A file that fails to parse is logged and ignored, the previously loaded rules stay in use.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see Meter#applyLimits
+ */
+public class ThrottleRuleTable extends TimerTask implements LimitResolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThrottleRuleTable.class);
+
+    private final File file;
+
+    private final List<Consumer<? super LimitResolver>> reloadListeners = new CopyOnWriteArrayList<>();
+
+    private volatile ThrottleRules rules;
+
+    private long lastModified;
+
+
+    /**
+     * @param file with the rules
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the rules are invalid
+     */
+    public ThrottleRuleTable(final File file) throws IOException {
+        Validate.notNull(file, "file must not be null");
+
+        this.file = file;
+        this.lastModified = file.lastModified();
+        this.rules = load(file);
+    }
+
+    @Override
+    public long resolveLimit(final String name) {
+        return this.rules.resolveLimit(name);
+    }
+
+    /**
+     * Reloads the rules when the file got modified since the last load
+     */
+    @Override
+    public void run() {
+        final long modified = this.file.lastModified();
+        if (modified != this.lastModified) {
+            this.lastModified = modified;
+            try {
+                reload();
+            } catch (IOException | IllegalArgumentException e) {
+                LOGGER.warn("keeping previous rules, cannot reload {}: {}", this.file, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Unconditionally reloads the rules and notifies the listeners
+     *
+     * @throws IOException when the file cannot be read
+     * @throws IllegalArgumentException when the rules are invalid
+     */
+    public synchronized void reload() throws IOException {
+        this.rules = load(this.file);
+        LOGGER.info("reloaded {} from {}", this.rules, this.file);
+
+        for (final Consumer<? super LimitResolver> listener : this.reloadListeners) {
+            listener.accept(this);
+        }
+    }
+
+    public void addReloadListener(final Consumer<? super LimitResolver> listener) {
+        Validate.notNull(listener, "listener must not be null");
+        this.reloadListeners.add(listener);
+    }
+
+    public ThrottleRules getRules() {
+        return this.rules;
+    }
+
+    public File getFile() {
+        return this.file;
+    }
+
+    private static ThrottleRules load(final File file) throws IOException {
+        final Properties properties = new Properties();
+        try (final InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        }
+        return ThrottleRules.of(properties);
+    }
+}
@@ -0,0 +1,232 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+/**
+ * Immutable set of throttle rules compiled into a trie. Each rule maps a name pattern to the maximum number of
+ * requests per interval. Patterns are exact names (<code>api.login</code>), prefixes (<code>api.*</code>) or
+ * wildcard patterns (<code>*.login</code>, <code>api.*.read</code>) where <code>*</code> matches any sequence of
+ * characters.
+ * <p/>
+ * When several patterns match the most specific one wins: literal characters are always tried before wildcards,
+ * so an exact name beats a prefix and a longer prefix beats a shorter one.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public final class ThrottleRules implements LimitResolver {
+
+    public static final char WILDCARD = '*';
+
+    public static final ThrottleRules EMPTY = new ThrottleRules(Collections.<String, Long>emptyMap());
+
+    private final Node root;
+
+    private final Map<String, Long> rules;
+
+
+    /**
+     * @param rules mapping of name patterns to maximum number of requests per interval
+     */
+    public ThrottleRules(final Map<String, Long> rules) {
+        Validate.notNull(rules, "rules must not be null");
+
+        final Map<String, Long> copy = new LinkedHashMap<>();
+        final Builder builder = new Builder();
+        for (final Map.Entry<String, Long> rule : rules.entrySet()) {
+            Validate.notBlank(rule.getKey(), "pattern must not be empty");
+            Validate.notNull(rule.getValue(), "limit must not be null for: %s", rule.getKey());
+            Validate.isTrue(rule.getValue() > 0, "limit must be greater than 0 for: %s", rule.getKey());
+            builder.add(rule.getKey(), rule.getValue());
+            copy.put(rule.getKey(), rule.getValue());
+        }
+
+        this.root = builder.compile();
+        this.rules = Collections.unmodifiableMap(copy);
+    }
+
+    /**
+     * @param properties mapping of name patterns to maximum number of requests per interval
+     * @return compiled rules
+     * @throws IllegalArgumentException when any of the limits is invalid
+     */
+    public static ThrottleRules of(final Properties properties) {
+        Validate.notNull(properties, "properties must not be null");
+
+        final Map<String, Long> rules = new TreeMap<>();
+        for (final String pattern : properties.stringPropertyNames()) {
+            final String limit = properties.getProperty(pattern).trim();
+            try {
+                rules.put(pattern.trim(), Long.valueOf(limit));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid limit: " + limit + " for: " + pattern, e);
+            }
+        }
+        return new ThrottleRules(rules);
+    }
+
+    @Override
+    public long resolveLimit(final String name) {
+        Validate.notNull(name, "name must not be null");
+        return match(this.root, name, 0);
+    }
+
+    /**
+     * @return unmodifiable mapping of name patterns to their limits
+     */
+    public Map<String, Long> getRules() {
+        return this.rules;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + this.rules;
+    }
+
+    private static long match(final Node node, final String name, final int index) {
+        if (index == name.length()) {
+            if (node.limit != NO_LIMIT) {
+                return node.limit;
+            }
+        } else {
+            final Node child = node.child(name.charAt(index));
+            if (child != null) {
+                final long limit = match(child, name, index + 1);
+                if (limit != NO_LIMIT) {
+                    return limit;
+                }
+            }
+        }
+
+        if (node.wildcard != null) {
+            for (int i = index; i <= name.length(); i++) {
+                final long limit = match(node.wildcard, name, i);
+                if (limit != NO_LIMIT) {
+                    return limit;
+                }
+            }
+        }
+        return NO_LIMIT;
+    }
+
+    /**
+     * Compiled trie node, children are kept in sorted arrays and searched with binary search
+     */
+    private static final class Node {
+
+        private static final char[] NO_KEYS = new char[0];
+
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        private final char[] keys;
+
+        private final Node[] children;
+
+        private final Node wildcard;
+
+        private final long limit;
+
+
+        Node(final char[] keys, final Node[] children, final Node wildcard, final long limit) {
+            this.keys = keys;
+            this.children = children;
+            this.wildcard = wildcard;
+            this.limit = limit;
+        }
+
+        Node child(final char key) {
+            final int index = Arrays.binarySearch(this.keys, key);
+            return index < 0 ? null : this.children[index];
+        }
+    }
+
+    /**
+     * Mutable trie node used while compiling the rules
+     */
+    private static final class Builder {
+
+        private final Map<Character, Builder> children = new HashMap<>();
+
+        private Builder wildcard;
+
+        private long limit = NO_LIMIT;
+
+
+        void add(final String pattern, final long limit) {
+            Builder node = this;
+            for (int i = 0; i < pattern.length(); i++) {
+                final char c = pattern.charAt(i);
+                if (c == WILDCARD) {
+                    // consecutive wildcards are equivalent to a single one
+                    if (i == 0 || pattern.charAt(i - 1) != WILDCARD) {
+                        if (node.wildcard == null) {
+                            node.wildcard = new Builder();
+                        }
+                        node = node.wildcard;
+                    }
+                } else {
+                    Builder child = node.children.get(c);
+                    if (child == null) {
+                        child = new Builder();
+                        node.children.put(c, child);
+                    }
+                    node = child;
+                }
+            }
+            Validate.isTrue(node.limit == NO_LIMIT, "duplicate pattern: %s", pattern);
+            node.limit = limit;
+        }
+
+        Node compile() {
+            final char[] keys;
+            final Node[] compiled;
+            if (this.children.isEmpty()) {
+                keys = Node.NO_KEYS;
+                compiled = Node.NO_CHILDREN;
+            } else {
+                final TreeMap<Character, Builder> sorted = new TreeMap<>(this.children);
+                keys = new char[sorted.size()];
+                compiled = new Node[sorted.size()];
+                int i = 0;
+                for (final Map.Entry<Character, Builder> child : sorted.entrySet()) {
+                    keys[i] = child.getKey();
+                    compiled[i++] = child.getValue().compile();
+                }
+            }
+            return new Node(keys, compiled, this.wildcard == null ? null : this.wildcard.compile(), this.limit);
+        }
+    }
+}
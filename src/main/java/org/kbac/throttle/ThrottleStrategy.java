@@ -24,6 +24,8 @@
 
 package org.kbac.throttle;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created by krzysztof on 21/12/2015.
  * <p/>
@@ -44,4 +46,56 @@ public interface ThrottleStrategy {
      * @return true when drop has NOT ended in the bucket, false otherwise
      */
     boolean dripAndCheckIfLeaked(final LeakyBucket bucket);
+
+    /**
+     * Invoke this method to request addition of a drop of given priority into leaky bucket
+     *
+     * @param bucket   to be used to add a drop
+     * @param priority of the drop
+     * @return true when drop has NOT ended in the bucket, false otherwise
+     * @see Priority
+     */
+    default boolean dripAndCheckIfLeaked(final LeakyBucket bucket, final Priority priority) {
+        return !bucket.tryAddDrop(priority);
+    }
+
+    /**
+     * Invoke this method to request addition of a drop of given priority into leaky bucket, waiting for the bucket
+     * to be drained when it is full
+     *
+     * @param bucket   to be used to add a drop
+     * @param priority of the drop
+     * @param timeout  maximum time to wait
+     * @param unit     of the timeout
+     * @return true when drop has NOT ended in the bucket before timeout, false otherwise
+     * @throws InterruptedException when interrupted while waiting
+     */
+    default boolean awaitDripAndCheckIfLeaked(final LeakyBucket bucket, final Priority priority, final long timeout
+            , final TimeUnit unit) throws InterruptedException {
+        return !bucket.tryAwaitDrop(priority, timeout, unit);
+    }
+
+    /**
+     * Invoke this method to reserve room for a number of drops at once in leaky bucket
+     *
+     * @param bucket    to reserve the room in
+     * @param requested number of drops
+     * @return number of drops added to the bucket, between zero and requested
+     * @see LeakyBucket#reserveDrops
+     */
+    default long reserveDrops(final LeakyBucket bucket, final long requested) {
+        return bucket.reserveDrops(requested);
+    }
+
+    /**
+     * Invoke this method to request entry of a concurrent request into leaky bucket
+     *
+     * @param bucket           to be entered
+     * @param maxInFlightCount maximum number of concurrent requests in the bucket
+     * @return true when the request has NOT entered the bucket, false otherwise
+     * @see LeakyBucket#exit
+     */
+    default boolean enterAndCheckIfSaturated(final LeakyBucket bucket, final long maxInFlightCount) {
+        return !bucket.tryEnter(maxInFlightCount);
+    }
 }
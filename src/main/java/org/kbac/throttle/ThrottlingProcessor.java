@@ -0,0 +1,249 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Processor passing items of a publisher through to a single subscriber at the rate allowed by the named bucket of
+ * the meter. Instead of checking every item, the processor reserves room in the bucket for the demand signalled by
+ * the subscriber and requests from the publisher only as many items as the bucket admitted. Demand exceeding the
+ * bucket capacity is requested again once the bucket is due to be drained, on the given scheduler, so no thread is
+ * blocked while waiting for the bucket to drain, e.g.
+ * <pre>
+ *     final ThrottlingProcessor&lt;Message&gt; processor = new ThrottlingProcessor&lt;&gt;(meter, "orders", 100, scheduler);
+ *     publisher.subscribe(processor);
+ *     processor.subscribe(subscriber);
+ * </pre>
+ * Room reserved for items never delivered, e.g. on completion of the publisher, is not given back to the bucket.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see Meter#reserve
+ */
+public class ThrottlingProcessor<T> implements Flow.Processor<T, T>, Flow.Subscription {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ThrottlingProcessor.class);
+
+    private final Meter meter;
+
+    private final String name;
+
+    private final long maxNumberOfRequests;
+
+    private final ScheduledExecutorService scheduler;
+
+    /** demand of the subscriber not requested from the publisher yet */
+    private final AtomicLong pending = new AtomicLong();
+
+    /** serialises requests to the publisher, as required by the reactive streams contract */
+    private final AtomicInteger requesting = new AtomicInteger();
+
+    private final AtomicBoolean retryScheduled = new AtomicBoolean();
+
+    private Flow.Subscription upstream;
+
+    private Flow.Subscriber<? super T> downstream;
+
+    private volatile boolean cancelled;
+
+
+    /**
+     * @param meter               providing the bucket
+     * @param name                of the bucket
+     * @param maxNumberOfRequests defines maximum number of items within the meter interval
+     * @param scheduler           used to request the remaining demand once the bucket drains
+     */
+    public ThrottlingProcessor(final Meter meter, final String name, final long maxNumberOfRequests
+            , final ScheduledExecutorService scheduler) {
+        Validate.notNull(meter, "meter must not be null");
+        Validate.notNull(name, "name must not be null");
+        Validate.isTrue(maxNumberOfRequests > 0, "maxNumberOfRequests must be greater than 0");
+        Validate.notNull(scheduler, "scheduler must not be null");
+
+        this.meter = meter;
+        this.name = name;
+        this.maxNumberOfRequests = maxNumberOfRequests;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        Validate.notNull(subscriber, "subscriber must not be null");
+
+        final boolean rejected;
+        final boolean subscribed;
+        synchronized (this) {
+            rejected = this.downstream != null;
+            if (!rejected) {
+                this.downstream = subscriber;
+            }
+            subscribed = this.upstream != null;
+        }
+
+        if (rejected) {
+            subscriber.onSubscribe(NoSubscription.INSTANCE);
+            subscriber.onError(new IllegalStateException(this + " supports single subscriber only"));
+        } else if (subscribed) {
+            subscriber.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public void onSubscribe(final Flow.Subscription subscription) {
+        Validate.notNull(subscription, "subscription must not be null");
+
+        final Flow.Subscriber<? super T> subscriber;
+        synchronized (this) {
+            if (this.upstream != null) {
+                subscription.cancel();
+                return;
+            }
+            this.upstream = subscription;
+            subscriber = this.downstream;
+        }
+
+        if (subscriber != null) {
+            subscriber.onSubscribe(this);
+        }
+    }
+
+    @Override
+    public void onNext(final T item) {
+        this.downstream.onNext(item);
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        this.cancelled = true;
+        this.downstream.onError(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        this.cancelled = true;
+        this.downstream.onComplete();
+    }
+
+    @Override
+    public void request(final long n) {
+        if (n <= 0) {
+            cancel();
+            this.downstream.onError(new IllegalArgumentException("requested must be greater than 0: " + n));
+            return;
+        }
+
+        long current, next;
+        do {
+            current = this.pending.get();
+            next = current + n < 0 ? Long.MAX_VALUE : current + n;
+        } while (!this.pending.compareAndSet(current, next));
+
+        requestUpstream();
+    }
+
+    @Override
+    public void cancel() {
+        if (!this.cancelled) {
+            this.cancelled = true;
+            this.upstream.cancel();
+        }
+    }
+
+    public String getName() {
+        return this.name;
+    }
+
+    /**
+     * @return demand of the subscriber waiting for the bucket to drain
+     */
+    public long getPendingCount() {
+        return this.pending.get();
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{name=" + this.name + ", pending=" + this.pending.get() + '}';
+    }
+
+    private void requestUpstream() {
+        // items requested synchronously re-enter here, the loop picks up their demand instead of recursing
+        if (this.requesting.getAndIncrement() != 0) {
+            return;
+        }
+
+        do {
+            final long demand = this.pending.get();
+            if (demand > 0 && !this.cancelled) {
+                final long granted = this.meter.reserve(this.name, this.maxNumberOfRequests, demand);
+                if (granted > 0) {
+                    this.pending.addAndGet(-granted);
+                    this.upstream.request(granted);
+                }
+                if (granted < demand) {
+                    scheduleRetry();
+                }
+            }
+        } while (this.requesting.decrementAndGet() != 0);
+    }
+
+    private void scheduleRetry() {
+        if (this.retryScheduled.compareAndSet(false, true)) {
+            // a bucket already due waits for the timer of the meter, retry shortly instead of spinning
+            final long delayMillis = Math.max(1, this.meter.getMillisUntilDrain(this.name));
+            LOGGER.debug("{} waiting {}ms for the bucket to drain", this, delayMillis);
+            this.scheduler.schedule(() -> {
+                this.retryScheduled.set(false);
+                requestUpstream();
+            }, delayMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Subscription handed to rejected subscribers
+     */
+    private enum NoSubscription implements Flow.Subscription {
+
+        INSTANCE;
+
+        @Override
+        public void request(final long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+    }
+}
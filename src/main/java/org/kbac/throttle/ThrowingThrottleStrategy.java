@@ -43,4 +43,10 @@ public class ThrowingThrottleStrategy extends LoggingThrottleStrategy {
         throw new TooManyRequestsException(String.format("Exceeded maximum number of requests {%d} per %dms for: %s"
                 , bucket.getMaxDropCount(), bucket.getDrainIntervalMillis(), bucket.getName()));
     }
+
+    @Override
+    protected void handleSaturatedBucket(final LeakyBucket bucket, final long maxInFlightCount) {
+        throw new TooManyRequestsException(String.format("Exceeded maximum number of concurrent requests {%d} for: %s"
+                , maxInFlightCount, bucket.getName()));
+    }
 }
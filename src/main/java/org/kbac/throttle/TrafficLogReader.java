@@ -0,0 +1,223 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.kbac.throttle.TrafficRecorder.CHUNK_COUNT_OFFSET;
+import static org.kbac.throttle.TrafficRecorder.CHUNK_MAGIC;
+import static org.kbac.throttle.TrafficRecorder.CHUNK_MAGIC_OFFSET;
+import static org.kbac.throttle.TrafficRecorder.CHUNK_SEQUENCE_OFFSET;
+import static org.kbac.throttle.TrafficRecorder.CHUNK_SIZE;
+import static org.kbac.throttle.TrafficRecorder.DECISION_THROTTLED;
+import static org.kbac.throttle.TrafficRecorder.RECORD_SIZE;
+
+/**
+ * Streams the records of a log written by {@link TrafficRecorder} back in the order of their chunks, from the
+ * oldest chunk still in the ring. Records of one thread come in order, records of different threads are interleaved
+ * by chunks, so their times are not necessarily monotonic.
+ * <pre>
+ *     try (final TrafficLogReader reader = new TrafficLogReader(directory)) {
+ *         final TrafficLogReader.Record record = new TrafficLogReader.Record();
+ *         while (reader.next(record)) {
+ *             ... reader.getKey(record.getKeyId()) ...
+ *         }
+ *     }
+ * </pre>
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class TrafficLogReader implements AutoCloseable {
+
+    private final File directory;
+
+    private final MappedByteBuffer[] segments;
+
+    private final long[] chunks;
+
+    private final String[] keys;
+
+    private final long recordCount;
+
+    private int chunk;
+
+    private int record;
+
+
+    /**
+     * @param directory of the log
+     * @throws IOException when the log cannot be read
+     */
+    public TrafficLogReader(final File directory) throws IOException {
+        Validate.notNull(directory, "directory must not be null");
+        Validate.isTrue(directory.isDirectory(), "%s is not a directory", directory);
+
+        this.directory = directory;
+
+        final List<MappedByteBuffer> segments = new ArrayList<>();
+        for (File file = TrafficRecorder.segmentFile(directory, 0); file.exists()
+                ; file = TrafficRecorder.segmentFile(directory, segments.size())) {
+            try (final RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+                segments.add(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+            }
+        }
+        this.segments = segments.toArray(new MappedByteBuffer[segments.size()]);
+
+        // chunks ordered by sequence, each packed as sequence << 32 | segment << 16 | chunk of segment
+        final List<long[]> found = new ArrayList<>();
+        long records = 0;
+        for (int s = 0; s < this.segments.length; s++) {
+            final MappedByteBuffer segment = this.segments[s];
+            for (int offset = 0; offset + CHUNK_SIZE <= segment.capacity(); offset += CHUNK_SIZE) {
+                if (segment.getInt(offset + CHUNK_MAGIC_OFFSET) == CHUNK_MAGIC) {
+                    found.add(new long[] {segment.getLong(offset + CHUNK_SEQUENCE_OFFSET), s, offset});
+                    records += segment.getInt(offset + CHUNK_COUNT_OFFSET);
+                }
+            }
+        }
+        found.sort((first, second) -> Long.compare(first[0], second[0]));
+        this.chunks = new long[found.size()];
+        for (int i = 0; i < this.chunks.length; i++) {
+            this.chunks[i] = found.get(i)[1] << 32 | found.get(i)[2];
+        }
+        this.recordCount = records;
+
+        final ConcurrentMap<String, Integer> keyIds = new ConcurrentHashMap<>();
+        TrafficRecorder.readKeys(new File(directory, TrafficRecorder.KEYS_FILE_NAME), keyIds);
+        this.keys = new String[keyIds.size()];
+        for (final Map.Entry<String, Integer> key : keyIds.entrySet()) {
+            Validate.validState(key.getValue() < this.keys.length, "key ids not dense in %s", directory);
+            this.keys[key.getValue()] = key.getKey();
+        }
+    }
+
+    /**
+     * @param record to be populated with the next record
+     * @return false when there are no more records
+     */
+    public boolean next(final Record record) {
+        while (this.chunk < this.chunks.length) {
+            final MappedByteBuffer segment = this.segments[(int) (this.chunks[this.chunk] >>> 32)];
+            final int offset = (int) this.chunks[this.chunk];
+            if (this.record < segment.getInt(offset + CHUNK_COUNT_OFFSET)) {
+                final int position = offset + (++this.record) * RECORD_SIZE;
+                record.timeMillis = segment.getLong(position);
+                record.keyId = segment.getInt(position + 8);
+                record.throttled = segment.getInt(position + 12) == DECISION_THROTTLED;
+                return true;
+            }
+            this.chunk++;
+            this.record = 0;
+        }
+        return false;
+    }
+
+    /**
+     * Starts streaming the records from the oldest one again
+     */
+    public void rewind() {
+        this.chunk = 0;
+        this.record = 0;
+    }
+
+    /**
+     * @param keyId of the record
+     * @return key defined for the id
+     */
+    public String getKey(final int keyId) {
+        return this.keys[keyId];
+    }
+
+    /**
+     * @return all the keys indexed by their ids
+     */
+    public String[] getKeys() {
+        return Arrays.copyOf(this.keys, this.keys.length);
+    }
+
+    public long getRecordCount() {
+        return this.recordCount;
+    }
+
+    public int getChunkCount() {
+        return this.chunks.length;
+    }
+
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    /**
+     * Segments get unmapped once garbage collected
+     */
+    @Override
+    public void close() {
+        this.chunk = this.chunks.length;
+    }
+
+    /**
+     * Single record of the log, reused between the calls to avoid allocation
+     */
+    public static final class Record {
+
+        private long timeMillis;
+
+        private int keyId;
+
+        private boolean throttled;
+
+        public long getTimeMillis() {
+            return this.timeMillis;
+        }
+
+        public int getKeyId() {
+            return this.keyId;
+        }
+
+        public boolean isThrottled() {
+            return this.throttled;
+        }
+
+        @Override
+        public String toString() {
+            return this.timeMillis + "|" + this.keyId + "|" + (this.throttled ? "throttled" : "admitted");
+        }
+    }
+}
@@ -0,0 +1,443 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package org.kbac.throttle;
+
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.ref.WeakReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Recorder of throttle decisions appending them to a compact binary log for capacity planning and replay. The log
+ * is a ring of memory mapped segment files, once all the segments are full the oldest records get overwritten.
+ * <p/>
+ * Each thread collects its records in its own buffer, taking it over with an uncontended compare and set, and a full
+ * buffer is copied into the next chunk of the ring claimed with a single atomic increment. Records of one thread are
+ * therefore kept in order, while records of different threads are interleaved by chunks. Buffers of the threads that
+ * died are written and dropped when new threads start recording, the remaining ones are written on close once their
+ * threads are done with them.
+ * <p/>
+ * Layout of the segments: 4096 bytes chunks of 16 bytes records, the first record of every chunk being its header
+ * (sequence, magic, record count) written last. Every other record holds time millis, key id and decision. Keys are
+ * defined once in the append only <code>keys.log</code> file of (key id, key) entries, so ids stay stable across
+ * restarts.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see TrafficLogReader
+ * @see RecordingThrottleStrategy
+ */
+public class TrafficRecorder implements AutoCloseable {
+
+    public static final int CHUNK_MAGIC = 0x4B425452;
+
+    public static final int RECORD_SIZE = 16;
+
+    public static final int CHUNK_SIZE = 4096;
+
+    public static final int RECORDS_PER_CHUNK = CHUNK_SIZE / RECORD_SIZE - 1;
+
+    public static final String KEYS_FILE_NAME = "keys.log";
+
+    public static final int DECISION_ADMITTED = 0;
+
+    public static final int DECISION_THROTTLED = 1;
+
+    static final int CHUNK_SEQUENCE_OFFSET = 0;
+
+    static final int CHUNK_MAGIC_OFFSET = 8;
+
+    static final int CHUNK_COUNT_OFFSET = 12;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficRecorder.class);
+
+    private final File directory;
+
+    private final int segmentSize;
+
+    private final int chunksPerSegment;
+
+    private final long chunkCount;
+
+    private final MappedByteBuffer[] segments;
+
+    private final TimeSource timeSource;
+
+    private final AtomicLong nextSequence;
+
+    private final ConcurrentMap<String, Integer> keyIds = new ConcurrentHashMap<>();
+
+    private final DataOutputStream keysOut;
+
+    private final Queue<ThreadBuffer> threadBuffers = new ConcurrentLinkedQueue<>();
+
+    private final ThreadLocal<ThreadBuffer> threadBuffer = ThreadLocal.withInitial(this::newThreadBuffer);
+
+    private volatile boolean closed;
+
+
+    /**
+     * Opens the log in the given directory, continuing after the last chunk when the log already exists
+     *
+     * @param directory    of the log, created when missing
+     * @param segmentCount number of segment files in the ring
+     * @param segmentSize  of every segment file in bytes, must be a multiple of CHUNK_SIZE
+     * @throws IOException when the log cannot be mapped
+     */
+    public TrafficRecorder(final File directory, final int segmentCount, final int segmentSize) throws IOException {
+        this(directory, segmentCount, segmentSize, TimeSource.SYSTEM);
+    }
+
+    public TrafficRecorder(final File directory, final int segmentCount, final int segmentSize
+            , final TimeSource timeSource) throws IOException {
+        Validate.notNull(directory, "directory must not be null");
+        Validate.isTrue(segmentCount > 0, "segmentCount must be greater than 0");
+        Validate.isTrue(segmentSize > 0 && segmentSize % CHUNK_SIZE == 0, "segmentSize must be a multiple of %d"
+                , CHUNK_SIZE);
+        Validate.notNull(timeSource, "timeSource must not be null");
+        Validate.isTrue(directory.isDirectory() || directory.mkdirs(), "cannot create directory %s", directory);
+
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.chunksPerSegment = segmentSize / CHUNK_SIZE;
+        this.chunkCount = (long) segmentCount * this.chunksPerSegment;
+        this.timeSource = timeSource;
+
+        this.segments = new MappedByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            try (final RandomAccessFile raf = new RandomAccessFile(segmentFile(directory, i), "rw")) {
+                if (raf.length() < segmentSize) {
+                    raf.setLength(segmentSize);
+                }
+                this.segments[i] = raf.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, segmentSize);
+            }
+        }
+        this.nextSequence = new AtomicLong(findLastSequence() + 1);
+
+        final File keysFile = new File(directory, KEYS_FILE_NAME);
+        readKeys(keysFile, this.keyIds);
+        this.keysOut = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(keysFile, true)));
+
+        LOGGER.info("{} recording {} segments of {} bytes from chunk {}", directory, segmentCount, segmentSize
+                , this.nextSequence.get());
+    }
+
+    /**
+     * Records the decision taken for the given key by the calling thread. The record stays in the buffer of the
+     * thread until the buffer gets full or flushed.
+     *
+     * @param key       the decision was taken for, i.e. name of the bucket
+     * @param throttled true when the request was rejected
+     */
+    public void record(final String key, final boolean throttled) {
+        if (this.closed) {
+            return;
+        }
+        final ThreadBuffer buffer = this.threadBuffer.get();
+        if (!buffer.acquire()) {
+            return;
+        }
+        try {
+            // checked again once taken over, so either close waits for the record or the record sees the log closed
+            if (this.closed) {
+                return;
+            }
+            final int index = buffer.count << 1;
+            buffer.records[index] = this.timeSource.currentTimeMillis();
+            if (key != buffer.lastKey) {
+                buffer.lastKeyId = keyId(key);
+                buffer.lastKey = key;
+            }
+            buffer.records[index + 1] = (long) buffer.lastKeyId << 32 | (throttled ? DECISION_THROTTLED : DECISION_ADMITTED);
+            if (++buffer.count == RECORDS_PER_CHUNK) {
+                writeChunk(buffer);
+            }
+        } finally {
+            buffer.release();
+        }
+    }
+
+    /**
+     * Writes the records buffered by the calling thread into the log and drops its buffer, a new one is taken when
+     * the thread records again
+     */
+    public void flush() {
+        if (this.closed) {
+            return;
+        }
+        final ThreadBuffer buffer = this.threadBuffer.get();
+        this.threadBuffer.remove();
+        if (buffer.claim()) {
+            writeChunk(buffer);
+        }
+        this.threadBuffers.remove(buffer);
+    }
+
+    /**
+     * Writes the records buffered by all the threads and closes the log. Records of threads still recording while
+     * the log is being closed are written once the threads are done with the current record, later records are
+     * ignored.
+     *
+     * @throws IOException when the key definitions cannot be written
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.closed) {
+            return;
+        }
+        this.closed = true;
+        for (final ThreadBuffer buffer : this.threadBuffers) {
+            if (buffer.claim()) {
+                writeChunk(buffer);
+            }
+        }
+        this.threadBuffers.clear();
+        for (final MappedByteBuffer segment : this.segments) {
+            segment.force();
+        }
+        synchronized (this.keysOut) {
+            this.keysOut.close();
+        }
+        LOGGER.debug("{} is closed", this);
+    }
+
+    /**
+     * @return number of chunks written since the log was created
+     */
+    public long getChunkSequence() {
+        return this.nextSequence.get() - 1;
+    }
+
+    public int getKeyCount() {
+        return this.keyIds.size();
+    }
+
+    /**
+     * @return number of thread buffers not written and dropped yet
+     */
+    int getThreadBufferCount() {
+        return this.threadBuffers.size();
+    }
+
+    public File getDirectory() {
+        return this.directory;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "[" + this.directory + "|" + this.segments.length + "x"
+                + this.segmentSize + "]";
+    }
+
+    static File segmentFile(final File directory, final int index) {
+        return new File(directory, "segment-" + index + ".log");
+    }
+
+    /**
+     * Reads key definitions, tolerating an entry partially written by a crashed process at the end of the file
+     *
+     * @param keysFile with the definitions
+     * @param keyIds   to be populated
+     * @throws IOException when the file cannot be read
+     */
+    static void readKeys(final File keysFile, final ConcurrentMap<String, Integer> keyIds) throws IOException {
+        if (!keysFile.exists()) {
+            return;
+        }
+        try (final DataInputStream in = new DataInputStream(new FileInputStream(keysFile))) {
+            while (true) {
+                final int id = in.readInt();
+                keyIds.put(in.readUTF(), id);
+            }
+        } catch (EOFException e) {
+            LOGGER.debug("read {} keys from {}", keyIds.size(), keysFile);
+        }
+    }
+
+    private int keyId(final String key) {
+        final Integer id = this.keyIds.get(key);
+        return id == null ? defineKey(key) : id;
+    }
+
+    private int defineKey(final String key) {
+        synchronized (this.keysOut) {
+            Integer id = this.keyIds.get(key);
+            if (id == null) {
+                id = this.keyIds.size();
+                try {
+                    this.keysOut.writeInt(id);
+                    this.keysOut.writeUTF(key);
+                    this.keysOut.flush();
+                } catch (IOException e) {
+                    throw new IllegalStateException("cannot define key " + key + " in " + this.directory, e);
+                }
+                this.keyIds.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    private long findLastSequence() {
+        long last = 0;
+        for (final MappedByteBuffer segment : this.segments) {
+            for (int offset = 0; offset < this.segmentSize; offset += CHUNK_SIZE) {
+                if (segment.getInt(offset + CHUNK_MAGIC_OFFSET) == CHUNK_MAGIC) {
+                    last = Math.max(last, segment.getLong(offset + CHUNK_SEQUENCE_OFFSET));
+                }
+            }
+        }
+        return last;
+    }
+
+    private void writeChunk(final ThreadBuffer buffer) {
+        if (buffer.count == 0) {
+            return;
+        }
+        final long sequence = this.nextSequence.getAndIncrement();
+        final long chunk = (sequence - 1) % this.chunkCount;
+        final MappedByteBuffer segment = this.segments[(int) (chunk / this.chunksPerSegment)];
+        final int offset = (int) (chunk % this.chunksPerSegment) * CHUNK_SIZE;
+
+        // header is invalidated first and written last so a torn chunk is never taken for a valid one
+        segment.putInt(offset + CHUNK_MAGIC_OFFSET, 0);
+        for (int i = 0; i < buffer.count; i++) {
+            segment.putLong(offset + (i + 1) * RECORD_SIZE, buffer.records[i << 1]);
+            segment.putLong(offset + (i + 1) * RECORD_SIZE + 8, buffer.records[(i << 1) + 1]);
+        }
+        segment.putLong(offset + CHUNK_SEQUENCE_OFFSET, sequence);
+        segment.putInt(offset + CHUNK_COUNT_OFFSET, buffer.count);
+        segment.putInt(offset + CHUNK_MAGIC_OFFSET, CHUNK_MAGIC);
+        buffer.count = 0;
+    }
+
+    private ThreadBuffer newThreadBuffer() {
+        removeDeadThreadBuffers();
+        final ThreadBuffer buffer = new ThreadBuffer();
+        this.threadBuffers.add(buffer);
+        return buffer;
+    }
+
+    /**
+     * Writes and drops the buffers of the threads that died, so the buffers do not pile up with short lived threads
+     */
+    private void removeDeadThreadBuffers() {
+        final Iterator<ThreadBuffer> buffersIterator = this.threadBuffers.iterator();
+        while (buffersIterator.hasNext()) {
+            final ThreadBuffer buffer = buffersIterator.next();
+            if (!buffer.isOwnerAlive() && buffer.claim()) {
+                writeChunk(buffer);
+                buffersIterator.remove();
+                LOGGER.debug("removed buffer of dead thread from {}", this);
+            }
+        }
+    }
+
+    /**
+     * Records of a single thread not written into the log yet, pairs of time millis and key id|decision. The buffer
+     * is free between the records, taken over by its thread while recording, and claimed for good once written by
+     * any other thread or flushed.
+     */
+    private static final class ThreadBuffer {
+
+        private static final int FREE = 0;
+
+        private static final int OWNED = 1;
+
+        private static final int CLAIMED = 2;
+
+        private static final AtomicIntegerFieldUpdater<ThreadBuffer> STATE
+                = AtomicIntegerFieldUpdater.newUpdater(ThreadBuffer.class, "state");
+
+        private final WeakReference<Thread> owner = new WeakReference<>(Thread.currentThread());
+
+        private volatile int state;
+
+        private final long[] records = new long[RECORDS_PER_CHUNK * 2];
+
+        private int count;
+
+        // saves the key lookup for consecutive requests of the same bucket
+        private String lastKey;
+
+        private int lastKeyId;
+
+
+        /**
+         * @return true when taken over by the owner thread, false when already claimed
+         */
+        boolean acquire() {
+            return STATE.compareAndSet(this, FREE, OWNED);
+        }
+
+        void release() {
+            STATE.compareAndSet(this, OWNED, FREE);
+        }
+
+        /**
+         * Claims the buffer for good, waiting for its owner thread to complete the record in progress
+         *
+         * @return true when claimed by this invocation, false when claimed before
+         */
+        boolean claim() {
+            while (true) {
+                final int current = this.state;
+                if (current == CLAIMED) {
+                    return false;
+                }
+                if (current == FREE && STATE.compareAndSet(this, FREE, CLAIMED)) {
+                    return true;
+                }
+                Thread.yield();
+            }
+        }
+
+        boolean isOwnerAlive() {
+            final Thread thread = this.owner.get();
+            return thread != null && thread.isAlive();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.http;
+
+import com.sun.net.httpserver.Filter;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import org.kbac.throttle.Meter;
+import org.kbac.throttle.ThrottleResult;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+/**
+ * Filter of the JDK embedded HTTP server, rejecting requests over the limit with
+ * <code>429 Too Many Requests</code> and the <code>Retry-After</code> header, adding the <code>X-RateLimit-*</code>
+ * headers to every response, e.g.
+ * <pre>
+ *     server.createContext("/api", handler).getFilters().add(new HttpServerThrottleFilter(meter, "remoteAddr", 100));
+ * </pre>
+ * Meant for tests and tools, see {@link ServletThrottleFilter} for servlet containers.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class HttpServerThrottleFilter extends Filter {
+
+    private final HttpThrottle<HttpExchange> throttle;
+
+
+    /**
+     * @param meter               to check the requests with
+     * @param keys                definition of the throttle key, see {@link HttpThrottle}
+     * @param maxNumberOfRequests defines maximum number of requests per key within the meter interval
+     */
+    public HttpServerThrottleFilter(final Meter meter, final String keys, final long maxNumberOfRequests) {
+        this.throttle = new HttpThrottle<>(meter, keys, maxNumberOfRequests, ExchangeAccessor.INSTANCE);
+    }
+
+    @Override
+    public void doFilter(final HttpExchange exchange, final Chain chain) throws IOException {
+        final ThrottleResult result = this.throttle.check(exchange);
+        final Headers headers = exchange.getResponseHeaders();
+        headers.set(HttpThrottle.LIMIT_HEADER, Long.toString(result.getLimit()));
+        headers.set(HttpThrottle.REMAINING_HEADER, Long.toString(result.getRemaining()));
+        headers.set(HttpThrottle.RESET_HEADER, Long.toString(result.getResetSeconds()));
+        if (!result.isThrottled()) {
+            chain.doFilter(exchange);
+        } else {
+            try {
+                headers.set(HttpThrottle.RETRY_AFTER_HEADER, Long.toString(HttpThrottle.toRetryAfterSeconds(result)));
+                exchange.sendResponseHeaders(HttpThrottle.SC_TOO_MANY_REQUESTS, -1);
+            } finally {
+                exchange.close();
+            }
+        }
+    }
+
+    @Override
+    public String description() {
+        return this.throttle.toString();
+    }
+
+    /**
+     * Accessor of the embedded server exchanges
+     */
+    enum ExchangeAccessor implements RequestAccessor<HttpExchange> {
+
+        INSTANCE;
+
+        @Override
+        public String getHeader(final HttpExchange exchange, final String name) {
+            return exchange.getRequestHeaders().getFirst(name);
+        }
+
+        @Override
+        public String getParameter(final HttpExchange exchange, final String name) {
+            final String query = exchange.getRequestURI().getRawQuery();
+            if (query == null) {
+                return null;
+            }
+            int start = 0;
+            while (start < query.length()) {
+                int end = query.indexOf('&', start);
+                if (end < 0) {
+                    end = query.length();
+                }
+                if (query.startsWith(name, start) && start + name.length() <= end) {
+                    final int next = start + name.length();
+                    if (next == end) {
+                        return "";
+                    } else if (query.charAt(next) == '=') {
+                        return query.substring(next + 1, end);
+                    }
+                }
+                start = end + 1;
+            }
+            return null;
+        }
+
+        @Override
+        public Object getAttribute(final HttpExchange exchange, final String name) {
+            return exchange.getAttribute(name);
+        }
+
+        @Override
+        public String getRemoteAddr(final HttpExchange exchange) {
+            final InetSocketAddress address = exchange.getRemoteAddress();
+            return address == null ? null : address.getAddress().getHostAddress();
+        }
+
+        @Override
+        public String getPath(final HttpExchange exchange) {
+            return exchange.getRequestURI().getPath();
+        }
+
+        @Override
+        public String getMethod(final HttpExchange exchange) {
+            return exchange.getRequestMethod();
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.http;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+import org.kbac.throttle.Meter;
+import org.kbac.throttle.ThrottleResult;
+import org.kbac.throttle.TooManyRequestsException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Throttle of HTTP requests, extracting the throttle key of each request from the configured request properties and
+ * checking it against the meter. The key definition is a comma separated list of the following sources
+ * <ul>
+ *     <li><code>header:&lt;name&gt;</code> first value of the request header</li>
+ *     <li><code>param:&lt;name&gt;</code> first value of the query parameter</li>
+ *     <li><code>attribute:&lt;name&gt;</code> request attribute, e.g. set by the authentication filter</li>
+ *     <li><code>remoteAddr</code> address of the client</li>
+ *     <li><code>path</code> request path without the query</li>
+ *     <li><code>method</code> request method</li>
+ * </ul>
+ * e.g. <code>header:X-Api-Key,path</code>. The definition is compiled once, and the values of multiple sources are
+ * joined with <code>|</code> into a per thread buffer, so the per request cost is the lookups of the values and the
+ * bucket only. Missing values are keyed as <code>-</code>.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class HttpThrottle<R> {
+
+    public static final int SC_TOO_MANY_REQUESTS = 429;
+
+    public static final String RETRY_AFTER_HEADER = "Retry-After";
+
+    public static final String LIMIT_HEADER = "X-RateLimit-Limit";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+
+    public static final String RESET_HEADER = "X-RateLimit-Reset";
+
+    public static final String KEYS_DEFAULT = "remoteAddr";
+
+    public static final char KEY_SEPARATOR = '|';
+
+    public static final String MISSING_VALUE = "-";
+
+    private static final ThreadLocal<StringBuilder> KEY_BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(64));
+
+    private static final ThreadLocal<ThrottleResult> RESULT = ThreadLocal.withInitial(ThrottleResult::new);
+
+    private final Meter meter;
+
+    private final String keys;
+
+    private final KeySource[] sources;
+
+    private final long maxNumberOfRequests;
+
+    private final RequestAccessor<R> accessor;
+
+
+    /**
+     * @param meter               to check the requests with
+     * @param keys                definition of the throttle key, see class description
+     * @param maxNumberOfRequests defines maximum number of requests per key within the meter interval
+     * @param accessor            of the request properties
+     * @throws IllegalArgumentException when the key definition is invalid
+     */
+    public HttpThrottle(final Meter meter, final String keys, final long maxNumberOfRequests
+            , final RequestAccessor<R> accessor) {
+        Validate.notNull(meter, "meter must not be null");
+        Validate.notBlank(keys, "keys must not be empty");
+        Validate.isTrue(maxNumberOfRequests > 0, "maxNumberOfRequests must be greater than 0");
+        Validate.notNull(accessor, "accessor must not be null");
+
+        this.meter = meter;
+        this.keys = keys;
+        this.sources = compile(keys);
+        this.maxNumberOfRequests = maxNumberOfRequests;
+        this.accessor = accessor;
+    }
+
+    /**
+     * Invoke this method to decide if the request should be allowed to continue. The invocation is thread safe.
+     *
+     * @param request to check
+     * @return decision with the state of the bucket, reused by the calling thread so valid until its next check
+     */
+    public ThrottleResult check(final R request) {
+        final ThrottleResult result = RESULT.get();
+        try {
+            if (this.sources.length == 1) {
+                this.meter.shouldThrottle(keyOf(request), this.maxNumberOfRequests, result);
+            } else {
+                // the key stays in the reused buffer, the meter finds its bucket without creating a String
+                this.meter.shouldThrottle(appendKey(request), this.maxNumberOfRequests, result);
+            }
+        } catch (TooManyRequestsException e) {
+            // the result is updated before the strategy throws
+        }
+        return result;
+    }
+
+    /**
+     * @param request to extract the key from
+     * @return throttle key of the request
+     */
+    public String keyOf(final R request) {
+        if (this.sources.length == 1) {
+            final String value = this.sources[0].valueOf(request, this.accessor);
+            return StringUtils.isBlank(value) ? MISSING_VALUE : value;
+        }
+
+        return appendKey(request).toString();
+    }
+
+    /**
+     * @param request to extract the key from
+     * @return buffer of the calling thread holding the key of the request, valid until the next call
+     */
+    private StringBuilder appendKey(final R request) {
+        final StringBuilder buffer = KEY_BUFFER.get();
+        buffer.setLength(0);
+        for (int i = 0; i < this.sources.length; i++) {
+            if (i > 0) {
+                buffer.append(KEY_SEPARATOR);
+            }
+            final String value = this.sources[i].valueOf(request, this.accessor);
+            buffer.append(StringUtils.isBlank(value) ? MISSING_VALUE : value);
+        }
+        return buffer;
+    }
+
+    public String getKeys() {
+        return this.keys;
+    }
+
+    public long getMaxNumberOfRequests() {
+        return this.maxNumberOfRequests;
+    }
+
+    public Meter getMeter() {
+        return this.meter;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{keys=" + this.keys + ", max=" + this.maxNumberOfRequests + '}';
+    }
+
+    /**
+     * Rounds up to whole seconds as required by the header, clients are never told to retry immediately
+     *
+     * @param result of the check
+     * @return number of seconds after which the client should retry
+     */
+    public static long toRetryAfterSeconds(final ThrottleResult result) {
+        return Math.max(1, result.getResetSeconds());
+    }
+
+    private static KeySource[] compile(final String keys) {
+        final List<KeySource> sources = new ArrayList<>();
+        for (final String definition : keys.split(",")) {
+            final String trimmed = definition.trim();
+            Validate.notEmpty(trimmed, "empty key source in: %s", keys);
+            sources.add(KeySource.of(trimmed));
+        }
+        return sources.toArray(new KeySource[sources.size()]);
+    }
+
+    /**
+     * Compiled source of a key part
+     */
+    private static final class KeySource {
+
+        private final Type type;
+
+        private final String name;
+
+
+        KeySource(final Type type, final String name) {
+            this.type = type;
+            this.name = name;
+        }
+
+        static KeySource of(final String definition) {
+            for (final Type type : Type.values()) {
+                if (type.named && definition.startsWith(type.prefix)) {
+                    final String name = definition.substring(type.prefix.length()).trim();
+                    Validate.notEmpty(name, "missing name of key source: %s", definition);
+                    return new KeySource(type, name);
+                } else if (!type.named && definition.equals(type.prefix)) {
+                    return new KeySource(type, null);
+                }
+            }
+            throw new IllegalArgumentException("unknown key source: " + definition);
+        }
+
+        <R> String valueOf(final R request, final RequestAccessor<R> accessor) {
+            switch (this.type) {
+                case HEADER:
+                    return accessor.getHeader(request, this.name);
+                case PARAM:
+                    return accessor.getParameter(request, this.name);
+                case ATTRIBUTE:
+                    final Object value = accessor.getAttribute(request, this.name);
+                    return value == null ? null : value.toString();
+                case REMOTE_ADDR:
+                    return accessor.getRemoteAddr(request);
+                case PATH:
+                    return accessor.getPath(request);
+                default:
+                    return accessor.getMethod(request);
+            }
+        }
+
+        private enum Type {
+            HEADER("header:", true),
+            PARAM("param:", true),
+            ATTRIBUTE("attribute:", true),
+            REMOTE_ADDR("remoteAddr", false),
+            PATH("path", false),
+            METHOD("method", false);
+
+            private final String prefix;
+
+            private final boolean named;
+
+            Type(final String prefix, final boolean named) {
+                this.prefix = prefix;
+                this.named = named;
+            }
+        }
+    }
+}
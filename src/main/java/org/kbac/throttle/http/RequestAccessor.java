@@ -0,0 +1,59 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.http;
+
+/**
+ * Stateless accessor of the request properties throttle keys can be extracted from, allowing the same key
+ * definitions to be used with different HTTP front-ends without wrapping every request
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ *
+ * @see HttpThrottle
+ */
+public interface RequestAccessor<R> {
+
+    /**
+     * @return first value of the header, null when missing
+     */
+    String getHeader(final R request, final String name);
+
+    /**
+     * @return first value of the query parameter, null when missing
+     */
+    String getParameter(final R request, final String name);
+
+    /**
+     * @return value of the attribute, null when missing
+     */
+    Object getAttribute(final R request, final String name);
+
+    String getRemoteAddr(final R request);
+
+    String getPath(final R request);
+
+    String getMethod(final R request);
+}
@@ -0,0 +1,204 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.http;
+
+import org.kbac.throttle.LoggingThrottleStrategy;
+import org.kbac.throttle.Meter;
+import org.kbac.throttle.ThrottleResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.servlet.Filter;
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Servlet filter rejecting requests over the limit with <code>429 Too Many Requests</code> and the
+ * <code>Retry-After</code> header set to the remaining time of the bucket window. Every response carries the
+ * <code>X-RateLimit-Limit</code>, <code>X-RateLimit-Remaining</code> and <code>X-RateLimit-Reset</code> (seconds)
+ * headers. Configured either
+ * programmatically or with the init parameters
+ * <ul>
+ *     <li><code>limit</code> maximum number of requests per key within the interval, required</li>
+ *     <li><code>keys</code> definition of the throttle key, see {@link HttpThrottle}, remote address by default</li>
+ *     <li><code>interval</code> in milliseconds, used when the filter creates its own meter</li>
+ *     <li><code>meterAttribute</code> name of the servlet context attribute holding a meter shared with the
+ *     application, the filter creates its own meter when not set</li>
+ * </ul>
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class ServletThrottleFilter implements Filter {
+
+    public static final String LIMIT_PARAM = "limit";
+
+    public static final String KEYS_PARAM = "keys";
+
+    public static final String INTERVAL_PARAM = "interval";
+
+    public static final String METER_ATTRIBUTE_PARAM = "meterAttribute";
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ServletThrottleFilter.class);
+
+    private HttpThrottle<HttpServletRequest> throttle;
+
+    private Meter ownMeter;
+
+
+    /**
+     * Creates filter configured by its init parameters
+     */
+    public ServletThrottleFilter() {
+    }
+
+    /**
+     * Creates filter configured programmatically, init parameters are ignored
+     *
+     * @param meter               to check the requests with
+     * @param keys                definition of the throttle key
+     * @param maxNumberOfRequests defines maximum number of requests per key within the meter interval
+     */
+    public ServletThrottleFilter(final Meter meter, final String keys, final long maxNumberOfRequests) {
+        this.throttle = new HttpThrottle<>(meter, keys, maxNumberOfRequests, ServletRequestAccessor.INSTANCE);
+    }
+
+    @Override
+    public void init(final FilterConfig filterConfig) throws ServletException {
+        if (this.throttle != null) {
+            LOGGER.info("{} configured programmatically", this.throttle);
+            return;
+        }
+
+        final String limit = filterConfig.getInitParameter(LIMIT_PARAM);
+        if (limit == null) {
+            throw new ServletException(LIMIT_PARAM + " init parameter is required by " + filterConfig.getFilterName());
+        }
+        final String keys = filterConfig.getInitParameter(KEYS_PARAM);
+        final String meterAttribute = filterConfig.getInitParameter(METER_ATTRIBUTE_PARAM);
+        final String interval = filterConfig.getInitParameter(INTERVAL_PARAM);
+
+        try {
+            final Meter meter;
+            if (meterAttribute != null) {
+                meter = (Meter) filterConfig.getServletContext().getAttribute(meterAttribute);
+                if (meter == null) {
+                    throw new ServletException("no meter in servlet context attribute: " + meterAttribute);
+                }
+            } else {
+                this.ownMeter = new Meter(new LoggingThrottleStrategy(), interval == null
+                        ? Meter.THROTTLE_INTERVAL_MILLIS_DEFAULT : Long.parseLong(interval.trim()));
+                meter = this.ownMeter;
+            }
+            this.throttle = new HttpThrottle<>(meter, keys == null ? HttpThrottle.KEYS_DEFAULT : keys
+                    , Long.parseLong(limit.trim()), ServletRequestAccessor.INSTANCE);
+        } catch (IllegalArgumentException e) {
+            throw new ServletException("invalid configuration of " + filterConfig.getFilterName(), e);
+        }
+        LOGGER.info("{} configured for {}", this.throttle, filterConfig.getFilterName());
+    }
+
+    @Override
+    public void doFilter(final ServletRequest request, final ServletResponse response, final FilterChain chain)
+            throws IOException, ServletException {
+        if (!(request instanceof HttpServletRequest)) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        final ThrottleResult result = this.throttle.check((HttpServletRequest) request);
+        final HttpServletResponse httpResponse = (HttpServletResponse) response;
+        httpResponse.setHeader(HttpThrottle.LIMIT_HEADER, Long.toString(result.getLimit()));
+        httpResponse.setHeader(HttpThrottle.REMAINING_HEADER, Long.toString(result.getRemaining()));
+        httpResponse.setHeader(HttpThrottle.RESET_HEADER, Long.toString(result.getResetSeconds()));
+        if (!result.isThrottled()) {
+            chain.doFilter(request, response);
+        } else {
+            httpResponse.setStatus(HttpThrottle.SC_TOO_MANY_REQUESTS);
+            httpResponse.setHeader(HttpThrottle.RETRY_AFTER_HEADER, Long.toString(HttpThrottle.toRetryAfterSeconds(result)));
+            httpResponse.setContentLength(0);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (this.ownMeter != null) {
+            try {
+                this.ownMeter.close();
+            } catch (Exception e) {
+                LOGGER.warn("cannot close {}", this.ownMeter, e);
+            }
+        }
+    }
+
+    HttpThrottle<HttpServletRequest> getThrottle() {
+        return this.throttle;
+    }
+
+    /**
+     * Accessor of servlet requests
+     */
+    enum ServletRequestAccessor implements RequestAccessor<HttpServletRequest> {
+
+        INSTANCE;
+
+        @Override
+        public String getHeader(final HttpServletRequest request, final String name) {
+            return request.getHeader(name);
+        }
+
+        @Override
+        public String getParameter(final HttpServletRequest request, final String name) {
+            return request.getParameter(name);
+        }
+
+        @Override
+        public Object getAttribute(final HttpServletRequest request, final String name) {
+            return request.getAttribute(name);
+        }
+
+        @Override
+        public String getRemoteAddr(final HttpServletRequest request) {
+            return request.getRemoteAddr();
+        }
+
+        @Override
+        public String getPath(final HttpServletRequest request) {
+            return request.getRequestURI();
+        }
+
+        @Override
+        public String getMethod(final HttpServletRequest request) {
+            return request.getMethod();
+        }
+    }
+}
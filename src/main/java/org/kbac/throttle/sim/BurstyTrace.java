@@ -0,0 +1,91 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace of events alternating between quiet and burst periods of exponentially distributed lengths, with Poisson
+ * arrivals of a different rate within each period
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class BurstyTrace extends SyntheticTrace {
+
+    private final double quietGapNanos;
+
+    private final double burstGapNanos;
+
+    private final double meanQuietNanos;
+
+    private final double meanBurstNanos;
+
+    private boolean bursting;
+
+    private long periodEndNanos;
+
+
+    /**
+     * @param quietRatePerSecond average number of events per second within quiet periods
+     * @param burstRatePerSecond average number of events per second within bursts
+     * @param meanQuietMillis    average length of quiet periods
+     * @param meanBurstMillis    average length of bursts
+     * @param eventCount         number of events of the trace
+     * @param distribution       of the keys
+     * @param seed               of the random events
+     */
+    public BurstyTrace(final double quietRatePerSecond, final double burstRatePerSecond, final long meanQuietMillis
+            , final long meanBurstMillis, final long eventCount, final KeyDistribution distribution, final long seed) {
+        super(eventCount, distribution, seed);
+        Validate.isTrue(quietRatePerSecond > 0 && burstRatePerSecond > 0, "rates must be greater than 0");
+        Validate.isTrue(meanQuietMillis > 0 && meanBurstMillis > 0, "period lengths must be greater than 0");
+
+        this.quietGapNanos = TimeUnit.SECONDS.toNanos(1) / quietRatePerSecond;
+        this.burstGapNanos = TimeUnit.SECONDS.toNanos(1) / burstRatePerSecond;
+        this.meanQuietNanos = TimeUnit.MILLISECONDS.toNanos(meanQuietMillis);
+        this.meanBurstNanos = TimeUnit.MILLISECONDS.toNanos(meanBurstMillis);
+    }
+
+    @Override
+    public void rewind() {
+        super.rewind();
+        this.bursting = false;
+        this.periodEndNanos = 0;
+    }
+
+    @Override
+    protected long nextGapNanos(final Random random) {
+        while (getTimeNanos() >= this.periodEndNanos) {
+            this.bursting = !this.bursting;
+            this.periodEndNanos += exponential(random, this.bursting ? this.meanBurstNanos : this.meanQuietNanos);
+        }
+        return exponential(random, this.bursting ? this.burstGapNanos : this.quietGapNanos);
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Distribution of the keys of synthetic traces
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public abstract class KeyDistribution {
+
+    private final int keyCount;
+
+
+    protected KeyDistribution(final int keyCount) {
+        Validate.isTrue(keyCount > 0, "keyCount must be greater than 0");
+        this.keyCount = keyCount;
+    }
+
+    /**
+     * @param keyCount number of keys
+     * @return distribution choosing every key with the same probability
+     */
+    public static KeyDistribution uniform(final int keyCount) {
+        return new KeyDistribution(keyCount) {
+            @Override
+            public int next(final Random random) {
+                return random.nextInt(keyCount);
+            }
+        };
+    }
+
+    /**
+     * @param keyCount number of keys
+     * @param exponent of the distribution, the higher the more skewed towards the first keys
+     * @return distribution choosing the key of rank k with probability proportional to 1/k^exponent
+     */
+    public static KeyDistribution zipf(final int keyCount, final double exponent) {
+        Validate.isTrue(exponent > 0, "exponent must be greater than 0");
+
+        final double[] cumulative = new double[keyCount];
+        double sum = 0;
+        for (int i = 0; i < keyCount; i++) {
+            sum += 1 / Math.pow(i + 1, exponent);
+            cumulative[i] = sum;
+        }
+        for (int i = 0; i < keyCount; i++) {
+            cumulative[i] /= sum;
+        }
+
+        return new KeyDistribution(keyCount) {
+            @Override
+            public int next(final Random random) {
+                final int index = Arrays.binarySearch(cumulative, random.nextDouble());
+                return Math.min(index < 0 ? -index - 1 : index, keyCount - 1);
+            }
+        };
+    }
+
+    /**
+     * @param random source of randomness
+     * @return index of the next key
+     */
+    public abstract int next(final Random random);
+
+    public int getKeyCount() {
+        return this.keyCount;
+    }
+}
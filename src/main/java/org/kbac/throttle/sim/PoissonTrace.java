@@ -0,0 +1,62 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace of events arriving independently at a constant average rate
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class PoissonTrace extends SyntheticTrace {
+
+    private final double meanGapNanos;
+
+
+    /**
+     * @param ratePerSecond average number of events per second
+     * @param eventCount    number of events of the trace
+     * @param distribution  of the keys
+     * @param seed          of the random events
+     */
+    public PoissonTrace(final double ratePerSecond, final long eventCount, final KeyDistribution distribution
+            , final long seed) {
+        super(eventCount, distribution, seed);
+        Validate.isTrue(ratePerSecond > 0, "ratePerSecond must be greater than 0");
+
+        this.meanGapNanos = TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+    }
+
+    @Override
+    protected long nextGapNanos(final Random random) {
+        return exponential(random, this.meanGapNanos);
+    }
+}
@@ -0,0 +1,184 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import org.apache.commons.lang3.Validate;
+import org.kbac.throttle.TrafficLogReader;
+import org.kbac.throttle.TrafficRecorder;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trace of events recorded in production, read from lines of <code>timeMillis,key</code> ordered by time. Blank
+ * lines and lines starting with <code>#</code> are skipped, times are taken relative to the first event. Traces
+ * can also be read from binary logs of {@link TrafficRecorder}.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class RecordedTrace implements Trace {
+
+    private final long[] timesNanos;
+
+    private final int[] keyIndexes;
+
+    private final String[] keys;
+
+    private int position;
+
+
+    private RecordedTrace(final long[] timesNanos, final int[] keyIndexes, final String[] keys) {
+        this.timesNanos = timesNanos;
+        this.keyIndexes = keyIndexes;
+        this.keys = keys;
+    }
+
+    /**
+     * @param reader of the recorded events, not closed by this method
+     * @return trace of the events
+     * @throws IOException when the events cannot be read
+     * @throws IllegalArgumentException when any of the lines is invalid or out of order
+     */
+    public static RecordedTrace read(final Reader reader) throws IOException {
+        final BufferedReader lines = reader instanceof BufferedReader ? (BufferedReader) reader : new BufferedReader(reader);
+        final Map<String, Integer> keyIndexes = new HashMap<>();
+        final List<String> keys = new ArrayList<>();
+        long[] times = new long[1024];
+        int[] indexes = new int[1024];
+        int count = 0;
+        long firstMillis = 0;
+
+        String line;
+        while ((line = lines.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.charAt(0) == '#') {
+                continue;
+            }
+            final int separator = line.indexOf(',');
+            Validate.isTrue(separator > 0 && separator < line.length() - 1, "invalid event: %s", line);
+
+            final long millis;
+            try {
+                millis = Long.parseLong(line.substring(0, separator).trim());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid time of event: " + line, e);
+            }
+            if (count == 0) {
+                firstMillis = millis;
+            }
+            final long timeNanos = TimeUnit.MILLISECONDS.toNanos(millis - firstMillis);
+            Validate.isTrue(count == 0 || timeNanos >= times[count - 1], "event out of order: %s", line);
+
+            final String key = line.substring(separator + 1).trim();
+            Integer index = keyIndexes.get(key);
+            if (index == null) {
+                index = keys.size();
+                keyIndexes.put(key, index);
+                keys.add(key);
+            }
+
+            if (count == times.length) {
+                times = Arrays.copyOf(times, count * 2);
+                indexes = Arrays.copyOf(indexes, count * 2);
+            }
+            times[count] = timeNanos;
+            indexes[count] = index;
+            count++;
+        }
+
+        return new RecordedTrace(Arrays.copyOf(times, count), Arrays.copyOf(indexes, count)
+                , keys.toArray(new String[keys.size()]));
+    }
+
+    /**
+     * @param reader of the log written by {@link TrafficRecorder}, rewound by this method
+     * @return trace of the recorded requests, both admitted and throttled, ordered by time
+     */
+    public static RecordedTrace read(final TrafficLogReader reader) {
+        Validate.isTrue(reader.getRecordCount() <= Integer.MAX_VALUE, "too many records in %s", reader.getDirectory());
+
+        final int count = (int) reader.getRecordCount();
+        final long[] times = new long[count];
+        final int[] indexes = new int[count];
+        final TrafficLogReader.Record record = new TrafficLogReader.Record();
+        reader.rewind();
+        int i = 0;
+        while (i < count && reader.next(record)) {
+            times[i] = record.getTimeMillis();
+            indexes[i++] = record.getKeyId();
+        }
+
+        // records of different threads are interleaved by chunks, stable sort keeps the order of each thread
+        final Integer[] order = new Integer[i];
+        for (int j = 0; j < i; j++) {
+            order[j] = j;
+        }
+        Arrays.sort(order, (first, second) -> Long.compare(times[first], times[second]));
+        final long[] sortedTimes = new long[i];
+        final int[] sortedIndexes = new int[i];
+        for (int j = 0; j < i; j++) {
+            sortedTimes[j] = TimeUnit.MILLISECONDS.toNanos(times[order[j]] - times[order[0]]);
+            sortedIndexes[j] = indexes[order[j]];
+        }
+        return new RecordedTrace(sortedTimes, sortedIndexes, reader.getKeys());
+    }
+
+    @Override
+    public boolean next(final TraceEvent event) {
+        if (this.position == this.timesNanos.length) {
+            return false;
+        }
+        event.set(this.timesNanos[this.position], this.keyIndexes[this.position]);
+        this.position++;
+        return true;
+    }
+
+    @Override
+    public String getKey(final int index) {
+        return this.keys[index];
+    }
+
+    @Override
+    public void rewind() {
+        this.position = 0;
+    }
+
+    public int getEventCount() {
+        return this.timesNanos.length;
+    }
+
+    public int getKeyCount() {
+        return this.keys.length;
+    }
+}
@@ -0,0 +1,137 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import org.apache.commons.lang3.Validate;
+import org.kbac.throttle.Meter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deterministic replay of a trace through a meter in virtual time, allowing throttle algorithms to be compared
+ * offline at the speed of a single thread rather than the speed of the wall clock, e.g.
+ * <pre>
+ *     final VirtualTimeSource time = new VirtualTimeSource();
+ *     final ConcurrentMap&lt;String, LeakyBucket&gt; buckets = new ConcurrentHashMap&lt;&gt;();
+ *     final Meter meter = new Meter(new LoggingThrottleStrategy(), 1000, buckets, time);
+ *     final Simulation simulation = new Simulation(meter, new FixedTimeTimerTask(buckets, 3000, time), 100);
+ *     final SimulationReport report = simulation.run(new PoissonTrace(5000, 1000000, KeyDistribution.zipf(1000, 1.1), 42));
+ * </pre>
+ * The timer task is run every throttle interval of the meter, before the first event past the tick. When the meter
+ * has a limit resolver, e.g. {@link org.kbac.throttle.FairShareTimerTask}, the limits of the keys are resolved by it.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class Simulation {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(Simulation.class);
+
+    private final Meter meter;
+
+    private final VirtualTimeSource time;
+
+    private final TimerTask tickTask;
+
+    private final long maxNumberOfRequests;
+
+
+    /**
+     * @param meter               using a virtual time source
+     * @param tickTask            draining the buckets of the meter
+     * @param maxNumberOfRequests defines maximum number of requests per key within the meter interval, unless the
+     *                            meter has a limit resolver
+     */
+    public Simulation(final Meter meter, final TimerTask tickTask, final long maxNumberOfRequests) {
+        Validate.notNull(meter, "meter must not be null");
+        Validate.isTrue(meter.getTimeSource() instanceof VirtualTimeSource, "meter must use virtual time");
+        Validate.notNull(tickTask, "tickTask must not be null");
+        Validate.isTrue(maxNumberOfRequests > 0, "maxNumberOfRequests must be greater than 0");
+
+        this.meter = meter;
+        this.time = (VirtualTimeSource) meter.getTimeSource();
+        this.tickTask = tickTask;
+        this.maxNumberOfRequests = maxNumberOfRequests;
+    }
+
+    /**
+     * Replays the trace from the current virtual time
+     *
+     * @param trace to replay
+     * @return statistics of the run
+     */
+    public SimulationReport run(final Trace trace) {
+        Validate.notNull(trace, "trace must not be null");
+
+        final Runtime runtime = Runtime.getRuntime();
+        final long startHeapBytes = runtime.totalMemory() - runtime.freeMemory();
+        final long startWallNanos = System.nanoTime();
+
+        final long intervalNanos = TimeUnit.MILLISECONDS.toNanos(this.meter.getThrottleIntervalMillis());
+        final long startNanos = this.time.nanoTime();
+        final TraceEvent event = new TraceEvent();
+        final boolean limitsResolved = this.meter.getLimitResolver() != null;
+        long nextTickNanos = startNanos + intervalNanos;
+        long eventCount = 0;
+        long admittedCount = 0;
+        long intervalAdmittedCount = 0;
+        long peakAdmittedCount = 0;
+        long intervalCount = 1;
+        int peakBucketCount = 0;
+
+        while (trace.next(event)) {
+            final long eventNanos = startNanos + event.getTimeNanos();
+            while (nextTickNanos <= eventNanos) {
+                this.time.advanceTo(nextTickNanos);
+                peakBucketCount = Math.max(peakBucketCount, this.meter.getBucketCount());
+                this.tickTask.run();
+                peakAdmittedCount = Math.max(peakAdmittedCount, intervalAdmittedCount);
+                intervalAdmittedCount = 0;
+                intervalCount++;
+                nextTickNanos += intervalNanos;
+            }
+            this.time.advanceTo(eventNanos);
+
+            eventCount++;
+            final String key = trace.getKey(event.getKeyIndex());
+            if (!(limitsResolved ? this.meter.shouldThrottle(key) : this.meter.shouldThrottle(key, this.maxNumberOfRequests))) {
+                admittedCount++;
+                intervalAdmittedCount++;
+            }
+        }
+        peakAdmittedCount = Math.max(peakAdmittedCount, intervalAdmittedCount);
+        peakBucketCount = Math.max(peakBucketCount, this.meter.getBucketCount());
+
+        final SimulationReport report = new SimulationReport(eventCount, admittedCount, intervalCount
+                , peakAdmittedCount, peakBucketCount, runtime.totalMemory() - runtime.freeMemory() - startHeapBytes
+                , this.time.nanoTime() - startNanos, System.nanoTime() - startWallNanos);
+        LOGGER.info("{}", report);
+        return report;
+    }
+}
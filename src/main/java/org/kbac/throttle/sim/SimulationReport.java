@@ -0,0 +1,141 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Statistics of a simulation run
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class SimulationReport {
+
+    private final long eventCount;
+
+    private final long admittedCount;
+
+    private final long intervalCount;
+
+    private final long peakAdmittedCount;
+
+    private final int peakBucketCount;
+
+    private final long heapBytes;
+
+    private final long virtualNanos;
+
+    private final long wallNanos;
+
+
+    SimulationReport(final long eventCount, final long admittedCount, final long intervalCount
+            , final long peakAdmittedCount, final int peakBucketCount, final long heapBytes, final long virtualNanos
+            , final long wallNanos) {
+        this.eventCount = eventCount;
+        this.admittedCount = admittedCount;
+        this.intervalCount = intervalCount;
+        this.peakAdmittedCount = peakAdmittedCount;
+        this.peakBucketCount = peakBucketCount;
+        this.heapBytes = heapBytes;
+        this.virtualNanos = virtualNanos;
+        this.wallNanos = wallNanos;
+    }
+
+    public long getEventCount() {
+        return this.eventCount;
+    }
+
+    public long getAdmittedCount() {
+        return this.admittedCount;
+    }
+
+    /**
+     * @return fraction of the events admitted
+     */
+    public double getAdmitRatio() {
+        return this.eventCount == 0 ? 0 : (double) this.admittedCount / this.eventCount;
+    }
+
+    /**
+     * @return number of throttle intervals the run spanned
+     */
+    public long getIntervalCount() {
+        return this.intervalCount;
+    }
+
+    /**
+     * @return highest number of events admitted within a single interval
+     */
+    public long getPeakAdmittedCount() {
+        return this.peakAdmittedCount;
+    }
+
+    /**
+     * @return ratio of the peak to the average number of events admitted per interval, 1 for perfectly smooth output
+     */
+    public double getBurstiness() {
+        return this.admittedCount == 0 ? 0 : (double) this.peakAdmittedCount * this.intervalCount / this.admittedCount;
+    }
+
+    /**
+     * @return highest number of buckets kept by the meter at once
+     */
+    public int getPeakBucketCount() {
+        return this.peakBucketCount;
+    }
+
+    /**
+     * @return approximate growth of the used heap over the run, not accounting for garbage collections
+     */
+    public long getHeapBytes() {
+        return this.heapBytes;
+    }
+
+    public long getVirtualNanos() {
+        return this.virtualNanos;
+    }
+
+    public long getWallNanos() {
+        return this.wallNanos;
+    }
+
+    /**
+     * @return number of events replayed per second of the wall clock
+     */
+    public double getEventsPerSecond() {
+        return this.wallNanos == 0 ? 0 : this.eventCount * (double) TimeUnit.SECONDS.toNanos(1) / this.wallNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s{events=%d, admitRatio=%.4f, burstiness=%.3f, peakBuckets=%d, heapBytes=%d"
+                        + ", virtual=%dms, wall=%dms, eventsPerSecond=%.0f}", this.getClass().getSimpleName()
+                , this.eventCount, getAdmitRatio(), getBurstiness(), this.peakBucketCount, this.heapBytes
+                , TimeUnit.NANOSECONDS.toMillis(this.virtualNanos), TimeUnit.NANOSECONDS.toMillis(this.wallNanos)
+                , getEventsPerSecond());
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import org.apache.commons.lang3.Validate;
+
+import java.util.Random;
+
+/**
+ * Trace of randomly generated events, replayable thanks to the fixed seed. Subclasses define the gaps between
+ * the events.
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public abstract class SyntheticTrace implements Trace {
+
+    public static final String KEY_PREFIX = "key-";
+
+    private final String[] keys;
+
+    private final KeyDistribution distribution;
+
+    private final long eventCount;
+
+    private final long seed;
+
+    private Random random;
+
+    private long emittedCount;
+
+    private long timeNanos;
+
+
+    /**
+     * @param eventCount   number of events of the trace
+     * @param distribution of the keys
+     * @param seed         of the random events
+     */
+    protected SyntheticTrace(final long eventCount, final KeyDistribution distribution, final long seed) {
+        Validate.isTrue(eventCount > 0, "eventCount must be greater than 0");
+        Validate.notNull(distribution, "distribution must not be null");
+
+        this.eventCount = eventCount;
+        this.distribution = distribution;
+        this.seed = seed;
+        this.keys = new String[distribution.getKeyCount()];
+        for (int i = 0; i < this.keys.length; i++) {
+            this.keys[i] = KEY_PREFIX + i;
+        }
+        rewind();
+    }
+
+    @Override
+    public boolean next(final TraceEvent event) {
+        if (this.emittedCount == this.eventCount) {
+            return false;
+        }
+        this.timeNanos += nextGapNanos(this.random);
+        this.emittedCount++;
+        event.set(this.timeNanos, this.distribution.next(this.random));
+        return true;
+    }
+
+    @Override
+    public String getKey(final int index) {
+        return this.keys[index];
+    }
+
+    @Override
+    public void rewind() {
+        this.random = new Random(this.seed);
+        this.emittedCount = 0;
+        this.timeNanos = 0;
+    }
+
+    /**
+     * @return nanoseconds since the start of the trace of the last event
+     */
+    protected long getTimeNanos() {
+        return this.timeNanos;
+    }
+
+    /**
+     * @param random source of randomness
+     * @return nanoseconds between the previous and the next event
+     */
+    protected abstract long nextGapNanos(final Random random);
+
+    /**
+     * @return exponentially distributed value of the given mean, i.e. gap between events of a Poisson process
+     */
+    protected static long exponential(final Random random, final double mean) {
+        return (long) (-Math.log(1 - random.nextDouble()) * mean);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+/**
+ * Mutable request event of a trace, reused for every event of a run
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class TraceEvent {
+
+    private long timeNanos;
+
+    private int keyIndex;
+
+
+    /**
+     * @return nanoseconds since the start of the trace
+     */
+    public long getTimeNanos() {
+        return this.timeNanos;
+    }
+
+    /**
+     * @return index of the key within its trace
+     */
+    public int getKeyIndex() {
+        return this.keyIndex;
+    }
+
+    void set(final long timeNanos, final int keyIndex) {
+        this.timeNanos = timeNanos;
+        this.keyIndex = keyIndex;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "{" + this.keyIndex + "@" + this.timeNanos + "ns}";
+    }
+}
@@ -0,0 +1,95 @@
+/**
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2016 Krzysztof Bacalski
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package org.kbac.throttle.sim;
+
+import org.apache.commons.lang3.Validate;
+import org.kbac.throttle.TimeSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time source standing still until explicitly advanced, making runs of the buckets and the timer tasks deterministic
+ * and independent of the wall clock
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class VirtualTimeSource implements TimeSource {
+
+    private final long startMillis;
+
+    private volatile long nanos;
+
+
+    /**
+     * Creates time source starting at the epoch
+     */
+    public VirtualTimeSource() {
+        this(0);
+    }
+
+    /**
+     * @param startMillis time in milliseconds the time source starts at
+     */
+    public VirtualTimeSource(final long startMillis) {
+        this.startMillis = startMillis;
+    }
+
+    @Override
+    public long currentTimeMillis() {
+        return this.startMillis + TimeUnit.NANOSECONDS.toMillis(this.nanos);
+    }
+
+    /**
+     * @return nanoseconds elapsed since the start
+     */
+    @Override
+    public long nanoTime() {
+        return this.nanos;
+    }
+
+    /**
+     * @param duration to move the time forward by
+     * @param unit     of the duration
+     */
+    public void advance(final long duration, final TimeUnit unit) {
+        Validate.isTrue(duration >= 0, "duration must not be negative");
+        this.nanos += unit.toNanos(duration);
+    }
+
+    /**
+     * @param nanos elapsed since the start to move the time forward to
+     */
+    public void advanceTo(final long nanos) {
+        Validate.isTrue(nanos >= this.nanos, "time must not go backwards");
+        this.nanos = nanos;
+    }
+
+    @Override
+    public String toString() {
+        return this.getClass().getSimpleName() + "@" + this.nanos + "ns";
+    }
+}
@@ -18,5 +18,7 @@ public interface CounterService {
 
     Counter getCounterCachedLocally(String name);
 
+    Counter getCounterCachedInTwoLevels(String name);
+
     void clearCaches();
 }
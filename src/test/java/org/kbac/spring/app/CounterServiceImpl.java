@@ -20,6 +20,8 @@ public class CounterServiceImpl implements CounterService, ApplicationContextAwa
 
     public static final String CACHE_NAME = "counters";
     public static final String SCOPED_CACHE_MANAGER = "scopedCacheManager";
+    public static final String TWO_LEVEL_CACHE_MANAGER = "twoLevelCacheManager";
+    public static final String TWO_LEVEL_KEY_PREFIX = "twoLevel.";
 
     private ApplicationContext applicationContext;
 
@@ -52,6 +54,12 @@ public class CounterServiceImpl implements CounterService, ApplicationContextAwa
         return getCounterSlowly(name);
     }
 
+    @Override
+    @Cacheable(value = CACHE_NAME, key = "'" + TWO_LEVEL_KEY_PREFIX + "' + #name", cacheManager = TWO_LEVEL_CACHE_MANAGER)
+    public Counter getCounterCachedInTwoLevels(String name) {
+        return getCounterSlowly(name);
+    }
+
     @Override
     public void setApplicationContext(ApplicationContext applicationContext) throws BeansException {
         this.applicationContext = applicationContext;
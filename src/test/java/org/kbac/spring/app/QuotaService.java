@@ -0,0 +1,19 @@
+package org.kbac.spring.app;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public interface QuotaService {
+
+    String getReport(String userId);
+
+    String getReportByIndex(String userId);
+
+    String getStatus();
+
+    String getUnlimited(String userId);
+
+    String getUnthrottled(String userId);
+}
@@ -0,0 +1,44 @@
+package org.kbac.spring.app;
+
+import org.kbac.spring.throttle.Throttled;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class QuotaServiceImpl implements QuotaService {
+
+    public static final int REPORT_LIMIT = 3;
+
+    public static final int STATUS_LIMIT = 2;
+
+    @Override
+    @Throttled(key = "#userId", limit = REPORT_LIMIT)
+    public String getReport(String userId) {
+        return "report of " + userId;
+    }
+
+    @Override
+    @Throttled(key = "#p0", name = "reportByIndex", limit = REPORT_LIMIT)
+    public String getReportByIndex(String userId) {
+        return "report of " + userId;
+    }
+
+    @Override
+    @Throttled(limit = STATUS_LIMIT)
+    public String getStatus() {
+        return "ok";
+    }
+
+    @Override
+    @Throttled(key = "#userId", limit = Long.MAX_VALUE)
+    public String getUnlimited(String userId) {
+        return userId;
+    }
+
+    @Override
+    public String getUnthrottled(String userId) {
+        return userId;
+    }
+}
@@ -13,5 +13,9 @@ public interface PersonDAO {
 
     List<Person> getPersonsLong();
 
+    int getPersonsLongInvocationCount();
+
+    void setPersonsLongFailing(boolean failing);
+
     void addPerson(Person toAdd);
 }
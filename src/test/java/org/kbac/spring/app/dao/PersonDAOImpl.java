@@ -12,6 +12,7 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  *
@@ -26,6 +27,10 @@ public class PersonDAOImpl implements PersonDAO {
     @Autowired
     private SessionFactory sessionFactory;
 
+    private final AtomicInteger personsLongInvocationCount = new AtomicInteger();
+
+    private volatile boolean personsLongFailing;
+
     @Override
     @Transactional(propagation = Propagation.REQUIRED)
     public List<Person> getPersons() {
@@ -37,10 +42,24 @@ public class PersonDAOImpl implements PersonDAO {
     @Override
     @Transactional(propagation = Propagation.REQUIRED)
     public List<Person> getPersonsLong() {
+        personsLongInvocationCount.incrementAndGet();
         sleep();
+        if (personsLongFailing) {
+            throw new IllegalStateException("failed to load persons");
+        }
         return getPersons();
     }
 
+    @Override
+    public int getPersonsLongInvocationCount() {
+        return personsLongInvocationCount.get();
+    }
+
+    @Override
+    public void setPersonsLongFailing(boolean failing) {
+        this.personsLongFailing = failing;
+    }
+
     @Override
     @Transactional(propagation = Propagation.REQUIRED)
     public void addPerson(Person toAdd) {
@@ -0,0 +1,60 @@
+package org.kbac.spring.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class BoundedCacheManagerTest {
+
+    BoundedCacheManager cacheManager;
+
+
+    @Before
+    public void setUp() throws Exception {
+        this.cacheManager = new BoundedCacheManager();
+        this.cacheManager.setMaximumSize(2);
+    }
+
+    @Test
+    public void createsCachesOnDemand() {
+        final Cache cache = this.cacheManager.getCache("persons");
+
+        assertNotNull("cache should be created", cache);
+        assertSame("cache should be reused", cache, this.cacheManager.getCache("persons"));
+        assertTrue("cache name should be known", this.cacheManager.getCacheNames().contains("persons"));
+    }
+
+    @Test
+    public void fixesCacheNames() {
+        final BoundedCacheManager fixedCacheManager = new BoundedCacheManager("persons", "counters");
+
+        assertNotNull("configured cache expected", fixedCacheManager.getCache("counters"));
+        assertNull("no cache should be created on demand", fixedCacheManager.getCache("unknown"));
+    }
+
+    @Test
+    public void sharesBoundsAcrossCaches() {
+        final BoundedCacheManager fixedCacheManager = new BoundedCacheManager("persons");
+        fixedCacheManager.setMaximumSize(2);
+        final Cache cache = fixedCacheManager.getCache("persons");
+
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, i);
+        }
+
+        final CacheStats stats = fixedCacheManager.getStats().get("persons");
+        assertEquals("cache should be bounded", 2, stats.getSize());
+        assertEquals("unexpected evictions", 8, stats.getEvictionCount());
+    }
+}
@@ -0,0 +1,207 @@
+package org.kbac.spring.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class BoundedCacheTest {
+
+    public static final String CACHE_NAME = "persons";
+
+    public static final long TIME_TO_LIVE_MILLIS = 1000;
+
+    long timeNanos;
+
+    BoundedCache cache;
+
+
+    @Before
+    public void setUp() throws Exception {
+        this.cache = newCache(4, 1);
+    }
+
+    private BoundedCache newCache(int maximumSize, int concurrencyLevel) {
+        return new BoundedCache(CACHE_NAME, maximumSize, TIME_TO_LIVE_MILLIS, TimeUnit.MILLISECONDS, concurrencyLevel, true) {
+            @Override
+            protected long currentTimeNanos() {
+                return timeNanos;
+            }
+        };
+    }
+
+    private void advanceMillis(long millis) {
+        this.timeNanos += TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+
+    @Test
+    public void cachesValues() {
+        this.cache.put(1, "one");
+
+        assertEquals("value should be cached", "one", this.cache.get(1).get());
+        assertEquals("value should be cached", "one", this.cache.get(1, String.class));
+        assertNull("unknown key should miss", this.cache.get(2));
+        assertSame("native cache should be the cache itself", this.cache, this.cache.getNativeCache());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        for (int i = 0; i < 4; i++) {
+            this.cache.put(i, i);
+        }
+        this.cache.get(0);
+
+        this.cache.put(4, 4);
+
+        assertEquals("cache should stay within its size", 4, this.cache.size());
+        assertNull("least recently used entry should be evicted", this.cache.get(1));
+        assertNotNull("recently used entry should be kept", this.cache.get(0));
+        assertEquals("unexpected evictions", 1, this.cache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void staysWithinSizeOverSegments() {
+        final BoundedCache segmentedCache = newCache(100, 16);
+
+        for (int i = 0; i < 10000; i++) {
+            segmentedCache.put(i, i);
+        }
+
+        assertTrue("cache should stay within its size: " + segmentedCache.size(), segmentedCache.size() <= 100);
+        assertEquals("unexpected evictions", 10000 - segmentedCache.size(), segmentedCache.getStats().getEvictionCount());
+    }
+
+    @Test
+    public void expiresEntries() {
+        this.cache.put(1, "one");
+        advanceMillis(TIME_TO_LIVE_MILLIS - 1);
+        assertNotNull("entry should live", this.cache.get(1));
+
+        advanceMillis(1);
+
+        assertNull("entry should expire", this.cache.get(1));
+        assertEquals("unexpected expirations", 1, this.cache.getStats().getExpirationCount());
+        assertEquals("expired entry should be dropped", 0, this.cache.size());
+    }
+
+    @Test
+    public void purgesExpiredEntriesOnWrite() {
+        this.cache.put(1, "one");
+        this.cache.put(2, "two");
+        advanceMillis(TIME_TO_LIVE_MILLIS);
+
+        this.cache.put(3, "three");
+
+        assertEquals("expired entries should be purged", 1, this.cache.size());
+        assertEquals("unexpected expirations", 2, this.cache.getStats().getExpirationCount());
+    }
+
+    @Test
+    public void neverExpiresWithoutTimeToLive() {
+        final BoundedCache eternalCache = new BoundedCache(CACHE_NAME, 10, BoundedCache.NO_EXPIRY, TimeUnit.MILLISECONDS);
+        eternalCache.put(1, "one");
+
+        assertEquals("entry should live", "one", eternalCache.get(1).get());
+    }
+
+    @Test
+    public void putsIfAbsent() {
+        assertNull("absent value should be put", this.cache.putIfAbsent(1, "one"));
+        assertEquals("present value should be returned", "one", this.cache.putIfAbsent(1, "other").get());
+
+        advanceMillis(TIME_TO_LIVE_MILLIS);
+        assertNull("expired value should be replaced", this.cache.putIfAbsent(1, "other"));
+        assertEquals("value should be replaced", "other", this.cache.get(1).get());
+    }
+
+    @Test
+    public void cachesNullValues() {
+        this.cache.put(1, null);
+
+        assertNotNull("null value should be cached", this.cache.get(1));
+        assertNull("null value should be cached", this.cache.get(1).get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullValuesWhenNotAllowed() {
+        new BoundedCache(CACHE_NAME, 10, 0, TimeUnit.MILLISECONDS, 1, false).put(1, null);
+    }
+
+    @Test
+    public void evictsAndClears() {
+        this.cache.put(1, "one");
+        this.cache.put(2, "two");
+
+        this.cache.evict(1);
+        assertNull("entry should be evicted", this.cache.get(1));
+        this.cache.clear();
+        assertEquals("cache should be empty", 0, this.cache.size());
+    }
+
+    @Test
+    public void countsHitsAndMisses() {
+        this.cache.put(1, "one");
+        this.cache.get(1);
+        this.cache.get(1);
+        this.cache.get(1);
+        this.cache.get(2);
+
+        final CacheStats stats = this.cache.getStats();
+
+        assertEquals("unexpected hits", 3, stats.getHitCount());
+        assertEquals("unexpected misses", 1, stats.getMissCount());
+        assertEquals("unexpected hit ratio", 0.75, stats.getHitRatio(), 0.001);
+        assertEquals("unexpected size", 1, stats.getSize());
+    }
+
+    @Test
+    public void staysConsistentUnderConcurrentUse() throws Exception {
+        final BoundedCache concurrentCache = new BoundedCache(CACHE_NAME, 256, BoundedCache.NO_EXPIRY, TimeUnit.MILLISECONDS);
+        final int threadCount = 4;
+        final int operationCount = 20000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<Void>> futures = new ArrayList<Future<Void>>();
+            for (int t = 0; t < threadCount; t++) {
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() {
+                        for (int i = 0; i < operationCount; i++) {
+                            final Integer key = i % 1024;
+                            if (concurrentCache.get(key) == null) {
+                                concurrentCache.put(key, key);
+                            }
+                        }
+                        return null;
+                    }
+                }));
+            }
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        final CacheStats stats = concurrentCache.getStats();
+        assertEquals("every lookup should be counted", threadCount * operationCount, stats.getRequestCount());
+        assertTrue("cache should stay within its size: " + stats.getSize(), stats.getSize() <= 256);
+    }
+}
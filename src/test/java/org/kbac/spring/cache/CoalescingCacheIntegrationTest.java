@@ -0,0 +1,115 @@
+package org.kbac.spring.cache;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kbac.spring.app.PersonService;
+import org.kbac.spring.app.dao.PersonDAO;
+import org.kbac.spring.app.entities.Person;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = {
+         "classpath:spring-app-config.xml"
+        ,"classpath:spring-tx-config.xml"
+        ,"classpath:spring-cache-config.xml"
+})
+public class CoalescingCacheIntegrationTest {
+
+    private static final int CALLER_COUNT = 100;
+
+    @Autowired
+    private PersonService personService;
+
+    @Autowired
+    private PersonDAO personDAO;
+
+
+    @Test
+    public void concurrentMissesLoadOnce() throws Exception {
+        final int id = (int) System.nanoTime();
+        final int invocationCount = personDAO.getPersonsLongInvocationCount();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLER_COUNT);
+        try {
+            final List<Future<List<Person>>> futures = new ArrayList<Future<List<Person>>>();
+            for (int i = 0; i < CALLER_COUNT; i++) {
+                futures.add(executor.submit(new Callable<List<Person>>() {
+                    @Override
+                    public List<Person> call() throws Exception {
+                        start.await();
+                        return personService.getPersonsCachedGlobally(id);
+                    }
+                }));
+            }
+            start.countDown();
+
+            final List<Person> persons = futures.get(0).get();
+            for (Future<List<Person>> future : futures) {
+                assertSame("every caller should get the loaded persons", persons, future.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals("persons should be loaded once", invocationCount + 1, personDAO.getPersonsLongInvocationCount());
+    }
+
+    @Test
+    public void failedLoadReleasesWaitingCallers() throws Exception {
+        final int id = (int) System.nanoTime();
+        final CountDownLatch start = new CountDownLatch(1);
+        final ExecutorService executor = Executors.newFixedThreadPool(CALLER_COUNT);
+        personDAO.setPersonsLongFailing(true);
+        try {
+            final List<Future<List<Person>>> futures = new ArrayList<Future<List<Person>>>();
+            for (int i = 0; i < CALLER_COUNT; i++) {
+                futures.add(executor.submit(new Callable<List<Person>>() {
+                    @Override
+                    public List<Person> call() throws Exception {
+                        start.await();
+                        return personService.getPersonsCachedGlobally(id);
+                    }
+                }));
+            }
+            final long startMillis = System.currentTimeMillis();
+            start.countDown();
+
+            for (Future<List<Person>> future : futures) {
+                try {
+                    future.get();
+                    fail("every caller should fail to load the persons");
+                } catch (ExecutionException e) {
+                    assertTrue("unexpected failure: " + e.getCause(), e.getCause() instanceof IllegalStateException);
+                }
+            }
+            final long elapsedMillis = System.currentTimeMillis() - startMillis;
+
+            assertTrue("waiting callers should not wait for the load timeout, took " + elapsedMillis + "ms"
+                    , elapsedMillis < CoalescingCache.LOAD_TIMEOUT_MILLIS_DEFAULT / 2);
+        } finally {
+            personDAO.setPersonsLongFailing(false);
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package org.kbac.spring.cache;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class CoalescingCacheTest {
+
+    public static final String KEY = "key";
+
+    ConcurrentMapCache delegate;
+
+    CoalescingCache cache;
+
+
+    @Before
+    public void setUp() throws Exception {
+        this.delegate = new ConcurrentMapCache("persons");
+        this.cache = new CoalescingCache(this.delegate, 5, TimeUnit.SECONDS);
+    }
+
+    private Future<Cache.ValueWrapper> getConcurrently() {
+        // a new thread every time, the loader thread gets the miss instead of waiting for its own load
+        final FutureTask<Cache.ValueWrapper> task = new FutureTask<Cache.ValueWrapper>(new Callable<Cache.ValueWrapper>() {
+            @Override
+            public Cache.ValueWrapper call() {
+                return cache.get(KEY);
+            }
+        });
+        final Thread thread = new Thread(task);
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    private void awaitCoalesced(long count) throws InterruptedException {
+        while (this.cache.getCoalescedCount() < count) {
+            Thread.sleep(1);
+        }
+    }
+
+    @Test
+    public void firstMissLoads() {
+        assertNull("first caller should load", this.cache.get(KEY));
+
+        assertEquals("load should be in flight", 1, this.cache.getLoadCount());
+        assertNull("loader should not wait for itself", this.cache.get(KEY));
+    }
+
+    @Test
+    public void concurrentMissWaitsForLoad() throws Exception {
+        this.cache.get(KEY);
+        final Future<Cache.ValueWrapper> waiting = getConcurrently();
+        awaitCoalesced(1);
+
+        this.cache.put(KEY, "value");
+
+        assertEquals("waiting caller should get the loaded value", "value", waiting.get(1, TimeUnit.SECONDS).get());
+        assertEquals("load should be completed", 0, this.cache.getLoadCount());
+        assertEquals("value should be cached", "value", this.delegate.get(KEY).get());
+    }
+
+    @Test
+    public void hitDoesNotCoalesce() {
+        this.cache.put(KEY, "value");
+
+        assertEquals("value should be found", "value", this.cache.get(KEY, String.class));
+        assertEquals("no load expected", 0, this.cache.getLoadCount());
+        assertEquals("no coalesced callers expected", 0, this.cache.getCoalescedCount());
+    }
+
+    @Test
+    public void evictReleasesWaitingCallers() throws Exception {
+        this.cache.get(KEY);
+        final Future<Cache.ValueWrapper> waiting = getConcurrently();
+        awaitCoalesced(1);
+
+        this.cache.evict(KEY);
+
+        assertNull("waiting caller should miss", waiting.get(1, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void releasedLoadReleasesWaitingCallers() throws Exception {
+        this.cache.get(KEY);
+        final Future<Cache.ValueWrapper> waiting = getConcurrently();
+        awaitCoalesced(1);
+
+        this.cache.releaseLoads();
+
+        assertNull("waiting caller should miss", waiting.get(1, TimeUnit.SECONDS));
+        assertEquals("load should be released", 0, this.cache.getLoadCount());
+    }
+
+    @Test
+    public void abandonedLoadTimesOut() throws Exception {
+        this.cache = new CoalescingCache(this.delegate, 10, TimeUnit.MILLISECONDS);
+        this.cache.get(KEY);
+
+        assertNull("waiting caller should miss after timeout", getConcurrently().get(1, TimeUnit.SECONDS));
+        assertEquals("timed out load should be taken over by the caller", 1, this.cache.getLoadCount());
+    }
+
+    @Test
+    public void loaderFailsNextCallerNotDelayed() throws Exception {
+        final long timeoutMillis = 200;
+        this.cache = new CoalescingCache(this.delegate, timeoutMillis, TimeUnit.MILLISECONDS);
+        // the loader misses and fails without putting the value
+        this.cache.get(KEY);
+        Thread.sleep(timeoutMillis);
+
+        final long startNanos = System.nanoTime();
+        assertNull("next caller should load", getConcurrently().get(1, TimeUnit.SECONDS));
+        final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+
+        assertTrue("next caller should not wait for abandoned load: " + elapsedMillis + "ms", elapsedMillis < timeoutMillis);
+        assertEquals("next caller should not be counted as coalesced", 0, this.cache.getCoalescedCount());
+        final Future<Cache.ValueWrapper> waiting = getConcurrently();
+        awaitCoalesced(1);
+        this.cache.put(KEY, "value");
+        assertEquals("callers should wait for the new load", "value", waiting.get(1, TimeUnit.SECONDS).get());
+    }
+
+    @Test
+    public void coalescesManyCallers() throws Exception {
+        this.cache.get(KEY);
+        final int callerCount = 50;
+        final Future<?>[] waiting = new Future<?>[callerCount];
+        for (int i = 0; i < callerCount; i++) {
+            waiting[i] = getConcurrently();
+        }
+        awaitCoalesced(callerCount);
+
+        this.cache.put(KEY, "value");
+
+        for (Future<?> future : waiting) {
+            assertEquals("every caller should get the value", "value", ((Cache.ValueWrapper) future.get(1, TimeUnit.SECONDS)).get());
+        }
+    }
+
+    @Test
+    public void decoratesCachesOfTargetManager() {
+        final CoalescingCacheManager cacheManager = new CoalescingCacheManager(new BoundedCacheManager("persons"));
+
+        assertTrue("cache should be decorated", cacheManager.getCache("persons") instanceof CoalescingCache);
+        assertTrue("cache should be reused", cacheManager.getCache("persons") == cacheManager.getCache("persons"));
+        assertNull("unknown cache must not be found", cacheManager.getCache("unknown"));
+    }
+}
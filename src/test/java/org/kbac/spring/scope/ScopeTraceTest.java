@@ -0,0 +1,95 @@
+package org.kbac.spring.scope;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class ScopeTraceTest {
+
+    private static final int CAPACITY = 8;
+
+    ScopeTrace trace;
+
+    @Before
+    public void setUp() throws Exception {
+        this.trace = new ScopeTrace(CAPACITY);
+    }
+
+    @Test
+    public void recordsEventsInOrder() {
+        trace.record(ScopeTrace.EventType.BEAN_CREATED, 1, "bean", 1000);
+        trace.record(ScopeTrace.EventType.TX_CLEARED, 1, null, 2000);
+
+        final List<ScopeTrace.Event> events = trace.getEvents();
+
+        assertEquals("unexpected number of events", 2, events.size());
+        assertEquals("unexpected event", ScopeTrace.EventType.BEAN_CREATED, events.get(0).getType());
+        assertEquals("unexpected bean", "bean", events.get(0).getBeanName());
+        assertEquals("unexpected duration", 1000, events.get(0).getDurationNanos());
+        assertEquals("unexpected event", ScopeTrace.EventType.TX_CLEARED, events.get(1).getType());
+        assertNull("transaction event has no bean", events.get(1).getBeanName());
+    }
+
+    @Test
+    public void keepsMostRecentEvents() {
+        for (int i = 0; i < CAPACITY * 2 + 3; i++) {
+            trace.record(ScopeTrace.EventType.CACHE_HIT, i, "bean", 0);
+        }
+
+        final List<ScopeTrace.Event> events = trace.getEvents();
+
+        assertEquals("ring should keep its capacity", CAPACITY, events.size());
+        assertEquals("oldest events should be overwritten", CAPACITY + 3, events.get(0).getTransactionSerial());
+        assertEquals("all events should be counted", CAPACITY * 2 + 3, trace.getEventCount());
+    }
+
+    @Test
+    public void dumpsEventPerLine() throws Exception {
+        trace.record(ScopeTrace.EventType.BEAN_CREATED, 7, "bean", TimeUnit.MICROSECONDS.toNanos(15));
+        final StringBuilder dump = new StringBuilder();
+
+        trace.dump(dump);
+
+        assertEquals("unexpected dump", "#0 BEAN_CREATED tx.7 [bean] 15us\n", dump.toString());
+    }
+
+    @Test
+    public void recordsConcurrently() throws Exception {
+        final ScopeTrace large = new ScopeTrace(1 << 16);
+        final int threadCount = 4;
+        final int eventCount = 10000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final long serial = t;
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < eventCount; i++) {
+                        large.record(ScopeTrace.EventType.CACHE_HIT, serial, "bean" + serial, i);
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue("threads should complete", executor.awaitTermination(10, TimeUnit.SECONDS));
+
+        final List<ScopeTrace.Event> events = large.getEvents();
+        assertEquals("no event should be lost", threadCount * eventCount, events.size());
+        for (ScopeTrace.Event event : events) {
+            assertEquals("event should be consistent", "bean" + event.getTransactionSerial(), event.getBeanName());
+        }
+    }
+}
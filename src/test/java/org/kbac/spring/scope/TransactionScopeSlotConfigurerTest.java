@@ -0,0 +1,99 @@
+package org.kbac.spring.scope;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class TransactionScopeSlotConfigurerTest {
+
+    DefaultListableBeanFactory beanFactory;
+
+    TransactionScope transactionScope;
+
+    TransactionScopeSlotConfigurer configurer;
+
+
+    @Before
+    public void setUp() throws Exception {
+        this.transactionScope = new TransactionScope();
+        this.beanFactory = new DefaultListableBeanFactory();
+        this.beanFactory.registerScope(TransactionScopeSlotConfigurer.SCOPE_NAME_DEFAULT, this.transactionScope);
+        this.beanFactory.registerBeanDefinition("first", txScoped(new RootBeanDefinition(ArrayList.class)));
+        this.beanFactory.registerBeanDefinition("singleton", new RootBeanDefinition(ArrayList.class));
+        this.beanFactory.registerBeanDefinition("second", txScoped(new RootBeanDefinition(ArrayList.class)));
+        final RootBeanDefinition abstractDefinition = txScoped(new RootBeanDefinition(ArrayList.class));
+        abstractDefinition.setAbstract(true);
+        this.beanFactory.registerBeanDefinition("abstract", abstractDefinition);
+
+        this.configurer = new TransactionScopeSlotConfigurer();
+        this.configurer.setTransactionScope(this.transactionScope);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        if (TransactionSynchronizationManager.hasResource(this.transactionScope)) {
+            TransactionSynchronizationManager.unbindResource(this.transactionScope);
+        }
+    }
+
+    private static RootBeanDefinition txScoped(RootBeanDefinition beanDefinition) {
+        beanDefinition.setScope(TransactionScopeSlotConfigurer.SCOPE_NAME_DEFAULT);
+        return beanDefinition;
+    }
+
+    @Test
+    public void assignsSlotsToScopedDefinitions() {
+        this.configurer.postProcessBeanFactory(this.beanFactory);
+
+        assertEquals("unexpected slotted beans", Arrays.asList("first", "second")
+                , new ArrayList<String>(this.transactionScope.getSlottedBeanNames()));
+    }
+
+    @Test
+    public void ignoresOtherScopes() {
+        this.configurer.setScopeName("conversation");
+
+        this.configurer.postProcessBeanFactory(this.beanFactory);
+
+        assertTrue("no beans should be slotted", this.transactionScope.getSlottedBeanNames().isEmpty());
+    }
+
+    @Test
+    public void scopesSlottedBeansToTx() {
+        this.configurer.postProcessBeanFactory(this.beanFactory);
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.initSynchronization();
+
+        final Object first = this.beanFactory.getBean("first");
+
+        assertSame("slotted bean should be scoped to tx", first, this.beanFactory.getBean("first"));
+        assertNotSame("each slot should hold its own bean", first, this.beanFactory.getBean("second"));
+        assertEquals("unexpected number of scoped beans", 2, this.transactionScope.getTransactionBeans(
+                this.transactionScope.getConversationId()).size());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void requiresTransactionScope() {
+        new TransactionScopeSlotConfigurer().postProcessBeanFactory(this.beanFactory);
+    }
+}
@@ -8,14 +8,22 @@ import org.mockito.Mock;
 import org.mockito.runners.MockitoJUnitRunner;
 import org.springframework.beans.factory.ObjectFactory;
 import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 import static org.junit.Assert.*;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 /**
@@ -150,6 +158,405 @@ public class TransactionScopeTest {
         assertSame("bean not scoped to current transaction", bean1, getBeanByName(BEAN_NAME));
     }
 
+    @Test
+    public void bindsScopedBeansAsTransactionResource() {
+        getsBeanScopedToCurrentTx();
+
+        assertTrue("scoped beans should be bound to the transaction"
+                , TransactionSynchronizationManager.hasResource(this.transactionScope));
+
+        endTransaction();
+
+        assertFalse("scoped beans should be unbound on completion"
+                , TransactionSynchronizationManager.hasResource(this.transactionScope));
+    }
+
+    @Test
+    public void hidesScopedBeansOfSuspendedTx() {
+        getsBeanScopedToCurrentTx();
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.suspend();
+        }
+        assertFalse("suspended beans should be unbound"
+                , TransactionSynchronizationManager.hasResource(this.transactionScope));
+        assertNull("suspended beans must not be removed", this.transactionScope.remove(BEAN_NAME));
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.resume();
+        }
+        assertSame("resumed beans should be visible again", bean1, this.transactionScope.get(BEAN_NAME, this.objectFactory));
+        verify(this.objectFactory, times(1)).getObject();
+    }
+
+    @Test
+    public void keepsConversationIdForWholeTx() {
+        startTransaction();
+
+        final String conversationId = this.transactionScope.getConversationId();
+
+        assertEquals("conversation id should be stable", conversationId, this.transactionScope.getConversationId());
+        when(this.objectFactory.getObject()).thenReturn(bean1);
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        assertEquals("beans should be scoped to the conversation", bean1, getBeanByName(BEAN_NAME, conversationId));
+        assertTrue("conversation id should contain tx name", conversationId.startsWith(TX_NAME + "@"));
+
+        endTransaction();
+        startTransaction();
+
+        assertFalse("next tx should get new conversation id", conversationId.equals(this.transactionScope.getConversationId()));
+    }
+
+    @Test
+    public void tracesScopeEvents() {
+        final ScopeTrace trace = new ScopeTrace();
+        this.transactionScope.setTrace(trace);
+        getPrototypeBean();
+        getsBeanScopedToCurrentTx();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        this.transactionScope.remove(BEAN_NAME);
+
+        endTransaction();
+
+        final List<ScopeTrace.Event> events = trace.getEvents();
+        assertEquals("unexpected number of events", 5, events.size());
+        assertEquals(ScopeTrace.EventType.PROTOTYPE_CREATED, events.get(0).getType());
+        assertEquals(ScopeTrace.EventType.BEAN_CREATED, events.get(1).getType());
+        assertEquals(ScopeTrace.EventType.CACHE_HIT, events.get(2).getType());
+        assertEquals(ScopeTrace.EventType.BEAN_REMOVED, events.get(3).getType());
+        assertEquals(ScopeTrace.EventType.TX_CLEARED, events.get(4).getType());
+        assertEquals("events should refer to the same tx", events.get(1).getTransactionSerial(), events.get(4).getTransactionSerial());
+    }
+
+    @Test
+    public void storesSlottedBeansBySlot() {
+        this.transactionScope.setSlottedBeanNames(Collections.singleton(BEAN_NAME));
+        assertTrue("bean should be slotted", this.transactionScope.getSlottedBeanNames().contains(BEAN_NAME));
+
+        removesScopedBeanInCurrentTx();
+
+        when(this.objectFactory.getObject()).thenReturn(bean2);
+        assertSame("removed slotted bean should be recreated", bean2, this.transactionScope.get(BEAN_NAME, this.objectFactory));
+        assertSame("recreated bean should be cached", bean2, this.transactionScope.get(BEAN_NAME, this.objectFactory));
+        assertSame("slotted bean should be reported", bean2, getBeanByName(BEAN_NAME));
+    }
+
+    @Test
+    public void storesBeansWithoutSlotByName() {
+        this.transactionScope.setSlottedBeanNames(Collections.singleton(BEAN_NAME));
+        final String otherBeanName = BEAN_NAME + "Other";
+        getsBeanScopedToCurrentTx();
+
+        when(this.objectFactory.getObject()).thenReturn(bean2);
+        assertSame("bean without slot should be scoped", bean2, this.transactionScope.get(otherBeanName, this.objectFactory));
+        assertSame("bean without slot should be cached", bean2, this.transactionScope.get(otherBeanName, this.objectFactory));
+
+        assertSame("slotted bean should be kept", bean1, getBeanByName(BEAN_NAME));
+        assertSame("bean without slot should be reported", bean2, getBeanByName(otherBeanName));
+        assertSame("bean without slot should be removed", bean2, this.transactionScope.remove(otherBeanName));
+        assertNull("removed bean should be gone", getBeanByName(otherBeanName));
+    }
+
+    @Test
+    public void reusesResetBeansOfCompletedTx() {
+        this.transactionScope.setPoolSize(1);
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean(), new CountingResettableBean());
+
+        startTransaction();
+        final CountingResettableBean bean = (CountingResettableBean) this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        endTransaction();
+
+        assertEquals("bean should be reset on completion", 1, bean.resetCount);
+
+        startTransaction();
+        assertSame("pooled bean should be reused", bean, this.transactionScope.get(BEAN_NAME, this.objectFactory));
+        final Object concurrentBean = this.transactionScope.get(BEAN_NAME + "Other", this.objectFactory);
+        endTransaction();
+
+        verify(this.objectFactory, times(2)).getObject();
+        assertEquals("unexpected pool hits", 1, this.transactionScope.getPoolHitCount());
+        assertEquals("unexpected pool misses", 2, this.transactionScope.getPoolMissCount());
+        assertEquals("unexpected pool hit rate", 1 / 3d, this.transactionScope.getPoolHitRate(), 0.001);
+        assertEquals("other bean should be pooled under its own name", 1, ((CountingResettableBean) concurrentBean).resetCount);
+    }
+
+    @Test
+    public void boundsPoolPerBeanName() {
+        this.transactionScope.setPoolSize(1);
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean(), new CountingResettableBean(), bean2);
+
+        startTransaction();
+        final Object bean = this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        // the bound beans of the suspended tx are hidden
+        TransactionSynchronizationManager.unbindResource(this.transactionScope);
+        final Object suspendedTxBean = this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        endTransaction();
+
+        assertTrue("each tx should get its own bean", bean != suspendedTxBean);
+        startTransaction();
+        final Object reusedBean = this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        assertTrue("one of the beans should be reused", reusedBean == bean || reusedBean == suspendedTxBean);
+        TransactionSynchronizationManager.unbindResource(this.transactionScope);
+        assertSame("pool should hold a single bean", bean2, this.transactionScope.get(BEAN_NAME, this.objectFactory));
+    }
+
+    @Test
+    public void clearsPoolOfCurrentThread() {
+        this.transactionScope.setPoolSize(1);
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean(), bean2);
+
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        endTransaction();
+        this.transactionScope.clearPool();
+
+        startTransaction();
+        assertSame("cleared pool should not be used", bean2, this.transactionScope.get(BEAN_NAME, this.objectFactory));
+        assertEquals("unexpected pool hits", 0, this.transactionScope.getPoolHitCount());
+    }
+
+    @Test
+    public void doesNotPoolByDefault() {
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean());
+
+        startTransaction();
+        final CountingResettableBean bean = (CountingResettableBean) this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        endTransaction();
+
+        assertEquals("bean should not be reset", 0, bean.resetCount);
+        assertEquals("no pool misses expected", 0, this.transactionScope.getPoolMissCount());
+        assertEquals("no pool hit rate expected", 0, this.transactionScope.getPoolHitRate(), 0);
+    }
+
+    private static Runnable recordingCallback(final List<String> destroyed, final String beanName) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                destroyed.add(beanName);
+            }
+        };
+    }
+
+    private void getBeanDestroyedBy(String beanName, Runnable callback) {
+        when(this.objectFactory.getObject()).thenReturn(bean1);
+        this.transactionScope.get(beanName, this.objectFactory);
+        this.transactionScope.registerDestructionCallback(beanName, callback);
+    }
+
+    @Test
+    public void destroysBeansOnCompletionInReverseOrder() {
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        getBeanDestroyedBy(BEAN_NAME + 1, recordingCallback(destroyed, BEAN_NAME + 1));
+        getBeanDestroyedBy(BEAN_NAME + 2, recordingCallback(destroyed, BEAN_NAME + 2));
+
+        assertTrue("beans must not be destroyed before completion", destroyed.isEmpty());
+        endTransaction();
+
+        assertEquals("unexpected destruction order", Arrays.asList(BEAN_NAME + 2, BEAN_NAME + 1), destroyed);
+    }
+
+    @Test
+    public void removeDropsDestructionCallback() {
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        getBeanDestroyedBy(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+
+        this.transactionScope.remove(BEAN_NAME);
+        endTransaction();
+
+        assertTrue("removed bean must not be destroyed by the scope", destroyed.isEmpty());
+    }
+
+    @Test
+    public void ignoresDestructionCallbackWhenNoTx() {
+        final List<String> destroyed = new ArrayList<String>();
+        getPrototypeBean();
+
+        this.transactionScope.registerDestructionCallback(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+        startTransaction();
+        endTransaction();
+
+        assertTrue("prototype bean must not be destroyed", destroyed.isEmpty());
+    }
+
+    @Test
+    public void batchesDestructionCallbacksOnExecutor() {
+        final List<Runnable> tasks = new ArrayList<Runnable>();
+        this.transactionScope.setDestructionExecutor(new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                tasks.add(task);
+            }
+        });
+        final List<String> destroyed = new ArrayList<String>();
+        for (int tx = 0; tx < 2; tx++) {
+            startTransaction();
+            getBeanDestroyedBy(BEAN_NAME + 1, recordingCallback(destroyed, "tx" + tx + ".1"));
+            getBeanDestroyedBy(BEAN_NAME + 2, recordingCallback(destroyed, "tx" + tx + ".2"));
+            endTransaction();
+        }
+
+        assertTrue("beans must not be destroyed on completion", destroyed.isEmpty());
+        assertEquals("transactions should be destroyed in a single batch", 1, tasks.size());
+        tasks.get(0).run();
+        assertEquals("unexpected destruction order", Arrays.asList("tx0.2", "tx0.1", "tx1.2", "tx1.1"), destroyed);
+
+        startTransaction();
+        getBeanDestroyedBy(BEAN_NAME, recordingCallback(destroyed, "tx2"));
+        endTransaction();
+        assertEquals("next completion should be scheduled again", 2, tasks.size());
+    }
+
+    @Test
+    public void destroysPendingBeansOnShutdown() {
+        this.transactionScope.setDestructionExecutor(new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                // never runs
+            }
+        });
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        getBeanDestroyedBy(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+        endTransaction();
+
+        this.transactionScope.destroy();
+
+        assertEquals("pending beans should be destroyed", Collections.singletonList(BEAN_NAME), destroyed);
+    }
+
+    @Test
+    public void destroysOnCompletionWhenExecutorRejects() {
+        this.transactionScope.setDestructionExecutor(new Executor() {
+            @Override
+            public void execute(Runnable task) {
+                throw new RejectedExecutionException("shut down");
+            }
+        });
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        getBeanDestroyedBy(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+        endTransaction();
+
+        assertEquals("rejected beans should be destroyed", Collections.singletonList(BEAN_NAME), destroyed);
+    }
+
+    @Test
+    public void keepsPooledBeansUndestroyed() {
+        this.transactionScope.setPoolSize(1);
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean());
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        this.transactionScope.registerDestructionCallback(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+        endTransaction();
+
+        assertTrue("pooled bean must not be destroyed", destroyed.isEmpty());
+    }
+
+    @Test
+    public void destroysPooledBeansWhenPoolCleared() {
+        this.transactionScope.setPoolSize(1);
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean());
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        this.transactionScope.registerDestructionCallback(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+        endTransaction();
+
+        this.transactionScope.clearPool();
+
+        assertEquals("cleared bean should be destroyed", Collections.singletonList(BEAN_NAME), destroyed);
+    }
+
+    @Test
+    public void destroysReusedBeansNoLongerPooled() {
+        this.transactionScope.setPoolSize(1);
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean());
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        this.transactionScope.registerDestructionCallback(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+        endTransaction();
+
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        this.transactionScope.setPoolSize(0);
+        endTransaction();
+
+        verify(this.objectFactory, times(1)).getObject();
+        assertEquals("reused bean should be destroyed", Collections.singletonList(BEAN_NAME), destroyed);
+    }
+
+    @Test
+    public void destroysPooledBeansWhenPoolingDisabled() {
+        this.transactionScope.setPoolSize(1);
+        when(this.objectFactory.getObject()).thenReturn(new CountingResettableBean());
+        final List<String> destroyed = new ArrayList<String>();
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+        this.transactionScope.registerDestructionCallback(BEAN_NAME, recordingCallback(destroyed, BEAN_NAME));
+        endTransaction();
+
+        this.transactionScope.setPoolSize(0);
+
+        assertEquals("pooled bean should be destroyed", Collections.singletonList(BEAN_NAME), destroyed);
+    }
+
+    @Test
+    public void forwardsSynchronisationToScopedBeans() {
+        final List<String> callbacks = new ArrayList<String>();
+        when(this.objectFactory.getObject()).thenReturn(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                callbacks.add("afterCommit");
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                callbacks.add("afterCompletion");
+            }
+        });
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+
+        for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+            sync.afterCommit();
+        }
+        endTransaction();
+
+        assertEquals("unexpected callbacks", Arrays.asList("afterCommit", "afterCompletion"), callbacks);
+    }
+
+    @Test
+    public void stopsForwardingToRemovedBeans() {
+        final List<String> callbacks = new ArrayList<String>();
+        when(this.objectFactory.getObject()).thenReturn(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                callbacks.add("afterCompletion");
+            }
+        });
+        startTransaction();
+        this.transactionScope.get(BEAN_NAME, this.objectFactory);
+
+        this.transactionScope.remove(BEAN_NAME);
+        endTransaction();
+
+        assertTrue("removed bean must not be synchronised", callbacks.isEmpty());
+    }
+
+    static class CountingResettableBean implements ResettableBean {
+
+        int resetCount;
+
+        @Override
+        public void reset() {
+            this.resetCount++;
+        }
+    }
+
     @Test
     public void removesNopWhenNoTx() throws Exception {
         getPrototypeBean();
@@ -0,0 +1,161 @@
+package org.kbac.spring.scope;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class TransactionScopedCacheManagerTest {
+
+    public static final String CACHE_NAME = "persons";
+
+    public static final String KEY = "key";
+
+    TransactionScope transactionScope;
+
+    TransactionScopedCacheManager cacheManager;
+
+
+    @Before
+    public void setUp() throws Exception {
+        this.transactionScope = new TransactionScope();
+        this.cacheManager = new TransactionScopedCacheManager(this.transactionScope);
+        this.cacheManager.setBeanName("txCacheManager");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        endTransaction();
+    }
+
+    private void startTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(Connection.TRANSACTION_READ_COMMITTED);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private void endTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void cachesWithinTx() {
+        startTransaction();
+        final Cache cache = this.cacheManager.getCache(CACHE_NAME);
+
+        cache.put(KEY, "value");
+
+        assertEquals("value should be cached", "value", cache.get(KEY).get());
+        assertEquals("value should be cached", "value", cache.get(KEY, String.class));
+        assertEquals("unexpected native cache", 1, ((Map<?, ?>) cache.getNativeCache()).size());
+        assertTrue("caches should be held by the tx"
+                , this.transactionScope.getTransactionBeans(this.transactionScope.getConversationId()).containsKey("txCacheManager.caches"));
+    }
+
+    @Test
+    public void dropsCachesOnTxEnd() {
+        cachesWithinTx();
+        endTransaction();
+
+        startTransaction();
+        assertNull("next tx should not see the value", this.cacheManager.getCache(CACHE_NAME).get(KEY));
+    }
+
+    @Test
+    public void cachesNothingWhenNoTx() {
+        final Cache cache = this.cacheManager.getCache(CACHE_NAME);
+
+        cache.put(KEY, "value");
+
+        assertNull("nothing should be cached", cache.get(KEY));
+    }
+
+    @Test
+    public void separatesCaches() {
+        startTransaction();
+        this.cacheManager.getCache(CACHE_NAME).put(KEY, "value");
+
+        assertNull("other cache should not see the value", this.cacheManager.getCache("counters").get(KEY));
+        assertEquals("unexpected cache names", 2, this.cacheManager.getCacheNames().size());
+    }
+
+    @Test
+    public void cachesNullValues() {
+        startTransaction();
+        final Cache cache = this.cacheManager.getCache(CACHE_NAME);
+
+        assertNull("value should be absent", cache.putIfAbsent(KEY, null));
+
+        assertNotNull("null value should be cached", cache.get(KEY));
+        assertNull("null value should be cached", cache.get(KEY).get());
+        assertNull("null value should be present", cache.putIfAbsent(KEY, "value").get());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsNullValuesWhenNotAllowed() {
+        this.cacheManager.setAllowNullValues(false);
+        startTransaction();
+
+        this.cacheManager.getCache(CACHE_NAME).put(KEY, null);
+    }
+
+    @Test
+    public void evictsAndClears() {
+        startTransaction();
+        final Cache cache = this.cacheManager.getCache(CACHE_NAME);
+        cache.put(KEY, "value");
+        cache.put(KEY + 2, "value");
+
+        cache.evict(KEY);
+        assertNull("value should be evicted", cache.get(KEY));
+        cache.clear();
+        assertNull("value should be cleared", cache.get(KEY + 2));
+    }
+
+    @Test
+    public void fixesCacheNames() {
+        this.cacheManager.setCacheNames(Arrays.asList(CACHE_NAME));
+
+        assertNotNull("configured cache expected", this.cacheManager.getCache(CACHE_NAME));
+        assertNull("no cache should be created on demand", this.cacheManager.getCache("counters"));
+    }
+
+    @Test
+    public void reusesPooledCaches() {
+        this.transactionScope.setPoolSize(1);
+        startTransaction();
+        this.cacheManager.getCache(CACHE_NAME).put(KEY, "value");
+        final Object nativeCache = this.cacheManager.getCache(CACHE_NAME).getNativeCache();
+        endTransaction();
+
+        startTransaction();
+        final Cache cache = this.cacheManager.getCache(CACHE_NAME);
+        assertNull("pooled cache should be cleared", cache.get(KEY));
+        cache.put(KEY, "value");
+        assertSame("pooled cache should be reused", nativeCache, cache.getNativeCache());
+    }
+}
@@ -0,0 +1,191 @@
+package org.kbac.spring.scope;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class TwoLevelCacheManagerTest {
+
+    public static final String CACHE_NAME = "counters";
+
+    public static final String KEY = "key";
+
+    TransactionScope transactionScope;
+
+    ConcurrentMapCacheManager sharedCacheManager;
+
+    TwoLevelCacheManager cacheManager;
+
+    Cache sharedCache;
+
+    Cache cache;
+
+
+    @Before
+    public void setUp() throws Exception {
+        this.transactionScope = new TransactionScope();
+        this.sharedCacheManager = new ConcurrentMapCacheManager(CACHE_NAME);
+        this.cacheManager = new TwoLevelCacheManager(this.transactionScope, this.sharedCacheManager);
+        this.sharedCache = this.sharedCacheManager.getCache(CACHE_NAME);
+        this.cache = this.cacheManager.getCache(CACHE_NAME);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        endTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    private void startTransaction() {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(Connection.TRANSACTION_READ_COMMITTED);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    private void endTransaction(int status) {
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        TransactionSynchronizationManager.setCurrentTransactionIsolationLevel(null);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            for (TransactionSynchronization sync : TransactionSynchronizationManager.getSynchronizations()) {
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    sync.beforeCommit(false);
+                }
+                sync.beforeCompletion();
+                if (status == TransactionSynchronization.STATUS_COMMITTED) {
+                    sync.afterCommit();
+                }
+                sync.afterCompletion(status);
+            }
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void commit() {
+        endTransaction(TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private void rollback() {
+        endTransaction(TransactionSynchronization.STATUS_ROLLED_BACK);
+    }
+
+    @Test
+    public void publishesWritesOnCommit() {
+        startTransaction();
+        this.cache.put(KEY, "value");
+
+        assertEquals("tx should see its own write", "value", this.cache.get(KEY).get());
+        assertNull("uncommitted write must not leak", this.sharedCache.get(KEY));
+
+        commit();
+
+        assertEquals("committed write should be published", "value", this.sharedCache.get(KEY).get());
+    }
+
+    @Test
+    public void discardsWritesOnRollback() {
+        startTransaction();
+        this.cache.put(KEY, "value");
+
+        rollback();
+
+        assertNull("rolled back write must not be published", this.sharedCache.get(KEY));
+    }
+
+    @Test
+    public void readsThroughSharedCacheRepeatably() {
+        this.sharedCache.put(KEY, "value");
+        startTransaction();
+
+        assertEquals("shared value should be read", "value", this.cache.get(KEY, String.class));
+        this.sharedCache.put(KEY, "other");
+        assertEquals("tx should read the same value", "value", this.cache.get(KEY, String.class));
+
+        commit();
+        assertEquals("read values must not be published", "other", this.sharedCache.get(KEY).get());
+    }
+
+    @Test
+    public void evictsOnCommit() {
+        this.sharedCache.put(KEY, "value");
+        startTransaction();
+
+        this.cache.evict(KEY);
+
+        assertNull("tx should see its eviction", this.cache.get(KEY));
+        assertNotNull("uncommitted eviction must not leak", this.sharedCache.get(KEY));
+        commit();
+        assertNull("eviction should be published", this.sharedCache.get(KEY));
+    }
+
+    @Test
+    public void clearsOnCommit() {
+        this.sharedCache.put(KEY, "value");
+        startTransaction();
+
+        this.cache.clear();
+        this.cache.put(KEY + 2, "value");
+
+        assertNull("tx should see its clear", this.cache.get(KEY));
+        commit();
+        assertNull("clear should be published", this.sharedCache.get(KEY));
+        assertEquals("writes after clear should be published", "value", this.sharedCache.get(KEY + 2).get());
+    }
+
+    @Test
+    public void putsIfAbsentWithinTx() {
+        this.sharedCache.put(KEY, "value");
+        startTransaction();
+
+        assertEquals("shared value should be present", "value", this.cache.putIfAbsent(KEY, "other").get());
+        assertNull("absent value should be put", this.cache.putIfAbsent(KEY + 2, null));
+        assertNull("null value should be cached", this.cache.get(KEY + 2).get());
+        commit();
+
+        assertEquals("present value must not change", "value", this.sharedCache.get(KEY).get());
+        assertNotNull("absent value should be published", this.sharedCache.get(KEY + 2));
+    }
+
+    @Test
+    public void writesThroughWhenNoTx() {
+        this.cache.put(KEY, "value");
+
+        assertEquals("write should go to shared cache", "value", this.sharedCache.get(KEY).get());
+        this.cache.evict(KEY);
+        assertNull("eviction should go to shared cache", this.sharedCache.get(KEY));
+    }
+
+    @Test
+    public void startsCleanWithPooledCaches() {
+        this.transactionScope.setPoolSize(1);
+        startTransaction();
+        this.cache.put(KEY, "value");
+        rollback();
+
+        startTransaction();
+        assertNull("pooled cache should be reset", this.cache.get(KEY));
+        this.cache.put(KEY + 2, "value");
+        commit();
+
+        assertNull("writes of rolled back tx must not be published", this.sharedCache.get(KEY));
+        assertNotNull("writes of committed tx should be published", this.sharedCache.get(KEY + 2));
+    }
+
+    @Test
+    public void unknownCacheNotFound() {
+        assertNull("unknown cache must not be found", this.cacheManager.getCache("unknown"));
+    }
+}
@@ -0,0 +1,150 @@
+package org.kbac.spring.throttle;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.kbac.spring.app.QuotaService;
+import org.kbac.spring.app.QuotaServiceImpl;
+import org.kbac.throttle.Meter;
+import org.kbac.throttle.TooManyRequestsException;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = {"classpath:spring-throttle-config.xml"})
+public class ThrottledInterceptorTest {
+
+    private static final Log logger = LogFactory.getLog(ThrottledInterceptorTest.class);
+
+    @Autowired
+    private QuotaService quotaService;
+
+    @Autowired
+    private Meter meter;
+
+
+    public interface Greeter {
+        String greet(String name);
+    }
+
+    public static class ThrottledGreeter implements Greeter {
+        @Override
+        @Throttled(name = "ThrottledGreeter.greet", limit = 1)
+        public String greet(final String name) {
+            return "hi " + name;
+        }
+    }
+
+    public static class PlainGreeter implements Greeter {
+        @Override
+        public String greet(final String name) {
+            return "hello " + name;
+        }
+    }
+
+    private Greeter proxy(final Greeter target, final ThrottledInterceptor interceptor) {
+        final ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.addAdvice(interceptor);
+        return (Greeter) proxyFactory.getProxy();
+    }
+
+    private void assertThrottledAfter(final int limit, final Runnable invocation) {
+        for (int i = 0; i < limit; i++) {
+            invocation.run();
+        }
+        try {
+            invocation.run();
+            fail("invocation over the limit should be throttled");
+        } catch (TooManyRequestsException e) {
+            logger.debug("throttled: " + e.getMessage());
+        }
+    }
+
+    @Test
+    public void serviceIsProxied() {
+        assertTrue("service should be proxied", AopUtils.isAopProxy(quotaService));
+    }
+
+    @Test
+    public void throttlesByParameterName() {
+        assertThrottledAfter(QuotaServiceImpl.REPORT_LIMIT, () -> quotaService.getReport("joe"));
+
+        assertEquals("other keys should not be throttled", "report of ann", quotaService.getReport("ann"));
+    }
+
+    @Test
+    public void throttlesByParameterIndex() {
+        assertThrottledAfter(QuotaServiceImpl.REPORT_LIMIT, () -> quotaService.getReportByIndex("joe"));
+
+        assertEquals("other keys should not be throttled", "report of ann", quotaService.getReportByIndex("ann"));
+    }
+
+    @Test
+    public void throttlesAllInvocationsWithoutKey() {
+        assertThrottledAfter(QuotaServiceImpl.STATUS_LIMIT, () -> quotaService.getStatus());
+    }
+
+    @Test
+    public void ignoresMethodsNotAnnotated() {
+        for (int i = 0; i < 100; i++) {
+            assertEquals("unexpected result", "joe", quotaService.getUnthrottled("joe"));
+        }
+    }
+
+    @Test
+    public void addsLittleOverheadToHandWrittenThrottling() {
+        final QuotaService target = new QuotaServiceImpl();
+        final int count = 200000;
+        final String[] users = {"u0", "u1", "u2", "u3"};
+
+        for (int round = 0; round < 2; round++) {
+            long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                final String userId = users[i & 3];
+                if (meter.shouldThrottle("QuotaServiceImpl.getUnlimited:" + userId, Long.MAX_VALUE)) {
+                    throw new TooManyRequestsException(userId);
+                }
+                target.getUnlimited(userId);
+            }
+            final long handWritten = (System.nanoTime() - start) / count;
+
+            start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                quotaService.getUnlimited(users[i & 3]);
+            }
+            final long annotated = (System.nanoTime() - start) / count;
+
+            logger.info("round " + round + ": hand written " + handWritten + "ns, annotated " + annotated + "ns per invocation");
+            if (round > 0) {
+                assertTrue("annotated invocation should stay cheap: " + annotated + "ns", annotated < 50000);
+            }
+        }
+    }
+
+    @Test
+    public void resolvesAnnotationPerTargetClass() throws Exception {
+        try (final Meter greeterMeter = new Meter()) {
+            final ThrottledInterceptor interceptor = new ThrottledInterceptor(greeterMeter);
+            final Greeter throttled = proxy(new ThrottledGreeter(), interceptor);
+            final Greeter plain = proxy(new PlainGreeter(), interceptor);
+
+            assertThrottledAfter(1, () -> throttled.greet("joe"));
+            for (int i = 0; i < 10; i++) {
+                assertEquals("class without annotation should not be throttled", "hello joe", plain.greet("joe"));
+            }
+        }
+    }
+}
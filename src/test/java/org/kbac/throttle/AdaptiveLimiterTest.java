@@ -0,0 +1,118 @@
+package org.kbac.throttle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class AdaptiveLimiterTest {
+
+    private static final String NAME = BucketUtils.BUCKET_NAME;
+
+    private static final int INITIAL_LIMIT = 10;
+
+    AdaptiveLimiter limiter;
+
+    @Before
+    public void setUp() throws Exception {
+        this.limiter = new AdaptiveLimiter(INITIAL_LIMIT, 2, 20, 0.5, TimeUnit.MINUTES.toNanos(1));
+    }
+
+    private List<AdaptiveLimiter.Token> acquireAll(final int count) {
+        final List<AdaptiveLimiter.Token> tokens = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            final AdaptiveLimiter.Token token = limiter.tryAcquire(NAME);
+            assertNotNull("request should be admitted #" + i, token);
+            tokens.add(token);
+        }
+        return tokens;
+    }
+
+    @Test
+    public void rejectsOverLimit() {
+        acquireAll(INITIAL_LIMIT);
+
+        assertNull("request over the limit should be rejected", limiter.tryAcquire(NAME));
+        assertEquals("unexpected in flight count", INITIAL_LIMIT, limiter.getInFlight(NAME));
+    }
+
+    @Test
+    public void increasesLimitOnSuccess() {
+        for (AdaptiveLimiter.Token token : acquireAll(INITIAL_LIMIT)) {
+            token.onSuccess();
+        }
+
+        assertTrue("limit should grow on success", limiter.getLimit(NAME) > INITIAL_LIMIT);
+        assertEquals("all requests should be released", 0, limiter.getInFlight(NAME));
+    }
+
+    @Test
+    public void keepsLimitWhenUnderutilised() {
+        limiter.tryAcquire(NAME).onSuccess();
+
+        assertEquals("limit should not grow when not used", INITIAL_LIMIT, limiter.getLimit(NAME));
+    }
+
+    @Test
+    public void decreasesLimitOnDrop() {
+        acquireAll(1).get(0).onDropped();
+
+        assertEquals("limit should back off", INITIAL_LIMIT / 2, limiter.getLimit(NAME));
+    }
+
+    @Test
+    public void decreasesLimitOnSlowResponse() throws Exception {
+        final AdaptiveLimiter slowLimiter = new AdaptiveLimiter(INITIAL_LIMIT, 2, 20, 0.5, 1);
+        final AdaptiveLimiter.Token token = slowLimiter.tryAcquire(NAME);
+        Thread.sleep(1);
+
+        token.onSuccess();
+
+        assertEquals("limit should back off on slow response", INITIAL_LIMIT / 2, slowLimiter.getLimit(NAME));
+    }
+
+    @Test
+    public void neverDecreasesBelowMin() {
+        for (int i = 0; i < INITIAL_LIMIT; i++) {
+            limiter.tryAcquire(NAME).onDropped();
+        }
+
+        assertEquals("limit should stop at min", 2, limiter.getLimit(NAME));
+    }
+
+    @Test
+    public void releasesOnceOnClose() {
+        try (AdaptiveLimiter.Token token = limiter.tryAcquire(NAME)) {
+            token.onSuccess();
+        }
+
+        assertEquals("token should be released once", 0, limiter.getInFlight(NAME));
+        assertEquals("limit should not change", INITIAL_LIMIT, limiter.getLimit(NAME));
+    }
+
+    @Test
+    public void removesIdleLimits() {
+        acquireAll(1).get(0).onDropped();
+        final AdaptiveLimiter.Token inFlight = limiter.tryAcquire("IN_FLIGHT");
+
+        assertEquals("only idle limit should be removed", 1, limiter.removeIdleLimits(0));
+        assertEquals("limit in use should be kept", 1, limiter.getLimitCount());
+        assertEquals("removed limit should start over", INITIAL_LIMIT, limiter.getLimit(NAME));
+
+        inFlight.close();
+        assertEquals("idle limit should not be removed before idle time", 0, limiter.removeIdleLimits(60000));
+        assertNotNull("request should be admitted after removal", limiter.tryAcquire(NAME));
+    }
+}
@@ -1,5 +1,9 @@
 package org.kbac.throttle;
 
+import org.kbac.throttle.sim.VirtualTimeSource;
+
+import java.util.concurrent.TimeUnit;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -24,10 +28,10 @@ public class BucketUtils {
         assertEquals("invalid drop count for a full bucket", MAX_DROP_COUNT, bucket.getDropCount());
     }
 
-    public static void fillBucketAndWait(final LeakyBucket bucket) throws InterruptedException {
+    public static void fillBucketAndAdvance(final LeakyBucket bucket, final VirtualTimeSource time) {
         fillBucket(bucket);
 
-        Thread.sleep(bucket.getDrainIntervalMillis());
+        time.advance(bucket.getDrainIntervalMillis(), TimeUnit.MILLISECONDS);
     }
 
 
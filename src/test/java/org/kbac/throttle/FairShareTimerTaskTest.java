@@ -0,0 +1,172 @@
+package org.kbac.throttle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.kbac.throttle.sim.VirtualTimeSource;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class FairShareTimerTaskTest {
+
+    private static final long CAPACITY = 100;
+
+    private static final long DRAIN_INTERVAL_MILLIS = 1;
+
+    ConcurrentMap<String, LeakyBucket> buckets;
+
+    FairShareTimerTask task;
+
+    VirtualTimeSource time;
+
+    @Before
+    public void setUp() throws Exception {
+        this.buckets = new ConcurrentHashMap<>();
+        this.time = new VirtualTimeSource();
+        this.task = new FairShareTimerTask(buckets, CAPACITY, 60000, time);
+    }
+
+    private LeakyBucket bucketWithDemand(final String name, final int demand) {
+        final LeakyBucket bucket = new LeakyBucket(name, CAPACITY, DRAIN_INTERVAL_MILLIS, time);
+        bucket.markLimitResolved();
+        for (int i = 0; i < demand; i++) {
+            bucket.addDrop();
+        }
+        buckets.put(name, bucket);
+        return bucket;
+    }
+
+    private void tick() {
+        time.advance(DRAIN_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        task.run();
+    }
+
+    @Test
+    public void capsNoisyBucketToRemainingShare() throws Exception {
+        final LeakyBucket noisy = bucketWithDemand("noisy", 1000);
+        final LeakyBucket quiet = bucketWithDemand("quiet", 10);
+        final LeakyBucket moderate = bucketWithDemand("moderate", 20);
+
+        tick();
+
+        assertEquals("leaked drops should count as demand", 1000, noisy.getLastDemand());
+        assertEquals("quiet bucket should get its demand", 10, quiet.getMaxDropCount());
+        assertEquals("moderate bucket should get its demand", 20, moderate.getMaxDropCount());
+        assertEquals("noisy bucket should get the rest but the reserve", 45, noisy.getMaxDropCount());
+    }
+
+    @Test
+    public void splitsCapacityEquallyAmongNoisyBuckets() throws Exception {
+        final LeakyBucket first = bucketWithDemand("first", 1000);
+        final LeakyBucket second = bucketWithDemand("second", 1000);
+
+        tick();
+
+        assertEquals("buckets should split capacity but the reserve", CAPACITY - CAPACITY / 3
+                , first.getMaxDropCount() + second.getMaxDropCount());
+        assertEquals("buckets should get equal shares", 0, first.getMaxDropCount() / 10 - second.getMaxDropCount() / 10);
+    }
+
+    @Test
+    public void spreadsUnusedCapacity() throws Exception {
+        final LeakyBucket quiet = bucketWithDemand("quiet", 10);
+        final LeakyBucket moderate = bucketWithDemand("moderate", 20);
+
+        tick();
+
+        assertEquals("unused capacity should be spread", 28, quiet.getMaxDropCount());
+        assertEquals("unused capacity should be spread", 38, moderate.getMaxDropCount());
+    }
+
+    @Test
+    public void sharesCapacityWithNewBuckets() throws Exception {
+        bucketWithDemand("first", 1000);
+        bucketWithDemand("second", 1000);
+        final LeakyBucket idle = bucketWithDemand("idle", 0);
+
+        tick();
+
+        assertEquals("idle bucket should split reserve with new ones", CAPACITY / 3 / 2, idle.getMaxDropCount());
+        assertEquals("new bucket should get the same share", CAPACITY / 3 / 2, task.resolveLimit("new"));
+        assertEquals("new bucket should get what is left of the reserve", 1, task.resolveLimit("newer"));
+    }
+
+    @Test
+    public void adaptsToNumberOfActiveBuckets() throws Exception {
+        final LeakyBucket first = bucketWithDemand("first", 1000);
+        final LeakyBucket second = bucketWithDemand("second", 1000);
+        tick();
+
+        for (int i = 0; i < 1000; i++) {
+            first.addDrop();
+        }
+        tick();
+
+        assertEquals("only active bucket should get all but the reserve", CAPACITY / 2, first.getMaxDropCount());
+        assertEquals("inactive bucket should split reserve with new ones", CAPACITY / 4, second.getMaxDropCount());
+    }
+
+    @Test
+    public void throttlesThroughMeter() throws Exception {
+        try (final Meter meter = new Meter(new LoggingThrottleStrategy(), DRAIN_INTERVAL_MILLIS, buckets, time)) {
+            meter.setLimitResolver(task);
+            for (int i = 0; i < CAPACITY * 2; i++) {
+                meter.shouldThrottle("noisy");
+            }
+            meter.shouldThrottle("quiet");
+            tick();
+
+            assertEquals("quiet bucket should get its demand", 1, meter.getBucket("quiet", 1).getMaxDropCount());
+            assertEquals("noisy bucket should get the rest but the reserve", CAPACITY - CAPACITY / 3 - 1
+                    , meter.getBucket("noisy", 1).getMaxDropCount());
+        }
+    }
+
+    @Test
+    public void keepsLimitsGivenByCaller() throws Exception {
+        try (final Meter meter = new Meter(new LoggingThrottleStrategy(), DRAIN_INTERVAL_MILLIS, buckets, time)) {
+            meter.setLimitResolver(task);
+            for (int i = 0; i < CAPACITY * 2; i++) {
+                meter.shouldThrottle("noisy");
+                meter.shouldThrottle("given", 7);
+            }
+            meter.shouldThrottle("idle", 3);
+            tick();
+            tick();
+
+            assertEquals("active bucket should keep limit given by caller", 7, meter.getBucket("given", 1).getMaxDropCount());
+            assertEquals("idle bucket should keep limit given by caller", 3, meter.getBucket("idle", 1).getMaxDropCount());
+        }
+    }
+
+    @Test
+    public void neverExceedsCapacity() throws Exception {
+        try (final Meter meter = new Meter(new LoggingThrottleStrategy(), DRAIN_INTERVAL_MILLIS, buckets, time)) {
+            meter.setLimitResolver(task);
+            for (int round = 0; round < 3; round++) {
+                for (int i = 0; i < 4; i++) {
+                    for (int drop = 0; drop < (i + 1) * (round + 1) * 10; drop++) {
+                        meter.shouldThrottle("bucket-" + round + "-" + i);
+                    }
+                }
+                tick();
+
+                long sum = 0;
+                for (final LeakyBucket bucket : buckets.values()) {
+                    sum += bucket.getMaxDropCount();
+                }
+                sum += task.resolveLimit("new-" + round);
+                assertTrue("limits should not exceed capacity: " + sum, sum <= CAPACITY);
+            }
+        }
+    }
+}
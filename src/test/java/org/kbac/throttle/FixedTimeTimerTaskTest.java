@@ -2,6 +2,7 @@ package org.kbac.throttle;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.kbac.throttle.sim.VirtualTimeSource;
 
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
@@ -22,6 +23,8 @@ public class FixedTimeTimerTaskTest {
 
     ConcurrentMap<String, LeakyBucketStub> buckets;
 
+    VirtualTimeSource time;
+
     private static final class LeakyBucketStub extends LeakyBucket {
 
         private static final long MAX_DROPS = 100;
@@ -30,8 +33,8 @@ public class FixedTimeTimerTaskTest {
 
         boolean drained;
 
-        public LeakyBucketStub(String name, long lastUsedMillis) {
-            super(name, MAX_DROPS);
+        public LeakyBucketStub(String name, long lastUsedMillis, TimeSource timeSource) {
+            super(name, MAX_DROPS, DEFAULT_DRAIN_INTERVAL_MILLIS_DEFAULT, timeSource);
             this.lastUsedMillis = lastUsedMillis;
             this.drained = false;
         }
@@ -63,22 +66,26 @@ public class FixedTimeTimerTaskTest {
     @Before
     public void setUp() throws Exception {
         this.buckets = new ConcurrentHashMap<>();
+        this.time = new VirtualTimeSource();
 
-        final long currentMillis = System.currentTimeMillis() - 1;
+        final long currentMillis = time.currentTimeMillis() - 1;
         this.buckets.put(Buckets.TO_BE_SKIPPED.name()
                 , new LeakyBucketStub(Buckets.TO_BE_SKIPPED.name()
                 , currentMillis
+                , time
         ));
         this.buckets.put(Buckets.TO_BE_DRAINED.name()
                 , new LeakyBucketStub(Buckets.TO_BE_DRAINED.name()
                 , currentMillis - LeakyBucket.DEFAULT_DRAIN_INTERVAL_MILLIS_DEFAULT
+                , time
         ));
         this.buckets.put(Buckets.TO_BE_REMOVED.name()
                 , new LeakyBucketStub(Buckets.TO_BE_REMOVED.name()
                 , currentMillis - FixedTimeTimerTask.IDLE_BUCKET_REMOVE_MILLIS_DEFAULT
+                , time
         ));
 
-        this.task = new FixedTimeTimerTask(buckets);
+        this.task = new FixedTimeTimerTask(buckets, FixedTimeTimerTask.IDLE_BUCKET_REMOVE_MILLIS_DEFAULT, time);
     }
 
     @Test
@@ -86,12 +93,25 @@ public class FixedTimeTimerTaskTest {
         assertEquals("invalid test setup", 3, this.buckets.size());
         assertTrue("missing bucket: " + Buckets.TO_BE_REMOVED.name()
                 , this.buckets.containsKey(Buckets.TO_BE_REMOVED.name()));
+        final LeakyBucket removed = this.buckets.get(Buckets.TO_BE_REMOVED.name());
 
         task.run();
 
         assertEquals("invalid size of buckets", 2, buckets.size());
         assertFalse("bucket should be removed: " + Buckets.TO_BE_REMOVED.name()
                 , this.buckets.containsKey(Buckets.TO_BE_REMOVED.name()));
+        assertTrue("removed bucket should be retired", removed.isRetired());
+        assertFalse("kept bucket should not be retired", this.buckets.get(Buckets.TO_BE_SKIPPED.name()).isRetired());
+    }
+
+    @Test
+    public void keepsUnusedBucketsWithRequestsInFlight() throws Exception {
+        assertTrue("request should enter", this.buckets.get(Buckets.TO_BE_REMOVED.name()).tryEnter(1));
+
+        task.run();
+
+        assertTrue("bucket with request in flight should be kept: " + Buckets.TO_BE_REMOVED.name()
+                , this.buckets.containsKey(Buckets.TO_BE_REMOVED.name()));
     }
 
     @Test
@@ -0,0 +1,143 @@
+package org.kbac.throttle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class KeyDictionaryTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(KeyDictionaryTest.class);
+
+    KeyDictionary dictionary;
+
+    @Before
+    public void setUp() throws Exception {
+        this.dictionary = new KeyDictionary(1000);
+    }
+
+    @Test
+    public void internsSameKeyOnce() {
+        final int id = dictionary.intern(new StringBuilder("api|joe"));
+
+        assertEquals("same key should get same id", id, dictionary.intern("api|joe"));
+        assertEquals("same key should get same id", id, dictionary.intern("api|joe".getBytes(StandardCharsets.US_ASCII), 0, 7));
+        assertEquals("key should be interned once", 1, dictionary.size());
+        assertEquals("unexpected key", "api|joe", dictionary.getKey(id));
+    }
+
+    @Test
+    public void internsBytesWithinBuffer() {
+        final byte[] buffer = "GET /api HTTP/1.1".getBytes(StandardCharsets.US_ASCII);
+
+        final int id = dictionary.intern(buffer, 4, 4);
+
+        assertEquals("unexpected key", "/api", dictionary.getKey(id));
+        assertEquals("same key should get same id", id, dictionary.find("/api"));
+    }
+
+    @Test
+    public void assignsDistinctIds() {
+        final int first = dictionary.intern("first");
+        final int second = dictionary.intern("second");
+
+        assertTrue("different keys should get different ids", first != second);
+        assertEquals("unknown key should not be found", KeyDictionary.NOT_FOUND, dictionary.find("third"));
+    }
+
+    @Test
+    public void growsKeepingIds() {
+        for (int i = 0; i < 500; i++) {
+            assertEquals("ids should be dense", i, dictionary.intern("key-" + i));
+        }
+        for (int i = 0; i < 500; i++) {
+            assertEquals("id should survive growth", i, dictionary.find("key-" + i));
+        }
+    }
+
+    @Test
+    public void refusesKeysOverMaxCount() {
+        final KeyDictionary small = new KeyDictionary(2);
+        small.intern("first");
+        small.intern("second");
+
+        assertEquals("full dictionary should refuse new keys", KeyDictionary.NOT_FOUND, small.intern("third"));
+        assertEquals("known keys should still be found", 1, small.intern("second"));
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void rejectsUnknownId() {
+        dictionary.getKey(0);
+    }
+
+    @Test
+    public void internsConcurrently() throws Exception {
+        final int threadCount = 4;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        try {
+            final List<Future<int[]>> results = new ArrayList<>();
+            for (int t = 0; t < threadCount; t++) {
+                results.add(executor.submit(() -> {
+                    final int[] ids = new int[dictionary.getMaxKeyCount()];
+                    for (int i = 0; i < ids.length; i++) {
+                        ids[i] = dictionary.intern("key-" + i);
+                    }
+                    return ids;
+                }));
+            }
+            final int[] expected = results.get(0).get();
+            for (final Future<int[]> result : results) {
+                final int[] ids = result.get();
+                for (int i = 0; i < ids.length; i++) {
+                    assertEquals("all threads should see the same id", expected[i], ids[i]);
+                    assertEquals("id should map back to the key", "key-" + i, dictionary.getKey(ids[i]));
+                }
+            }
+            assertEquals("every key should be interned once", dictionary.getMaxKeyCount(), dictionary.size());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void sharesSingleInstanceOfKey() {
+        final int id = dictionary.intern(new StringBuilder(BucketUtils.BUCKET_NAME));
+
+        assertSame("key should be shared", dictionary.getKey(id), dictionary.getKey(dictionary.intern(BucketUtils.BUCKET_NAME)));
+    }
+
+    @Test
+    public void looksUpCheaply() {
+        final StringBuilder key = new StringBuilder("header-value|127.0.0.1");
+        dictionary.intern(key);
+        final int count = 1000000;
+
+        for (int i = 0; i < count; i++) {
+            dictionary.intern(key);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            dictionary.intern(key);
+        }
+        final long nanosPerLookup = (System.nanoTime() - start) / count;
+
+        LOGGER.info("{} took {}ns per lookup", dictionary, nanosPerLookup);
+        assertTrue("lookup should be cheap: " + nanosPerLookup + "ns", nanosPerLookup < 10000);
+    }
+}
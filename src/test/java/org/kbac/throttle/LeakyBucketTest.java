@@ -2,14 +2,21 @@ package org.kbac.throttle;
 
 import org.junit.Before;
 import org.junit.Test;
+import org.kbac.throttle.sim.VirtualTimeSource;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 import static org.kbac.throttle.BucketUtils.BUCKET_NAME;
 import static org.kbac.throttle.BucketUtils.MAX_DROP_COUNT;
 import static org.kbac.throttle.BucketUtils.fillBucket;
-import static org.kbac.throttle.BucketUtils.fillBucketAndWait;
+import static org.kbac.throttle.BucketUtils.fillBucketAndAdvance;
 
 /**
  * @author Krzysztof Bacalski
@@ -20,9 +27,12 @@ public class LeakyBucketTest {
 
     LeakyBucket bucket;
 
+    VirtualTimeSource time;
+
     @Before
     public void setUp() throws Exception {
-        bucket = new LeakyBucket(BUCKET_NAME, MAX_DROP_COUNT);
+        time = new VirtualTimeSource();
+        bucket = new LeakyBucket(BUCKET_NAME, MAX_DROP_COUNT, LeakyBucket.DEFAULT_DRAIN_INTERVAL_MILLIS_DEFAULT, time);
     }
 
     @Test
@@ -47,15 +57,15 @@ public class LeakyBucketTest {
             bucket.addDrop();
         }
 
-        Thread.sleep(bucket.getDrainIntervalMillis());
+        time.advance(bucket.getDrainIntervalMillis(), TimeUnit.MILLISECONDS);
 
         assertEquals("invalid number of drops drained from the bucket", DROP_COUNT, bucket.drain());
         assertTrue("drained bucket should be empty", bucket.getDropCount() == 0);
     }
 
     @Test
-    public void nextDrainRequestWithinDrainIntervalRejected() throws InterruptedException {
-        fillBucketAndWait(this.bucket);
+    public void nextDrainRequestWithinDrainIntervalRejected() throws Exception {
+        fillBucketAndAdvance(this.bucket, this.time);
 
         assertEquals("invalid number of drops", MAX_DROP_COUNT, bucket.drain());
         assertTrue("next drain request within drain interval should be rejected", bucket.drain() == LeakyBucket.NOTHING_DRAINED);
@@ -71,6 +81,154 @@ public class LeakyBucketTest {
         assertEquals("invalid maxDropCount", MAX_DROP_COUNT, bucket.getMaxDropCount());
     }
 
+    @Test
+    public void changesMaxDropCountOfLiveBucket() throws Exception {
+        fillBucket(this.bucket);
+
+        bucket.setMaxDropCount(MAX_DROP_COUNT / 2);
+        assertTrue("bucket should leak over lowered limit", bucket.addDrop() > MAX_DROP_COUNT / 2);
+
+        bucket.setMaxDropCount(MAX_DROP_COUNT + 1);
+        assertEquals("drop should fit under raised limit", MAX_DROP_COUNT + 1, bucket.addDrop());
+    }
+
+    @Test
+    public void decidesLeakAgainstLimitOfTheDrop() throws Exception {
+        fillBucket(this.bucket);
+
+        assertFalse("drop over the limit should leak", bucket.tryAddDrop(Priority.CRITICAL));
+
+        bucket.setMaxDropCount(MAX_DROP_COUNT + 1);
+        assertTrue("drop under raised limit should be added", bucket.tryAddDrop(Priority.CRITICAL));
+        assertFalse("drop should leak after waiting", bucket.tryAwaitDrop(Priority.CRITICAL, 1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void entersUpToMaxInFlight() throws Exception {
+        final int MAX_IN_FLIGHT = 3;
+        for (int i = 0; i < MAX_IN_FLIGHT; i++) {
+            assertTrue("request should enter #" + i, bucket.tryEnter(MAX_IN_FLIGHT));
+        }
+
+        assertFalse("saturated bucket should reject", bucket.tryEnter(MAX_IN_FLIGHT));
+        assertEquals("invalid in flight count", MAX_IN_FLIGHT, bucket.getInFlightCount());
+
+        bucket.exit();
+
+        assertTrue("request should enter after exit", bucket.tryEnter(MAX_IN_FLIGHT));
+        assertEquals("drops must not be affected", 0, bucket.getDropCount());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsExitWithoutEntering() throws Exception {
+        bucket.exit();
+    }
+
+    @Test
+    public void shedsLowerPrioritiesFirst() throws Exception {
+        final long lowCapacity = Priority.LOW.capacityOf(MAX_DROP_COUNT);
+        for (int i = 0; i < lowCapacity; i++) {
+            assertTrue("low priority drop should fit #" + i, bucket.addDrop(Priority.LOW) <= MAX_DROP_COUNT);
+        }
+
+        assertTrue("low priority drop should leak over its share", bucket.addDrop(Priority.LOW) > MAX_DROP_COUNT);
+        assertTrue("normal priority drop should fit", bucket.addDrop(Priority.NORMAL) <= MAX_DROP_COUNT);
+        assertEquals("leaked drop must not be counted", lowCapacity + 1, bucket.getDropCount());
+    }
+
+    @Test
+    public void awaitsDropUntilTimeout() throws Exception {
+        fillBucket(this.bucket);
+
+        assertTrue("full bucket should leak after timeout"
+                , bucket.awaitDrop(Priority.CRITICAL, 1, TimeUnit.MILLISECONDS) > MAX_DROP_COUNT);
+    }
+
+    @Test
+    public void awaitsDropUntilDrained() throws Exception {
+        fillBucket(this.bucket);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<Long> waiting = executor.submit(
+                    () -> bucket.awaitDrop(Priority.CRITICAL, 10 * bucket.getDrainIntervalMillis(), TimeUnit.MILLISECONDS));
+
+            time.advance(bucket.getDrainIntervalMillis(), TimeUnit.MILLISECONDS);
+            assertEquals("invalid number of drops drained from the bucket", MAX_DROP_COUNT, bucket.drain());
+
+            assertEquals("waiting drop should fit into drained bucket", 1, waiting.get().longValue());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void admitsHigherPriorityWhileLowerOneWaits() throws Exception {
+        final long lowCapacity = Priority.LOW.capacityOf(MAX_DROP_COUNT);
+        for (int i = 0; i < lowCapacity; i++) {
+            bucket.addDrop(Priority.LOW);
+        }
+        final Thread waiting = new Thread(() -> {
+            try {
+                bucket.awaitDrop(Priority.LOW, 1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        waiting.start();
+        try {
+            while (waiting.getState() != Thread.State.TIMED_WAITING) {
+                Thread.sleep(1);
+            }
+
+            assertTrue("critical drop should not wait behind low priority one"
+                    , bucket.tryAwaitDrop(Priority.CRITICAL, 0, TimeUnit.MILLISECONDS));
+        } finally {
+            waiting.interrupt();
+            waiting.join();
+        }
+    }
+
+    @Test
+    public void reservesUpToCapacity() throws Exception {
+        assertEquals("all requested drops should fit", 10, bucket.reserveDrops(10));
+        assertEquals("only remaining capacity should be granted", MAX_DROP_COUNT - 10, bucket.reserveDrops(MAX_DROP_COUNT));
+        assertEquals("full bucket should grant nothing", 0, bucket.reserveDrops(1));
+    }
+
+    @Test
+    public void readsRemainingWithoutAddingDrops() throws Exception {
+        assertEquals("empty bucket should have full capacity", MAX_DROP_COUNT, bucket.getRemainingDropCount());
+        bucket.addDrop();
+
+        assertEquals("remaining should drop by one", MAX_DROP_COUNT - 1, bucket.getRemainingDropCount());
+        assertEquals("reading should not add drops", 1, bucket.getDropCount());
+        assertTrue("reset should be within the interval", bucket.getMillisUntilDrain() <= bucket.getDrainIntervalMillis());
+    }
+
+    @Test
+    public void releasesDrop() throws Exception {
+        fillBucket(this.bucket);
+
+        assertEquals("one drop should be taken back", MAX_DROP_COUNT - 1, bucket.releaseDrop());
+        assertTrue("released drop should make room", bucket.addDrop() <= MAX_DROP_COUNT);
+        bucket.drain();
+        time.advance(bucket.getDrainIntervalMillis(), TimeUnit.MILLISECONDS);
+        bucket.drain();
+        assertEquals("drained bucket should stay empty", 0, bucket.releaseDrop());
+    }
+
+    @Test
+    public void ignoresReleaseOfDrainedDrop() throws Exception {
+        final long drainGeneration = bucket.getDrainGeneration();
+        bucket.addDrop();
+        time.advance(bucket.getDrainIntervalMillis(), TimeUnit.MILLISECONDS);
+        bucket.drain();
+        bucket.addDrop();
+
+        assertEquals("drop of new interval should not be taken back", 1, bucket.releaseDrop(drainGeneration));
+        assertEquals("drop of current interval should be taken back", 0, bucket.releaseDrop(bucket.getDrainGeneration()));
+    }
+
     @Test
     public void nameValid() throws Exception {
         assertSame("invalid bucket name", BUCKET_NAME, bucket.getName());
@@ -80,4 +238,4 @@ public class LeakyBucketTest {
     public void toStringNevetEmpty() throws Exception {
         assertTrue("toString should never be empty", bucket.toString().length() > 0);
     }
-}
\ No newline at end of file
+}
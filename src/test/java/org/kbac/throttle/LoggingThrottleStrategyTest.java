@@ -41,4 +41,20 @@ public class LoggingThrottleStrategyTest {
         assertTrue("full bucket should leak drops", strategy.dripAndCheckIfLeaked(bucket));
     }
 
+    @Test
+    public void dripIntoFullForPriority() throws Exception {
+        for (int i = 0; i < Priority.LOW.capacityOf(MAX_DROP_COUNT); i++) {
+            bucket.addDrop();
+        }
+
+        assertTrue("bucket should leak low priority drops", strategy.dripAndCheckIfLeaked(bucket, Priority.LOW));
+        assertFalse("bucket should accept high priority drops", strategy.dripAndCheckIfLeaked(bucket, Priority.HIGH));
+    }
+
+    @Test
+    public void enterSaturated() throws Exception {
+        assertFalse("request should enter the bucket", strategy.enterAndCheckIfSaturated(bucket, 1));
+        assertTrue("saturated bucket should reject requests", strategy.enterAndCheckIfSaturated(bucket, 1));
+    }
+
 }
\ No newline at end of file
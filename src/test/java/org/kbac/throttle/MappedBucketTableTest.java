@@ -0,0 +1,121 @@
+package org.kbac.throttle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.kbac.throttle.BucketUtils.BUCKET_NAME;
+import static org.kbac.throttle.BucketUtils.MAX_DROP_COUNT;
+import static org.kbac.throttle.BucketUtils.fillBucket;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class MappedBucketTableTest {
+
+    private static final int SLOT_COUNT = 4;
+
+    private static final long INTERVAL_MILLIS = 60000;
+
+    File file;
+
+    MappedBucketTable table;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("buckets", ".tbl").toFile();
+        this.table = new MappedBucketTable(this.file, SLOT_COUNT, INTERVAL_MILLIS, INTERVAL_MILLIS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.table.close();
+        assertTrue("cannot delete " + this.file, this.file.delete());
+    }
+
+    @Test
+    public void fillsMappedBucket() throws Exception {
+        final LeakyBucket bucket = this.table.newBucket(BUCKET_NAME, MAX_DROP_COUNT);
+
+        fillBucket(bucket);
+
+        assertTrue("bucket should leak when full", bucket.addDrop() > MAX_DROP_COUNT);
+    }
+
+    @Test
+    public void sharesDropsAcrossTables() throws Exception {
+        try (final MappedBucketTable other = new MappedBucketTable(this.file, SLOT_COUNT, INTERVAL_MILLIS, INTERVAL_MILLIS)) {
+            final LeakyBucket local = this.table.newBucket(BUCKET_NAME, MAX_DROP_COUNT);
+            final LeakyBucket remote = other.newBucket(BUCKET_NAME, MAX_DROP_COUNT);
+
+            for (int i = 0; i < MAX_DROP_COUNT / 2; i++) {
+                local.addDrop();
+                remote.addDrop();
+            }
+
+            assertEquals("drops should be shared", MAX_DROP_COUNT, remote.getDropCount());
+            assertTrue("shared bucket should leak when full", local.addDrop() > MAX_DROP_COUNT);
+        }
+    }
+
+    @Test
+    public void keepsDropsOnReopen() throws Exception {
+        this.table.newBucket(BUCKET_NAME, MAX_DROP_COUNT).addDrop();
+        this.table.close();
+
+        this.table = new MappedBucketTable(this.file, SLOT_COUNT, INTERVAL_MILLIS, INTERVAL_MILLIS);
+
+        assertEquals("drops should survive reopening", 1, this.table.newBucket(BUCKET_NAME, MAX_DROP_COUNT).getDropCount());
+    }
+
+    @Test
+    public void separatesBucketsByName() throws Exception {
+        final LeakyBucket first = this.table.newBucket(BUCKET_NAME + 1, MAX_DROP_COUNT);
+        final LeakyBucket second = this.table.newBucket(BUCKET_NAME + 2, MAX_DROP_COUNT);
+
+        first.addDrop();
+
+        assertEquals("unexpected drop count", 1, first.getDropCount());
+        assertEquals("buckets should not share drops", 0, second.getDropCount());
+    }
+
+    @Test
+    public void releasesSharedDrop() throws Exception {
+        final LeakyBucket bucket = this.table.newBucket(BUCKET_NAME, MAX_DROP_COUNT);
+        bucket.addDrop();
+        bucket.addDrop();
+
+        assertEquals("one drop should remain", 1, bucket.releaseDrop());
+        assertEquals("one drop should remain", 1, bucket.getDropCount());
+        assertEquals("no drops should remain", 0, bucket.releaseDrop());
+        assertEquals("empty bucket should stay empty", 0, bucket.releaseDrop());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsNewBucketWhenFull() throws Exception {
+        for (int i = 0; i <= SLOT_COUNT; i++) {
+            this.table.newBucket(BUCKET_NAME + i, MAX_DROP_COUNT);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMismatchingInterval() throws Exception {
+        new MappedBucketTable(this.file, SLOT_COUNT, INTERVAL_MILLIS + 1, INTERVAL_MILLIS + 1).close();
+    }
+
+    @Test
+    public void drainsLocalDropsOnly() throws Exception {
+        final LeakyBucket bucket = this.table.newBucket(BUCKET_NAME, MAX_DROP_COUNT);
+        bucket.addDrop();
+
+        assertEquals("drain within interval should be rejected", LeakyBucket.NOTHING_DRAINED, bucket.drain());
+        assertEquals("shared drops must not be drained", 1, bucket.getDropCount());
+    }
+}
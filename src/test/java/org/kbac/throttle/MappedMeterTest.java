@@ -0,0 +1,54 @@
+package org.kbac.throttle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class MappedMeterTest {
+
+    private static final long INTERVAL_MILLIS = 60000;
+
+    File file;
+
+    MappedBucketTable table;
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("meter", ".tbl").toFile();
+        this.table = new MappedBucketTable(this.file, 16, INTERVAL_MILLIS);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.table.close();
+        assertTrue("cannot delete " + this.file, this.file.delete());
+    }
+
+    @Test
+    public void throttlesAcrossMetersSharingTable() throws Exception {
+        final int MAX_REQUESTS = BucketUtils.MAX_DROP_COUNT;
+        try (final Meter first = new MappedMeter(new LoggingThrottleStrategy(), this.table);
+             final MappedBucketTable otherTable = new MappedBucketTable(this.file, 16, INTERVAL_MILLIS);
+             final Meter second = new MappedMeter(new LoggingThrottleStrategy(), otherTable)) {
+
+            for (int i = 0; i < MAX_REQUESTS / 2; i++) {
+                assertFalse("request should NOT be throttled #" + i, first.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
+                assertFalse("request should NOT be throttled #" + i, second.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
+            }
+
+            assertTrue("request should be throttled", first.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
+            assertTrue("request should be throttled", second.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
+        }
+    }
+}
@@ -16,8 +16,10 @@ import java.util.concurrent.atomic.AtomicLong;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * @author Krzysztof Bacalski
@@ -41,6 +43,36 @@ public class MeterTest {
     }
 
 
+    @Test
+    public void reportsBucketStateInResult() {
+        final ThrottleResult result = new ThrottleResult();
+
+        assertFalse("request should NOT be throttled", meter.shouldThrottle(BucketUtils.BUCKET_NAME, 2, result));
+        assertEquals("unexpected limit", 2, result.getLimit());
+        assertEquals("unexpected remaining", 1, result.getRemaining());
+        assertTrue("reset should be within the interval", result.getResetNanos() > 0
+                && result.getResetNanos() <= TimeUnit.MILLISECONDS.toNanos(meter.getThrottleIntervalMillis()));
+
+        meter.shouldThrottle(BucketUtils.BUCKET_NAME, 2, result);
+        assertTrue("request should be throttled", meter.shouldThrottle(BucketUtils.BUCKET_NAME, 2, result));
+        assertTrue("result should be throttled", result.isThrottled());
+        assertEquals("nothing should remain", 0, result.getRemaining());
+    }
+
+    @Test
+    public void updatesResultWhenStrategyThrows() throws Exception {
+        final ThrottleResult result = new ThrottleResult();
+        try (final Meter throwing = new Meter(new ThrowingThrottleStrategy(), Meter.THROTTLE_INTERVAL_MILLIS_DEFAULT
+                , new ConcurrentHashMap<>())) {
+            throwing.shouldThrottle(BucketUtils.BUCKET_NAME, 1, result);
+            throwing.shouldThrottle(BucketUtils.BUCKET_NAME, 1, result);
+        } catch (TooManyRequestsException e) {
+            assertTrue("result should be throttled", result.isThrottled());
+            return;
+        }
+        fail("strategy should throw");
+    }
+
     @Test
     public void noTimerWhenMapPassedInCtor() {
         assertNull("timer", this.meter.getTimer());
@@ -56,6 +88,187 @@ public class MeterTest {
         assertTrue("request should be throttled", meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
     }
 
+    @Test
+    public void throttlesRequestsUsingResolvedLimit() throws Exception {
+        final int MAX_REQUESTS = BucketUtils.MAX_DROP_COUNT;
+        this.meter.setLimitResolver(name -> BucketUtils.BUCKET_NAME.equals(name) ? MAX_REQUESTS : LimitResolver.NO_LIMIT);
+
+        for (int i = 0; i < MAX_REQUESTS; i++) {
+            assertFalse("request should NOT be throttled #" + i, meter.shouldThrottle(BucketUtils.BUCKET_NAME));
+        }
+
+        assertTrue("request should be throttled", meter.shouldThrottle(BucketUtils.BUCKET_NAME));
+        assertFalse("request without limit should NOT be throttled", meter.shouldThrottle("UNLIMITED"));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void rejectsResolvingWithoutResolver() throws Exception {
+        meter.shouldThrottle(BucketUtils.BUCKET_NAME);
+    }
+
+    @Test
+    public void appliesLimitsToLiveBuckets() throws Exception {
+        final int MAX_REQUESTS = BucketUtils.MAX_DROP_COUNT;
+        meter.setLimitResolver(name -> MAX_REQUESTS);
+        for (int i = 0; i < MAX_REQUESTS; i++) {
+            assertFalse("request should NOT be throttled #" + i, meter.shouldThrottle(BucketUtils.BUCKET_NAME));
+        }
+
+        meter.applyLimits(name -> MAX_REQUESTS + 1);
+
+        assertFalse("request should NOT be throttled after raising limit", meter.shouldThrottle(BucketUtils.BUCKET_NAME));
+        assertTrue("request should be throttled", meter.shouldThrottle(BucketUtils.BUCKET_NAME));
+    }
+
+    @Test
+    public void keepsLimitsGivenByCaller() throws Exception {
+        final int MAX_REQUESTS = BucketUtils.MAX_DROP_COUNT;
+        for (int i = 0; i < MAX_REQUESTS; i++) {
+            assertFalse("request should NOT be throttled #" + i, meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
+        }
+
+        meter.applyLimits(name -> MAX_REQUESTS + 1);
+        assertTrue("request should be throttled at limit given by caller", meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
+
+        meter.applyLimits(name -> LimitResolver.NO_LIMIT);
+        assertEquals("bucket with limit given by caller should be kept", 1, meter.getBucketCount());
+    }
+
+    @Test
+    public void throttlesCharSequenceNames() throws Exception {
+        final int MAX_REQUESTS = BucketUtils.MAX_DROP_COUNT;
+        final StringBuilder name = new StringBuilder();
+        for (int i = 0; i < MAX_REQUESTS; i++) {
+            name.setLength(0);
+            name.append(BucketUtils.BUCKET_NAME);
+            assertFalse("request should NOT be throttled #" + i, meter.shouldThrottle(name, MAX_REQUESTS));
+        }
+
+        assertTrue("request should be throttled", meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS));
+        assertEquals("names should share one bucket", 1, meter.getBucketCount());
+        assertEquals("name should be interned once", 1, meter.getKeyDictionary().size());
+    }
+
+    @Test
+    public void looksUpRetiredBucketsAgain() throws Exception {
+        final StringBuilder name = new StringBuilder(BucketUtils.BUCKET_NAME);
+        meter.setLimitResolver(resolvedName -> 1);
+        meter.shouldThrottle(BucketUtils.BUCKET_NAME);
+        assertTrue("request should be throttled", meter.shouldThrottle(name, 1));
+
+        meter.applyLimits(resolvedName -> LimitResolver.NO_LIMIT);
+
+        assertFalse("request should use new bucket", meter.shouldThrottle(name, 1));
+        assertEquals("new bucket should be registered", 1, meter.getBucketCount());
+    }
+
+    @Test
+    public void throttlesCharSequenceNamesWhenDictionaryFull() throws Exception {
+        for (int i = 0; i < meter.getKeyDictionary().getMaxKeyCount(); i++) {
+            meter.getKeyDictionary().intern("key-" + i);
+        }
+
+        final StringBuilder name = new StringBuilder(BucketUtils.BUCKET_NAME);
+        assertFalse("request should NOT be throttled", meter.shouldThrottle(name, 1));
+        assertTrue("request should be throttled", meter.shouldThrottle(name, 1));
+        assertEquals("full dictionary should be recycled", 1, meter.getKeyDictionary().size());
+    }
+
+    @Test
+    public void looksUpBucketsRemovedFromMap() throws Exception {
+        final ConcurrentMap<String, LeakyBucket> buckets = new ConcurrentHashMap<>();
+        try (final Meter mapMeter = new Meter(new LoggingThrottleStrategy(), Meter.THROTTLE_INTERVAL_MILLIS_DEFAULT, buckets)) {
+            final StringBuilder name = new StringBuilder(BucketUtils.BUCKET_NAME);
+            mapMeter.shouldThrottle(name, 1);
+
+            buckets.clear();
+
+            assertFalse("request should use new bucket", mapMeter.shouldThrottle(name, 1));
+            assertEquals("new bucket should be registered", 1, buckets.size());
+        }
+    }
+
+    @Test
+    public void throttlesLowPriorityRequestsFirst() throws Exception {
+        final int MAX_REQUESTS = BucketUtils.MAX_DROP_COUNT;
+        for (int i = 0; i < Priority.NORMAL.capacityOf(MAX_REQUESTS); i++) {
+            assertFalse("request should NOT be throttled #" + i
+                    , meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS, Priority.NORMAL));
+        }
+
+        assertTrue("low priority request should be throttled"
+                , meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS, Priority.LOW));
+        assertTrue("normal priority request should be throttled"
+                , meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS, Priority.NORMAL));
+        assertFalse("critical request should NOT be throttled"
+                , meter.shouldThrottle(BucketUtils.BUCKET_NAME, MAX_REQUESTS, Priority.CRITICAL));
+    }
+
+    /**
+     * Spreads blocking requests over several intervals. NB: the project is built for Java 8, so the waiters are
+     * platform threads; the test shows waiting requests get admitted, it proves nothing about virtual threads
+     * being parked rather than pinned.
+     */
+    @Test
+    public void acquiresBlockingAcrossIntervals() throws Exception {
+        final long INTERVAL_MILLIS = 100;
+        final int KEY_COUNT = 4;
+        final int THREADS_PER_KEY = 50;
+        final int MAX_REQUESTS = 10;
+        final ExecutorService executor = Executors.newFixedThreadPool(KEY_COUNT * THREADS_PER_KEY);
+        try (final Meter timedMeter = new Meter(new LoggingThrottleStrategy(), INTERVAL_MILLIS)) {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < KEY_COUNT * THREADS_PER_KEY; i++) {
+                final String name = BucketUtils.BUCKET_NAME + (i % KEY_COUNT);
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return timedMeter.acquire(name, MAX_REQUESTS, 20 * INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                }));
+            }
+
+            final long startMillis = System.currentTimeMillis();
+            start.countDown();
+            for (final Future<Boolean> result : results) {
+                assertTrue("every waiting request should be eventually admitted", result.get());
+            }
+            final long elapsedMillis = System.currentTimeMillis() - startMillis;
+
+            assertTrue("requests should be spread over intervals, took " + elapsedMillis + "ms"
+                    , elapsedMillis >= (THREADS_PER_KEY / MAX_REQUESTS - 1) * INTERVAL_MILLIS / 2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void acquiresUpToMaxInFlight() throws Exception {
+        final int MAX_REQUESTS = BucketUtils.MAX_DROP_COUNT;
+        try (final Permit first = meter.tryAcquire(BucketUtils.BUCKET_NAME, MAX_REQUESTS, 1)) {
+            assertNotNull("request should be admitted", first);
+            assertNull("concurrent request should be rejected", meter.tryAcquire(BucketUtils.BUCKET_NAME, MAX_REQUESTS, 1));
+        }
+
+        try (final Permit second = meter.tryAcquire(BucketUtils.BUCKET_NAME, MAX_REQUESTS, 1)) {
+            assertNotNull("request should be admitted after release", second);
+            assertEquals("invalid in flight count", 1, second.getBucket().getInFlightCount());
+        }
+    }
+
+    @Test
+    public void acquiresUpToMaxNumberOfRequests() throws Exception {
+        final int MAX_REQUESTS = 2;
+        for (int i = 0; i < MAX_REQUESTS; i++) {
+            meter.tryAcquire(BucketUtils.BUCKET_NAME, MAX_REQUESTS, 1).close();
+        }
+
+        final Permit throttled = meter.tryAcquire(BucketUtils.BUCKET_NAME, MAX_REQUESTS, 1);
+
+        assertNull("request over the rate should be rejected", throttled);
+        assertEquals("rejected request must not stay in flight"
+                , 0, meter.getBucket(BucketUtils.BUCKET_NAME, MAX_REQUESTS).getInFlightCount());
+    }
+
     /**
      * Emulates timer invokable N times when put into CyclicBarrier
      */
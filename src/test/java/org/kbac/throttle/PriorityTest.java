@@ -0,0 +1,40 @@
+package org.kbac.throttle;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class PriorityTest {
+
+    @Test
+    public void criticalUsesWholeBucket() {
+        assertEquals("critical should use whole bucket", Long.MAX_VALUE, Priority.CRITICAL.capacityOf(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void lowerPrioritiesGetSmallerShares() {
+        final long maxDropCount = 1000;
+        final Priority[] priorities = Priority.values();
+        for (int i = 1; i < priorities.length; i++) {
+            assertTrue(priorities[i - 1] + " should get smaller share than " + priorities[i]
+                    , priorities[i - 1].capacityOf(maxDropCount) < priorities[i].capacityOf(maxDropCount));
+        }
+    }
+
+    @Test
+    public void neverBelowOneDrop() {
+        assertEquals("each priority should fit at least one drop", 1, Priority.LOW.capacityOf(1));
+    }
+
+    @Test
+    public void sharesLargeLimitsWithoutOverflow() {
+        assertEquals("low should get half of the largest limit", Long.MAX_VALUE / 2, Priority.LOW.capacityOf(Long.MAX_VALUE));
+        assertEquals("share should be exact for small limits", 95, Priority.HIGH.capacityOf(100));
+    }
+}
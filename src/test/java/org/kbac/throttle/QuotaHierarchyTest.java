@@ -0,0 +1,102 @@
+package org.kbac.throttle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class QuotaHierarchyTest {
+
+    private static final String ROOT = "global";
+
+    Meter meter;
+
+    QuotaHierarchy quotas;
+
+    @Before
+    public void setUp() throws Exception {
+        this.meter = new Meter(new LoggingThrottleStrategy(), 60000, new ConcurrentHashMap<>());
+        this.quotas = new QuotaHierarchy(meter, ROOT, 5, 3, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.meter.close();
+    }
+
+    private long dropsOf(final String name) {
+        return meter.getBucket(name, 1).getDropCount();
+    }
+
+    @Test
+    public void throttlesOnLeafLimit() {
+        assertFalse("request should NOT be throttled", quotas.shouldThrottle("acme", "joe"));
+        assertFalse("request should NOT be throttled", quotas.shouldThrottle("acme", "joe"));
+
+        assertTrue("user over limit should be throttled", quotas.shouldThrottle("acme", "joe"));
+        assertEquals("rejected request should not count for tenant", 2, dropsOf("global/acme"));
+        assertEquals("rejected request should not count globally", 2, dropsOf(ROOT));
+    }
+
+    @Test
+    public void throttlesOnAncestorLimitAndRollsBack() {
+        quotas.shouldThrottle("acme", "joe");
+        quotas.shouldThrottle("acme", "joe");
+        assertFalse("request should NOT be throttled", quotas.shouldThrottle("acme", "ann"));
+
+        assertTrue("tenant over limit should be throttled", quotas.shouldThrottle("acme", "ann"));
+        assertEquals("rejected request should be taken back from the user", 1, dropsOf("global/acme/ann"));
+        assertEquals("tenant should stay at its limit", 3, dropsOf("global/acme"));
+    }
+
+    @Test
+    public void sharesAncestorBuckets() {
+        for (int i = 0; i < 5; i++) {
+            assertFalse("request should NOT be throttled #" + i, quotas.shouldThrottle("tenant" + i, "user"));
+        }
+
+        assertTrue("global over limit should be throttled", quotas.shouldThrottle("other", "user"));
+        assertEquals("rejected request should be taken back from the tenant", 0, dropsOf("global/other"));
+        assertEquals("rejected request should be taken back from the user", 0, dropsOf("global/other/user"));
+    }
+
+    @Test
+    public void escapesSeparatorsWithinKeys() {
+        assertFalse("request should NOT be throttled", quotas.shouldThrottle("acme/joe", "ann"));
+        assertFalse("request should NOT be throttled", quotas.shouldThrottle("acme\\", "joe"));
+
+        assertEquals("tenant key should not collide with user path", 0, dropsOf("global/acme/joe"));
+        assertEquals("tenant key should be escaped", 1, dropsOf("global/acme\\/joe"));
+        assertEquals("escape char should be escaped", 1, dropsOf("global/acme\\\\/joe"));
+    }
+
+    @Test
+    public void rollsBackWhenStrategyThrows() throws Exception {
+        try (final Meter throwing = new Meter(new ThrowingThrottleStrategy(), 60000, new ConcurrentHashMap<>())) {
+            final QuotaHierarchy throwingQuotas = new QuotaHierarchy(throwing, ROOT, 1, 5);
+            throwingQuotas.shouldThrottle("joe");
+            try {
+                throwingQuotas.shouldThrottle("ann");
+                fail("global over limit should throw");
+            } catch (TooManyRequestsException e) {
+                assertEquals("rejected request should be taken back", 0, throwing.getBucket("global/ann", 5).getDropCount());
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingKeys() {
+        quotas.shouldThrottle("acme");
+    }
+}
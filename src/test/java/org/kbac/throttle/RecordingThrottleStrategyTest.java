@@ -0,0 +1,98 @@
+package org.kbac.throttle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.kbac.throttle.BucketUtils.BUCKET_NAME;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class RecordingThrottleStrategyTest {
+
+    File directory;
+
+    TrafficRecorder recorder;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("traffic").toFile();
+        this.recorder = new TrafficRecorder(directory, 1, TrafficRecorder.CHUNK_SIZE);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.recorder.close();
+        for (final File file : this.directory.listFiles()) {
+            assertTrue("cannot delete " + file, file.delete());
+        }
+        assertTrue("cannot delete " + this.directory, this.directory.delete());
+    }
+
+    private int[] readDecisions() throws Exception {
+        recorder.close();
+        final int[] decisions = new int[2];
+        try (final TrafficLogReader reader = new TrafficLogReader(directory)) {
+            final TrafficLogReader.Record record = new TrafficLogReader.Record();
+            while (reader.next(record)) {
+                assertEquals("unexpected key", BUCKET_NAME, reader.getKey(record.getKeyId()));
+                decisions[record.isThrottled() ? 1 : 0]++;
+            }
+        }
+        return decisions;
+    }
+
+    @Test
+    public void recordsDecisionsOfMeter() throws Exception {
+        try (final Meter meter = new Meter(new RecordingThrottleStrategy(new LoggingThrottleStrategy(), recorder)
+                , Meter.THROTTLE_INTERVAL_MILLIS, new ConcurrentHashMap<>())) {
+            assertFalse("request should NOT be throttled", meter.shouldThrottle(BUCKET_NAME, 1));
+            assertTrue("request should be throttled", meter.shouldThrottle(BUCKET_NAME, 1));
+        }
+
+        final int[] decisions = readDecisions();
+        assertEquals("unexpected number of admitted requests", 1, decisions[0]);
+        assertEquals("unexpected number of throttled requests", 1, decisions[1]);
+    }
+
+    @Test
+    public void recordsThrownRejections() throws Exception {
+        try (final Meter meter = new Meter(new RecordingThrottleStrategy(new ThrowingThrottleStrategy(), recorder)
+                , Meter.THROTTLE_INTERVAL_MILLIS, new ConcurrentHashMap<>())) {
+            meter.shouldThrottle(BUCKET_NAME, 1);
+            try {
+                meter.shouldThrottle(BUCKET_NAME, 1);
+                fail("request should be rejected");
+            } catch (TooManyRequestsException e) {
+                // expected
+            }
+        }
+
+        assertEquals("rejection should be recorded", 1, readDecisions()[1]);
+    }
+
+    @Test
+    public void recordsSaturationOnce() throws Exception {
+        try (final Meter meter = new Meter(new RecordingThrottleStrategy(new LoggingThrottleStrategy(), recorder)
+                , Meter.THROTTLE_INTERVAL_MILLIS, new ConcurrentHashMap<>())) {
+            final Permit permit = meter.tryAcquire(BUCKET_NAME, 10, 1);
+            meter.tryAcquire(BUCKET_NAME, 10, 1);
+            permit.close();
+        }
+
+        final int[] decisions = readDecisions();
+        assertEquals("admitted request should be recorded once", 1, decisions[0]);
+        assertEquals("saturated request should be recorded", 1, decisions[1]);
+    }
+}
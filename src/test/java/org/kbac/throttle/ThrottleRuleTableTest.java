@@ -0,0 +1,72 @@
+package org.kbac.throttle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class ThrottleRuleTableTest {
+
+    File file;
+
+    ThrottleRuleTable table;
+
+    private void writeRules(final String rules, final long lastModified) throws IOException {
+        Files.write(this.file.toPath(), rules.getBytes(StandardCharsets.ISO_8859_1));
+        this.file.setLastModified(lastModified);
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        this.file = Files.createTempFile("rules", ".properties").toFile();
+        writeRules("api.*=100\n", 10000);
+        this.table = new ThrottleRuleTable(this.file);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.table.cancel();
+        this.file.delete();
+    }
+
+    @Test
+    public void loadsRules() {
+        assertEquals("unexpected limit", 100, table.resolveLimit("api.login"));
+    }
+
+    @Test
+    public void reloadsModifiedRulesAndNotifies() throws Exception {
+        final AtomicInteger notifications = new AtomicInteger();
+        table.addReloadListener(resolver -> notifications.incrementAndGet());
+
+        table.run();
+        assertEquals("unmodified file should not be reloaded", 0, notifications.get());
+
+        writeRules("api.*=50\n", 20000);
+        table.run();
+
+        assertEquals("modified file should be reloaded", 1, notifications.get());
+        assertEquals("unexpected limit after reload", 50, table.resolveLimit("api.login"));
+    }
+
+    @Test
+    public void keepsRulesOnInvalidFile() throws Exception {
+        writeRules("api.*=lots\n", 20000);
+
+        table.run();
+
+        assertEquals("previous rules should be kept", 100, table.resolveLimit("api.login"));
+    }
+}
@@ -0,0 +1,85 @@
+package org.kbac.throttle;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class ThrottleRulesTest {
+
+    ThrottleRules rules;
+
+    @Before
+    public void setUp() throws Exception {
+        final Map<String, Long> definitions = new HashMap<>();
+        definitions.put("api.login", 10L);
+        definitions.put("api.*", 100L);
+        definitions.put("api.admin.*", 5L);
+        definitions.put("*.read", 1000L);
+        definitions.put("batch.*.job", 2L);
+        this.rules = new ThrottleRules(definitions);
+    }
+
+    @Test
+    public void resolvesExactName() {
+        assertEquals("exact name should win", 10, rules.resolveLimit("api.login"));
+    }
+
+    @Test
+    public void resolvesLongestPrefix() {
+        assertEquals("prefix limit expected", 100, rules.resolveLimit("api.logout"));
+        assertEquals("longer prefix should win", 5, rules.resolveLimit("api.admin.users"));
+    }
+
+    @Test
+    public void resolvesWildcards() {
+        assertEquals("suffix wildcard limit expected", 1000, rules.resolveLimit("orders.read"));
+        assertEquals("inner wildcard limit expected", 2, rules.resolveLimit("batch.nightly.job"));
+        assertEquals("inner wildcard should match empty sequence", 2, rules.resolveLimit("batch..job"));
+    }
+
+    @Test
+    public void resolvesNoLimitWhenNothingMatches() {
+        assertEquals("no limit expected", LimitResolver.NO_LIMIT, rules.resolveLimit("orders.write"));
+        assertEquals("no limit expected", LimitResolver.NO_LIMIT, rules.resolveLimit("batch.nightly.jobs"));
+        assertEquals("no limit expected", LimitResolver.NO_LIMIT, ThrottleRules.EMPTY.resolveLimit("api.login"));
+    }
+
+    @Test
+    public void compilesProperties() {
+        final Properties properties = new Properties();
+        properties.setProperty("*", "7");
+        properties.setProperty("api.*", " 8 ");
+
+        final ThrottleRules compiled = ThrottleRules.of(properties);
+
+        assertEquals("catch all limit expected", 7, compiled.resolveLimit("anything"));
+        assertEquals("prefix limit expected", 8, compiled.resolveLimit("api.login"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidLimit() {
+        final Properties properties = new Properties();
+        properties.setProperty("api.*", "many");
+
+        ThrottleRules.of(properties);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsDuplicatePattern() {
+        final Map<String, Long> definitions = new HashMap<>();
+        definitions.put("api.*", 1L);
+        definitions.put("api.**", 2L);
+
+        new ThrottleRules(definitions);
+    }
+}
@@ -0,0 +1,216 @@
+package org.kbac.throttle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class ThrottlingProcessorTest {
+
+    private static final int MAX_ITEMS = 10;
+
+    private static final long INTERVAL_MILLIS = 50;
+
+    Meter meter;
+
+    ScheduledExecutorService scheduler;
+
+    ThrottlingProcessor<Long> processor;
+
+    RangePublisher publisher;
+
+    CollectingSubscriber subscriber;
+
+    @Before
+    public void setUp() throws Exception {
+        this.meter = new Meter(new LoggingThrottleStrategy(), INTERVAL_MILLIS, new ConcurrentHashMap<>());
+        this.scheduler = Executors.newSingleThreadScheduledExecutor();
+        this.processor = new ThrottlingProcessor<>(meter, BucketUtils.BUCKET_NAME, MAX_ITEMS, scheduler);
+        this.publisher = new RangePublisher(100);
+        this.subscriber = new CollectingSubscriber();
+
+        publisher.subscribe(processor);
+        processor.subscribe(subscriber);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.scheduler.shutdownNow();
+        this.meter.close();
+    }
+
+    @Test
+    public void requestsOnlyWhatBucketAdmits() {
+        subscriber.subscription.request(Long.MAX_VALUE);
+
+        assertEquals("only items admitted by the bucket should be delivered", MAX_ITEMS, subscriber.items.size());
+        assertEquals("only admitted items should be requested", MAX_ITEMS, publisher.requested.get());
+        assertTrue("bucket should be full", meter.getBucket(BucketUtils.BUCKET_NAME, MAX_ITEMS).isFull());
+    }
+
+    @Test
+    public void honoursSubscriberDemand() {
+        subscriber.subscription.request(3);
+
+        assertEquals("unexpected number of items", 3, subscriber.items.size());
+        assertEquals("unexpected pending count", 0, processor.getPendingCount());
+    }
+
+    @Test
+    public void resumesOnceBucketDrained() throws Exception {
+        subscriber.subscription.request(MAX_ITEMS * 2);
+        assertEquals("unexpected pending count", MAX_ITEMS, processor.getPendingCount());
+
+        Thread.sleep(INTERVAL_MILLIS);
+        meter.getBucket(BucketUtils.BUCKET_NAME, MAX_ITEMS).drain();
+
+        final long deadline = System.currentTimeMillis() + INTERVAL_MILLIS * 20;
+        while (subscriber.items.size() < MAX_ITEMS * 2 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals("remaining demand should be delivered after drain", MAX_ITEMS * 2, subscriber.items.size());
+        assertEquals("items should keep their order", Long.valueOf(MAX_ITEMS * 2 - 1), subscriber.items.get(MAX_ITEMS * 2 - 1));
+    }
+
+    @Test
+    public void reservesThroughThrottleStrategy() throws Exception {
+        final AtomicLong denied = new AtomicLong();
+        final ThrottleStrategy strategy = new LoggingThrottleStrategy() {
+            @Override
+            protected void handleShortReservation(final LeakyBucket bucket, final long requested, final long granted) {
+                denied.addAndGet(requested - granted);
+            }
+        };
+        try (final Meter strategyMeter = new Meter(strategy, INTERVAL_MILLIS, new ConcurrentHashMap<>())) {
+            final ThrottlingProcessor<Long> throttled = new ThrottlingProcessor<>(strategyMeter, BucketUtils.BUCKET_NAME
+                    , MAX_ITEMS, scheduler);
+            final CollectingSubscriber collecting = new CollectingSubscriber();
+            new RangePublisher(100).subscribe(throttled);
+            throttled.subscribe(collecting);
+
+            collecting.subscription.request(MAX_ITEMS * 2);
+
+            assertEquals("strategy should see the demand not granted", MAX_ITEMS, denied.get());
+            collecting.subscription.cancel();
+        }
+    }
+
+    @Test
+    public void stopsRequestingOnCancel() throws Exception {
+        subscriber.subscription.request(Long.MAX_VALUE);
+        subscriber.subscription.cancel();
+        meter.getBucket(BucketUtils.BUCKET_NAME, MAX_ITEMS).drain();
+
+        Thread.sleep(INTERVAL_MILLIS * 3);
+
+        assertTrue("publisher should be cancelled", publisher.cancelled.get());
+        assertEquals("no items should be requested after cancel", MAX_ITEMS, publisher.requested.get());
+    }
+
+    @Test
+    public void rejectsSecondSubscriber() {
+        final CollectingSubscriber second = new CollectingSubscriber();
+
+        processor.subscribe(second);
+
+        assertTrue("second subscriber should get an error", second.error instanceof IllegalStateException);
+    }
+
+    @Test
+    public void completesSubscriber() {
+        subscriber.subscription.request(MAX_ITEMS);
+        meter.getBucket(BucketUtils.BUCKET_NAME, MAX_ITEMS).drain();
+        publisher.complete();
+
+        assertTrue("subscriber should complete", subscriber.completed);
+    }
+
+    /**
+     * Synchronous publisher emitting consecutive numbers on demand
+     */
+    static class RangePublisher implements Flow.Publisher<Long> {
+
+        final long count;
+
+        final AtomicLong requested = new AtomicLong();
+
+        final AtomicBoolean cancelled = new AtomicBoolean();
+
+        Flow.Subscriber<? super Long> subscriber;
+
+        long next;
+
+        RangePublisher(final long count) {
+            this.count = count;
+        }
+
+        @Override
+        public void subscribe(final Flow.Subscriber<? super Long> subscriber) {
+            this.subscriber = subscriber;
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(final long n) {
+                    requested.addAndGet(n);
+                    for (long i = 0; i < n && next < count && !cancelled.get(); i++) {
+                        subscriber.onNext(next++);
+                    }
+                }
+
+                @Override
+                public void cancel() {
+                    cancelled.set(true);
+                }
+            });
+        }
+
+        void complete() {
+            subscriber.onComplete();
+        }
+    }
+
+    static class CollectingSubscriber implements Flow.Subscriber<Long> {
+
+        final List<Long> items = new CopyOnWriteArrayList<>();
+
+        Flow.Subscription subscription;
+
+        volatile Throwable error;
+
+        volatile boolean completed;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+        }
+
+        @Override
+        public void onNext(final Long item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            this.error = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            this.completed = true;
+        }
+    }
+}
@@ -33,4 +33,12 @@ public class ThrowingThrottleStrategyTest {
 
         fail("expected to throw exception on full bucket");
     }
+    @Test(expected = TooManyRequestsException.class)
+    public void throwOnSaturatedBucket() throws Exception {
+        strategy.enterAndCheckIfSaturated(bucket, 1);
+        strategy.enterAndCheckIfSaturated(bucket, 1);
+
+        fail("expected to throw exception on saturated bucket");
+    }
+
 }
\ No newline at end of file
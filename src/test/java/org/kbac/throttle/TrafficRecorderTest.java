@@ -0,0 +1,219 @@
+package org.kbac.throttle;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kbac.throttle.sim.RecordedTrace;
+import org.kbac.throttle.sim.TraceEvent;
+import org.kbac.throttle.sim.VirtualTimeSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class TrafficRecorderTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrafficRecorderTest.class);
+
+    private static final int SEGMENT_COUNT = 2;
+
+    private static final int SEGMENT_SIZE = 4 * TrafficRecorder.CHUNK_SIZE;
+
+    File directory;
+
+    VirtualTimeSource time;
+
+    TrafficRecorder recorder;
+
+    @Before
+    public void setUp() throws Exception {
+        this.directory = Files.createTempDirectory("traffic").toFile();
+        this.time = new VirtualTimeSource();
+        this.recorder = new TrafficRecorder(directory, SEGMENT_COUNT, SEGMENT_SIZE, time);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.recorder.close();
+        for (final File file : this.directory.listFiles()) {
+            assertTrue("cannot delete " + file, file.delete());
+        }
+        assertTrue("cannot delete " + this.directory, this.directory.delete());
+    }
+
+    @Test
+    public void readsBackRecordedDecisions() throws Exception {
+        recorder.record("a", false);
+        time.advance(5, TimeUnit.MILLISECONDS);
+        recorder.record("b", true);
+        recorder.close();
+
+        try (final TrafficLogReader reader = new TrafficLogReader(directory)) {
+            final TrafficLogReader.Record record = new TrafficLogReader.Record();
+            assertEquals("unexpected number of records", 2, reader.getRecordCount());
+
+            assertTrue("first record expected", reader.next(record));
+            assertEquals("unexpected key", "a", reader.getKey(record.getKeyId()));
+            assertFalse("first request should be admitted", record.isThrottled());
+
+            assertTrue("second record expected", reader.next(record));
+            assertEquals("unexpected key", "b", reader.getKey(record.getKeyId()));
+            assertTrue("second request should be throttled", record.isThrottled());
+            assertEquals("unexpected time", time.currentTimeMillis(), record.getTimeMillis());
+
+            assertFalse("log should end", reader.next(record));
+        }
+    }
+
+    @Test
+    public void keepsRecordsInThreadBufferUntilFlushed() throws Exception {
+        recorder.record("a", false);
+        assertEquals("nothing should be written yet", 0, new TrafficLogReader(directory).getRecordCount());
+
+        recorder.flush();
+
+        assertEquals("flushed record should be written", 1, new TrafficLogReader(directory).getRecordCount());
+    }
+
+    @Test
+    public void writesFullChunksWithoutFlush() throws Exception {
+        for (int i = 0; i < TrafficRecorder.RECORDS_PER_CHUNK; i++) {
+            recorder.record("a", false);
+        }
+
+        assertEquals("full chunk should be written", TrafficRecorder.RECORDS_PER_CHUNK
+                , new TrafficLogReader(directory).getRecordCount());
+    }
+
+    @Test
+    public void overwritesOldestChunks() throws Exception {
+        final int chunkCount = SEGMENT_COUNT * SEGMENT_SIZE / TrafficRecorder.CHUNK_SIZE;
+        for (int i = 0; i < (chunkCount + 1) * TrafficRecorder.RECORDS_PER_CHUNK; i++) {
+            time.advance(1, TimeUnit.MILLISECONDS);
+            recorder.record("a", false);
+        }
+        recorder.close();
+
+        try (final TrafficLogReader reader = new TrafficLogReader(directory)) {
+            final TrafficLogReader.Record record = new TrafficLogReader.Record();
+            assertEquals("ring should keep its capacity", chunkCount, reader.getChunkCount());
+            assertTrue("first record expected", reader.next(record));
+            assertEquals("oldest chunk should be overwritten"
+                    , TrafficRecorder.RECORDS_PER_CHUNK + 1, record.getTimeMillis() - time.currentTimeMillis()
+                            + (chunkCount + 1) * TrafficRecorder.RECORDS_PER_CHUNK);
+        }
+    }
+
+    @Test
+    public void continuesExistingLog() throws Exception {
+        recorder.record("a", false);
+        recorder.record("b", false);
+        recorder.close();
+
+        this.recorder = new TrafficRecorder(directory, SEGMENT_COUNT, SEGMENT_SIZE, time);
+        assertEquals("keys should be restored", 2, recorder.getKeyCount());
+        recorder.record("b", true);
+        recorder.close();
+
+        try (final TrafficLogReader reader = new TrafficLogReader(directory)) {
+            final TrafficLogReader.Record record = new TrafficLogReader.Record();
+            reader.next(record);
+            reader.next(record);
+            assertTrue("record of reopened log expected", reader.next(record));
+            assertEquals("key id should be stable", "b", reader.getKey(record.getKeyId()));
+            assertEquals("chunks should be appended", 2, reader.getChunkCount());
+        }
+    }
+
+    @Test
+    public void recordsFromManyThreads() throws Exception {
+        final int threadCount = 4;
+        final int recordCount = 300;
+        final ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+        for (int t = 0; t < threadCount; t++) {
+            final String key = "thread-" + t;
+            executor.submit(() -> {
+                for (int i = 0; i < recordCount; i++) {
+                    recorder.record(key, i % 2 == 0);
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue("threads should complete", executor.awaitTermination(10, TimeUnit.SECONDS));
+        recorder.close();
+
+        try (final TrafficLogReader reader = new TrafficLogReader(directory)) {
+            assertEquals("no record should be lost", threadCount * recordCount, reader.getRecordCount());
+            assertEquals("unexpected number of keys", threadCount, reader.getKeys().length);
+        }
+    }
+
+    @Test
+    public void dropsBuffersOfDeadThreads() throws Exception {
+        final Thread thread = new Thread(() -> recorder.record("dead", false));
+        thread.start();
+        thread.join();
+        assertEquals("buffer of dead thread should be kept until new thread records", 1, recorder.getThreadBufferCount());
+
+        recorder.record("a", false);
+
+        assertEquals("buffer of dead thread should be dropped", 1, recorder.getThreadBufferCount());
+        assertEquals("record of dead thread should be written", 1, new TrafficLogReader(directory).getRecordCount());
+
+        recorder.flush();
+        assertEquals("flushed buffer should be dropped", 0, recorder.getThreadBufferCount());
+    }
+
+    @Test
+    public void replaysRecordedTraffic() throws Exception {
+        recorder.record("a", false);
+        time.advance(10, TimeUnit.MILLISECONDS);
+        recorder.record("b", true);
+        recorder.close();
+
+        try (final TrafficLogReader reader = new TrafficLogReader(directory)) {
+            final RecordedTrace trace = RecordedTrace.read(reader);
+            final TraceEvent event = new TraceEvent();
+
+            assertEquals("throttled requests should be replayed too", 2, trace.getEventCount());
+            trace.next(event);
+            trace.next(event);
+            assertEquals("unexpected time", TimeUnit.MILLISECONDS.toNanos(10), event.getTimeNanos());
+            assertEquals("unexpected key", "b", trace.getKey(event.getKeyIndex()));
+        }
+    }
+
+    @Test
+    public void recordsCheaply() throws Exception {
+        final TrafficRecorder fast = new TrafficRecorder(directory, 1, 1024 * TrafficRecorder.CHUNK_SIZE);
+        final int count = 1000000;
+        try {
+            for (int i = 0; i < count; i++) {
+                fast.record(BucketUtils.BUCKET_NAME, false);
+            }
+            final long start = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                fast.record(BucketUtils.BUCKET_NAME, false);
+            }
+            final long nanosPerRecord = (System.nanoTime() - start) / count;
+
+            LOGGER.info("{} took {}ns per record", fast, nanosPerRecord);
+            assertTrue("record should be cheap: " + nanosPerRecord + "ns", nanosPerRecord < 10000);
+        } finally {
+            fast.close();
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package org.kbac.throttle.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kbac.throttle.LoggingThrottleStrategy;
+import org.kbac.throttle.Meter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Load test of the throttle filter running in the embedded HTTP server
+ *
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class HttpServerThrottleFilterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpServerThrottleFilterTest.class);
+
+    private static final int LIMIT = 100;
+
+    private static final int CLIENTS = 8;
+
+    private static final int REQUESTS_PER_CLIENT = 50;
+
+    Meter meter;
+
+    HttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+        this.meter = new Meter(new LoggingThrottleStrategy(), 60000, new ConcurrentHashMap<>());
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.server.setExecutor(Executors.newFixedThreadPool(CLIENTS));
+        this.server.createContext("/api", exchange -> {
+            final byte[] body = "ok".getBytes("UTF-8");
+            exchange.sendResponseHeaders(200, body.length);
+            try (final OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }).getFilters().add(new HttpServerThrottleFilter(meter, "param:user,path", LIMIT));
+        this.server.createContext("/header", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }).getFilters().add(new HttpServerThrottleFilter(meter, "header:X-User", LIMIT));
+        this.server.createContext("/param", exchange -> {
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        }).getFilters().add(new HttpServerThrottleFilter(meter, "param:user", LIMIT));
+        this.server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.server.stop(0);
+        ((ExecutorService) this.server.getExecutor()).shutdown();
+        this.meter.close();
+    }
+
+    @Test
+    public void admitsUpToLimitUnderLoad() throws Exception {
+        final AtomicInteger admitted = new AtomicInteger();
+        final AtomicInteger rejected = new AtomicInteger();
+        final ExecutorService clients = Executors.newFixedThreadPool(CLIENTS);
+        final long start = System.nanoTime();
+        try {
+            final List<Future<?>> results = new ArrayList<>();
+            for (int c = 0; c < CLIENTS; c++) {
+                results.add(clients.submit(() -> {
+                    for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                        final HttpURLConnection connection = get("/api?user=joe");
+                        if (connection.getResponseCode() == 200) {
+                            admitted.incrementAndGet();
+                        } else {
+                            assertEquals("unexpected status", HttpThrottle.SC_TOO_MANY_REQUESTS, connection.getResponseCode());
+                            final long retryAfter = Long.parseLong(connection.getHeaderField(HttpThrottle.RETRY_AFTER_HEADER));
+                            assertTrue("retry after should cover the remaining window: " + retryAfter, retryAfter > 0 && retryAfter <= 60);
+                            rejected.incrementAndGet();
+                        }
+                        connection.disconnect();
+                    }
+                    return null;
+                }));
+            }
+            for (final Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            clients.shutdown();
+        }
+
+        LOGGER.info("{} requests in {}ms", CLIENTS * REQUESTS_PER_CLIENT, (System.nanoTime() - start) / 1000000);
+        assertEquals("exactly the limit should be admitted", LIMIT, admitted.get());
+        assertEquals("all requests over the limit should be rejected", CLIENTS * REQUESTS_PER_CLIENT - LIMIT, rejected.get());
+    }
+
+    @Test
+    public void throttlesKeysIndependently() throws Exception {
+        for (int i = 0; i < LIMIT; i++) {
+            final HttpURLConnection connection = get("/api?user=joe");
+            assertEquals("request should be admitted #" + i, 200, connection.getResponseCode());
+            assertEquals("unexpected remaining requests #" + i, Integer.toString(LIMIT - i - 1)
+                    , connection.getHeaderField(HttpThrottle.REMAINING_HEADER));
+        }
+
+        assertEquals("request over limit should be rejected", HttpThrottle.SC_TOO_MANY_REQUESTS, get("/api?user=joe").getResponseCode());
+        assertEquals("other key should be admitted", 200, get("/api?user=ann").getResponseCode());
+    }
+
+    @Test
+    public void throttlesBlankValuesAsMissing() throws Exception {
+        final HttpURLConnection blankHeader = get("/header");
+        blankHeader.setRequestProperty("X-User", " ");
+        assertEquals("blank header should be throttled as missing", 204, blankHeader.getResponseCode());
+        assertEquals("empty parameter should be throttled as missing", 204, get("/param?user=").getResponseCode());
+        assertEquals("parameter without value should be throttled as missing", 204, get("/param?user").getResponseCode());
+
+        assertEquals("missing values should share the bucket", Integer.toString(LIMIT - 4)
+                , get("/param").getHeaderField(HttpThrottle.REMAINING_HEADER));
+    }
+
+    private HttpURLConnection get(final String path) throws IOException {
+        final URL url = new URL("http", "127.0.0.1", server.getAddress().getPort(), path);
+        return (HttpURLConnection) url.openConnection();
+    }
+}
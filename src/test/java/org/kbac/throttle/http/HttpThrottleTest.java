@@ -0,0 +1,158 @@
+package org.kbac.throttle.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.kbac.throttle.LoggingThrottleStrategy;
+import org.kbac.throttle.Meter;
+import org.kbac.throttle.ThrottleResult;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class HttpThrottleTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(HttpThrottleTest.class);
+
+    Meter meter;
+
+    @Before
+    public void setUp() throws Exception {
+        this.meter = new Meter(new LoggingThrottleStrategy(), 60000, new ConcurrentHashMap<>());
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.meter.close();
+    }
+
+    @Test
+    public void joinsKeySources() {
+        final HttpThrottle<Map<String, String>> throttle = new HttpThrottle<>(meter
+                , "header:X-Api-Key, param:user, attribute:tenant, remoteAddr, path, method", 10, MapAccessor.INSTANCE);
+
+        assertEquals("unexpected key", "key|joe|acme|127.0.0.1|/api|GET", throttle.keyOf(request()));
+    }
+
+    @Test
+    public void treatsMissingValuesAsEmpty() {
+        final HttpThrottle<Map<String, String>> single = new HttpThrottle<>(meter, "header:X-Missing", 10, MapAccessor.INSTANCE);
+        final HttpThrottle<Map<String, String>> joined = new HttpThrottle<>(meter, "header:X-Missing,path", 10, MapAccessor.INSTANCE);
+
+        assertEquals("unexpected key", HttpThrottle.MISSING_VALUE, single.keyOf(request()));
+        assertEquals("unexpected key", "-|/api", joined.keyOf(request()));
+        assertFalse("missing key should be throttled as any other", single.check(request()).isThrottled());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnknownKeySource() {
+        new HttpThrottle<>(meter, "cookie:session", 10, MapAccessor.INSTANCE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsUnnamedKeySource() {
+        new HttpThrottle<>(meter, "header:", 10, MapAccessor.INSTANCE);
+    }
+
+    @Test
+    public void returnsRetryAfterRemainingWindow() {
+        final HttpThrottle<Map<String, String>> throttle = new HttpThrottle<>(meter, HttpThrottle.KEYS_DEFAULT, 1, MapAccessor.INSTANCE);
+
+        assertFalse("first request should continue", throttle.check(request()).isThrottled());
+        final ThrottleResult result = throttle.check(request());
+        final long retryAfter = HttpThrottle.toRetryAfterSeconds(result);
+
+        assertTrue("second request should be throttled", result.isThrottled());
+        assertEquals("nothing should remain", 0, result.getRemaining());
+        assertTrue("retry after should cover the remaining window: " + retryAfter, retryAfter > 55 && retryAfter <= 60);
+    }
+
+    @Test
+    public void reusesResultPerThread() {
+        final HttpThrottle<Map<String, String>> throttle = new HttpThrottle<>(meter, HttpThrottle.KEYS_DEFAULT, 10, MapAccessor.INSTANCE);
+
+        assertSame("result should be reused", throttle.check(request()), throttle.check(request()));
+    }
+
+    @Test
+    public void checksRequestsCheaply() {
+        final HttpThrottle<Map<String, String>> throttle = new HttpThrottle<>(meter, "header:X-Api-Key,path"
+                , Long.MAX_VALUE, MapAccessor.INSTANCE);
+        final Map<String, String> request = request();
+        final int count = 1000000;
+
+        for (int i = 0; i < count; i++) {
+            throttle.check(request);
+        }
+        final long start = System.nanoTime();
+        for (int i = 0; i < count; i++) {
+            throttle.check(request);
+        }
+        final long nanosPerCheck = (System.nanoTime() - start) / count;
+
+        LOGGER.info("{} took {}ns per request", throttle, nanosPerCheck);
+        assertTrue("check should be cheap: " + nanosPerCheck + "ns", nanosPerCheck < 10000);
+    }
+
+    private static Map<String, String> request() {
+        final Map<String, String> request = new HashMap<>();
+        request.put("header:X-Api-Key", "key");
+        request.put("param:user", "joe");
+        request.put("attribute:tenant", "acme");
+        request.put("remoteAddr", "127.0.0.1");
+        request.put("path", "/api");
+        request.put("method", "GET");
+        return request;
+    }
+
+    /**
+     * Accessor of requests stubbed as maps of source definitions to values
+     */
+    enum MapAccessor implements RequestAccessor<Map<String, String>> {
+
+        INSTANCE;
+
+        @Override
+        public String getHeader(final Map<String, String> request, final String name) {
+            return request.get("header:" + name);
+        }
+
+        @Override
+        public String getParameter(final Map<String, String> request, final String name) {
+            return request.get("param:" + name);
+        }
+
+        @Override
+        public Object getAttribute(final Map<String, String> request, final String name) {
+            return request.get("attribute:" + name);
+        }
+
+        @Override
+        public String getRemoteAddr(final Map<String, String> request) {
+            return request.get("remoteAddr");
+        }
+
+        @Override
+        public String getPath(final Map<String, String> request) {
+            return request.get("path");
+        }
+
+        @Override
+        public String getMethod(final Map<String, String> request) {
+            return request.get("method");
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.kbac.throttle.http;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.servlet.FilterChain;
+import javax.servlet.FilterConfig;
+import javax.servlet.ServletContext;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.kbac.throttle.LoggingThrottleStrategy;
+import org.kbac.throttle.Meter;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class ServletThrottleFilterTest {
+
+    private static final String API_KEY_HEADER = "X-Api-Key";
+
+    ServletThrottleFilter filter;
+
+    FilterConfig config;
+
+    FilterChain chain;
+
+    HttpServletRequest request;
+
+    HttpServletResponse response;
+
+    @Before
+    public void setUp() throws Exception {
+        this.filter = new ServletThrottleFilter();
+        this.config = mock(FilterConfig.class);
+        this.chain = mock(FilterChain.class);
+        this.request = mock(HttpServletRequest.class);
+        this.response = mock(HttpServletResponse.class);
+
+        when(config.getFilterName()).thenReturn("throttle");
+        when(config.getInitParameter(ServletThrottleFilter.LIMIT_PARAM)).thenReturn("2");
+        when(config.getInitParameter(ServletThrottleFilter.KEYS_PARAM)).thenReturn("header:" + API_KEY_HEADER);
+        when(request.getHeader(API_KEY_HEADER)).thenReturn("key");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        this.filter.destroy();
+    }
+
+    @Test
+    public void rejectsRequestsOverLimit() throws Exception {
+        filter.init(config);
+
+        for (int i = 0; i < 3; i++) {
+            filter.doFilter(request, response, chain);
+        }
+
+        verify(chain, times(2)).doFilter(request, response);
+        verify(response).setStatus(HttpThrottle.SC_TOO_MANY_REQUESTS);
+        verify(response).setHeader(eq(HttpThrottle.RETRY_AFTER_HEADER), anyString());
+    }
+
+    @Test
+    public void reportsRemainingRequests() throws Exception {
+        filter.init(config);
+
+        filter.doFilter(request, response, chain);
+        filter.doFilter(request, response, chain);
+
+        verify(response, times(2)).setHeader(HttpThrottle.LIMIT_HEADER, "2");
+        verify(response).setHeader(HttpThrottle.REMAINING_HEADER, "1");
+        verify(response).setHeader(HttpThrottle.REMAINING_HEADER, "0");
+        verify(response, times(2)).setHeader(eq(HttpThrottle.RESET_HEADER), anyString());
+    }
+
+    @Test
+    public void throttlesKeysIndependently() throws Exception {
+        final HttpServletRequest other = mock(HttpServletRequest.class);
+        when(other.getHeader(API_KEY_HEADER)).thenReturn("other");
+        filter.init(config);
+
+        filter.doFilter(request, response, chain);
+        filter.doFilter(request, response, chain);
+        filter.doFilter(other, response, chain);
+
+        verify(chain).doFilter(other, response);
+        verify(response, never()).setStatus(HttpThrottle.SC_TOO_MANY_REQUESTS);
+    }
+
+    @Test
+    public void usesMeterFromServletContext() throws Exception {
+        final ServletContext context = mock(ServletContext.class);
+        final Meter meter = new Meter(new LoggingThrottleStrategy(), 60000, new ConcurrentHashMap<>());
+        when(config.getServletContext()).thenReturn(context);
+        when(config.getInitParameter(ServletThrottleFilter.METER_ATTRIBUTE_PARAM)).thenReturn("meter");
+        when(context.getAttribute("meter")).thenReturn(meter);
+
+        filter.init(config);
+
+        assertSame("shared meter should be used", meter, filter.getThrottle().getMeter());
+    }
+
+    @Test(expected = ServletException.class)
+    public void requiresLimit() throws Exception {
+        when(config.getInitParameter(ServletThrottleFilter.LIMIT_PARAM)).thenReturn(null);
+
+        filter.init(config);
+    }
+
+    @Test(expected = ServletException.class)
+    public void rejectsInvalidKeys() throws Exception {
+        when(config.getInitParameter(ServletThrottleFilter.KEYS_PARAM)).thenReturn("cookie:session");
+
+        filter.init(config);
+    }
+}
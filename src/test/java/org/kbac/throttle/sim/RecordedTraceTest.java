@@ -0,0 +1,67 @@
+package org.kbac.throttle.sim;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class RecordedTraceTest {
+
+    @Test
+    public void readsEventsRelativeToFirst() throws Exception {
+        final RecordedTrace trace = RecordedTrace.read(new StringReader(
+                "# time,key\n1000,a\n\n1005, b\n1005,a\n"));
+        final TraceEvent event = new TraceEvent();
+
+        assertEquals("unexpected number of events", 3, trace.getEventCount());
+        assertEquals("keys should be interned", 2, trace.getKeyCount());
+
+        assertTrue("first event expected", trace.next(event));
+        assertEquals("first event should start the trace", 0, event.getTimeNanos());
+        assertEquals("unexpected key", "a", trace.getKey(event.getKeyIndex()));
+
+        assertTrue("second event expected", trace.next(event));
+        assertEquals("unexpected time", TimeUnit.MILLISECONDS.toNanos(5), event.getTimeNanos());
+        assertEquals("key should be trimmed", "b", trace.getKey(event.getKeyIndex()));
+
+        assertTrue("third event expected", trace.next(event));
+        assertSame("same key should be interned", trace.getKey(0), trace.getKey(event.getKeyIndex()));
+        assertFalse("trace should end", trace.next(event));
+    }
+
+    @Test
+    public void rewinds() throws Exception {
+        final RecordedTrace trace = RecordedTrace.read(new StringReader("0,a\n"));
+        final TraceEvent event = new TraceEvent();
+        trace.next(event);
+
+        trace.rewind();
+
+        assertTrue("rewound trace should replay", trace.next(event));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsEventsOutOfOrder() throws Exception {
+        RecordedTrace.read(new StringReader("10,a\n5,b\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsInvalidTime() throws Exception {
+        RecordedTrace.read(new StringReader("soon,a\n"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void rejectsMissingKey() throws Exception {
+        RecordedTrace.read(new StringReader("10,\n"));
+    }
+}
@@ -0,0 +1,119 @@
+package org.kbac.throttle.sim;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.kbac.throttle.FairShareTimerTask;
+import org.kbac.throttle.FixedTimeTimerTask;
+import org.kbac.throttle.LeakyBucket;
+import org.kbac.throttle.LoggingThrottleStrategy;
+import org.kbac.throttle.Meter;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class SimulationTest {
+
+    private static final long INTERVAL_MILLIS = 1000;
+
+    private static final long IDLE_MILLIS = 3000;
+
+    private static final int KEY_COUNT = 10;
+
+    ConcurrentMap<String, LeakyBucket> buckets;
+
+    VirtualTimeSource time;
+
+    Meter meter;
+
+    @Before
+    public void setUp() {
+        this.buckets = new ConcurrentHashMap<>();
+        this.time = new VirtualTimeSource();
+        this.meter = new Meter(new LoggingThrottleStrategy(), INTERVAL_MILLIS, buckets, time);
+    }
+
+    private Simulation newSimulation(final long maxNumberOfRequests) {
+        return new Simulation(meter, new FixedTimeTimerTask(buckets, IDLE_MILLIS, time), maxNumberOfRequests);
+    }
+
+    @Test
+    public void admitsUpToLimitOfPoissonTraffic() {
+        final SimulationReport report = newSimulation(5000).run(
+                new PoissonTrace(100000, 1000000, KeyDistribution.uniform(KEY_COUNT), 42));
+
+        assertEquals("unexpected number of events", 1000000, report.getEventCount());
+        assertEquals("half of the demand should be admitted", 0.5, report.getAdmitRatio(), 0.01);
+        assertTrue("admitted traffic should be smooth: " + report.getBurstiness(), report.getBurstiness() < 1.1);
+        assertEquals("every key should have a bucket", KEY_COUNT, report.getPeakBucketCount());
+    }
+
+    @Test
+    public void replaysDeterministically() {
+        final SimulationReport first = newSimulation(5000).run(
+                new BurstyTrace(1000, 50000, 2000, 500, 200000, KeyDistribution.zipf(KEY_COUNT, 1.2), 7));
+        setUp();
+        final SimulationReport second = newSimulation(5000).run(
+                new BurstyTrace(1000, 50000, 2000, 500, 200000, KeyDistribution.zipf(KEY_COUNT, 1.2), 7));
+
+        assertEquals("same trace should admit the same events", first.getAdmittedCount(), second.getAdmittedCount());
+        assertEquals("same trace should take the same virtual time", first.getVirtualNanos(), second.getVirtualNanos());
+    }
+
+    @Test
+    public void rejectsMoreOfSkewedTraffic() {
+        final SimulationReport uniform = newSimulation(1000).run(
+                new PoissonTrace(10000, 100000, KeyDistribution.uniform(KEY_COUNT), 42));
+        setUp();
+        final SimulationReport skewed = newSimulation(1000).run(
+                new PoissonTrace(10000, 100000, KeyDistribution.zipf(KEY_COUNT, 1.5), 42));
+
+        assertTrue("hot keys should be throttled", skewed.getAdmitRatio() < uniform.getAdmitRatio());
+    }
+
+    @Test
+    public void comparesFairShare() {
+        final SimulationReport perKey = newSimulation(1000).run(
+                new PoissonTrace(20000, 200000, KeyDistribution.zipf(KEY_COUNT, 1.5), 42));
+        setUp();
+        final FairShareTimerTask fairShare = new FairShareTimerTask(buckets, KEY_COUNT * 1000, IDLE_MILLIS, time);
+        meter.setLimitResolver(fairShare);
+        final SimulationReport shared = new Simulation(meter, fairShare, 1000).run(
+                new PoissonTrace(20000, 200000, KeyDistribution.zipf(KEY_COUNT, 1.5), 42));
+
+        assertTrue("fair share should use capacity left by quiet keys", shared.getAdmitRatio() > perKey.getAdmitRatio());
+    }
+
+    @Test
+    public void removesIdleBuckets() {
+        final SimulationReport report = newSimulation(1000).run(recorded("0,a\n10,b\n10000,c\n"));
+
+        assertEquals("unexpected number of events", 3, report.getEventCount());
+        assertEquals("idle buckets should be removed", 1, meter.getBucketCount());
+    }
+
+    @Test
+    public void replaysMillionsOfEventsPerSecond() {
+        final SimulationReport report = newSimulation(Long.MAX_VALUE).run(
+                new PoissonTrace(1000000, 2000000, KeyDistribution.zipf(1000, 1.1), 42));
+
+        assertTrue("simulation should be fast: " + report.getEventsPerSecond(), report.getEventsPerSecond() > 100000);
+    }
+
+    private static RecordedTrace recorded(final String lines) {
+        try {
+            return RecordedTrace.read(new StringReader(lines));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.kbac.throttle.sim;
+
+import org.junit.Test;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * @author Krzysztof Bacalski
+ *
+ * @since 2026-10-19
+ */
+public class SyntheticTraceTest {
+
+    private static final int EVENT_COUNT = 100000;
+
+    private static long lastTimeNanos(final Trace trace) {
+        final TraceEvent event = new TraceEvent();
+        long previous = 0;
+        while (trace.next(event)) {
+            assertTrue("events should be in order", event.getTimeNanos() >= previous);
+            previous = event.getTimeNanos();
+        }
+        return previous;
+    }
+
+    @Test
+    public void generatesPoissonArrivalsAtRate() {
+        final PoissonTrace trace = new PoissonTrace(10000, EVENT_COUNT, KeyDistribution.uniform(10), 42);
+
+        assertEquals("trace should last event count / rate", TimeUnit.SECONDS.toNanos(10), lastTimeNanos(trace)
+                , TimeUnit.MILLISECONDS.toNanos(200));
+    }
+
+    @Test
+    public void replaysSameEventsAfterRewind() {
+        final PoissonTrace trace = new PoissonTrace(10000, 10, KeyDistribution.uniform(10), 42);
+        final TraceEvent event = new TraceEvent();
+        final long[] times = new long[10];
+        final int[] keys = new int[10];
+        for (int i = 0; trace.next(event); i++) {
+            times[i] = event.getTimeNanos();
+            keys[i] = event.getKeyIndex();
+        }
+
+        trace.rewind();
+
+        for (int i = 0; trace.next(event); i++) {
+            assertEquals("same time expected #" + i, times[i], event.getTimeNanos());
+            assertEquals("same key expected #" + i, keys[i], event.getKeyIndex());
+        }
+        assertFalse("trace should end", trace.next(event));
+    }
+
+    @Test
+    public void alternatesBurstsWithQuietPeriods() {
+        final BurstyTrace bursty = new BurstyTrace(1000, 100000, 100, 100, EVENT_COUNT, KeyDistribution.uniform(10), 42);
+        final long burstyNanos = lastTimeNanos(bursty);
+
+        assertTrue("bursts should be faster than quiet traffic", burstyNanos < TimeUnit.SECONDS.toNanos(EVENT_COUNT / 1000));
+        assertTrue("quiet periods should be slower than bursts", burstyNanos > TimeUnit.SECONDS.toNanos(EVENT_COUNT / 100000));
+    }
+
+    @Test
+    public void skewsZipfTowardsFirstKeys() {
+        final KeyDistribution zipf = KeyDistribution.zipf(100, 1.2);
+        final Random random = new Random(42);
+        final int[] counts = new int[zipf.getKeyCount()];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            counts[zipf.next(random)]++;
+        }
+
+        assertTrue("first key should be the hottest", counts[0] > counts[1] && counts[1] > counts[10]);
+        assertTrue("first key should take a large share: " + counts[0], counts[0] > EVENT_COUNT / 5);
+    }
+
+    @Test
+    public void spreadsUniformEvenly() {
+        final KeyDistribution uniform = KeyDistribution.uniform(10);
+        final Random random = new Random(42);
+        final int[] counts = new int[uniform.getKeyCount()];
+        for (int i = 0; i < EVENT_COUNT; i++) {
+            counts[uniform.next(random)]++;
+        }
+
+        for (int count : counts) {
+            assertEquals("keys should be equally likely", EVENT_COUNT / 10, count, EVENT_COUNT / 100);
+        }
+    }
+
+    @Test
+    public void namesKeysByIndex() {
+        assertEquals("unexpected key", SyntheticTrace.KEY_PREFIX + 3
+                , new PoissonTrace(1, 1, KeyDistribution.uniform(10), 42).getKey(3));
+    }
+}